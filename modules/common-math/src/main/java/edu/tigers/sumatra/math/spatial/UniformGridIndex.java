@@ -0,0 +1,363 @@
+package edu.tigers.sumatra.math.spatial;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+
+/**
+ * A spatial index of points on a uniform grid, meant to be filled once per frame and queried many times.
+ * <p>
+ * Items are added with their position and get consecutive indices in insertion order. Queries
+ * return items in insertion order, so that replacing a linear scan over a list by a query does not change
+ * the order in which the items are processed. The grid cells are kept in an open addressing hash table
+ * that is reused, so that clearing and refilling the index does not allocate once it is large enough.
+ * <p>
+ * The cell size should be in the order of the typical query radius. This class is not thread-safe.
+ *
+ * @param <T> the item type
+ */
+public class UniformGridIndex<T>
+{
+	private static final int EMPTY = -1;
+
+	private final double cellSize;
+
+	private Object[] items = new Object[16];
+	private double[] xs = new double[16];
+	private double[] ys = new double[16];
+	/** next item in the same cell */
+	private int[] next = new int[16];
+	private int size = 0;
+
+	private long[] cellKeys = new long[32];
+	private int[] cellHeads = new int[32];
+	private boolean dirty = false;
+
+	private int[] candidates = new int[16];
+	private boolean querying = false;
+
+
+	/**
+	 * @param cellSize the edge length of a grid cell
+	 */
+	public UniformGridIndex(final double cellSize)
+	{
+		if (!(cellSize > 0))
+		{
+			throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+		}
+		this.cellSize = cellSize;
+	}
+
+
+	/**
+	 * Remove all items
+	 */
+	public void clear()
+	{
+		Arrays.fill(items, 0, size, null);
+		size = 0;
+		dirty = true;
+	}
+
+
+	/**
+	 * Add an item
+	 *
+	 * @param item the item
+	 * @param pos  the position of the item
+	 * @return the index of the item
+	 */
+	public int add(final T item, final IVector2 pos)
+	{
+		if (size == items.length)
+		{
+			int capacity = size * 2;
+			items = Arrays.copyOf(items, capacity);
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			next = Arrays.copyOf(next, capacity);
+		}
+		items[size] = item;
+		xs[size] = pos.x();
+		ys[size] = pos.y();
+		dirty = true;
+		return size++;
+	}
+
+
+	/**
+	 * @return the number of items
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * @param index the index of an item
+	 * @return the item
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(final int index)
+	{
+		if (index < 0 || index >= size)
+		{
+			throw new IndexOutOfBoundsException(index);
+		}
+		return (T) items[index];
+	}
+
+
+	/**
+	 * Call the consumer for all items within the given distance (inclusive), in insertion order.
+	 * The index must not be modified or queried by the consumer.
+	 *
+	 * @param center   the center of the query
+	 * @param radius   the maximum distance
+	 * @param consumer receives the items
+	 */
+	public void forEachWithin(final IVector2 center, final double radius, final Consumer<T> consumer)
+	{
+		startQuery();
+		try
+		{
+			int n = collectWithin(center.x(), center.y(), radius, -1);
+			for (int i = 0; i < n; i++)
+			{
+				consumer.accept(get(candidates[i]));
+			}
+		} finally
+		{
+			querying = false;
+		}
+	}
+
+
+	/**
+	 * @param center the center of the query
+	 * @param radius the maximum distance
+	 * @return all items within the given distance (inclusive), in insertion order
+	 */
+	public List<T> getWithin(final IVector2 center, final double radius)
+	{
+		List<T> result = new ArrayList<>();
+		forEachWithin(center, radius, result::add);
+		return result;
+	}
+
+
+	/**
+	 * @param center the center of the query
+	 * @param radius the maximum distance
+	 * @return the indices of all items within the given distance (inclusive), in ascending order
+	 */
+	public int[] getIndicesWithin(final IVector2 center, final double radius)
+	{
+		startQuery();
+		try
+		{
+			int n = collectWithin(center.x(), center.y(), radius, -1);
+			return Arrays.copyOf(candidates, n);
+		} finally
+		{
+			querying = false;
+		}
+	}
+
+
+	/**
+	 * Find the nearest item. If multiple items have the same distance, the first one is returned.
+	 *
+	 * @param center      the center of the query
+	 * @param maxDistance the maximum distance (inclusive)
+	 * @return the nearest item, if there is one within the maximum distance
+	 */
+	public Optional<T> getNearest(final IVector2 center, final double maxDistance)
+	{
+		startQuery();
+		try
+		{
+			int n = collectWithin(center.x(), center.y(), maxDistance, -1);
+			int nearest = EMPTY;
+			double nearestDist2 = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < n; i++)
+			{
+				int index = candidates[i];
+				double dist2 = distance2(index, center.x(), center.y());
+				if (dist2 < nearestDist2)
+				{
+					nearest = index;
+					nearestDist2 = dist2;
+				}
+			}
+			return nearest == EMPTY ? Optional.empty() : Optional.of(get(nearest));
+		} finally
+		{
+			querying = false;
+		}
+	}
+
+
+	/**
+	 * Call the consumer for all pairs of items within the given distance (inclusive) of each other.
+	 * The first item of a pair is always inserted before the second one. The pairs are ordered by the index
+	 * of the first and then of the second item. The index must not be modified or queried by the consumer.
+	 *
+	 * @param distance the maximum distance
+	 * @param consumer receives the pairs
+	 */
+	public void forEachPairWithin(final double distance, final BiConsumer<T, T> consumer)
+	{
+		startQuery();
+		try
+		{
+			for (int i = 0; i < size; i++)
+			{
+				int n = collectWithin(xs[i], ys[i], distance, i);
+				for (int j = 0; j < n; j++)
+				{
+					consumer.accept(get(i), get(candidates[j]));
+				}
+			}
+		} finally
+		{
+			querying = false;
+		}
+	}
+
+
+	private void startQuery()
+	{
+		if (querying)
+		{
+			throw new IllegalStateException("Nested queries are not supported");
+		}
+		querying = true;
+		if (dirty)
+		{
+			build();
+		}
+	}
+
+
+	/**
+	 * Collect the indices of all items within the radius and greater than minIndex into {@link #candidates}
+	 *
+	 * @return the number of collected indices
+	 */
+	private int collectWithin(final double x, final double y, final double radius, final int minIndex)
+	{
+		if (!(radius >= 0))
+		{
+			return 0;
+		}
+		double radius2 = radius * radius;
+		double cellsPerAxis = 2 * radius / cellSize + 2;
+		int n = 0;
+		if (cellsPerAxis * cellsPerAxis > size)
+		{
+			// scanning all items is cheaper than visiting all cells
+			for (int i = minIndex + 1; i < size; i++)
+			{
+				if (distance2(i, x, y) <= radius2)
+				{
+					n = addCandidate(n, i);
+				}
+			}
+			return n;
+		}
+
+		int minCx = cell(x - radius);
+		int maxCx = cell(x + radius);
+		int minCy = cell(y - radius);
+		int maxCy = cell(y + radius);
+		for (int cx = minCx; cx <= maxCx; cx++)
+		{
+			for (int cy = minCy; cy <= maxCy; cy++)
+			{
+				for (int i = cellHeads[findSlot(cellKey(cx, cy))]; i != EMPTY; i = next[i])
+				{
+					if (i > minIndex && distance2(i, x, y) <= radius2)
+					{
+						n = addCandidate(n, i);
+					}
+				}
+			}
+		}
+		Arrays.sort(candidates, 0, n);
+		return n;
+	}
+
+
+	private int addCandidate(final int n, final int index)
+	{
+		if (n == candidates.length)
+		{
+			candidates = Arrays.copyOf(candidates, n * 2);
+		}
+		candidates[n] = index;
+		return n + 1;
+	}
+
+
+	private double distance2(final int index, final double x, final double y)
+	{
+		double dx = xs[index] - x;
+		double dy = ys[index] - y;
+		return dx * dx + dy * dy;
+	}
+
+
+	private void build()
+	{
+		int tableSize = Integer.highestOneBit(Math.max(16, size * 2) - 1) << 1;
+		if (cellHeads.length < tableSize)
+		{
+			cellHeads = new int[tableSize];
+			cellKeys = new long[tableSize];
+		}
+		Arrays.fill(cellHeads, EMPTY);
+		// insert in reverse order, so that each cell lists its items in ascending order
+		for (int i = size - 1; i >= 0; i--)
+		{
+			long key = cellKey(cell(xs[i]), cell(ys[i]));
+			int slot = findSlot(key);
+			cellKeys[slot] = key;
+			next[i] = cellHeads[slot];
+			cellHeads[slot] = i;
+		}
+		dirty = false;
+	}
+
+
+	private int findSlot(final long key)
+	{
+		int mask = cellHeads.length - 1;
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+		while (cellHeads[slot] != EMPTY && cellKeys[slot] != key)
+		{
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+
+	private int cell(final double coordinate)
+	{
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+
+	private static long cellKey(final int cx, final int cy)
+	{
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+}
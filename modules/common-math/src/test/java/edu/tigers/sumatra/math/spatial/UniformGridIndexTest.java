@@ -0,0 +1,124 @@
+package edu.tigers.sumatra.math.spatial;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class UniformGridIndexTest
+{
+	private final Random rnd = new Random(42);
+
+
+	@Test
+	void queriesMatchLinearScan()
+	{
+		var index = new UniformGridIndex<Integer>(300);
+		// fill, clear and refill to check that the index is rebuilt correctly
+		for (int round = 0; round < 3; round++)
+		{
+			index.clear();
+			List<IVector2> points = randomPoints(500);
+			for (int i = 0; i < points.size(); i++)
+			{
+				assertThat(index.add(i, points.get(i))).isEqualTo(i);
+			}
+
+			for (int q = 0; q < 50; q++)
+			{
+				IVector2 center = randomPoint();
+				double radius = rnd.nextDouble() * 1000;
+				List<Integer> expected = new ArrayList<>();
+				for (int i = 0; i < points.size(); i++)
+				{
+					if (points.get(i).distanceTo(center) <= radius)
+					{
+						expected.add(i);
+					}
+				}
+				assertThat(index.getWithin(center, radius)).isEqualTo(expected);
+				assertThat(index.getIndicesWithin(center, radius))
+						.containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+				assertThat(index.getNearest(center, radius)).isEqualTo(expected.stream()
+						.min((a, b) -> Double.compare(points.get(a).distanceTo(center), points.get(b).distanceTo(center))));
+			}
+		}
+	}
+
+
+	@Test
+	void pairsMatchLinearScan()
+	{
+		var index = new UniformGridIndex<Integer>(200);
+		List<IVector2> points = randomPoints(300);
+		for (int i = 0; i < points.size(); i++)
+		{
+			index.add(i, points.get(i));
+		}
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < points.size(); i++)
+		{
+			for (int j = i + 1; j < points.size(); j++)
+			{
+				if (points.get(i).distanceTo(points.get(j)) <= 250)
+				{
+					expected.add(i + "-" + j);
+				}
+			}
+		}
+		List<String> pairs = new ArrayList<>();
+		index.forEachPairWithin(250, (a, b) -> pairs.add(a + "-" + b));
+		assertThat(pairs).isNotEmpty().isEqualTo(expected);
+	}
+
+
+	@Test
+	void nearestPrefersFirstItem()
+	{
+		var index = new UniformGridIndex<String>(100);
+		index.add("a", Vector2.fromXY(-50, 0));
+		index.add("b", Vector2.fromXY(50, 0));
+		index.add("c", Vector2.fromXY(1000, 1000));
+
+		assertThat(index.getNearest(Vector2.zero(), 100)).contains("a");
+		assertThat(index.getNearest(Vector2.zero(), 10)).isEmpty();
+		assertThat(index.getWithin(Vector2.fromXY(1000, 1000), Double.POSITIVE_INFINITY)).containsExactly("a", "b", "c");
+	}
+
+
+	@Test
+	void rejectsNestedQueries()
+	{
+		var index = new UniformGridIndex<String>(100);
+		index.add("a", Vector2.zero());
+
+		assertThatThrownBy(() -> index.forEachWithin(Vector2.zero(), 10, a -> index.getWithin(Vector2.zero(), 10)))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(index.getWithin(Vector2.zero(), 10)).containsExactly("a");
+	}
+
+
+	private List<IVector2> randomPoints(final int n)
+	{
+		List<IVector2> points = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+		{
+			points.add(randomPoint());
+		}
+		return points;
+	}
+
+
+	private IVector2 randomPoint()
+	{
+		return Vector2.fromXY((rnd.nextDouble() - 0.5) * 12000, (rnd.nextDouble() - 0.5) * 9000);
+	}
+}
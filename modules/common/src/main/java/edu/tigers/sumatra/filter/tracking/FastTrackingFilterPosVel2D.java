@@ -0,0 +1,413 @@
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.SumatraMath;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+
+/**
+ * Same tracking filter as {@link TrackingFilterPosVel2D}, specialized for its fixed size.
+ * State vector includes position and velocity, only position can be measured.
+ * <p>
+ * The state and covariance are stored in primitive fields and the 4x4 prediction and 2x2 correction
+ * are calculated in closed form, so predict and correct do not allocate any objects.
+ */
+public class FastTrackingFilterPosVel2D
+{
+	private static final int N = 4;
+
+	// state [x, y, vx, vy]
+	private double px;
+	private double py;
+	private double vx;
+	private double vy;
+
+	// error covariance, row-major 4x4
+	private final double[] p = new double[N * N];
+
+	private double innovationX;
+	private double innovationY;
+
+	private double measurementError;
+	private double modelError;
+
+	private long lastTimestamp;
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialPos
+	 * @param covariance initial covariance of all states
+	 * @param modelErr model error
+	 * @param measErr measurement error
+	 * @param timestamp initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel2D(final IVector2 initialPos, final double covariance, final double modelErr,
+			final double measErr, final long timestamp)
+	{
+		px = initialPos.x();
+		py = initialPos.y();
+		setDiagonalCovariance(covariance, covariance);
+
+		setMeasurementError(measErr);
+		setModelError(modelErr);
+		lastTimestamp = timestamp;
+	}
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialState
+	 * @param covariance initial covariance of all states
+	 * @param modelErr model error
+	 * @param measErr measurement error
+	 * @param timestamp initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel2D(final RealVector initialState, final double covariance, final double modelErr,
+			final double measErr, final long timestamp)
+	{
+		Validate.isTrue(initialState.getDimension() == 4);
+
+		setState(initialState);
+		setDiagonalCovariance(covariance, covariance);
+
+		setMeasurementError(measErr);
+		setModelError(modelErr);
+		lastTimestamp = timestamp;
+	}
+
+
+	/**
+	 * Create tracking filter.
+	 *
+	 * @param initialState
+	 * @param initialCovariance
+	 * @param modelErr model error
+	 * @param measErr measurement error
+	 * @param timestamp initial timestamp in nanoseconds
+	 */
+	public FastTrackingFilterPosVel2D(final RealVector initialState, final RealMatrix initialCovariance,
+			final double modelErr, final double measErr, final long timestamp)
+	{
+		Validate.isTrue(initialState.getDimension() == 4, "State vector size must be 4");
+		Validate.isTrue(initialCovariance.isSquare(), "Covariance matrix must be square");
+		Validate.isTrue(initialCovariance.getRowDimension() == 4, "Covariance matrix size must be 4x4");
+
+		setState(initialState);
+		for (int r = 0; r < N; r++)
+		{
+			for (int c = 0; c < N; c++)
+			{
+				p[r * N + c] = initialCovariance.getEntry(r, c);
+			}
+		}
+
+		setMeasurementError(measErr);
+		setModelError(modelErr);
+		lastTimestamp = timestamp;
+	}
+
+
+	/**
+	 * Create tracking filter. Deep copy constructor.
+	 *
+	 * @param orig
+	 * @param timestamp
+	 */
+	public FastTrackingFilterPosVel2D(final FastTrackingFilterPosVel2D orig, final long timestamp)
+	{
+		px = orig.px;
+		py = orig.py;
+		vx = orig.vx;
+		vy = orig.vy;
+		System.arraycopy(orig.p, 0, p, 0, p.length);
+		innovationX = orig.innovationX;
+		innovationY = orig.innovationY;
+
+		setMeasurementError(orig.measurementError);
+		setModelError(orig.modelError);
+		lastTimestamp = timestamp;
+	}
+
+
+	public void setMeasurementError(final double error)
+	{
+		measurementError = error;
+	}
+
+
+	public void setModelError(final double error)
+	{
+		modelError = error;
+	}
+
+
+	public void setPosition(final IVector2 pos)
+	{
+		px = pos.x();
+		py = pos.y();
+	}
+
+
+	public void setVelocity(final IVector2 vel)
+	{
+		vx = vel.x();
+		vy = vel.y();
+	}
+
+
+	/**
+	 * Reset internal state covariance to a specific value.
+	 *
+	 * @param covariance
+	 */
+	public void resetCovariance(final double covariance)
+	{
+		setDiagonalCovariance(covariance, covariance * covariance);
+	}
+
+
+	/**
+	 * Predict the filter estimate to a given timestamp when no new measurement is available.
+	 * No correction will be performed.
+	 *
+	 * @param timestamp time in nanoseconds
+	 */
+	public void predict(final long timestamp)
+	{
+		double dt = (timestamp - lastTimestamp) * 1e-9;
+		if (dt <= 0)
+		{
+			return;
+		}
+
+		lastTimestamp = timestamp;
+
+		// x = A * x with A = [I dt*I; 0 I]
+		px += dt * vx;
+		py += dt * vy;
+
+		// P = A * P * A' + Q, with P = [PA PB; PC PD] in 2x2 blocks:
+		// PA' = PA + dt * (PB + PC) + dt^2 * PD, PB' = PB + dt * PD, PC' = PC + dt * PD, PD' = PD
+		double dt2 = dt * dt;
+		for (int i = 0; i < 2; i++)
+		{
+			for (int j = 0; j < 2; j++)
+			{
+				int a = i * N + j;
+				int b = a + 2;
+				int c = a + 2 * N;
+				int d = c + 2;
+				p[a] += dt * (p[b] + p[c]) + dt2 * p[d];
+				p[b] += dt * p[d];
+				p[c] += dt * p[d];
+			}
+		}
+
+		// add process noise (see TrackingFilterPosVel2D#getOptimalProcessNoise)
+		double sigma = SumatraMath.sqrt((3.0 * modelError) / dt) / dt;
+		double sigma2 = sigma * sigma;
+		double q3 = (1.0 / 3.0) * dt2 * dt * sigma2;
+		double q2 = (1.0 / 2.0) * dt2 * sigma2;
+		double q1 = dt * sigma2;
+		p[0] += q3;
+		p[2] += q2;
+		p[N + 1] += q3;
+		p[N + 3] += q2;
+		p[2 * N] += q2;
+		p[2 * N + 2] += q1;
+		p[3 * N + 1] += q2;
+		p[3 * N + 3] += q1;
+	}
+
+
+	/**
+	 * Correct filter estimate with a new measurement.
+	 *
+	 * @param position
+	 */
+	public void correct(final IVector2 position)
+	{
+		correct(position.x(), position.y());
+	}
+
+
+	/**
+	 * Correct filter estimate with a new measurement.
+	 *
+	 * @param x measured x position
+	 * @param y measured y position
+	 */
+	public void correct(final double x, final double y)
+	{
+		// S = H * P * H' + R, with H selecting the position
+		double s00 = p[0] + measurementError;
+		double s01 = p[1];
+		double s10 = p[N];
+		double s11 = p[N + 1] + measurementError;
+		double det = s00 * s11 - s01 * s10;
+		double i00 = s11 / det;
+		double i01 = -s01 / det;
+		double i10 = -s10 / det;
+		double i11 = s00 / det;
+
+		innovationX = x - px;
+		innovationY = y - py;
+
+		// K = P * H' * S^-1, the first two columns of P times S^-1
+		double k00 = p[0] * i00 + p[1] * i10;
+		double k01 = p[0] * i01 + p[1] * i11;
+		double k10 = p[N] * i00 + p[N + 1] * i10;
+		double k11 = p[N] * i01 + p[N + 1] * i11;
+		double k20 = p[2 * N] * i00 + p[2 * N + 1] * i10;
+		double k21 = p[2 * N] * i01 + p[2 * N + 1] * i11;
+		double k30 = p[3 * N] * i00 + p[3 * N + 1] * i10;
+		double k31 = p[3 * N] * i01 + p[3 * N + 1] * i11;
+
+		// x = x + K * innovation
+		px += k00 * innovationX + k01 * innovationY;
+		py += k10 * innovationX + k11 * innovationY;
+		vx += k20 * innovationX + k21 * innovationY;
+		vy += k30 * innovationX + k31 * innovationY;
+
+		// P = (I - K * H) * P = P - K * (first two rows of P)
+		double p00 = p[0];
+		double p01 = p[1];
+		double p02 = p[2];
+		double p03 = p[3];
+		double p10 = p[N];
+		double p11 = p[N + 1];
+		double p12 = p[N + 2];
+		double p13 = p[N + 3];
+		updateCovarianceRow(0, k00, k01, p00, p01, p02, p03, p10, p11, p12, p13);
+		updateCovarianceRow(1, k10, k11, p00, p01, p02, p03, p10, p11, p12, p13);
+		updateCovarianceRow(2, k20, k21, p00, p01, p02, p03, p10, p11, p12, p13);
+		updateCovarianceRow(3, k30, k31, p00, p01, p02, p03, p10, p11, p12, p13);
+	}
+
+
+	public long getLastTimestamp()
+	{
+		return lastTimestamp;
+	}
+
+
+	public IVector2 getPositionEstimate()
+	{
+		return Vector2.fromXY(px, py);
+	}
+
+
+	/**
+	 * Get position estimate at a specific time.
+	 * Uses simple extrapolation with constant velocity model.
+	 *
+	 * @param timestamp time in nanoseconds
+	 * @return
+	 */
+	public IVector2 getPositionEstimate(final long timestamp)
+	{
+		double dt = (timestamp - lastTimestamp) * 1e-9;
+		return Vector2.fromXY(px + vx * dt, py + vy * dt);
+	}
+
+
+	public IVector2 getVelocityEstimate()
+	{
+		return Vector2.fromXY(vx, vy);
+	}
+
+
+	public IVector2 getPositionUncertainty()
+	{
+		return Vector2.fromXY(SumatraMath.sqrt(p[0]), SumatraMath.sqrt(p[N + 1]));
+	}
+
+
+	public IVector2 getVelocityUncertainty()
+	{
+		return Vector2.fromXY(SumatraMath.sqrt(p[2 * N + 2]), SumatraMath.sqrt(p[3 * N + 3]));
+	}
+
+
+	public IVector2 getPositionInnovation()
+	{
+		return Vector2.fromXY(innovationX, innovationY);
+	}
+
+
+	/**
+	 * @return a copy of the state [x, y, vx, vy]
+	 */
+	public RealVector getStateEstimate()
+	{
+		return new ArrayRealVector(new double[] { px, py, vx, vy }, false);
+	}
+
+
+	/**
+	 * @return a copy of the error covariance matrix
+	 */
+	public RealMatrix getCovarianceMatrix()
+	{
+		RealMatrix m = new Array2DRowRealMatrix(N, N);
+		for (int r = 0; r < N; r++)
+		{
+			for (int c = 0; c < N; c++)
+			{
+				m.setEntry(r, c, p[r * N + c]);
+			}
+		}
+		return m;
+	}
+
+
+	/**
+	 * @return a copy of the innovation from the last correction
+	 */
+	public RealVector getInnovation()
+	{
+		return new ArrayRealVector(new double[] { innovationX, innovationY }, false);
+	}
+
+
+	private void setState(final RealVector state)
+	{
+		px = state.getEntry(0);
+		py = state.getEntry(1);
+		vx = state.getEntry(2);
+		vy = state.getEntry(3);
+	}
+
+
+	private void setDiagonalCovariance(final double posCovariance, final double velCovariance)
+	{
+		for (int i = 0; i < p.length; i++)
+		{
+			p[i] = 0;
+		}
+		p[0] = posCovariance;
+		p[N + 1] = posCovariance;
+		p[2 * N + 2] = velCovariance;
+		p[3 * N + 3] = velCovariance;
+	}
+
+
+	private void updateCovarianceRow(final int row, final double k0, final double k1,
+			final double p00, final double p01, final double p02, final double p03,
+			final double p10, final double p11, final double p12, final double p13)
+	{
+		int r = row * N;
+		p[r] -= k0 * p00 + k1 * p10;
+		p[r + 1] -= k0 * p01 + k1 * p11;
+		p[r + 2] -= k0 * p02 + k1 * p12;
+		p[r + 3] -= k0 * p03 + k1 * p13;
+	}
+}
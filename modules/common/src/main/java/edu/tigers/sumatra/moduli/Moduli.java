@@ -6,6 +6,7 @@ import edu.tigers.sumatra.moduli.exceptions.LoadModulesException;
 import edu.tigers.sumatra.moduli.exceptions.ModuleNotFoundException;
 import edu.tigers.sumatra.moduli.exceptions.StartModuleException;
 import edu.tigers.sumatra.observer.StateDistributor;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.configuration.ConfigurationException;
@@ -22,22 +23,41 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 
 /**
  * Main-class of moduli.
  * It contains the handling of the modules.
+ * <p>
+ * Modules are initialized and started in the order of their dependencies. With the global configuration
+ * {@code parallelStartup}, independent modules are initialized and started concurrently: a module is
+ * processed as soon as all its dependencies are done. All dependencies must then be declared in the configuration.
  */
 @Log4j2
 public class Moduli
 {
+	private static final String PARALLEL_STARTUP_KEY = "parallelStartup";
+
 	private final Map<Class<? extends AModule>, AModule> modules = new HashMap<>();
 	private final List<AModule> orderedModules = new LinkedList<>();
+	private Graph<AModule, DefaultEdge> dependencyGraph;
 	@Getter
 	private final StateDistributor<ModulesState> modulesState = new StateDistributor<>(ModulesState.NOT_LOADED);
 	@Getter
@@ -59,7 +79,7 @@ public class Moduli
 
 		loadModulesFromFile(xmlFile);
 
-		Graph<AModule, DefaultEdge> dependencyGraph = buildDependencyGraph();
+		dependencyGraph = buildDependencyGraph();
 		new TopologicalOrderIterator<>(dependencyGraph).forEachRemaining(orderedModules::addFirst);
 
 		modulesState.set(ModulesState.RESOLVED);
@@ -200,8 +220,10 @@ public class Moduli
 			return;
 		}
 
-		initModules(orderedModules);
-		startUpModules(orderedModules);
+		long tStart = System.nanoTime();
+		Map<AModule, Long> initTimes = initModules(orderedModules);
+		Map<AModule, Long> startTimes = startUpModules(orderedModules);
+		logStartupTimes(initTimes, startTimes, System.nanoTime() - tStart);
 
 		modulesState.set(ModulesState.ACTIVE);
 	}
@@ -235,36 +257,147 @@ public class Moduli
 	}
 
 
-	private void initModules(List<AModule> orderedModules)
+	private Map<AModule, Long> initModules(List<AModule> orderedModules)
 	{
-		for (AModule m : orderedModules)
-		{
+		return runModules(orderedModules, "Initializing", AModule::initModule,
+				(m, err) -> new InitModuleException("Could not initialize module " + m, err));
+	}
+
+
+	private Map<AModule, Long> startUpModules(List<AModule> orderedModules)
+	{
+		return runModules(orderedModules, "Starting", AModule::startModule,
+				(m, err) -> new StartModuleException("Could not start module " + m, err));
+	}
+
+
+	/**
+	 * Run an action for all modules in the order of their dependencies.
+	 * If the action fails for a module, no further modules are processed and the exception is thrown,
+	 * after all modules that are already in progress are done.
+	 *
+	 * @return the duration of the action per module [ns]
+	 */
+	private Map<AModule, Long> runModules(List<AModule> orderedModules, String actionName, Consumer<AModule> action,
+			BiFunction<AModule, Exception, RuntimeException> exceptionFactory)
+	{
+		Map<AModule, Long> durations = new ConcurrentHashMap<>();
+		Consumer<AModule> timedAction = m -> {
+			log.trace("{} module {}", actionName, m);
+			long tStart = System.nanoTime();
 			try
 			{
-				log.trace("Initializing module {}", m);
-				m.initModule();
-				log.trace("Initialized module {}", m);
+				action.accept(m);
 			} catch (Exception err)
 			{
-				throw new InitModuleException("Could not initialize module " + m, err);
+				throw exceptionFactory.apply(m, err);
 			}
+			durations.put(m, System.nanoTime() - tStart);
+			log.trace("{} module {} done", actionName, m);
+		};
+
+		if (globalConfiguration != null && globalConfiguration.getBoolean(PARALLEL_STARTUP_KEY, false))
+		{
+			runModulesParallel(orderedModules, timedAction, exceptionFactory);
+		} else
+		{
+			orderedModules.forEach(timedAction);
 		}
+		return durations;
 	}
 
 
-	private void startUpModules(List<AModule> orderedModules)
+	private void runModulesParallel(List<AModule> orderedModules, Consumer<AModule> action,
+			BiFunction<AModule, Exception, RuntimeException> exceptionFactory)
 	{
-		for (AModule m : orderedModules)
+		if (orderedModules.isEmpty())
 		{
-			try
+			return;
+		}
+		// the number of dependencies that are not done yet
+		Map<AModule, Integer> pendingDependencies = new HashMap<>();
+		orderedModules.forEach(m -> pendingDependencies.put(m, dependencyGraph.outDegreeOf(m)));
+		Set<AModule> completed = new HashSet<>();
+
+		int numThreads = Math.min(orderedModules.size(), Math.max(2, Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads, new NamedThreadFactory("Moduli"));
+		CompletionService<AModule> completionService = new ExecutorCompletionService<>(executor);
+		Throwable failure = null;
+		int running = 0;
+		try
+		{
+			for (AModule m : orderedModules)
 			{
-				log.trace("Starting module {}", m);
-				m.startModule();
-				log.trace("Started module {}", m);
-			} catch (Exception err)
+				if (pendingDependencies.get(m) == 0)
+				{
+					submit(completionService, action, m);
+					running++;
+				}
+			}
+			while (running > 0)
 			{
-				throw new StartModuleException("Could not initialize module " + m, err);
+				Future<AModule> done = completionService.take();
+				running--;
+				try
+				{
+					AModule module = done.get();
+					completed.add(module);
+					for (DefaultEdge edge : dependencyGraph.incomingEdgesOf(module))
+					{
+						AModule dependent = dependencyGraph.getEdgeSource(edge);
+						if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0 && failure == null)
+						{
+							submit(completionService, action, dependent);
+							running++;
+						}
+					}
+				} catch (ExecutionException e)
+				{
+					if (failure == null)
+					{
+						// wait for the modules in progress, but do not start any further modules
+						failure = e.getCause();
+					}
+				}
 			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			AModule interrupted = orderedModules.stream().filter(m -> !completed.contains(m)).findFirst().orElseThrow();
+			failure = exceptionFactory.apply(interrupted, e);
+		} finally
+		{
+			executor.shutdownNow();
+		}
+		if (failure instanceof Error error)
+		{
+			throw error;
+		}
+		if (failure != null)
+		{
+			throw (RuntimeException) failure;
+		}
+	}
+
+
+	private void submit(CompletionService<AModule> completionService, Consumer<AModule> action, AModule module)
+	{
+		completionService.submit(() -> {
+			action.accept(module);
+			return module;
+		});
+	}
+
+
+	private void logStartupTimes(Map<AModule, Long> initTimes, Map<AModule, Long> startTimes, long totalTime)
+	{
+		log.info("Started {} modules in {} ms", orderedModules.size(), totalTime / 1_000_000);
+		if (log.isDebugEnabled())
+		{
+			orderedModules.stream()
+					.sorted(Comparator.comparingLong((AModule m) -> initTimes.get(m) + startTimes.get(m)).reversed())
+					.forEach(m -> log.debug("{} init: {} ms, start: {} ms", m,
+							initTimes.get(m) / 1_000_000, startTimes.get(m) / 1_000_000));
 		}
 	}
 
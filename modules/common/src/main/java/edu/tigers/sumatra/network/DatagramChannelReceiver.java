@@ -0,0 +1,158 @@
+package edu.tigers.sumatra.network;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Receive UDP packets with a {@link DatagramChannel} directly into (direct) {@link ByteBuffer}s.
+ * Depending on the address, a multicast group is joined (on the given or all reasonable network interfaces)
+ * or broadcast packets are received on the port.
+ */
+@Log4j2
+public class DatagramChannelReceiver implements AutoCloseable
+{
+	private static final int SO_TIMEOUT = 500;
+	private final List<IReceiverObserver> observers = new CopyOnWriteArrayList<>();
+	private final DatagramChannel channel;
+	private final Selector selector;
+	private volatile boolean closed = false;
+
+
+	/**
+	 * @param address           the multicast group or any other address for broadcast packets
+	 * @param port              the port
+	 * @param iface             the network interface for the multicast group or null for all interfaces
+	 * @param receiveBufferSize the requested size of the socket receive buffer
+	 * @throws IOException if the channel could not be opened
+	 */
+	public DatagramChannelReceiver(final String address, final int port, final NetworkInterface iface,
+			final int receiveBufferSize) throws IOException
+	{
+		InetAddress group = InetAddress.getByName(address);
+		channel = DatagramChannel.open(StandardProtocolFamily.INET);
+		try
+		{
+			channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+			channel.bind(new InetSocketAddress(port));
+			if (group.isMulticastAddress())
+			{
+				List<NetworkInterface> ifaces = iface == null ? MulticastUDPReceiver.getNetworkInterfaces() : List.of(iface);
+				for (NetworkInterface nif : ifaces)
+				{
+					if (iface == null && MulticastUDPReceiver.isUselessInterface(nif))
+					{
+						log.debug("Filtered network interface: {}", nif.getDisplayName());
+						continue;
+					}
+					joinOnInterface(group, nif);
+				}
+			}
+			channel.configureBlocking(false);
+			selector = Selector.open();
+			channel.register(selector, SelectionKey.OP_READ);
+		} catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+		log.debug("Receiving on {}:{} with a receive buffer of {} bytes", address, port,
+				channel.getOption(StandardSocketOptions.SO_RCVBUF));
+	}
+
+
+	private void joinOnInterface(final InetAddress group, final NetworkInterface iface)
+	{
+		try
+		{
+			channel.join(group, iface);
+			log.debug("Multicast group {} joined on nif {}", group, iface.getDisplayName());
+		} catch (IOException | UnsupportedOperationException err)
+		{
+			log.info("Could not join multicast group {} on iface {}", group, iface.getDisplayName(), err);
+		}
+	}
+
+
+	public void addObserver(final IReceiverObserver observer)
+	{
+		observers.add(observer);
+	}
+
+
+	public void removeObserver(final IReceiverObserver observer)
+	{
+		observers.remove(observer);
+	}
+
+
+	/**
+	 * Wait for the next packet and write it into the buffer.
+	 * If no packet is received for some time, the observers are notified once.
+	 *
+	 * @param buffer the buffer to receive into, starting at its position
+	 * @return the sender of the packet
+	 * @throws IOException if the receiver was closed or receiving failed
+	 */
+	public SocketAddress receive(final ByteBuffer buffer) throws IOException
+	{
+		long timeout = SO_TIMEOUT;
+		while (!closed)
+		{
+			SocketAddress source = channel.receive(buffer);
+			if (source != null)
+			{
+				return source;
+			}
+			if (select(timeout) == 0 && !closed && timeout > 0)
+			{
+				log.debug("No data received for {} ms", SO_TIMEOUT);
+				observers.forEach(IReceiverObserver::onSocketTimedOut);
+				// wait without timeout until the next packet arrives
+				timeout = 0;
+			}
+		}
+		throw new ClosedChannelException();
+	}
+
+
+	private int select(final long timeout) throws IOException
+	{
+		try
+		{
+			int numSelected = selector.select(timeout);
+			selector.selectedKeys().clear();
+			return numSelected;
+		} catch (ClosedSelectorException e)
+		{
+			throw new ClosedChannelException();
+		}
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		closed = true;
+		selector.wakeup();
+		selector.close();
+		channel.close();
+		observers.clear();
+	}
+}
@@ -90,7 +90,7 @@ public class MulticastUDPReceiver implements UDPReceiver
 	}
 
 
-	private List<NetworkInterface> getNetworkInterfaces()
+	static List<NetworkInterface> getNetworkInterfaces()
 	{
 		try
 		{
@@ -105,7 +105,7 @@ public class MulticastUDPReceiver implements UDPReceiver
 	}
 
 
-	private boolean isUselessInterface(final NetworkInterface iface)
+	static boolean isUselessInterface(final NetworkInterface iface)
 	{
 		try
 		{
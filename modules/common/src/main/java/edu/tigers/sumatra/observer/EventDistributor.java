@@ -3,17 +3,119 @@ package edu.tigers.sumatra.observer;
 import edu.tigers.sumatra.util.Safe;
 import lombok.extern.log4j.Log4j2;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 
 /**
  * Event distributor that notifies all registered observers on new events.
+ * <p>
+ * By default, the observers are called one after another on the thread of the publisher.
+ * With {@link #setAsyncDispatch(boolean)}, each observer gets its own {@link SubscriberMailbox} instead,
+ * so that a slow observer does neither delay the publisher nor the other observers.
  *
  * @param <T> the type of the event
  */
 @Log4j2
 public class EventDistributor<T> extends BasicDistributor<Consumer<T>> implements EventSubscriber<T>
 {
+	private static final int MAILBOX_CAPACITY = 256;
+
+	private final Map<String, SubscriberMailbox<T>> mailboxes = new ConcurrentHashMap<>();
+	private volatile boolean asyncDispatch = false;
+
+
+	/**
+	 * Dispatch the events to each observer on its own virtual thread through a bounded FIFO mailbox.
+	 * Events are dropped for an observer, if its mailbox is full.
+	 * This can only be changed while there are no observers. Setting the current mode again is always possible.
+	 *
+	 * @param asyncDispatch true to dispatch asynchronously
+	 */
+	public void setAsyncDispatch(final boolean asyncDispatch)
+	{
+		if (asyncDispatch == this.asyncDispatch)
+		{
+			return;
+		}
+		if (!getConsumers().isEmpty())
+		{
+			throw new IllegalStateException("The dispatch mode can not be changed while there are consumers: "
+					+ getConsumers().keySet());
+		}
+		this.asyncDispatch = asyncDispatch;
+	}
+
+
+	@Override
+	public void subscribe(String id, Consumer<T> consumer)
+	{
+		subscribeDispatcher(id, consumer);
+	}
+
+
+	/**
+	 * Subscribe the consumer, either directly or through a new mailbox.
+	 *
+	 * @param id       the id of the subscription
+	 * @param consumer the consumer
+	 * @return the consumer that is called by the publisher
+	 */
+	protected Consumer<T> subscribeDispatcher(String id, Consumer<T> consumer)
+	{
+		if (!asyncDispatch)
+		{
+			super.subscribe(id, consumer);
+			return consumer;
+		}
+		var mailbox = createMailbox(id, consumer);
+		try
+		{
+			super.subscribe(id, mailbox);
+		} catch (IllegalStateException e)
+		{
+			mailbox.close();
+			throw e;
+		}
+		mailboxes.put(id, mailbox);
+		return mailbox;
+	}
+
+
+	/**
+	 * @param id       the id of the subscription
+	 * @param consumer the consumer
+	 * @return a new mailbox for the consumer
+	 */
+	protected SubscriberMailbox<T> createMailbox(String id, Consumer<T> consumer)
+	{
+		return new SubscriberMailbox<>(id, consumer, MAILBOX_CAPACITY, false);
+	}
+
+
+	@Override
+	public void unsubscribe(String id)
+	{
+		super.unsubscribe(id);
+		var mailbox = mailboxes.remove(id);
+		if (mailbox != null)
+		{
+			mailbox.close();
+		}
+	}
+
+
+	/**
+	 * @return the mailboxes of all observers by subscription id, if dispatching asynchronously
+	 */
+	public Map<String, SubscriberMailbox<T>> getMailboxes()
+	{
+		return Collections.unmodifiableMap(mailboxes);
+	}
+
+
 	/**
 	 * Notify all registered observers with the given event.
 	 *
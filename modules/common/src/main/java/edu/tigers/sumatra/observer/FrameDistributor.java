@@ -9,6 +9,9 @@ import java.util.function.Consumer;
 
 /**
  * Distributes frames to all registered subscribers.
+ * <p>
+ * When dispatching asynchronously, the mailboxes conflate the frames:
+ * a slow subscriber skips intermediate frames and always gets the latest one.
  *
  * @param <T> the type of the frame
  */
@@ -22,15 +25,22 @@ public class FrameDistributor<T> extends EventDistributor<T> implements FrameSub
 	@Override
 	public void subscribe(String id, Consumer<T> consumer)
 	{
-		super.subscribe(id, consumer);
+		var dispatcher = subscribeDispatcher(id, consumer);
 		var event = lastFrame;
 		if (event != null)
 		{
-			Safe.run(consumer, event);
+			Safe.run(dispatcher, event);
 		}
 	}
 
 
+	@Override
+	protected SubscriberMailbox<T> createMailbox(String id, Consumer<T> consumer)
+	{
+		return new SubscriberMailbox<>(id, consumer, 1, true);
+	}
+
+
 	@Override
 	public void subscribeClear(String id, Runnable runnable)
 	{
@@ -71,6 +81,8 @@ public class FrameDistributor<T> extends EventDistributor<T> implements FrameSub
 		lastFrame = null;
 		synchronized (this)
 		{
+			// do not deliver outdated frames after clearing
+			getMailboxes().values().forEach(SubscriberMailbox::discardPending);
 			clearConsumers.values().forEach(Safe::run);
 		}
 	}
@@ -0,0 +1,210 @@
+package edu.tigers.sumatra.observer;
+
+import edu.tigers.sumatra.time.LatencyHistogram;
+import edu.tigers.sumatra.util.Safe;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+
+/**
+ * A bounded mailbox that delivers events to a single consumer on its own virtual thread.
+ * <p>
+ * If the mailbox is full, new events are dropped. A conflating mailbox instead replaces the pending event,
+ * so that the consumer always gets the latest one. The lag is the time from offering an event until its
+ * delivery starts.
+ *
+ * @param <T> the type of the event
+ */
+@Log4j2
+public class SubscriberMailbox<T> implements Consumer<T>
+{
+	@Getter
+	private final String id;
+	private final Consumer<T> consumer;
+	private final int capacity;
+	private final boolean conflating;
+
+	private final Deque<Pending<T>> queue = new ArrayDeque<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final AtomicLong numDelivered = new AtomicLong();
+	private final AtomicLong numDropped = new AtomicLong();
+	@Getter
+	private final LatencyHistogram lag = new LatencyHistogram();
+	private final Thread thread;
+	private boolean closed = false;
+
+
+	/**
+	 * @param id         the id of the subscriber
+	 * @param consumer   the consumer to deliver the events to
+	 * @param capacity   the maximum number of pending events
+	 * @param conflating replace pending events instead of dropping new ones
+	 */
+	SubscriberMailbox(final String id, final Consumer<T> consumer, final int capacity, final boolean conflating)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.id = id;
+		this.consumer = consumer;
+		this.capacity = capacity;
+		this.conflating = conflating;
+		thread = Thread.ofVirtual().name("Dispatcher " + id).start(this::run);
+	}
+
+
+	/**
+	 * Offer a new event. This does not block.
+	 *
+	 * @param event the event
+	 */
+	@Override
+	public void accept(final T event)
+	{
+		lock.lock();
+		try
+		{
+			if (closed)
+			{
+				return;
+			}
+			if (queue.size() >= capacity)
+			{
+				numDropped.incrementAndGet();
+				if (!conflating)
+				{
+					return;
+				}
+				queue.pollFirst();
+			}
+			queue.addLast(new Pending<>(event, System.nanoTime()));
+			notEmpty.signal();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * Discard all pending events without delivering them
+	 */
+	void discardPending()
+	{
+		lock.lock();
+		try
+		{
+			queue.clear();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * Discard all pending events and stop the dispatcher thread.
+	 * A delivery that is in progress is not interrupted.
+	 */
+	void close()
+	{
+		lock.lock();
+		try
+		{
+			closed = true;
+			queue.clear();
+			notEmpty.signal();
+		} finally
+		{
+			lock.unlock();
+		}
+		log.debug("Closed dispatcher {}: {} delivered, {} dropped, lag p99: {}ms", id, numDelivered.get(),
+				numDropped.get(), String.format("%.1f", lag.getValueAtPercentile(99) / 1e6));
+	}
+
+
+	private void run()
+	{
+		Pending<T> pending;
+		while ((pending = take()) != null)
+		{
+			lag.recordSince(pending.tOffered());
+			Safe.run(consumer, pending.event());
+			numDelivered.incrementAndGet();
+		}
+	}
+
+
+	private Pending<T> take()
+	{
+		lock.lock();
+		try
+		{
+			while (queue.isEmpty() && !closed)
+			{
+				notEmpty.awaitUninterruptibly();
+			}
+			return queue.pollFirst();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * @return the number of events that are waiting for delivery
+	 */
+	public int getPending()
+	{
+		lock.lock();
+		try
+		{
+			return queue.size();
+		} finally
+		{
+			lock.unlock();
+		}
+	}
+
+
+	/**
+	 * @return the number of delivered events
+	 */
+	public long getNumDelivered()
+	{
+		return numDelivered.get();
+	}
+
+
+	/**
+	 * @return the number of dropped or replaced events
+	 */
+	public long getNumDropped()
+	{
+		return numDropped.get();
+	}
+
+
+	/**
+	 * @return true, if the dispatcher thread is still running
+	 */
+	public boolean isAlive()
+	{
+		return thread.isAlive();
+	}
+
+
+	private record Pending<T>(T event, long tOffered)
+	{
+	}
+}
@@ -0,0 +1,153 @@
+package edu.tigers.sumatra.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A thread-safe, allocation-free latency histogram with logarithmic buckets (similar to an HDR histogram).
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so that recorded values
+ * are resolved with a relative error of about 3%, independent of their magnitude.
+ * Values are recorded in nanoseconds.
+ */
+public class LatencyHistogram
+{
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder totalSum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+
+	/**
+	 * Record a single measurement
+	 *
+	 * @param nanos the measured duration [ns], negative values are treated as zero
+	 */
+	public void record(final long nanos)
+	{
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.increment();
+		totalSum.add(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+
+	/**
+	 * Record the time that passed since the given start time
+	 *
+	 * @param tStart start time from {@link System#nanoTime()}
+	 */
+	public void recordSince(final long tStart)
+	{
+		record(System.nanoTime() - tStart);
+	}
+
+
+	/**
+	 * Remove all measurements
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			counts.set(i, 0);
+		}
+		totalCount.reset();
+		totalSum.reset();
+		max.set(0);
+	}
+
+
+	/**
+	 * @return the number of recorded measurements
+	 */
+	public long getCount()
+	{
+		return totalCount.sum();
+	}
+
+
+	/**
+	 * @return the mean of all measurements [ns]
+	 */
+	public double getMean()
+	{
+		long count = getCount();
+		if (count == 0)
+		{
+			return 0;
+		}
+		return (double) totalSum.sum() / count;
+	}
+
+
+	/**
+	 * @return the maximum measurement [ns]
+	 */
+	public long getMax()
+	{
+		return max.get();
+	}
+
+
+	/**
+	 * Get the value at the given percentile. The result is the upper bound of the matching bucket,
+	 * limited by the maximum recorded value.
+	 *
+	 * @param percentile the percentile in [0,100]
+	 * @return the value at the given percentile [ns]
+	 */
+	public long getValueAtPercentile(final double percentile)
+	{
+		long count = getCount();
+		if (count == 0)
+		{
+			return 0;
+		}
+		double p = Math.clamp(percentile, 0.0, 100.0);
+		long threshold = Math.max(1, (long) Math.ceil(p / 100.0 * count));
+		long accumulated = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			accumulated += counts.get(i);
+			if (accumulated >= threshold)
+			{
+				return Math.min(bucketUpperBound(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+
+	static int bucketIndex(final long value)
+	{
+		if (value < SUB_BUCKETS)
+		{
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+
+	static long bucketUpperBound(final int index)
+	{
+		if (index < SUB_BUCKETS)
+		{
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		int subBucket = index % SUB_BUCKETS;
+		int shift = exponent - SUB_BUCKET_BITS;
+		long lowerBound = (long) (SUB_BUCKETS + subBucket) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+}
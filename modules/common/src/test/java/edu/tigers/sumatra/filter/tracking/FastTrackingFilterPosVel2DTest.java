@@ -0,0 +1,118 @@
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class FastTrackingFilterPosVel2DTest
+{
+	private static final double TOLERANCE = 1e-6;
+
+
+	@Test
+	void matchesReferenceFilter()
+	{
+		Random gen = new Random(0);
+		RealVector initialState = new ArrayRealVector(new double[] { 100, -200, 0, 0 });
+		var reference = new TrackingFilterPosVel2D(initialState, 1, 0.1, 2, 0);
+		var fast = new FastTrackingFilterPosVel2D(initialState, 1, 0.1, 2, 0);
+
+		for (int i = 1; i < 500; i++)
+		{
+			long time = (long) (i * 0.0125 * 1e9) + gen.nextInt(1_000_000);
+			double t = time * 1e-9;
+			IVector2 pos = Vector2.fromXY(100 + 1500 * t + gen.nextGaussian(), -200 + 800 * t + gen.nextGaussian());
+
+			reference.predict(time);
+			fast.predict(time);
+			// simulate some missing detections
+			if (i % 7 != 0)
+			{
+				reference.correct(pos);
+				fast.correct(pos);
+			}
+			if (i == 250)
+			{
+				reference.resetCovariance(10);
+				fast.resetCovariance(10);
+				reference.setVelocity(Vector2.fromXY(-1000, 500));
+				fast.setVelocity(Vector2.fromXY(-1000, 500));
+			}
+
+			assertFilterEquals(reference, fast);
+		}
+	}
+
+
+	@Test
+	void matchesReferenceFilterWithFullCovariance()
+	{
+		Random gen = new Random(1);
+		RealVector initialState = new ArrayRealVector(4);
+		RealMatrix covariance = MatrixUtils.createRealMatrix(new double[][] {
+				{ 4, 0.5, 1, 0.2 },
+				{ 0.5, 3, 0.1, 1 },
+				{ 1, 0.1, 9, 0.3 },
+				{ 0.2, 1, 0.3, 8 } });
+		var reference = new TrackingFilterPosVel2D(initialState, covariance, 0.5, 4, 0);
+		var fast = new FastTrackingFilterPosVel2D(initialState, covariance, 0.5, 4, 0);
+
+		for (int i = 1; i < 100; i++)
+		{
+			long time = (long) (i * 0.016 * 1e9);
+			IVector2 pos = Vector2.fromXY(gen.nextGaussian() * 10, gen.nextGaussian() * 10);
+			reference.predict(time);
+			fast.predict(time);
+			reference.correct(pos);
+			fast.correct(pos);
+
+			assertFilterEquals(reference, fast);
+		}
+	}
+
+
+	@Test
+	void copyIsIndependent()
+	{
+		var orig = new FastTrackingFilterPosVel2D(Vector2.fromXY(1, 2), 1, 0.1, 2, 0);
+		orig.predict(10_000_000);
+		orig.correct(Vector2.fromXY(3, 4));
+
+		var copy = new FastTrackingFilterPosVel2D(orig, orig.getLastTimestamp());
+		assertEquals(orig.getPositionEstimate(), copy.getPositionEstimate());
+		assertArrayEquals(orig.getCovarianceMatrix().getData(), copy.getCovarianceMatrix().getData());
+
+		IVector2 origPos = orig.getPositionEstimate();
+		double[][] origCov = orig.getCovarianceMatrix().getData();
+		copy.predict(20_000_000);
+		copy.correct(Vector2.fromXY(10, 10));
+		assertEquals(10_000_000, orig.getLastTimestamp());
+		assertEquals(origPos, orig.getPositionEstimate());
+		assertArrayEquals(origCov, orig.getCovarianceMatrix().getData());
+	}
+
+
+	private void assertFilterEquals(TrackingFilterPosVel2D expected, FastTrackingFilterPosVel2D actual)
+	{
+		assertArrayEquals(expected.getStateEstimate().toArray(), actual.getStateEstimate().toArray(), TOLERANCE);
+		assertArrayEquals(expected.getInnovation().toArray(), actual.getInnovation().toArray(), TOLERANCE);
+		double[][] expectedCov = expected.getCovarianceMatrix().getData();
+		double[][] actualCov = actual.getCovarianceMatrix().getData();
+		for (int r = 0; r < 4; r++)
+		{
+			assertArrayEquals(expectedCov[r], actualCov[r], TOLERANCE);
+		}
+		assertEquals(expected.getPositionUncertainty().x(), actual.getPositionUncertainty().x(), TOLERANCE);
+		assertEquals(expected.getVelocityUncertainty().y(), actual.getVelocityUncertainty().y(), TOLERANCE);
+	}
+}
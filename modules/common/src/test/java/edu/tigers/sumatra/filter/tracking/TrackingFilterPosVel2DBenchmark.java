@@ -0,0 +1,73 @@
+package edu.tigers.sumatra.filter.tracking;
+
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+
+/**
+ * Compare the generic {@link TrackingFilterPosVel2D} with {@link FastTrackingFilterPosVel2D}.
+ * Run with "-prof gc" to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 2, warmups = 1)
+@Warmup(iterations = 2)
+public class TrackingFilterPosVel2DBenchmark
+{
+	private static final int NUM_SAMPLES = 1000;
+	private static final long FRAME_DT = 13_333_333;
+
+	private final IVector2[] measurements = new IVector2[NUM_SAMPLES];
+
+
+	public static void main(String[] args) throws Exception
+	{
+		org.openjdk.jmh.Main.main(args);
+	}
+
+
+	public TrackingFilterPosVel2DBenchmark()
+	{
+		Random rnd = new Random(42);
+		for (int i = 0; i < NUM_SAMPLES; i++)
+		{
+			double t = i * FRAME_DT * 1e-9;
+			measurements[i] = Vector2.fromXY(2000 * t + rnd.nextGaussian(), -500 * t + rnd.nextGaussian());
+		}
+	}
+
+
+	@Benchmark
+	public double generic()
+	{
+		var filter = new TrackingFilterPosVel2D(Vector2.zero(), 1000, 0.1, 100, 0);
+		for (int i = 0; i < NUM_SAMPLES; i++)
+		{
+			filter.predict((i + 1) * FRAME_DT);
+			filter.correct(measurements[i]);
+		}
+		return filter.getPositionEstimate().x() + filter.getVelocityUncertainty().x();
+	}
+
+
+	@Benchmark
+	public double fast()
+	{
+		var filter = new FastTrackingFilterPosVel2D(Vector2.zero(), 1000, 0.1, 100, 0);
+		for (int i = 0; i < NUM_SAMPLES; i++)
+		{
+			filter.predict((i + 1) * FRAME_DT);
+			filter.correct(measurements[i]);
+		}
+		return filter.getPositionEstimate().x() + filter.getVelocityUncertainty().x();
+	}
+}
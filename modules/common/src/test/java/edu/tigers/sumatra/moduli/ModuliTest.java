@@ -2,8 +2,11 @@ package edu.tigers.sumatra.moduli;
 
 import edu.tigers.sumatra.moduli.exceptions.DependencyException;
 import edu.tigers.sumatra.moduli.exceptions.ModuleNotFoundException;
+import edu.tigers.sumatra.moduli.exceptions.StartModuleException;
 import edu.tigers.sumatra.moduli.modules.ConcreteTestModule;
 import edu.tigers.sumatra.moduli.modules.ConfiguredTestModule;
+import edu.tigers.sumatra.moduli.modules.OtherSlowTestModule;
+import edu.tigers.sumatra.moduli.modules.SlowTestModule;
 import edu.tigers.sumatra.moduli.modules.TestModule;
 import edu.tigers.sumatra.moduli.modules.UnusedConcreteTestModule;
 import org.junit.jupiter.api.AfterEach;
@@ -21,6 +24,9 @@ class ModuliTest
 	private static final String EMPTY_CONFIG_XML = "empty_config.xml";
 	private static final String CYCLIC_CONFIG_XML = "cyclic_config.xml";
 	private static final String UNRESOLVED_DEPENDENCY_CONFIG_XML = "unresolved_dependency_config.xml";
+	private static final String PARALLEL_CONFIG_XML = "parallel_config.xml";
+	private static final String FAILING_CONFIG_XML = "failing_config.xml";
+	private static final String SLOW_CONFIG_XML = "slow_config.xml";
 
 	private Moduli moduli;
 
@@ -79,6 +85,53 @@ class ModuliTest
 	}
 
 
+	@Test
+	void testParallelStartup()
+	{
+		moduli.loadModulesSafe(MODULE_CONFIG_PATH + PARALLEL_CONFIG_XML);
+		TestModule module = moduli.getModule(TestModule.class);
+
+		moduli.startModules();
+		assertThat(moduli.getModulesState().get()).isEqualTo(ModulesState.ACTIVE);
+		assertThat(module.isInitialized()).isTrue();
+		assertThat(module.isStarted()).isTrue();
+		assertThat(moduli.getModule(ConfiguredTestModule.class).getConfigProperty()).isEqualTo("exists");
+
+		moduli.stopModules();
+		assertThat(module.isStopped()).isTrue();
+		assertThat(module.isDeinitialized()).isTrue();
+	}
+
+
+	@Test
+	void testParallelStartupFailure()
+	{
+		moduli.loadModulesSafe(MODULE_CONFIG_PATH + FAILING_CONFIG_XML);
+
+		assertThatThrownBy(() -> moduli.startModules())
+				.isInstanceOf(StartModuleException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+		assertThat(moduli.getModulesState().get()).isEqualTo(ModulesState.RESOLVED);
+		assertThat(moduli.getModule(TestModule.class).isStarted()).isTrue();
+		// depends on the failing module
+		assertThat(moduli.getModule(ConfiguredTestModule.class).isStarted()).isFalse();
+	}
+
+
+	@Test
+	void testParallelStartupOfIndependentModules()
+	{
+		moduli.loadModulesSafe(MODULE_CONFIG_PATH + SLOW_CONFIG_XML);
+
+		moduli.startModules();
+		assertThat(moduli.getModulesState().get()).isEqualTo(ModulesState.ACTIVE);
+		assertThat(moduli.getModule(SlowTestModule.class)
+				.startedConcurrentlyWith(moduli.getModule(OtherSlowTestModule.class))).isTrue();
+
+		moduli.stopModules();
+	}
+
+
 	@Test
 	void testEmptyConfig()
 	{
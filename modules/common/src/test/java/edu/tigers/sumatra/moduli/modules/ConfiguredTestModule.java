@@ -6,6 +6,7 @@ import edu.tigers.sumatra.moduli.AModule;
 public class ConfiguredTestModule extends AModule
 {
 	private String configProperty;
+	private boolean started = false;
 
 
 	@Override
@@ -15,8 +16,21 @@ public class ConfiguredTestModule extends AModule
 	}
 
 
+	@Override
+	public void startModule()
+	{
+		started = true;
+	}
+
+
 	public String getConfigProperty()
 	{
 		return configProperty;
 	}
+
+
+	public boolean isStarted()
+	{
+		return started;
+	}
 }
@@ -0,0 +1,13 @@
+package edu.tigers.sumatra.moduli.modules;
+
+import edu.tigers.sumatra.moduli.AModule;
+
+
+public class FailingTestModule extends AModule
+{
+	@Override
+	public void startModule()
+	{
+		throw new IllegalStateException("Failing on purpose");
+	}
+}
@@ -0,0 +1,5 @@
+package edu.tigers.sumatra.moduli.modules;
+
+public class OtherSlowTestModule extends SlowTestModule
+{
+}
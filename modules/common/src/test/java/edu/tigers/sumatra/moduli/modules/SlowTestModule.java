@@ -0,0 +1,37 @@
+package edu.tigers.sumatra.moduli.modules;
+
+import edu.tigers.sumatra.moduli.AModule;
+
+
+public class SlowTestModule extends AModule
+{
+	private static final long START_DURATION_MS = 200;
+
+	private long startBegin;
+	private long startEnd;
+
+
+	@Override
+	public void startModule()
+	{
+		startBegin = System.nanoTime();
+		try
+		{
+			Thread.sleep(START_DURATION_MS);
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		startEnd = System.nanoTime();
+	}
+
+
+	/**
+	 * @param other another slow module
+	 * @return true, if both modules were started at the same time
+	 */
+	public boolean startedConcurrentlyWith(SlowTestModule other)
+	{
+		return startBegin < other.startEnd && other.startBegin < startEnd;
+	}
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -46,6 +49,64 @@ class EventDistributorTest
 	}
 
 
+	@Test
+	void testAsyncDispatch() throws InterruptedException
+	{
+		var eventDistributor = new EventDistributor<TestEvent>();
+		eventDistributor.setAsyncDispatch(true);
+
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch fastHalfDone = new CountDownLatch(200);
+		CountDownLatch fastDone = new CountDownLatch(300);
+		List<TestEvent> slowEvents = new CopyOnWriteArrayList<>();
+		List<TestEvent> fastEvents = new CopyOnWriteArrayList<>();
+		eventDistributor.subscribe("slow", event -> {
+			awaitQuietly(blocked);
+			slowEvents.add(event);
+		});
+		eventDistributor.subscribe("fast", event -> {
+			fastEvents.add(event);
+			fastHalfDone.countDown();
+			fastDone.countDown();
+		});
+		assertThatThrownBy(() -> eventDistributor.setAsyncDispatch(false)).isInstanceOf(IllegalStateException.class);
+		// like re-initializing a module with the same config
+		eventDistributor.setAsyncDispatch(true);
+
+		for (int i = 0; i < 300; i++)
+		{
+			eventDistributor.newEvent(new TestEvent(i));
+			if (i == 199)
+			{
+				// the blocked consumer does not delay the other one
+				assertThat(fastHalfDone.await(5, TimeUnit.SECONDS)).isTrue();
+			}
+		}
+		assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(fastEvents).extracting(TestEvent::value).isSorted().hasSize(300);
+
+		var slowMailbox = eventDistributor.getMailboxes().get("slow");
+		assertThat(slowMailbox.getNumDropped()).isPositive();
+		blocked.countDown();
+		eventDistributor.unsubscribe("slow");
+		eventDistributor.unsubscribe("fast");
+		assertThat(eventDistributor.getMailboxes()).isEmpty();
+		assertThat(slowEvents).extracting(TestEvent::value).isSorted();
+	}
+
+
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
 	private void consumeEvent(final TestEvent event)
 	{
 		events.add(event);
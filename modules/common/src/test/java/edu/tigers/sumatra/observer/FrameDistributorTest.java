@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,5 +42,54 @@ class FrameDistributorTest
 	}
 
 
+	@Test
+	void testAsyncDispatchConflatesFrames() throws InterruptedException
+	{
+		var frameDistributor = new FrameDistributor<TestFrame>();
+		frameDistributor.setAsyncDispatch(true);
+		frameDistributor.newFrame(new TestFrame(0));
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch latestReceived = new CountDownLatch(1);
+		List<TestFrame> frames = new CopyOnWriteArrayList<>();
+		frameDistributor.subscribe("consumer", frame -> {
+			started.countDown();
+			awaitQuietly(blocked);
+			frames.add(frame);
+			if (frame.id() == 100)
+			{
+				latestReceived.countDown();
+			}
+		});
+
+		// the consumer is blocked with the last frame before subscribing
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int i = 1; i <= 100; i++)
+		{
+			frameDistributor.newFrame(new TestFrame(i));
+		}
+		blocked.countDown();
+
+		assertThat(latestReceived.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(frames).containsExactly(new TestFrame(0), new TestFrame(100));
+		assertThat(frameDistributor.getMailboxes().get("consumer").getNumDropped()).isEqualTo(99);
+
+		frameDistributor.unsubscribe("consumer");
+	}
+
+
+	private static void awaitQuietly(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
 	private record TestFrame(int id) {}
 }
\ No newline at end of file
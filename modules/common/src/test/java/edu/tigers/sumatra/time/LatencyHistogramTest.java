@@ -0,0 +1,58 @@
+package edu.tigers.sumatra.time;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+class LatencyHistogramTest
+{
+	@Test
+	void testEmpty()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getMean()).isZero();
+		assertThat(histogram.getMax()).isZero();
+		assertThat(histogram.getValueAtPercentile(50)).isZero();
+	}
+
+
+	@Test
+	void testBucketsAreContinuous()
+	{
+		for (long value = 0; value < 100_000; value++)
+		{
+			int index = LatencyHistogram.bucketIndex(value);
+			assertThat(LatencyHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+			if (index > 0)
+			{
+				assertThat(LatencyHistogram.bucketUpperBound(index - 1)).isLessThan(value);
+			}
+		}
+		int maxIndex = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+		assertThat(LatencyHistogram.bucketUpperBound(maxIndex)).isEqualTo(Long.MAX_VALUE);
+	}
+
+
+	@Test
+	void testPercentiles()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 1000; i++)
+		{
+			histogram.record(i * 1_000);
+		}
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getMean()).isCloseTo(500_500, within(1e-6));
+		assertThat(histogram.getMax()).isEqualTo(1_000_000);
+		assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(500_000, within(500_000 * 0.04));
+		assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(990_000, within(990_000 * 0.04));
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000_000);
+
+		histogram.reset();
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getValueAtPercentile(99)).isZero();
+	}
+}
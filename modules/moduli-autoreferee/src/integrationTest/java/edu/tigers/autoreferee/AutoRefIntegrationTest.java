@@ -109,11 +109,14 @@ class AutoRefIntegrationTest
 		logEventWatcher.stop();
 		recorder.stop();
 		recorder.awaitStop();
-		if (!testCaseSucceeded)
+		if (testCaseSucceeded)
 		{
+			recorder.getDb().delete();
+		} else
+		{
+			// keep the recording of failed test cases
 			recorder.getDb().compress();
 		}
-		recorder.getDb().delete();
 
 		SumatraModel.getInstance().stopModules();
 	}
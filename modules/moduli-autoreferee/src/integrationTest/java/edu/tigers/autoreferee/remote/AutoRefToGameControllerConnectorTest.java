@@ -0,0 +1,159 @@
+package edu.tigers.autoreferee.remote;
+
+import edu.tigers.autoreferee.AutoRefLatencyStats;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.referee.MessageSigner;
+import edu.tigers.sumatra.referee.gameevent.AimlessKick;
+import edu.tigers.sumatra.referee.proto.SslGcGameEvent;
+import edu.tigers.sumatra.referee.proto.SslGcRcon;
+import edu.tigers.sumatra.referee.proto.SslGcRconAutoref;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+/**
+ * Run the connector against a local stand-in for the game-controller
+ */
+@Log4j2
+class AutoRefToGameControllerConnectorTest
+{
+	private static final long TIMEOUT_MS = 5000;
+
+
+	@Test
+	void testSendGameEvents() throws Exception
+	{
+		try (StandInGameController gc = new StandInGameController())
+		{
+			AutoRefLatencyStats latencyStats = new AutoRefLatencyStats();
+			List<GameEventResponse> responses = new CopyOnWriteArrayList<>();
+			AutoRefToGameControllerConnector connector = new AutoRefToGameControllerConnector("localhost",
+					gc.getPort(), new MessageSigner());
+			connector.setLatencyStats(latencyStats);
+			connector.addGameEventResponseObserver(responses::add);
+
+			// queue a burst of events before connecting, the second one is similar to the first one
+			long tFrameReceived = System.nanoTime();
+			connector.sendEvent(aimlessKick(1), tFrameReceived);
+			connector.sendEvent(aimlessKick(1), tFrameReceived);
+			connector.sendEvent(aimlessKick(2), tFrameReceived);
+			connector.start();
+
+			awaitCondition(() -> latencyStats.getGameEventTotalLatency().getCount() == 2);
+			connector.stop();
+
+			assertThat(gc.getGameEvents()).hasSize(2);
+			assertThat(gc.getGameEvents().get(0).getAimlessKick().getByBot()).isEqualTo(1);
+			assertThat(gc.getGameEvents().get(1).getAimlessKick().getByBot()).isEqualTo(2);
+			assertThat(latencyStats.getCoalescedGameEvents()).isEqualTo(1);
+			assertThat(responses).isNotEmpty()
+					.allMatch(response -> response.getResponse() == GameEventResponse.Response.OK);
+		}
+	}
+
+
+	private static AimlessKick aimlessKick(int botId)
+	{
+		return new AimlessKick(BotID.createBotId(botId, ETeamColor.YELLOW), Vector2.fromXY(1000, 0),
+				Vector2.fromXY(0, 0));
+	}
+
+
+	private static void awaitCondition(BooleanSupplier condition) throws InterruptedException
+	{
+		long start = System.currentTimeMillis();
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis() - start).isLessThan(TIMEOUT_MS);
+			Thread.sleep(10);
+		}
+	}
+
+
+	/**
+	 * Accepts a single autoRef and acknowledges the registration and all requests
+	 */
+	private static class StandInGameController implements AutoCloseable
+	{
+		private final ServerSocket serverSocket = new ServerSocket(0);
+		private final List<SslGcGameEvent.GameEvent> gameEvents = new CopyOnWriteArrayList<>();
+		private final Thread thread = new Thread(this::run, "StandInGameController");
+		private int tokenCounter = 0;
+
+
+		StandInGameController() throws IOException
+		{
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+
+		int getPort()
+		{
+			return serverSocket.getLocalPort();
+		}
+
+
+		List<SslGcGameEvent.GameEvent> getGameEvents()
+		{
+			return gameEvents;
+		}
+
+
+		private void run()
+		{
+			try (Socket socket = serverSocket.accept())
+			{
+				reply(socket);
+				SslGcRconAutoref.AutoRefRegistration.parseDelimitedFrom(socket.getInputStream());
+				reply(socket);
+				while (true)
+				{
+					var request = SslGcRconAutoref.AutoRefToController.parseDelimitedFrom(socket.getInputStream());
+					if (request == null)
+					{
+						return;
+					}
+					if (request.hasGameEvent())
+					{
+						gameEvents.add(request.getGameEvent());
+					}
+					reply(socket);
+				}
+			} catch (IOException e)
+			{
+				log.debug("Stand-in game-controller stopped", e);
+			}
+		}
+
+
+		private void reply(Socket socket) throws IOException
+		{
+			SslGcRconAutoref.ControllerToAutoRef.newBuilder()
+					.setControllerReply(SslGcRcon.ControllerReply.newBuilder()
+							.setStatusCode(SslGcRcon.ControllerReply.StatusCode.OK)
+							.setNextToken("token-" + tokenCounter++))
+					.build()
+					.writeDelimitedTo(socket.getOutputStream());
+			socket.getOutputStream().flush();
+		}
+
+
+		@Override
+		public void close() throws IOException
+		{
+			serverSocket.close();
+		}
+	}
+}
@@ -2,11 +2,9 @@ package edu.tigers.autoreferee;
 
 import edu.tigers.autoreferee.engine.EAutoRefMode;
 import edu.tigers.autoreferee.generic.BotPosition;
-import edu.tigers.autoreferee.module.AutoRefModule;
 import edu.tigers.sumatra.drawable.DrawableBorderText;
 import edu.tigers.sumatra.drawable.ShapeMap;
 import edu.tigers.sumatra.math.vector.Vector2;
-import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.data.RefereeMsg;
 import edu.tigers.sumatra.wp.data.BallLeftFieldPosition;
@@ -36,17 +34,18 @@ public class AutoRefFrame implements IAutoRefFrame
 	private List<GameState> stateHistory = Collections.emptyList();
 
 
-	public AutoRefFrame(final AutoRefFrame previousFrame, final WorldFrameWrapper worldFrameWrapper)
+	public AutoRefFrame(final AutoRefFrame previousFrame, final WorldFrameWrapper worldFrameWrapper,
+			final EAutoRefMode mode)
 	{
 		this.previousFrame = previousFrame;
 		this.worldFrameWrapper = worldFrameWrapper;
-		Color autoRefWarning = SumatraModel.getInstance().getModule(AutoRefModule.class).getMode() == EAutoRefMode.OFF
+		Color autoRefWarning = mode == EAutoRefMode.OFF
 				? Color.RED
 				: Color.WHITE;
 		shapes.get(EAutoRefShapesLayer.MODE).add(
 				new DrawableBorderText(
 						Vector2.fromXY(1, 6),
-						"AutoRef: " + SumatraModel.getInstance().getModule(AutoRefModule.class).getMode().toString()
+						"AutoRef: " + mode
 				)
 						.setColor(autoRefWarning));
 	}
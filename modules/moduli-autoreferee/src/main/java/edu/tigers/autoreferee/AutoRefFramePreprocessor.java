@@ -1,15 +1,19 @@
 package edu.tigers.autoreferee;
 
+import edu.tigers.autoreferee.engine.EAutoRefMode;
 import edu.tigers.autoreferee.engine.calc.AllowedDistancesAutoRefVisCalc;
 import edu.tigers.autoreferee.engine.calc.BallLeftFieldAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.BotBallContactAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.GameStateHistoryAutoRefCalc;
 import edu.tigers.autoreferee.engine.calc.IAutoRefereeCalc;
 import edu.tigers.autoreferee.engine.calc.PassDetectionAutoRefCalc;
+import edu.tigers.autoreferee.module.AutoRefModule;
+import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 
 /**
@@ -19,10 +23,25 @@ public class AutoRefFramePreprocessor
 {
 	private List<IAutoRefereeCalc> calculators = new ArrayList<>();
 	private AutoRefFrame lastFrame;
+	private AutoRefLatencyStats latencyStats = new AutoRefLatencyStats();
+	private final Supplier<EAutoRefMode> modeSupplier;
 	
 	
+	/**
+	 * Create a preprocessor that takes the current mode from the {@link AutoRefModule}
+	 */
 	public AutoRefFramePreprocessor()
 	{
+		this(() -> SumatraModel.getInstance().getModule(AutoRefModule.class).getMode());
+	}
+	
+	
+	/**
+	 * @param modeSupplier provides the current mode of the AutoRef, which is shown in the frame shapes
+	 */
+	public AutoRefFramePreprocessor(final Supplier<EAutoRefMode> modeSupplier)
+	{
+		this.modeSupplier = modeSupplier;
 		calculators.add(new BallLeftFieldAutoRefCalc());
 		calculators.add(new BotBallContactAutoRefCalc());
 		calculators.add(new GameStateHistoryAutoRefCalc());
@@ -33,7 +52,8 @@ public class AutoRefFramePreprocessor
 	
 	public AutoRefFrame process(final WorldFrameWrapper wFrame)
 	{
-		AutoRefFrame frame = new AutoRefFrame(lastFrame, wFrame);
+		long tStart = System.nanoTime();
+		AutoRefFrame frame = new AutoRefFrame(lastFrame, wFrame, modeSupplier.get());
 		
 		if (lastFrame != null)
 		{
@@ -41,6 +61,7 @@ public class AutoRefFramePreprocessor
 			runCalculators(frame);
 		}
 		setLastFrame(frame);
+		latencyStats.recordPreprocessor(tStart);
 		return frame;
 	}
 	
@@ -59,9 +80,17 @@ public class AutoRefFramePreprocessor
 	{
 		for (IAutoRefereeCalc calc : calculators)
 		{
+			long tStart = System.nanoTime();
 			calc.process(frame);
+			latencyStats.recordCalculator(calc.getClass(), tStart);
 		}
 	}
+
+
+	public void setLatencyStats(final AutoRefLatencyStats latencyStats)
+	{
+		this.latencyStats = latencyStats;
+	}
 	
 	
 	public boolean hasLastFrame()
@@ -0,0 +1,384 @@
+package edu.tigers.autoreferee;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import com.github.g3force.configurable.EConfigUnit;
+import edu.tigers.autoreferee.engine.calc.IAutoRefereeCalc;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.export.CSVExporter;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Latency statistics of the AutoRef pipeline.
+ * <p>
+ * Recording is thread-safe and allocation-free, so it can be done on every frame,
+ * even when the detectors are executed in parallel.
+ * The statistics are cumulative until {@link #reset()} is called.
+ */
+@Log4j2
+public class AutoRefLatencyStats
+{
+	private static final String CSV_FOLDER = "data/autoref-latency";
+
+	@Configurable(defValue = "0.0", comment = "Interval for logging the latency statistics (0 to disable)", unit = EConfigUnit.TIME_S)
+	private static double dumpInterval = 0.0;
+
+	@Configurable(defValue = "false", comment = "Append the periodically dumped latency statistics to a CSV file in " + CSV_FOLDER, unit = EConfigUnit.BOOLEAN)
+	private static boolean dumpToCsv = false;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", AutoRefLatencyStats.class);
+	}
+
+	private final Map<EGameEventDetectorType, LatencyHistogram> detectorLatencies = new EnumMap<>(
+			EGameEventDetectorType.class);
+	private final Map<Class<? extends IAutoRefereeCalc>, LatencyHistogram> calculatorLatencies = new ConcurrentHashMap<>();
+	private final LatencyHistogram preprocessorLatency = new LatencyHistogram();
+	private final LatencyHistogram detectorsLatency = new LatencyHistogram();
+	private final LatencyHistogram shapePublishLatency = new LatencyHistogram();
+	private final LatencyHistogram frameLatency = new LatencyHistogram();
+	private final LatencyHistogram ingestionLag = new LatencyHistogram();
+	private final LatencyHistogram gameEventDetection = new LatencyHistogram();
+	private final LatencyHistogram gameEventQueue = new LatencyHistogram();
+	private final LatencyHistogram gameEventReply = new LatencyHistogram();
+	private final LatencyHistogram gameEventTotal = new LatencyHistogram();
+	private final LongAdder processedFrames = new LongAdder();
+	private final LongAdder droppedFrames = new LongAdder();
+	private final LongAdder staleFrames = new LongAdder();
+	private final LongAdder coalescedGameEvents = new LongAdder();
+
+	private long lastDump = System.nanoTime();
+	private CSVExporter csvExporter;
+
+
+	public AutoRefLatencyStats()
+	{
+		for (EGameEventDetectorType type : EGameEventDetectorType.values())
+		{
+			detectorLatencies.put(type, new LatencyHistogram());
+		}
+	}
+
+
+	public void recordDetector(final EGameEventDetectorType type, final long tStart)
+	{
+		detectorLatencies.get(type).recordSince(tStart);
+	}
+
+
+	public void recordCalculator(final Class<? extends IAutoRefereeCalc> calcClass, final long tStart)
+	{
+		calculatorLatencies.computeIfAbsent(calcClass, c -> new LatencyHistogram()).recordSince(tStart);
+	}
+
+
+	public void recordPreprocessor(final long tStart)
+	{
+		preprocessorLatency.recordSince(tStart);
+	}
+
+
+	public void recordDetectors(final long tStart)
+	{
+		detectorsLatency.recordSince(tStart);
+	}
+
+
+	public void recordShapePublish(final long tStart)
+	{
+		shapePublishLatency.recordSince(tStart);
+	}
+
+
+	public void recordFrame(final long tStart)
+	{
+		frameLatency.recordSince(tStart);
+		processedFrames.increment();
+	}
+
+
+	/**
+	 * @param tEnqueued the time when the frame was received [ns]
+	 */
+	public void recordIngestionLag(final long tEnqueued)
+	{
+		ingestionLag.recordSince(tEnqueued);
+	}
+
+
+	/**
+	 * @param tFrameReceived the time when the frame in which the game event was detected was received [ns]
+	 */
+	public void recordGameEventDetected(final long tFrameReceived)
+	{
+		gameEventDetection.recordSince(tFrameReceived);
+	}
+
+
+	/**
+	 * @param tDetected the time when the game event was detected and queued for the game-controller [ns]
+	 */
+	public void recordGameEventSent(final long tDetected)
+	{
+		gameEventQueue.recordSince(tDetected);
+	}
+
+
+	/**
+	 * @param tSent          the time when the game event was sent to the game-controller [ns]
+	 * @param tFrameReceived the time when the frame in which the game event was detected was received [ns]
+	 */
+	public void recordGameEventReply(final long tSent, final long tFrameReceived)
+	{
+		gameEventReply.recordSince(tSent);
+		gameEventTotal.recordSince(tFrameReceived);
+	}
+
+
+	public void countCoalescedGameEvent()
+	{
+		coalescedGameEvents.increment();
+	}
+
+
+	public void countDroppedFrame()
+	{
+		droppedFrames.increment();
+	}
+
+
+	public void countStaleFrame()
+	{
+		staleFrames.increment();
+	}
+
+
+	public LatencyHistogram getDetectorLatency(final EGameEventDetectorType type)
+	{
+		return detectorLatencies.get(type);
+	}
+
+
+	public Map<Class<? extends IAutoRefereeCalc>, LatencyHistogram> getCalculatorLatencies()
+	{
+		return Collections.unmodifiableMap(calculatorLatencies);
+	}
+
+
+	public LatencyHistogram getPreprocessorLatency()
+	{
+		return preprocessorLatency;
+	}
+
+
+	public LatencyHistogram getDetectorsLatency()
+	{
+		return detectorsLatency;
+	}
+
+
+	public LatencyHistogram getShapePublishLatency()
+	{
+		return shapePublishLatency;
+	}
+
+
+	public LatencyHistogram getFrameLatency()
+	{
+		return frameLatency;
+	}
+
+
+	/**
+	 * @return the time between receiving a frame and starting to process it
+	 */
+	public LatencyHistogram getIngestionLag()
+	{
+		return ingestionLag;
+	}
+
+
+	/**
+	 * @return the time from receiving a frame to the game-controller reply for game events detected in it
+	 */
+	public LatencyHistogram getGameEventTotalLatency()
+	{
+		return gameEventTotal;
+	}
+
+
+	public long getProcessedFrames()
+	{
+		return processedFrames.sum();
+	}
+
+
+	public long getDroppedFrames()
+	{
+		return droppedFrames.sum();
+	}
+
+
+	/**
+	 * @return the number of frames that were processed in catch-up mode, without publishing their shapes
+	 */
+	public long getStaleFrames()
+	{
+		return staleFrames.sum();
+	}
+
+
+	/**
+	 * @return the number of game events that were not sent, because a similar event was still queued
+	 */
+	public long getCoalescedGameEvents()
+	{
+		return coalescedGameEvents.sum();
+	}
+
+
+	/**
+	 * @return all histograms by a readable name, in a stable order
+	 */
+	public Map<String, LatencyHistogram> getAllLatencies()
+	{
+		Map<String, LatencyHistogram> all = new LinkedHashMap<>();
+		all.put("ingestionLag", ingestionLag);
+		all.put("frame", frameLatency);
+		all.put("preprocessor", preprocessorLatency);
+		all.put("detectors", detectorsLatency);
+		all.put("shapePublish", shapePublishLatency);
+		all.put("gameEvent.detection", gameEventDetection);
+		all.put("gameEvent.queue", gameEventQueue);
+		all.put("gameEvent.reply", gameEventReply);
+		all.put("gameEvent.total", gameEventTotal);
+		calculatorLatencies.entrySet().stream()
+				.sorted(Comparator.comparing(e -> e.getKey().getSimpleName()))
+				.forEach(e -> all.put("calc." + e.getKey().getSimpleName(), e.getValue()));
+		detectorLatencies.forEach((type, histogram) -> all.put("detector." + type.name(), histogram));
+		return all;
+	}
+
+
+	/**
+	 * Reset all statistics
+	 */
+	public void reset()
+	{
+		detectorLatencies.values().forEach(LatencyHistogram::reset);
+		calculatorLatencies.values().forEach(LatencyHistogram::reset);
+		preprocessorLatency.reset();
+		detectorsLatency.reset();
+		shapePublishLatency.reset();
+		frameLatency.reset();
+		ingestionLag.reset();
+		gameEventDetection.reset();
+		gameEventQueue.reset();
+		gameEventReply.reset();
+		gameEventTotal.reset();
+		processedFrames.reset();
+		droppedFrames.reset();
+		staleFrames.reset();
+		coalescedGameEvents.reset();
+	}
+
+
+	/**
+	 * Log (and optionally export) the statistics, if the configured dump interval has passed.
+	 * This should be called periodically by the thread that processes the frames.
+	 */
+	public void dumpIfDue()
+	{
+		long now = System.nanoTime();
+		if (dumpInterval <= 0 || (now - lastDump) / 1e9 < dumpInterval)
+		{
+			return;
+		}
+		lastDump = now;
+		dump();
+	}
+
+
+	/**
+	 * Log (and optionally export) the statistics now
+	 */
+	public void dump()
+	{
+		log.info("AutoRef latencies: {} frames processed, {} frames stale, {} frames dropped, {} game events coalesced",
+				getProcessedFrames(), getStaleFrames(), getDroppedFrames(), getCoalescedGameEvents());
+		long timestamp = System.currentTimeMillis();
+		getAllLatencies().forEach((name, histogram) -> {
+			if (histogram.getCount() == 0)
+			{
+				return;
+			}
+			log.info("{}: n={} mean={}ms p50={}ms p99={}ms max={}ms",
+					name,
+					histogram.getCount(),
+					toMs(histogram.getMean()),
+					toMs(histogram.getValueAtPercentile(50)),
+					toMs(histogram.getValueAtPercentile(99)),
+					toMs(histogram.getMax()));
+			if (dumpToCsv)
+			{
+				exportCsv(timestamp, name, histogram);
+			}
+		});
+	}
+
+
+	private static String toMs(final double nanos)
+	{
+		return String.format("%.3f", nanos / 1e6);
+	}
+
+
+	private void exportCsv(final long timestamp, final String name, final LatencyHistogram histogram)
+	{
+		if (csvExporter == null)
+		{
+			csvExporter = new CSVExporter(CSV_FOLDER, "latency", CSVExporter.EMode.APPEND_DATE);
+			csvExporter.setHeader(List.of("timestamp", "name", "count", "mean", "p50", "p90", "p99", "max",
+					"processedFrames", "staleFrames", "droppedFrames"));
+		}
+		List<Object> values = new ArrayList<>();
+		values.add(timestamp);
+		values.add(name);
+		values.add(histogram.getCount());
+		values.add(histogram.getMean());
+		values.add(histogram.getValueAtPercentile(50));
+		values.add(histogram.getValueAtPercentile(90));
+		values.add(histogram.getValueAtPercentile(99));
+		values.add(histogram.getMax());
+		values.add(getProcessedFrames());
+		values.add(getStaleFrames());
+		values.add(getDroppedFrames());
+		csvExporter.addValues(values);
+	}
+
+
+	/**
+	 * Close any open CSV file
+	 */
+	public void close()
+	{
+		if (csvExporter != null)
+		{
+			csvExporter.close();
+			csvExporter = null;
+		}
+	}
+}
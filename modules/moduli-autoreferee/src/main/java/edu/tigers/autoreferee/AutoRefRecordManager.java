@@ -19,9 +19,9 @@ public class AutoRefRecordManager extends RecordManager
 	protected void onNewPersistenceDb(PersistenceDb db)
 	{
 		super.onNewPersistenceDb(db);
-		db.add(PersistenceCamDetectionFrame.class, EPersistenceKeyType.ARBITRARY);
+		db.add(PersistenceCamDetectionFrame.class, EPersistenceKeyType.ARBITRARY, getFrameCodec());
 		db.add(PersistenceShapeMapFrame.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
-		db.add(WorldFrameWrapper.class, EPersistenceKeyType.SUMATRA_TIMESTAMP);
+		db.add(WorldFrameWrapper.class, EPersistenceKeyType.SUMATRA_TIMESTAMP, getFrameCodec());
 	}
 
 
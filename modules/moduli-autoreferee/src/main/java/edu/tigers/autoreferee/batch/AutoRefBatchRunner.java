@@ -0,0 +1,173 @@
+package edu.tigers.autoreferee.batch;
+
+import edu.tigers.sumatra.export.CSVExporter;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+
+/**
+ * Evaluates many game logs with the AutoRef concurrently.
+ * <p>
+ * The geometry and the configuration are global state, so each log is evaluated by an
+ * {@link AutoRefLogEvaluator} in its own JVM process, with at most {@code parallelism} processes at a time.
+ * The processes use the class path and the working directory (and thus the config) of the current process.
+ */
+@Log4j2
+public class AutoRefBatchRunner
+{
+	private final Path outputFolder;
+	private final int parallelism;
+
+
+	/**
+	 * @param outputFolder the folder for the reports and the process logs
+	 * @param parallelism  the max number of logs that are evaluated concurrently
+	 */
+	public AutoRefBatchRunner(final Path outputFolder, final int parallelism)
+	{
+		this.outputFolder = outputFolder;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+
+	/**
+	 * Find all game logs in the given files and folders (recursively)
+	 *
+	 * @param paths files or folders
+	 * @return all game log files
+	 */
+	public static List<Path> findLogFiles(final List<Path> paths) throws IOException
+	{
+		List<Path> logFiles = new ArrayList<>();
+		for (Path path : paths)
+		{
+			if (Files.isDirectory(path))
+			{
+				try (Stream<Path> files = Files.walk(path))
+				{
+					files.filter(Files::isRegularFile)
+							.filter(f -> f.toString().endsWith(".log") || f.toString().endsWith(".log.gz"))
+							.sorted()
+							.forEach(logFiles::add);
+				}
+			} else
+			{
+				logFiles.add(path);
+			}
+		}
+		return logFiles;
+	}
+
+
+	/**
+	 * Evaluate all given logs and wait until all evaluations are done.
+	 * A summary is written to {@code summary.csv} in the output folder.
+	 *
+	 * @param logFiles the game logs to evaluate
+	 * @return the results in the order of the given logs
+	 */
+	public List<BatchResult> run(final List<Path> logFiles) throws IOException, InterruptedException
+	{
+		Files.createDirectories(outputFolder);
+		log.info("Evaluating {} game logs with {} processes", logFiles.size(), parallelism);
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory("AutoRefBatch"));
+		List<BatchResult> results = new ArrayList<>();
+		try
+		{
+			List<Future<BatchResult>> futures = new ArrayList<>();
+			for (Path logFile : logFiles)
+			{
+				futures.add(executor.submit(() -> evaluateInProcess(logFile)));
+			}
+			for (Future<BatchResult> future : futures)
+			{
+				results.add(future.get());
+			}
+		} catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Batch evaluation failed", e.getCause());
+		} finally
+		{
+			executor.shutdownNow();
+		}
+
+		writeSummary(results);
+		return results;
+	}
+
+
+	private BatchResult evaluateInProcess(final Path logFile) throws IOException, InterruptedException
+	{
+		String name = AutoRefLogReport.reportName(logFile);
+		Path processLog = outputFolder.resolve(name + ".out");
+		List<String> command = List.of(
+				ProcessHandle.current().info().command().orElse("java"),
+				"-cp", System.getProperty("java.class.path"),
+				AutoRefLogEvaluator.class.getName(),
+				logFile.toAbsolutePath().toString(),
+				outputFolder.toAbsolutePath().toString()
+		);
+
+		long tStart = System.nanoTime();
+		Process process = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(processLog.toFile())
+				.start();
+		try
+		{
+			int exitCode = process.waitFor();
+			double duration = (System.nanoTime() - tStart) / 1e9;
+			if (exitCode != 0)
+			{
+				log.warn("Evaluation of {} failed with exit code {}, see {}", logFile, exitCode, processLog);
+			} else
+			{
+				log.info("Evaluated {} in {}s", logFile, String.format("%.1f", duration));
+			}
+			return new BatchResult(logFile, exitCode, duration, outputFolder.resolve(name + ".csv"));
+		} finally
+		{
+			process.destroy();
+		}
+	}
+
+
+	private void writeSummary(final List<BatchResult> results)
+	{
+		try (CSVExporter exporter = new CSVExporter(outputFolder, "summary", CSVExporter.EMode.EXACT_FILE_NAME))
+		{
+			exporter.setHeader(List.of("log", "exitCode", "duration", "report"));
+			for (BatchResult result : results)
+			{
+				exporter.addValues(List.of(result.logFile(), result.exitCode(), result.duration(), result.report()));
+			}
+		}
+	}
+
+
+	/**
+	 * @param logFile  the evaluated game log
+	 * @param exitCode the exit code of the evaluation process
+	 * @param duration the wall clock time of the evaluation [s]
+	 * @param report   the report file with the detected game events
+	 */
+	public record BatchResult(Path logFile, int exitCode, double duration, Path report)
+	{
+		public boolean isSuccess()
+		{
+			return exitCode == 0;
+		}
+	}
+}
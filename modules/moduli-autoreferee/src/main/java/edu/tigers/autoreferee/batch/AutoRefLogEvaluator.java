@@ -0,0 +1,183 @@
+package edu.tigers.autoreferee.batch;
+
+import edu.tigers.autoreferee.AutoRefFrame;
+import edu.tigers.autoreferee.AutoRefFramePreprocessor;
+import edu.tigers.autoreferee.engine.EAutoRefMode;
+import edu.tigers.autoreferee.engine.GameEventEngine;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.cam.CamDetectionConverter;
+import edu.tigers.sumatra.cam.CamObjectFilter;
+import edu.tigers.sumatra.cam.SSLVisionCamGeometryTranslator;
+import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.referee.proto.SslGcRefereeMessage;
+import edu.tigers.sumatra.vision.VisionFilterImpl;
+import edu.tigers.sumatra.vision.data.FilteredVisionFrame;
+import edu.tigers.sumatra.wp.WorldInfoProcessor;
+import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Evaluates a single game log with the AutoRef, as fast as possible and without the module system.
+ * <p>
+ * The pipeline consists of the vision filter (synchronous mode), the {@link WorldInfoProcessor},
+ * the {@link AutoRefFramePreprocessor} and the {@link GameEventEngine}. The log timestamps are used as the clock.
+ * <p>
+ * Note that the {@link Geometry} and the configurables are global state.
+ * Use the {@link AutoRefBatchRunner} to evaluate multiple logs concurrently in isolated processes.
+ */
+@Log4j2
+public class AutoRefLogEvaluator
+{
+	private static final String SUBSCRIBER_ID = AutoRefLogEvaluator.class.getCanonicalName();
+
+	private final SSLVisionCamGeometryTranslator geometryTranslator = new SSLVisionCamGeometryTranslator();
+	private final CamDetectionConverter camDetectionConverter = new CamDetectionConverter();
+	private final CamObjectFilter camObjectFilter = new CamObjectFilter();
+	private final VisionFilterImpl visionFilter = new VisionFilterImpl();
+	private final WorldInfoProcessor worldInfoProcessor = new WorldInfoProcessor();
+	private final AutoRefFramePreprocessor preprocessor = new AutoRefFramePreprocessor(() -> EAutoRefMode.PASSIVE);
+	private final GameEventEngine gameEventEngine;
+
+	private final List<AutoRefLogReport.DetectedGameEvent> detectedEvents = new ArrayList<>();
+	private long numWorldFrames = 0;
+
+
+	/**
+	 * @param activeDetectors the detectors to run
+	 */
+	public AutoRefLogEvaluator(final Set<EGameEventDetectorType> activeDetectors)
+	{
+		gameEventEngine = new GameEventEngine(activeDetectors);
+		visionFilter.getFilteredVisionFrame().subscribe(SUBSCRIBER_ID, this::onNewFilteredVisionFrame);
+	}
+
+
+	/**
+	 * Evaluate the given game log. An evaluator instance can only evaluate a single log.
+	 *
+	 * @param logFile the game log file (optionally gzipped)
+	 * @return the evaluation report
+	 * @throws IOException if the log does not exist or can not be read
+	 */
+	public AutoRefLogReport evaluate(final Path logFile) throws IOException
+	{
+		long tStart = System.nanoTime();
+
+		try (GameLogReader reader = new GameLogReader())
+		{
+			reader.addFilter(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_VISION_2014, EMessageType.SSL_REFBOX_2013)));
+			reader.openFile(logFile.toAbsolutePath().toString());
+			for (int i = 0; i < reader.getNumMessages(); i++)
+			{
+				process(reader.getMessage(i));
+			}
+		} catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		} finally
+		{
+			visionFilter.shutdownCamWorkers();
+		}
+
+		double processingTime = (System.nanoTime() - tStart) / 1e9;
+		log.info("Evaluated {} in {}s: {} frames, {} game events", logFile, String.format("%.1f", processingTime),
+				numWorldFrames, detectedEvents.size());
+		return new AutoRefLogReport(logFile, numWorldFrames, processingTime, List.copyOf(detectedEvents));
+	}
+
+
+	private void process(final GameLogMessage message)
+	{
+		try
+		{
+			switch (message.getType())
+			{
+				case SSL_VISION_2014 -> processVision(SslVisionWrapper.SSL_WrapperPacket.parseFrom(message.getData()));
+				case SSL_REFBOX_2013 ->
+						worldInfoProcessor.onNewRefereeMsg(SslGcRefereeMessage.Referee.parseFrom(message.getData()));
+				default ->
+				{
+					// not relevant for the AutoRef
+				}
+			}
+		} catch (Exception e)
+		{
+			log.error("Could not process {} message at {}", message.getType(), message.getTimestampNs(), e);
+		}
+	}
+
+
+	private void processVision(final SslVisionWrapper.SSL_WrapperPacket sslPacket)
+	{
+		if (sslPacket.hasGeometry())
+		{
+			CamGeometry geometry = geometryTranslator.fromProtobuf(sslPacket.getGeometry());
+			Geometry.update(geometry);
+			visionFilter.onNewCameraGeometry(geometry);
+		}
+
+		if (sslPacket.hasDetection())
+		{
+			var camDetectionFrame = camDetectionConverter.convertDetectionFrame(sslPacket.getDetection());
+			visionFilter.onNewCamDetectionFrame(camObjectFilter.filter(camDetectionFrame));
+		}
+	}
+
+
+	private void onNewFilteredVisionFrame(final FilteredVisionFrame filteredVisionFrame)
+	{
+		WorldFrameWrapper wfw = worldInfoProcessor.process(filteredVisionFrame);
+		visionFilter.setRobotInfoMap(worldInfoProcessor.getLastRobotInfo());
+		numWorldFrames++;
+
+		AutoRefFrame frame = preprocessor.process(wfw);
+		if (frame.getPreviousFrame() != null)
+		{
+			gameEventEngine.update(frame).forEach(
+					event -> detectedEvents.add(new AutoRefLogReport.DetectedGameEvent(frame.getTimestamp(), event)));
+		}
+	}
+
+
+	/**
+	 * Evaluate a single game log and write the report.
+	 * This is the entry point for the processes that are started by the {@link AutoRefBatchRunner}.
+	 * The process exits with a non-zero exit code, if the log can not be read.
+	 *
+	 * @param args the game log file and the output folder
+	 */
+	public static void main(final String[] args)
+	{
+		if (args.length != 2)
+		{
+			log.error("Usage: {} <game log> <output folder>", AutoRefLogEvaluator.class.getSimpleName());
+			System.exit(2);
+		}
+		Path logFile = Path.of(args[0]);
+		try
+		{
+			AutoRefLogReport report = new AutoRefLogEvaluator(EGameEventDetectorType.valuesEnabledByDefault())
+					.evaluate(logFile);
+			report.writeCsv(Path.of(args[1]));
+		} catch (IOException e)
+		{
+			log.error("Could not evaluate {}", logFile, e);
+			System.exit(1);
+		}
+	}
+}
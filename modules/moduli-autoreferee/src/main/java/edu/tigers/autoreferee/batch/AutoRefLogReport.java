@@ -0,0 +1,67 @@
+package edu.tigers.autoreferee.batch;
+
+import edu.tigers.sumatra.export.CSVExporter;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+
+import java.nio.file.Path;
+import java.util.List;
+
+
+/**
+ * The result of evaluating a single game log with the AutoRef.
+ *
+ * @param logFile          the evaluated game log
+ * @param numWorldFrames   the number of world frames that were processed
+ * @param processingTime   the wall clock time that was required for the evaluation [s]
+ * @param detectedEvents   all game events that were detected, in detection order
+ */
+public record AutoRefLogReport(
+		Path logFile,
+		long numWorldFrames,
+		double processingTime,
+		List<DetectedGameEvent> detectedEvents
+)
+{
+	/**
+	 * @param timestamp the timestamp of the world frame in which the event was detected [ns]
+	 * @param gameEvent the detected game event
+	 */
+	public record DetectedGameEvent(long timestamp, IGameEvent gameEvent)
+	{
+	}
+
+
+	/**
+	 * Write the detected game events into a CSV file named after the game log.
+	 *
+	 * @param folder the target folder
+	 * @return the absolute path of the written file
+	 */
+	public String writeCsv(final Path folder)
+	{
+		try (CSVExporter exporter = new CSVExporter(folder, reportName(logFile), CSVExporter.EMode.EXACT_FILE_NAME))
+		{
+			exporter.setHeader(List.of("timestamp", "type", "team", "description"));
+			for (DetectedGameEvent event : detectedEvents)
+			{
+				exporter.addValues(List.of(
+						event.timestamp(),
+						event.gameEvent().getType(),
+						event.gameEvent().getTeam(),
+						"\"" + String.valueOf(event.gameEvent().getDescription()).replace("\"", "'") + "\""
+				));
+			}
+			return exporter.getAbsoluteFileName();
+		}
+	}
+
+
+	/**
+	 * @param logFile a game log file
+	 * @return the base name of the report file for the given game log
+	 */
+	public static String reportName(final Path logFile)
+	{
+		return logFile.getFileName().toString().replaceAll("\\.log(\\.gz)?$", "") + ".events";
+	}
+}
@@ -16,6 +16,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.net.InetAddress;
+import java.util.Objects;
 import java.util.Set;
 
 
@@ -26,6 +27,8 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 	private static final int DEFAULT_GC_AUTO_REF_PORT = 11007;
 
 	private AutoRefToGameControllerConnector remote;
+	private AReferee referee;
+	private InetAddress refBoxAddress;
 	private Long lastTimeSentContinue;
 
 
@@ -39,13 +42,12 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 	public void start()
 	{
 		lastTimeSentContinue = null;
-		AReferee referee = SumatraModel.getInstance().getModule(AReferee.class);
-		String hostname = referee.getActiveSource().getRefBoxAddress()
-				.map(InetAddress::getHostAddress)
-				.orElse(DEFAULT_REFEREE_HOST);
+		referee = SumatraModel.getInstance().getModule(AReferee.class);
+		refBoxAddress = referee.getActiveSource().getRefBoxAddress().orElse(null);
 		int port = SumatraModel.getInstance().getModule(AutoRefModule.class)
 				.getSubnodeConfiguration().getInt("gameControllerPort", DEFAULT_GC_AUTO_REF_PORT);
-		remote = new AutoRefToGameControllerConnector(hostname, port);
+		remote = new AutoRefToGameControllerConnector(getHostname(refBoxAddress), port);
+		remote.setLatencyStats(getLatencyStats());
 		remote.addGameEventResponseObserver(this::onGameControllerResponse);
 		remote.start();
 	}
@@ -58,14 +60,22 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 	}
 
 
+	private String getHostname(final InetAddress address)
+	{
+		return address == null ? DEFAULT_REFEREE_HOST : address.getHostAddress();
+	}
+
+
 	@Override
 	public void process(final IAutoRefFrame frame)
 	{
-		AReferee referee = SumatraModel.getInstance().getModule(AReferee.class);
-		String hostname = referee.getActiveSource().getRefBoxAddress()
-				.map(InetAddress::getHostAddress)
-				.orElse(DEFAULT_REFEREE_HOST);
-		remote.updateHostname(hostname);
+		// the address of the last received referee message, only update the connector when it changes
+		InetAddress address = referee.getActiveSource().getRefBoxAddress().orElse(null);
+		if (!Objects.equals(address, refBoxAddress))
+		{
+			refBoxAddress = address;
+			remote.updateHostname(getHostname(address));
+		}
 
 		processEngine(frame).forEach(this::processGameEvent);
 
@@ -129,7 +139,7 @@ public class ActiveAutoRefEngine extends AutoRefEngine
 	protected void processGameEvent(final IGameEvent gameEvent)
 	{
 		super.processGameEvent(gameEvent);
-		remote.sendEvent(gameEvent);
+		remote.sendEvent(gameEvent, getFrameReceiveTime());
 	}
 
 
@@ -1,5 +1,6 @@
 package edu.tigers.autoreferee.engine;
 
+import edu.tigers.autoreferee.AutoRefLatencyStats;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
@@ -13,6 +14,8 @@ public class AutoRefEngine
 {
 	private final GameEventEngine gameEventEngine;
 	private final List<IAutoRefEngineObserver> observers = new CopyOnWriteArrayList<>();
+	private AutoRefLatencyStats latencyStats = new AutoRefLatencyStats();
+	private long tFrameReceived = System.nanoTime();
 	
 	
 	public AutoRefEngine(Set<EGameEventDetectorType> activeDetectors)
@@ -33,6 +36,35 @@ public class AutoRefEngine
 	}
 	
 	
+	public void setLatencyStats(final AutoRefLatencyStats latencyStats)
+	{
+		this.latencyStats = latencyStats;
+		gameEventEngine.setLatencyStats(latencyStats);
+	}
+	
+	
+	protected AutoRefLatencyStats getLatencyStats()
+	{
+		return latencyStats;
+	}
+	
+	
+	/**
+	 * @param tFrameReceived the time when the world frame of the next processed frame was received [ns],
+	 *                       used for tracing the latency of detected game events
+	 */
+	public void setFrameReceiveTime(final long tFrameReceived)
+	{
+		this.tFrameReceived = tFrameReceived;
+	}
+	
+	
+	protected long getFrameReceiveTime()
+	{
+		return tFrameReceived;
+	}
+	
+	
 	protected List<IGameEvent> processEngine(final IAutoRefFrame frame)
 	{
 		return gameEventEngine.update(frame);
@@ -59,6 +91,7 @@ public class AutoRefEngine
 	
 	protected void processGameEvent(final IGameEvent gameEvent)
 	{
+		latencyStats.recordGameEventDetected(tFrameReceived);
 		observers.forEach(o -> o.onNewGameEventDetected(gameEvent));
 	}
 }
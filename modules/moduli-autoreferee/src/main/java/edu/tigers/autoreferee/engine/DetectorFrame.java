@@ -0,0 +1,125 @@
+package edu.tigers.autoreferee.engine;
+
+import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.generic.BotPosition;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.data.RefereeMsg;
+import edu.tigers.sumatra.wp.data.BallLeftFieldPosition;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * A view on an {@link IAutoRefFrame} for a single detector with its own {@link ShapeMap}.
+ * The shapes are merged into the shared frame by {@link #mergeShapes()} after the detector has finished.
+ */
+class DetectorFrame implements IAutoRefFrame
+{
+	private final IAutoRefFrame frame;
+	private final ShapeMap shapes = new ShapeMap();
+
+
+	DetectorFrame(final IAutoRefFrame frame)
+	{
+		this.frame = frame;
+	}
+
+
+	/**
+	 * Append the shapes of this detector to the shapes of the shared frame
+	 */
+	void mergeShapes()
+	{
+		for (ShapeMap.ShapeLayer layer : shapes.getAllShapeLayers())
+		{
+			frame.getShapes().get(layer.getIdentifier()).addAll(layer.getShapes());
+		}
+	}
+
+
+	@Override
+	public IAutoRefFrame getPreviousFrame()
+	{
+		return frame.getPreviousFrame();
+	}
+
+
+	@Override
+	public SimpleWorldFrame getWorldFrame()
+	{
+		return frame.getWorldFrame();
+	}
+
+
+	@Override
+	public GameState getGameState()
+	{
+		return frame.getGameState();
+	}
+
+
+	@Override
+	public List<BotPosition> getBotsLastTouchedBall()
+	{
+		return frame.getBotsLastTouchedBall();
+	}
+
+
+	@Override
+	public List<BotPosition> getBotsTouchingBall()
+	{
+		return frame.getBotsTouchingBall();
+	}
+
+
+	@Override
+	public Optional<BallLeftFieldPosition> getBallLeftFieldPos()
+	{
+		return frame.getBallLeftFieldPos();
+	}
+
+
+	@Override
+	public boolean isBallInsideField()
+	{
+		return frame.isBallInsideField();
+	}
+
+
+	@Override
+	public RefereeMsg getRefereeMsg()
+	{
+		return frame.getRefereeMsg();
+	}
+
+
+	@Override
+	public List<GameState> getStateHistory()
+	{
+		return frame.getStateHistory();
+	}
+
+
+	@Override
+	public long getTimestamp()
+	{
+		return frame.getTimestamp();
+	}
+
+
+	@Override
+	public void cleanUp()
+	{
+		// the shared frame is cleaned up by its owner, this view holds no references to previous frames
+	}
+
+
+	@Override
+	public ShapeMap getShapes()
+	{
+		return shapes;
+	}
+}
@@ -0,0 +1,12 @@
+package edu.tigers.autoreferee.engine;
+
+/**
+ * How the {@link GameEventEngine} executes the active game event detectors.
+ */
+public enum EDetectorExecutionMode
+{
+	/** Run all detectors one after another on the AutoRef thread */
+	SEQUENTIAL,
+	/** Run all detectors concurrently on a fork-join pool and merge the results in detector order */
+	PARALLEL,
+}
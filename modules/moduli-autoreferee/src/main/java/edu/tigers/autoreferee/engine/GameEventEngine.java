@@ -1,34 +1,74 @@
 package edu.tigers.autoreferee.engine;
 
 import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import com.github.g3force.configurable.EConfigUnit;
 import com.github.g3force.instanceables.InstanceableClass;
+import edu.tigers.autoreferee.AutoRefLatencyStats;
 import edu.tigers.autoreferee.IAutoRefFrame;
 import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
 import edu.tigers.autoreferee.engine.detector.IGameEventDetector;
 import edu.tigers.sumatra.referee.data.GameState;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 
 /**
  * The engine consults the {@link IGameEventDetector}s.
+ * <p>
+ * In {@link EDetectorExecutionMode#PARALLEL} mode, each detector gets its own {@link DetectorFrame}
+ * to draw its shapes on. The shapes are merged into the shared frame and the game events are collected in the order
+ * of {@link EGameEventDetectorType} after all detectors finished, such that the output is identical to the
+ * sequential execution.
+ * <p>
+ * The detectors do not depend on each other, so they can run in any order: they only read the shared frame, draw on
+ * their own shapes and keep their state in their own instance. Their static fields are configuration only.
+ * New detectors must keep it this way. The detectors of all engines run on a dedicated pool.
  */
 @Log4j2
 public class GameEventEngine
 {
+	@Configurable(defValue = "SEQUENTIAL", comment = "How to execute the active game event detectors", unit = EConfigUnit.NO_UNIT)
+	private static EDetectorExecutionMode defaultExecutionMode = EDetectorExecutionMode.SEQUENTIAL;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", GameEventEngine.class);
+	}
+
 	private final List<IGameEventDetector> allDetectors = new ArrayList<>();
 	private final Set<EGameEventDetectorType> activeDetectors;
+	private EDetectorExecutionMode executionMode = defaultExecutionMode;
+	private AutoRefLatencyStats latencyStats = new AutoRefLatencyStats();
 
 
 	public GameEventEngine(Set<EGameEventDetectorType> activeDetectors)
 	{
 		this.activeDetectors = activeDetectors;
+		createDetectors();
+	}
+
 
+	GameEventEngine(Set<EGameEventDetectorType> activeDetectors, List<IGameEventDetector> detectors)
+	{
+		this.activeDetectors = activeDetectors;
+		allDetectors.addAll(detectors);
+	}
+
+
+	private void createDetectors()
+	{
 		for (EGameEventDetectorType eCalc : EGameEventDetectorType.values())
 		{
 			ConfigRegistration.registerClass("autoreferee", eCalc.getInstanceableClass().getImpl());
@@ -53,6 +93,7 @@ public class GameEventEngine
 	 */
 	public List<IGameEvent> update(final IAutoRefFrame frame)
 	{
+		long tStart = System.nanoTime();
 		GameState currentState = frame.getGameState();
 		GameState lastState = frame.getPreviousFrame().getGameState();
 
@@ -71,20 +112,114 @@ public class GameEventEngine
 				.filter(detector -> !detector.isActiveIn(lastState.getState()))
 				.forEach(IGameEventDetector::reset);
 
+		List<Optional<IGameEvent>> results = switch (executionMode)
+		{
+			case SEQUENTIAL -> updateSequential(detectors, frame);
+			case PARALLEL -> updateParallel(detectors, frame);
+		};
+
 		List<IGameEvent> gameEvents = new ArrayList<>();
-		for (IGameEventDetector detector : detectors)
+		for (Optional<IGameEvent> result : results)
 		{
-			Optional<IGameEvent> result = detector.update(frame);
 			result.ifPresent(gameEvents::add);
 			result.ifPresent(event -> log.debug("Detected game event: {}", event));
 		}
 
+		latencyStats.recordDetectors(tStart);
 		return gameEvents;
 	}
 
 
+	private List<Optional<IGameEvent>> updateSequential(List<IGameEventDetector> detectors, IAutoRefFrame frame)
+	{
+		List<Optional<IGameEvent>> results = new ArrayList<>(detectors.size());
+		for (IGameEventDetector detector : detectors)
+		{
+			results.add(updateDetector(detector, frame));
+		}
+		return results;
+	}
+
+
+	private List<Optional<IGameEvent>> updateParallel(List<IGameEventDetector> detectors, IAutoRefFrame frame)
+	{
+		List<DetectorFrame> detectorFrames = new ArrayList<>(detectors.size());
+		List<CompletableFuture<Optional<IGameEvent>>> tasks = new ArrayList<>(detectors.size());
+		for (IGameEventDetector detector : detectors)
+		{
+			DetectorFrame detectorFrame = new DetectorFrame(frame);
+			detectorFrames.add(detectorFrame);
+			tasks.add(CompletableFuture.supplyAsync(() -> updateDetector(detector, detectorFrame),
+					DetectorPool.EXECUTOR));
+		}
+		// join in submission order to keep the results and shapes identical to the sequential execution
+		List<Optional<IGameEvent>> results = new ArrayList<>(tasks.size());
+		for (int i = 0; i < tasks.size(); i++)
+		{
+			try
+			{
+				results.add(tasks.get(i).join());
+			} catch (CompletionException e)
+			{
+				// fail like the sequential execution
+				throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+			}
+			detectorFrames.get(i).mergeShapes();
+		}
+		return results;
+	}
+
+
+	private Optional<IGameEvent> updateDetector(IGameEventDetector detector, IAutoRefFrame frame)
+	{
+		long tStart = System.nanoTime();
+		Optional<IGameEvent> result = detector.update(frame);
+		latencyStats.recordDetector(detector.getType(), tStart);
+		return result;
+	}
+
+
+	public void setLatencyStats(final AutoRefLatencyStats latencyStats)
+	{
+		this.latencyStats = latencyStats;
+	}
+
+
+	public EDetectorExecutionMode getExecutionMode()
+	{
+		return executionMode;
+	}
+
+
+	public void setExecutionMode(final EDetectorExecutionMode executionMode)
+	{
+		this.executionMode = executionMode;
+	}
+
+
 	public void reset()
 	{
 		allDetectors.forEach(IGameEventDetector::reset);
 	}
+
+
+	/**
+	 * The pool is created on first use of the parallel mode and is shared by all engines for the lifetime of the
+	 * application, so its threads are daemon threads.
+	 */
+	private static final class DetectorPool
+	{
+		private static final ExecutorService EXECUTOR = createExecutor();
+
+
+		private static ExecutorService createExecutor()
+		{
+			ThreadFactory threadFactory = new NamedThreadFactory("AutoRef Detector");
+			return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+				Thread thread = threadFactory.newThread(r);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
 }
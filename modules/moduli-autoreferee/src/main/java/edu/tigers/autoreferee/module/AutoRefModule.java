@@ -1,5 +1,6 @@
 package edu.tigers.autoreferee.module;
 
+import edu.tigers.autoreferee.AutoRefLatencyStats;
 import edu.tigers.autoreferee.IAutoRefObserver;
 import edu.tigers.autoreferee.engine.AutoRefEngine;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
@@ -104,4 +105,10 @@ public class AutoRefModule extends AModule implements IWorldFrameObserver
 	{
 		return runner.getMode();
 	}
+
+
+	public AutoRefLatencyStats getLatencyStats()
+	{
+		return runner.getLatencyStats();
+	}
 }
@@ -1,7 +1,10 @@
 package edu.tigers.autoreferee.module;
 
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
 import edu.tigers.autoreferee.AutoRefFrame;
 import edu.tigers.autoreferee.AutoRefFramePreprocessor;
+import edu.tigers.autoreferee.AutoRefLatencyStats;
 import edu.tigers.autoreferee.engine.ActiveAutoRefEngine;
 import edu.tigers.autoreferee.engine.AutoRefEngine;
 import edu.tigers.autoreferee.engine.EAutoRefMode;
@@ -17,16 +20,27 @@ import edu.tigers.sumatra.wp.data.WorldFrameWrapper;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.Validate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
 
 /**
  * Start the autoRef in a new thread and run an engine respective to the {@link EAutoRefMode}.
+ * <p>
+ * Incoming world frames are buffered in a bounded queue. If the AutoRef falls behind, all buffered frames are
+ * processed in a batch (catch-up mode): the calculators and detectors run for every frame,
+ * but only the shapes of the latest frame are published.
+ * Only if the buffer overflows, the oldest frame is dropped. The publisher thread is never blocked.
+ * <p>
+ * In simulation mode, the AutoRef runs in lock-step with the simulation instead: frames are handed over one by one
+ * and the publisher blocks until the previous frame was taken, such that every frame is processed and the
+ * game events are not delayed in simulation time by a backlog of buffered frames.
  */
 @Log4j2
 public class AutoRefRunner implements Runnable, IWorldFrameObserver
@@ -34,8 +48,19 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	private static final String AUTO_REF = "AutoRef";
 	private static final ShapeMapSource SHAPE_MAP_SOURCE = ShapeMapSource.of(AUTO_REF);
 
-	private final BlockingDeque<WorldFrameWrapper> consumableFrames = new LinkedBlockingDeque<>(1);
+	@Configurable(defValue = "32", comment = "Max number of buffered world frames. The oldest frame is dropped, if the AutoRef can not keep up.")
+	private static int frameBufferSize = 32;
+
+	static
+	{
+		ConfigRegistration.registerClass("autoreferee", AutoRefRunner.class);
+	}
+
+	private final List<QueuedFrame> batch = new ArrayList<>();
+	private final BlockingQueue<QueuedFrame> consumableFrames = new ArrayBlockingQueue<>(Math.max(1, frameBufferSize));
+	private final BlockingQueue<QueuedFrame> simulationFrames = new ArrayBlockingQueue<>(1);
 	private final Set<EGameEventDetectorType> activeDetectors = EGameEventDetectorType.valuesEnabledByDefault();
+	private final AutoRefLatencyStats latencyStats = new AutoRefLatencyStats();
 
 	private AutoRefFramePreprocessor preprocessor;
 	private ExecutorService executorService;
@@ -68,7 +93,8 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	 */
 	public void start()
 	{
-		preprocessor = new AutoRefFramePreprocessor();
+		preprocessor = new AutoRefFramePreprocessor(this::getMode);
+		preprocessor.setLatencyStats(latencyStats);
 		// make sure, the engine is initially in a clean off state
 		changeMode(EAutoRefMode.OFF);
 		// register to WP frames
@@ -103,7 +129,9 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 			Thread.currentThread().interrupt();
 		}
 		// Remove any remaining frames
-		consumableFrames.pollLast();
+		consumableFrames.clear();
+		simulationFrames.clear();
+		latencyStats.close();
 	}
 
 
@@ -120,6 +148,7 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 						case PASSIVE -> new PassiveAutoRefEngine(activeDetectors);
 					};
 			this.mode = mode;
+			engine.setLatencyStats(latencyStats);
 			engine.addObserver(callback);
 			engine.start();
 		}
@@ -127,65 +156,122 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 
 
 	@Override
-	@SuppressWarnings("java:S1181") // catching throwables here intentionally
 	public void run()
 	{
 		while (!executorService.isShutdown())
 		{
 			try
 			{
-				WorldFrameWrapper frame = consumableFrames.poll(10, TimeUnit.MILLISECONDS);
+				BlockingQueue<QueuedFrame> frames = getFrameQueue();
+				QueuedFrame frame = frames.poll(10, TimeUnit.MILLISECONDS);
 				if (frame != null)
 				{
-					consumeWorldFrame(frame);
+					batch.add(frame);
+					frames.drainTo(batch);
+					consumeBatch();
 				}
+				latencyStats.dumpIfDue();
 			} catch (InterruptedException e)
 			{
 				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	@SuppressWarnings("java:S1181") // catching throwables here intentionally
+	private void consumeBatch()
+	{
+		for (int i = 0; i < batch.size(); i++)
+		{
+			QueuedFrame frame = batch.get(i);
+			boolean latest = i == batch.size() - 1;
+			latencyStats.recordIngestionLag(frame.tEnqueued());
+			if (!latest)
+			{
+				latencyStats.countStaleFrame();
+			}
+			try
+			{
+				consumeWorldFrame(frame, latest);
 			} catch (Throwable e)
 			{
 				log.error("Unhandled exception during AutoRef execution", e);
 			}
 		}
+		batch.clear();
 	}
 
 
-	private void consumeWorldFrame(final WorldFrameWrapper frame)
+	private void consumeWorldFrame(final QueuedFrame queuedFrame, final boolean publishShapes)
 	{
+		long tStart = System.nanoTime();
+		WorldFrameWrapper frame = queuedFrame.frame();
 		AutoRefFrame currentFrame = preprocessor.process(frame);
 		if (currentFrame.getPreviousFrame() != null)
 		{
 			synchronized (engineSync)
 			{
+				engine.setFrameReceiveTime(queuedFrame.tEnqueued());
 				engine.process(currentFrame);
 			}
 		}
-		SumatraModel.getInstance().getModule(AWorldPredictor.class)
-				.notifyNewShapeMap(frame.getTimestamp(), currentFrame.getShapes(), SHAPE_MAP_SOURCE);
+		if (publishShapes)
+		{
+			long tStartShapes = System.nanoTime();
+			SumatraModel.getInstance().getModule(AWorldPredictor.class)
+					.notifyNewShapeMap(frame.getTimestamp(), currentFrame.getShapes(), SHAPE_MAP_SOURCE);
+			latencyStats.recordShapePublish(tStartShapes);
+		}
+		latencyStats.recordFrame(tStart);
 	}
 
 
 	@Override
 	public void onNewWorldFrame(final WorldFrameWrapper wFrameWrapper)
 	{
+		QueuedFrame queuedFrame = new QueuedFrame(wFrameWrapper, System.nanoTime());
 		if (SumatraModel.getInstance().isSimulation())
 		{
-			// process all frames, waiting and blocking if necessary
+			// process all frames in lock-step, waiting and blocking if necessary
 			try
 			{
-				consumableFrames.putFirst(wFrameWrapper);
+				simulationFrames.put(queuedFrame);
 			} catch (InterruptedException e)
 			{
 				Thread.currentThread().interrupt();
 			}
 		} else
 		{
-			consumableFrames.pollLast();
-			consumableFrames.addFirst(wFrameWrapper);
+			// never block the publisher: drop the oldest frames, if the buffer is full
+			while (!consumableFrames.offer(queuedFrame))
+			{
+				if (consumableFrames.poll() != null)
+				{
+					latencyStats.countDroppedFrame();
+				}
+			}
 		}
 	}
 
 
+	private BlockingQueue<QueuedFrame> getFrameQueue()
+	{
+		return SumatraModel.getInstance().isSimulation()
+				? simulationFrames
+				: consumableFrames;
+	}
+
+
+	/**
+	 * @return the number of frames that are currently waiting to be processed
+	 */
+	public int getBacklog()
+	{
+		return getFrameQueue().size();
+	}
+
+
 	public AutoRefEngine getEngine()
 	{
 		return engine;
@@ -196,4 +282,15 @@ public class AutoRefRunner implements Runnable, IWorldFrameObserver
 	{
 		return mode;
 	}
+
+
+	public AutoRefLatencyStats getLatencyStats()
+	{
+		return latencyStats;
+	}
+
+
+	private record QueuedFrame(WorldFrameWrapper frame, long tEnqueued)
+	{
+	}
 }
@@ -1,9 +1,12 @@
 package edu.tigers.autoreferee.remote;
 
 import com.google.protobuf.ByteString;
+import edu.tigers.autoreferee.AutoRefLatencyStats;
 import edu.tigers.sumatra.referee.GameControllerProtocol;
 import edu.tigers.sumatra.referee.MessageSigner;
 import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import edu.tigers.sumatra.referee.gameevent.SimilarityChecker;
+import edu.tigers.sumatra.referee.proto.SslGcGameEvent;
 import edu.tigers.sumatra.referee.proto.SslGcRcon;
 import edu.tigers.sumatra.referee.proto.SslGcRconAutoref;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
@@ -24,6 +27,12 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Connector to game controller
+ * <p>
+ * The protocol allows only one request at a time, because each request must be signed with the token from the
+ * previous reply. To keep the path from detection to the game-controller short, the game events are converted
+ * to protobuf when they are queued, a game event is not queued, if a similar one is still waiting,
+ * and the next request is signed and sent right after the reply.
+ * The latencies from receiving the world frame to the reply are recorded in the {@link AutoRefLatencyStats}.
  */
 public class AutoRefToGameControllerConnector implements Runnable
 {
@@ -37,19 +46,39 @@ public class AutoRefToGameControllerConnector implements Runnable
 
 	private List<IGameEventResponseObserver> responseObserverList = new ArrayList<>();
 
+	private final SimilarityChecker similarityChecker = new SimilarityChecker().initAllGameEvents();
+	private AutoRefLatencyStats latencyStats = new AutoRefLatencyStats();
+
 	private String nextToken;
 	private MessageSigner signer;
 
 
 	public AutoRefToGameControllerConnector(final String hostname, final int port)
+	{
+		this(hostname, port, loadSigner());
+	}
+
+
+	/**
+	 * @param hostname the hostname of the game-controller
+	 * @param port     the autoRef port of the game-controller
+	 * @param signer   the signer for the requests
+	 */
+	public AutoRefToGameControllerConnector(final String hostname, final int port, final MessageSigner signer)
 	{
 		protocol = new GameControllerProtocol(hostname, port);
 		protocol.addConnectedHandler(this::register);
 
 		commandQueue = new LinkedBlockingDeque<>();
+		this.signer = signer;
+	}
+
+
+	private static MessageSigner loadSigner()
+	{
 		try
 		{
-			signer = new MessageSigner(
+			return new MessageSigner(
 					IOUtils.resourceToString("/edu/tigers/autoreferee/remote/TIGERs-Mannheim-autoRef.key.pem.pkcs8",
 							StandardCharsets.UTF_8),
 					IOUtils.resourceToString("/edu/tigers/autoreferee/remote/TIGERs-Mannheim-autoRef.pub.pem",
@@ -57,11 +86,17 @@ public class AutoRefToGameControllerConnector implements Runnable
 		} catch (IOException e)
 		{
 			log.error("Could not read certificates from classpath", e);
-			signer = new MessageSigner();
+			return new MessageSigner();
 		}
 	}
 
 
+	public void setLatencyStats(final AutoRefLatencyStats latencyStats)
+	{
+		this.latencyStats = latencyStats;
+	}
+
+
 	public void updateHostname(String hostname)
 	{
 		protocol.setHostname(hostname);
@@ -137,8 +172,32 @@ public class AutoRefToGameControllerConnector implements Runnable
 
 	public void sendEvent(final IGameEvent event)
 	{
-		QueueEntry entry = new QueueEntry(event);
-		commandQueue.addLast(entry);
+		sendEvent(event, System.nanoTime());
+	}
+
+
+	/**
+	 * Queue a game event for sending. It is dropped, if a similar game event is still queued.
+	 *
+	 * @param event          the game event
+	 * @param tFrameReceived the time when the frame in which the event was detected was received [ns]
+	 */
+	public void sendEvent(final IGameEvent event, final long tFrameReceived)
+	{
+		long tDetected = System.nanoTime();
+		synchronized (commandQueue)
+		{
+			for (QueueEntry queued : commandQueue)
+			{
+				if (similarityChecker.isSimilar(queued.event(), event))
+				{
+					log.debug("Game event '{}' is similar to queued game event '{}', dropping it", event, queued.event());
+					latencyStats.countCoalescedGameEvent();
+					return;
+				}
+			}
+			commandQueue.addLast(new QueueEntry(event, event.toProtobuf(), tFrameReceived, tDetected));
+		}
 	}
 
 
@@ -174,7 +233,7 @@ public class AutoRefToGameControllerConnector implements Runnable
 				.newBuilder();
 		if (entry != null)
 		{
-			req.setGameEvent(entry.getEvent().toProtobuf());
+			req.setGameEvent(entry.gameEvent());
 		}
 
 		if (nextToken != null)
@@ -184,15 +243,20 @@ public class AutoRefToGameControllerConnector implements Runnable
 			req.getSignatureBuilder().setPkcs1V15(ByteString.copyFrom(signature));
 		}
 
+		long tSent = System.nanoTime();
 		if (!protocol.sendMessage(req.build()))
 		{
 			if (entry != null)
 			{
-				log.info("Put game event '{}' back into queue after lost connection", entry.getEvent());
+				log.info("Put game event '{}' back into queue after lost connection", entry.event());
 				commandQueue.addFirst(entry);
 			}
 			return;
 		}
+		if (entry != null)
+		{
+			latencyStats.recordGameEventSent(entry.tDetected());
+		}
 		SslGcRconAutoref.ControllerToAutoRef reply = protocol
 				.receiveMessage(SslGcRconAutoref.ControllerToAutoRef.parser());
 		if (reply == null || !reply.hasControllerReply())
@@ -201,13 +265,17 @@ public class AutoRefToGameControllerConnector implements Runnable
 		} else if (reply.getControllerReply()
 				.getStatusCode() != SslGcRcon.ControllerReply.StatusCode.OK)
 		{
-			log.warn("Remote control rejected entry {} with outcome {}",
-					entry,
+			log.warn("Remote control rejected game event {} with outcome {}",
+					entry == null ? null : entry.event(),
 					reply.getControllerReply().getStatusCode());
 		}
 
 		if (reply != null)
 		{
+			if (entry != null)
+			{
+				latencyStats.recordGameEventReply(tSent, entry.tFrameReceived());
+			}
 			responseObserverList.forEach(a -> a.notify(new GameEventResponse(reply.getControllerReply())));
 			nextToken = reply.getControllerReply().getNextToken();
 		}
@@ -220,24 +288,12 @@ public class AutoRefToGameControllerConnector implements Runnable
 	}
 
 
-	private static class QueueEntry
+	/**
+	 * A queued game event with its protobuf message, prepared on the detector thread, and its trace times [ns]
+	 */
+	private record QueueEntry(IGameEvent event, SslGcGameEvent.GameEvent gameEvent, long tFrameReceived,
+			long tDetected)
 	{
-		private final IGameEvent event;
-
-
-		public QueueEntry(final IGameEvent event)
-		{
-			this.event = event;
-		}
-
-
-		/**
-		 * @return the cmd
-		 */
-		public IGameEvent getEvent()
-		{
-			return event;
-		}
 	}
 
 	@FunctionalInterface
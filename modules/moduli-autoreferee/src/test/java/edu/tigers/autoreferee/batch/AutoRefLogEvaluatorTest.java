@@ -0,0 +1,85 @@
+package edu.tigers.autoreferee.batch;
+
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.gamelog.GameLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class AutoRefLogEvaluatorTest
+{
+	private static final int NUM_FRAMES = 20;
+
+	@TempDir
+	private Path tmp;
+
+
+	@Test
+	void testValidLog() throws IOException
+	{
+		Path logFile = tmp.resolve("valid.log");
+		writeVisionLog(logFile);
+
+		AutoRefLogReport report = new AutoRefLogEvaluator(EGameEventDetectorType.valuesEnabledByDefault())
+				.evaluate(logFile);
+
+		assertThat(report.logFile()).isEqualTo(logFile);
+		assertThat(report.numWorldFrames()).isEqualTo(NUM_FRAMES);
+	}
+
+
+	@Test
+	void testMissingLog()
+	{
+		Path logFile = tmp.resolve("missing.log");
+		AutoRefLogEvaluator evaluator = new AutoRefLogEvaluator(EGameEventDetectorType.valuesEnabledByDefault());
+
+		assertThatThrownBy(() -> evaluator.evaluate(logFile)).isInstanceOf(IOException.class);
+	}
+
+
+	@Test
+	void testCorruptLog() throws IOException
+	{
+		Path logFile = Files.writeString(tmp.resolve("corrupt.log"), "not a game log");
+		AutoRefLogEvaluator evaluator = new AutoRefLogEvaluator(EGameEventDetectorType.valuesEnabledByDefault());
+
+		assertThatThrownBy(() -> evaluator.evaluate(logFile)).isInstanceOf(IOException.class);
+	}
+
+
+	private static void writeVisionLog(Path logFile)
+	{
+		GameLogWriter writer = new GameLogWriter();
+		writer.openPath(logFile.toString());
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			double tCapture = 1 + i * 0.016;
+			var detection = SslVisionDetection.SSL_DetectionFrame.newBuilder()
+					.setFrameNumber(i)
+					.setTCapture(tCapture)
+					.setTSent(tCapture)
+					.setCameraId(0)
+					.addBalls(SslVisionDetection.SSL_DetectionBall.newBuilder()
+							.setConfidence(1)
+							.setX(i * 10f)
+							.setY(0)
+							.setPixelX(0)
+							.setPixelY(0));
+			byte[] data = SslVisionWrapper.SSL_WrapperPacket.newBuilder().setDetection(detection).build().toByteArray();
+			writer.write(new GameLogMessage((long) (tCapture * 1e9), EMessageType.SSL_VISION_2014, data));
+		}
+		writer.close();
+	}
+}
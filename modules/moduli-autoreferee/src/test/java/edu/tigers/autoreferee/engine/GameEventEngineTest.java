@@ -0,0 +1,150 @@
+package edu.tigers.autoreferee.engine;
+
+import edu.tigers.autoreferee.EAutoRefShapesLayer;
+import edu.tigers.autoreferee.IAutoRefFrame;
+import edu.tigers.autoreferee.engine.detector.EGameEventDetectorType;
+import edu.tigers.autoreferee.engine.detector.IGameEventDetector;
+import edu.tigers.sumatra.drawable.DrawableBorderText;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.ids.ETeamColor;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.referee.data.EGameState;
+import edu.tigers.sumatra.referee.data.GameState;
+import edu.tigers.sumatra.referee.gameevent.AimlessKick;
+import edu.tigers.sumatra.referee.gameevent.IGameEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class GameEventEngineTest
+{
+	private static final int NUM_DETECTORS = 6;
+	private static final int NUM_FRAMES = 50;
+
+
+	@Test
+	void testParallelOutputMatchesSequential()
+	{
+		List<IAutoRefFrame> sequentialFrames = createFrames();
+		List<IAutoRefFrame> parallelFrames = createFrames();
+		List<List<IGameEvent>> sequentialEvents = run(EDetectorExecutionMode.SEQUENTIAL, sequentialFrames);
+		List<List<IGameEvent>> parallelEvents = run(EDetectorExecutionMode.PARALLEL, parallelFrames);
+
+		assertThat(sequentialEvents.stream().mapToInt(List::size).sum()).isPositive();
+		assertThat(parallelEvents).isEqualTo(sequentialEvents);
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			List<IDrawableShape> sequentialShapes = sequentialFrames.get(i).getShapes()
+					.get(EAutoRefShapesLayer.ALLOWED_DISTANCES);
+			assertThat(sequentialShapes).hasSize(NUM_DETECTORS);
+			assertThat(parallelFrames.get(i).getShapes().get(EAutoRefShapesLayer.ALLOWED_DISTANCES))
+					.containsExactlyElementsOf(sequentialShapes);
+		}
+	}
+
+
+	private List<List<IGameEvent>> run(EDetectorExecutionMode mode, List<IAutoRefFrame> frames)
+	{
+		List<IGameEventDetector> detectors = new ArrayList<>();
+		for (int i = 0; i < NUM_DETECTORS; i++)
+		{
+			detectors.add(new TestDetector(EGameEventDetectorType.values()[i], i));
+		}
+		Set<EGameEventDetectorType> activeDetectors = Set.copyOf(Arrays.asList(EGameEventDetectorType.values()));
+		GameEventEngine engine = new GameEventEngine(activeDetectors, detectors);
+		engine.setExecutionMode(mode);
+
+		List<List<IGameEvent>> events = new ArrayList<>();
+		for (IAutoRefFrame frame : frames)
+		{
+			events.add(engine.update(frame));
+		}
+		return events;
+	}
+
+
+	private List<IAutoRefFrame> createFrames()
+	{
+		IAutoRefFrame previousFrame = mock(IAutoRefFrame.class);
+		when(previousFrame.getGameState()).thenReturn(GameState.RUNNING);
+
+		List<IAutoRefFrame> frames = new ArrayList<>();
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			IAutoRefFrame frame = mock(IAutoRefFrame.class);
+			when(frame.getPreviousFrame()).thenReturn(previousFrame);
+			when(frame.getGameState()).thenReturn(GameState.RUNNING);
+			when(frame.getTimestamp()).thenReturn((long) i);
+			when(frame.getShapes()).thenReturn(new ShapeMap());
+			frames.add(frame);
+		}
+		return frames;
+	}
+
+
+	/**
+	 * Draws one shape per frame into a shared layer and reports a game event every few frames
+	 */
+	private static class TestDetector implements IGameEventDetector
+	{
+		private final EGameEventDetectorType type;
+		private final int id;
+		private final IDrawableShape shape;
+
+
+		TestDetector(EGameEventDetectorType type, int id)
+		{
+			this.type = type;
+			this.id = id;
+			shape = new DrawableBorderText(Vector2.fromXY(1, id), type.name());
+		}
+
+
+		@Override
+		public boolean isActiveIn(EGameState state)
+		{
+			return true;
+		}
+
+
+		@Override
+		public Optional<IGameEvent> update(IAutoRefFrame frame)
+		{
+			// let the detectors finish in a different order than they were started
+			LockSupport.parkNanos((NUM_DETECTORS - id) * 100_000L);
+			frame.getShapes().get(EAutoRefShapesLayer.ALLOWED_DISTANCES).add(shape);
+			if (frame.getTimestamp() % (id + 2) == 0)
+			{
+				return Optional.of(new AimlessKick(BotID.createBotId(id, ETeamColor.YELLOW),
+						Vector2.fromXY(frame.getTimestamp(), 0), Vector2.zero()));
+			}
+			return Optional.empty();
+		}
+
+
+		@Override
+		public void reset()
+		{
+			// stateless
+		}
+
+
+		@Override
+		public EGameEventDetectorType getType()
+		{
+			return type;
+		}
+	}
+}
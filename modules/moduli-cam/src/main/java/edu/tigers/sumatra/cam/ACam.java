@@ -10,6 +10,7 @@ import edu.tigers.sumatra.moduli.AModule;
 import lombok.Getter;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -59,6 +60,15 @@ public abstract class ACam extends AModule
 	}
 
 
+	/**
+	 * @return the clock estimators of all cameras that send a camera capture timestamp, by camera id
+	 */
+	public Map<Integer, CameraClockEstimator> getCameraClockEstimators()
+	{
+		return camDetectionConverter.getCameraClockEstimators();
+	}
+
+
 	protected void notifyNewCameraFrame(final SSL_DetectionFrame frame)
 	{
 		CamDetectionFrame camDetectionFrame = camDetectionConverter.convertDetectionFrame(frame);
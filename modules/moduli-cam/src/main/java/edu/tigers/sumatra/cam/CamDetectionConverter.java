@@ -9,15 +9,15 @@ import edu.tigers.sumatra.cam.data.CamRobot;
 import edu.tigers.sumatra.cam.proto.SslVisionDetection;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.ids.ETeamColor;
-import edu.tigers.sumatra.math.StatisticsMath;
 import edu.tigers.sumatra.math.vector.Vector2;
 import edu.tigers.sumatra.math.vector.Vector3;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -26,10 +26,8 @@ import java.util.List;
 @Log4j2
 public class CamDetectionConverter
 {
-	private static final int CAM_TO_CAPTURE_ESTIMATOR_NUM_SAMPLES = 100;
-
 	private long frameId = 0;
-	private final HashMap<Integer, List<Double>> camToCaptureOffsets = new HashMap<>();
+	private final Map<Integer, CameraClockEstimator> cameraClockEstimators = new ConcurrentHashMap<>();
 
 	@Configurable(defValue = "true", comment = "Use camera capture timestamp if present", unit = EConfigUnit.BOOLEAN)
 	private static boolean useCameraCaptureTimestamp = true;
@@ -55,21 +53,16 @@ public class CamDetectionConverter
 
 		if (detectionFrame.hasTCaptureCamera())
 		{
-			var camToCaptureOffsetList = camToCaptureOffsets.computeIfAbsent(
+			var clockEstimator = cameraClockEstimators.computeIfAbsent(
 					detectionFrame.getCameraId(),
-					k -> new LinkedList<>()
+					k -> new CameraClockEstimator()
 			);
+			clockEstimator.update(detectionFrame.getTCaptureCamera(), detectionFrame.getTCapture());
 
-			camToCaptureOffsetList.add(detectionFrame.getTCapture() - detectionFrame.getTCaptureCamera());
-			if (camToCaptureOffsetList.size() > CAM_TO_CAPTURE_ESTIMATOR_NUM_SAMPLES)
+			if (useCameraCaptureTimestamp)
 			{
-				camToCaptureOffsetList.removeFirst();
-			}
-
-			if (!camToCaptureOffsetList.isEmpty() && useCameraCaptureTimestamp)
-			{
-				double camToCaptureOffsetMedian = StatisticsMath.median(camToCaptureOffsetList);
-				timestamp = (long) ((detectionFrame.getTCaptureCamera() + camToCaptureOffsetMedian) * 1e9);
+				double tCaptureCamera = detectionFrame.getTCaptureCamera();
+				timestamp = (long) ((tCaptureCamera + clockEstimator.getOffset(tCaptureCamera)) * 1e9);
 			}
 		}
 
@@ -99,6 +92,15 @@ public class CamDetectionConverter
 	}
 
 
+	/**
+	 * @return the clock estimators of all cameras that send a camera capture timestamp, by camera id
+	 */
+	public Map<Integer, CameraClockEstimator> getCameraClockEstimators()
+	{
+		return Collections.unmodifiableMap(cameraClockEstimators);
+	}
+
+
 	private static CamRobot convertRobot(
 			final SslVisionDetection.SSL_DetectionRobot bot,
 			final ETeamColor color,
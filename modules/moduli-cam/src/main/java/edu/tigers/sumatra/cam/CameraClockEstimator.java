@@ -0,0 +1,173 @@
+package edu.tigers.sumatra.cam;
+
+/**
+ * Streaming estimate of the offset between a camera clock and the clock of the vision host.
+ * <p>
+ * The offset (tCapture - tCaptureCamera) is modeled as a line over the camera time, so that a drift between
+ * both clocks is taken into account. The line is fitted with an exponentially weighted linear regression.
+ * Samples with a large residual get a reduced (Huber) weight, so that single delayed frames do not disturb
+ * the estimate. The jitter is the exponentially weighted mean absolute residual.
+ * <p>
+ * Each update is O(1) and does not allocate. If many consecutive samples are far off, the camera clock
+ * is assumed to have jumped (e.g. after a restart of the camera) and the estimate is reset.
+ * <p>
+ * The estimator is updated by a single thread. Other threads may read slightly outdated values.
+ */
+public class CameraClockEstimator
+{
+	/** effective number of samples in the exponential window */
+	private static final double WINDOW_SIZE = 1000;
+	private static final double JITTER_WINDOW_SIZE = 100;
+	/** samples before the residuals are weighted */
+	private static final int WARMUP_SAMPLES = 20;
+	/** residuals up to this multiple of the jitter get full weight */
+	private static final double HUBER_THRESHOLD = 3;
+	/** lower bound of the jitter for weighting residuals [s] */
+	private static final double MIN_JITTER = 20e-6;
+	/** number of consecutive outliers after which the estimate is reset */
+	private static final int MAX_CONSECUTIVE_OUTLIERS = 30;
+	/** minimum time span for estimating the drift [s] */
+	private static final double MIN_DRIFT_TIME_SPAN = 1.0;
+
+	private double tReference;
+	private double weightSum;
+	private double meanTime;
+	private double meanOffset;
+	private double varTime;
+	private double covTimeOffset;
+	private volatile double offset;
+	private volatile double drift;
+	private volatile double jitter;
+	private volatile long numSamples;
+	private int consecutiveOutliers;
+
+
+	/**
+	 * Add a new sample
+	 *
+	 * @param tCaptureCamera the capture timestamp from the camera clock [s]
+	 * @param tCapture       the capture timestamp from the vision host clock [s]
+	 */
+	public void update(final double tCaptureCamera, final double tCapture)
+	{
+		if (numSamples == 0)
+		{
+			// work relative to the first sample to keep the precision
+			tReference = tCaptureCamera;
+		}
+		double t = tCaptureCamera - tReference;
+		double y = tCapture - tCaptureCamera;
+
+		double weight = 1;
+		if (numSamples > 0)
+		{
+			double residual = y - predictRelative(t);
+			double absResidual = Math.abs(residual);
+			double threshold = HUBER_THRESHOLD * Math.max(jitter, MIN_JITTER);
+			if (numSamples >= WARMUP_SAMPLES && absResidual > threshold)
+			{
+				if (++consecutiveOutliers > MAX_CONSECUTIVE_OUTLIERS)
+				{
+					reset();
+					update(tCaptureCamera, tCapture);
+					return;
+				}
+				weight = threshold / absResidual;
+			} else
+			{
+				consecutiveOutliers = 0;
+			}
+			double jitterAlpha = 1.0 / Math.min(numSamples, JITTER_WINDOW_SIZE);
+			jitter += jitterAlpha * (Math.min(absResidual, 2 * threshold) - jitter);
+		}
+
+		// exponentially weighted, incremental mean and covariance
+		weightSum = weightSum * (1 - 1 / WINDOW_SIZE) + weight;
+		double alpha = weight / weightSum;
+		double dt = t - meanTime;
+		double dy = y - meanOffset;
+		meanTime += alpha * dt;
+		meanOffset += alpha * dy;
+		varTime = (1 - alpha) * (varTime + alpha * dt * dt);
+		covTimeOffset = (1 - alpha) * (covTimeOffset + alpha * dt * dy);
+
+		if (varTime > MIN_DRIFT_TIME_SPAN * MIN_DRIFT_TIME_SPAN / 12)
+		{
+			drift = covTimeOffset / varTime;
+		}
+		offset = predictRelative(t);
+		numSamples++;
+	}
+
+
+	private double predictRelative(final double t)
+	{
+		return meanOffset + drift * (t - meanTime);
+	}
+
+
+	/**
+	 * Get the offset to add to a camera timestamp for converting it to the vision host clock
+	 *
+	 * @param tCaptureCamera the capture timestamp from the camera clock [s]
+	 * @return the estimated offset [s]
+	 */
+	public double getOffset(final double tCaptureCamera)
+	{
+		return predictRelative(tCaptureCamera - tReference);
+	}
+
+
+	/**
+	 * Reset the estimate
+	 */
+	public void reset()
+	{
+		weightSum = 0;
+		meanTime = 0;
+		meanOffset = 0;
+		varTime = 0;
+		covTimeOffset = 0;
+		offset = 0;
+		drift = 0;
+		jitter = 0;
+		numSamples = 0;
+		consecutiveOutliers = 0;
+	}
+
+
+	/**
+	 * @return the estimated offset at the latest sample [s]
+	 */
+	public double getOffset()
+	{
+		return offset;
+	}
+
+
+	/**
+	 * @return the estimated drift of the offset [s/s]
+	 */
+	public double getDrift()
+	{
+		return drift;
+	}
+
+
+	/**
+	 * @return the mean absolute deviation of the samples from the estimate [s]
+	 */
+	public double getJitter()
+	{
+		return jitter;
+	}
+
+
+	/**
+	 * @return the number of samples since the last reset
+	 */
+	public long getNumSamples()
+	{
+		return numSamples;
+	}
+}
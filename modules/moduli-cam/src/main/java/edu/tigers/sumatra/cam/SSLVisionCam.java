@@ -9,25 +9,32 @@ import edu.tigers.sumatra.cam.data.CamGeometry;
 import edu.tigers.sumatra.cam.proto.SslVisionWrapper.SSL_WrapperPacket;
 import edu.tigers.sumatra.clock.NanoTime;
 import edu.tigers.sumatra.gamelog.EMessageType;
-import edu.tigers.sumatra.gamelog.GameLogMessage;
 import edu.tigers.sumatra.gamelog.GameLogRecorder;
 import edu.tigers.sumatra.model.SumatraModel;
-import edu.tigers.sumatra.network.BroadcastUDPReceiver;
+import edu.tigers.sumatra.network.DatagramChannelReceiver;
 import edu.tigers.sumatra.network.IReceiverObserver;
-import edu.tigers.sumatra.network.MulticastUDPReceiver;
 import edu.tigers.sumatra.network.NetworkUtility;
-import edu.tigers.sumatra.network.UDPReceiver;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.DatagramPacket;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 
 
 /**
@@ -38,7 +45,7 @@ import java.util.Optional;
 public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, IConfigObserver
 {
 	private static final int BUFFER_SIZE = 10000;
-	private final byte[] bufferArr = new byte[BUFFER_SIZE];
+	private static final int SOCKET_RECEIVE_BUFFER_SIZE = 1 << 22;
 
 	@Setter
 	private static int customPort;
@@ -49,19 +56,32 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	@Configurable(comment = "Enter a network address to limit network to a certain network interface", defValue = "", unit = EConfigUnit.URL)
 	private static String network = "";
 
+	@Configurable(comment = "Number of threads that parse received packets", defValue = "2", unit = EConfigUnit.COUNT)
+	private static int parseWorkers = 2;
+
+	@Configurable(comment = "Number of packets that can wait for processing before new packets are dropped", defValue = "64", unit = EConfigUnit.COUNT)
+	private static int receiveBuffers = 64;
+
 	static
 	{
 		ConfigRegistration.registerClass("user", SSLVisionCam.class);
 	}
 
 	private Thread cam;
-	private UDPReceiver receiver;
-	private boolean expectIOE = false;
+	private Thread dispatcher;
+	private ExecutorService parseExecutor;
+	private DatagramChannelReceiver receiver;
+	private BlockingQueue<ByteBuffer> freeBuffers;
+	private final BlockingQueue<ReceivedPacket> dispatchQueue = new LinkedBlockingQueue<>();
+	private volatile boolean expectIOE = false;
 	private int port;
 	private String address;
-	private InetAddress visionAddress;
+	/** written by the dispatcher thread */
+	private volatile InetAddress visionAddress;
 
 	private final SSLVisionCamGeometryTranslator geometryTranslator = new SSLVisionCamGeometryTranslator();
+	@Getter
+	private final SSLVisionCamStats stats = new SSLVisionCamStats();
 
 	private GameLogRecorder gameLogRecorder;
 
@@ -84,20 +104,39 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 
 		if (!address.startsWith("224"))
 		{
-			receiver = new BroadcastUDPReceiver("0.0.0.0", port);
+			log.debug("Receiving broadcast packets for vision-cam.");
 		} else if (nif == null)
 		{
 			log.debug("No nif for vision-cam specified, will try all.");
-			receiver = new MulticastUDPReceiver(address, port);
 		} else
 		{
 			log.debug("Chose nif for vision-cam: {}", nif.getDisplayName());
-			receiver = new MulticastUDPReceiver(address, port, nif);
-			receiver.addObserver(this);
 		}
 
+		try
+		{
+			receiver = new DatagramChannelReceiver(address, port, nif, SOCKET_RECEIVE_BUFFER_SIZE);
+		} catch (IOException e)
+		{
+			log.error("Could not open vision-cam receiver on {}:{}", address, port, e);
+			return;
+		}
+		receiver.addObserver(this);
+		expectIOE = false;
+
 		gameLogRecorder = SumatraModel.getInstance().getModuleOpt(GameLogRecorder.class).orElse(null);
 
+		freeBuffers = new ArrayBlockingQueue<>(receiveBuffers);
+		for (int i = 0; i < receiveBuffers; i++)
+		{
+			freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+		}
+		dispatchQueue.clear();
+		parseExecutor = Executors.newFixedThreadPool(Math.max(1, parseWorkers),
+				new NamedThreadFactory("SSLVisionCam Parser"));
+
+		dispatcher = new Thread(this::dispatch, "SSLVisionCam Dispatcher");
+		dispatcher.start();
 		cam = new Thread(this, "SSLVisionCam");
 		cam.start();
 
@@ -110,52 +149,57 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	{
 		cleanup();
 		ConfigRegistration.unregisterConfigurableCallback("user", this);
+		stats.log();
 	}
 
 
+	/**
+	 * Receive packets and hand them over to the parse workers. Nothing else is done on this thread,
+	 * so that the socket buffer is emptied as fast as possible.
+	 */
 	@Override
 	public void run()
 	{
-		// Create new buffer
-		final ByteBuffer buffer = ByteBuffer.wrap(bufferArr);
+		final ByteBuffer overflowBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
 
 		while (!Thread.currentThread().isInterrupted())
 		{
 			try
 			{
-				buffer.clear();
-
-				// Fetch packet
-				final DatagramPacket packet = new DatagramPacket(buffer.array(), buffer.capacity());
-
-				if (receiver == null)
+				ByteBuffer buffer = freeBuffers.poll();
+				if (buffer == null)
 				{
-					break;
+					// all buffers are waiting for processing: take the packet out of the socket and drop it
+					overflowBuffer.clear();
+					receiver.receive(overflowBuffer);
+					stats.onPacketDropped();
+					continue;
 				}
-				receiver.receive(packet);
-
-				visionAddress = packet.getAddress();
-				final ByteArrayInputStream packetIn = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
 
-				// Translate
-				final SSL_WrapperPacket sslPacket;
+				buffer.clear();
+				final SocketAddress source;
 				try
 				{
-					sslPacket = SSL_WrapperPacket.parseFrom(packetIn);
-				} catch (Exception err)
+					source = receiver.receive(buffer);
+				} catch (IOException err)
 				{
-					log.error("invalid ssl package", err);
-					continue;
+					freeBuffers.offer(buffer);
+					throw err;
 				}
+				long timestamp = NanoTime.getTimestampNow();
+				buffer.flip();
+				stats.onPacketReceived();
 
-				publishData(sslPacket);
+				var parsed = CompletableFuture.supplyAsync(() -> parse(buffer.duplicate()), parseExecutor);
+				dispatchQueue.add(new ReceivedPacket(buffer, timestamp, source, parsed));
 			} catch (final IOException err)
 			{
 				if (!expectIOE)
 				{
 					log.error("Error while receiving SSLVision-Packet!", err);
-					break;
 				}
+				// the receiver is closed (expected while stopping) or broken
+				break;
 			} catch (Throwable err)
 			{
 				log.error("Error in SSL vision cam", err);
@@ -167,6 +211,76 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	}
 
 
+	private SSL_WrapperPacket parse(final ByteBuffer data)
+	{
+		final SSL_WrapperPacket sslPacket;
+		try
+		{
+			sslPacket = SSL_WrapperPacket.parseFrom(data);
+		} catch (IOException err)
+		{
+			throw new UncheckedIOException(err);
+		}
+		if (sslPacket.hasDetection())
+		{
+			stats.getCamStats(sslPacket.getDetection().getCameraId()).onFrameParsed();
+		}
+		return sslPacket;
+	}
+
+
+	/**
+	 * Convert and publish the parsed packets in receive order
+	 */
+	private void dispatch()
+	{
+		while (!Thread.currentThread().isInterrupted())
+		{
+			try
+			{
+				dispatch(dispatchQueue.take());
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			} catch (Throwable err)
+			{
+				log.error("Error in SSL vision cam", err);
+			}
+		}
+	}
+
+
+	private void dispatch(final ReceivedPacket received) throws InterruptedException
+	{
+		final SSL_WrapperPacket sslPacket;
+		try
+		{
+			sslPacket = received.parsed().get();
+			recordPacket(received);
+		} catch (ExecutionException err)
+		{
+			log.error("invalid ssl package", err.getCause());
+			return;
+		} finally
+		{
+			freeBuffers.offer(received.buffer());
+			stats.onPacketDispatched();
+		}
+
+		if (received.source() instanceof InetSocketAddress inetSocketAddress)
+		{
+			visionAddress = inetSocketAddress.getAddress();
+		}
+		publishData(sslPacket);
+
+		if (sslPacket.hasDetection())
+		{
+			stats.getCamStats(sslPacket.getDetection().getCameraId())
+					.onFrameDispatched(sslPacket.getDetection().getFrameNumber());
+		}
+	}
+
+
 	private void publishData(final SSL_WrapperPacket sslPacket)
 	{
 		// start with sending out the detection. It is most time critical
@@ -183,10 +297,15 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 		}
 
 		notifyNewVisionPacket(sslPacket);
+	}
 
-		if(gameLogRecorder != null)
+
+	private void recordPacket(final ReceivedPacket received)
+	{
+		if (gameLogRecorder != null)
 		{
-			gameLogRecorder.writeMessage(new GameLogMessage(NanoTime.getTimestampNow(), EMessageType.SSL_VISION_2014, sslPacket.toByteArray()));
+			// record the received bytes directly instead of serializing the parsed packet again
+			gameLogRecorder.writeMessage(received.timestamp(), EMessageType.SSL_VISION_2014, received.buffer());
 		}
 	}
 
@@ -198,14 +317,12 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	}
 
 
+	/**
+	 * Stop the receiver and wait for the threads, so that a following start does not share the buffers and the
+	 * converters with threads of this run.
+	 */
 	private void cleanup()
 	{
-		if (cam != null)
-		{
-			cam.interrupt();
-			cam = null;
-		}
-
 		if (receiver != null)
 		{
 			expectIOE = true;
@@ -216,7 +333,36 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 			{
 				throw new RuntimeException(e);
 			}
-			receiver = null;
+		}
+
+		stopThread(cam);
+		cam = null;
+		receiver = null;
+
+		stopThread(dispatcher);
+		dispatcher = null;
+
+		if (parseExecutor != null)
+		{
+			parseExecutor.shutdownNow();
+			parseExecutor = null;
+		}
+	}
+
+
+	private static void stopThread(final Thread thread)
+	{
+		if (thread == null || thread == Thread.currentThread())
+		{
+			return;
+		}
+		thread.interrupt();
+		try
+		{
+			thread.join();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -254,4 +400,10 @@ public class SSLVisionCam extends ACam implements Runnable, IReceiverObserver, I
 	{
 		return Optional.ofNullable(visionAddress);
 	}
+
+
+	private record ReceivedPacket(ByteBuffer buffer, long timestamp, SocketAddress source,
+			CompletableFuture<SSL_WrapperPacket> parsed)
+	{
+	}
 }
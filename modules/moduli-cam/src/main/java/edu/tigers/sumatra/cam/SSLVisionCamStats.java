@@ -0,0 +1,152 @@
+package edu.tigers.sumatra.cam;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counters of the {@link SSLVisionCam} receiver: received and dropped packets in total
+ * and received, lost and queued detection frames per camera.
+ */
+@Log4j2
+public class SSLVisionCamStats
+{
+	private final AtomicLong packetsReceived = new AtomicLong();
+	private final AtomicLong packetsDropped = new AtomicLong();
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final Map<Integer, CamStats> camStats = new ConcurrentHashMap<>();
+
+
+	void onPacketReceived()
+	{
+		packetsReceived.incrementAndGet();
+		queueDepth.incrementAndGet();
+	}
+
+
+	void onPacketDropped()
+	{
+		packetsDropped.incrementAndGet();
+	}
+
+
+	void onPacketDispatched()
+	{
+		queueDepth.decrementAndGet();
+	}
+
+
+	CamStats getCamStats(final int camId)
+	{
+		return camStats.computeIfAbsent(camId, k -> new CamStats());
+	}
+
+
+	/**
+	 * @return the number of received packets
+	 */
+	public long getPacketsReceived()
+	{
+		return packetsReceived.get();
+	}
+
+
+	/**
+	 * @return the number of packets that were dropped, because all receive buffers were in use
+	 */
+	public long getPacketsDropped()
+	{
+		return packetsDropped.get();
+	}
+
+
+	/**
+	 * @return the number of received packets that are not yet dispatched
+	 */
+	public int getQueueDepth()
+	{
+		return queueDepth.get();
+	}
+
+
+	/**
+	 * @return the counters per camera id
+	 */
+	public Map<Integer, CamStats> getCamStats()
+	{
+		return Map.copyOf(camStats);
+	}
+
+
+	void log()
+	{
+		log.info("SSL vision packets: {} received, {} dropped", getPacketsReceived(), getPacketsDropped());
+		camStats.forEach((camId, s) -> log.info("Camera {}: {} frames received, {} frames lost",
+				camId, s.getFramesReceived(), s.getFramesLost()));
+	}
+
+
+	/**
+	 * Counters of a single camera
+	 */
+	public static class CamStats
+	{
+		private final AtomicLong framesReceived = new AtomicLong();
+		private final AtomicLong framesLost = new AtomicLong();
+		private final AtomicInteger queueDepth = new AtomicInteger();
+		private long lastFrameNumber = -1;
+
+
+		void onFrameParsed()
+		{
+			queueDepth.incrementAndGet();
+		}
+
+
+		/**
+		 * Called in receive order by the dispatcher only
+		 */
+		void onFrameDispatched(final long frameNumber)
+		{
+			queueDepth.decrementAndGet();
+			framesReceived.incrementAndGet();
+			if (lastFrameNumber >= 0 && frameNumber > lastFrameNumber + 1)
+			{
+				framesLost.addAndGet(frameNumber - lastFrameNumber - 1);
+			}
+			lastFrameNumber = frameNumber;
+		}
+
+
+		/**
+		 * @return the number of received detection frames
+		 */
+		public long getFramesReceived()
+		{
+			return framesReceived.get();
+		}
+
+
+		/**
+		 * @return the number of detection frames that were lost anywhere between camera and filter,
+		 * based on gaps in the frame numbers
+		 */
+		public long getFramesLost()
+		{
+			return framesLost.get();
+		}
+
+
+		/**
+		 * @return the number of parsed detection frames that are not yet dispatched
+		 */
+		public int getQueueDepth()
+		{
+			return queueDepth.get();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package edu.tigers.sumatra.cam;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+
+class CameraClockEstimatorTest
+{
+	private static final double FRAME_DT = 1 / 75.0;
+	private static final double CAMERA_START = 1.7e9;
+
+
+	@Test
+	void estimatesOffsetAndDrift()
+	{
+		Random rnd = new Random(0);
+		var estimator = new CameraClockEstimator();
+		double offset = 1234.5;
+		double drift = 50e-6;
+		double noise = 0.5e-3;
+
+		for (int i = 0; i < 3000; i++)
+		{
+			double tCaptureCamera = CAMERA_START + i * FRAME_DT;
+			double trueOffset = offset + drift * (tCaptureCamera - CAMERA_START);
+			// some delayed frames
+			double delay = i % 97 == 0 ? 0.02 : 0;
+			estimator.update(tCaptureCamera, tCaptureCamera + trueOffset + rnd.nextGaussian() * noise + delay);
+
+			if (i > 1000)
+			{
+				assertThat(estimator.getOffset(tCaptureCamera)).isCloseTo(trueOffset, within(0.2e-3));
+			}
+		}
+
+		assertThat(estimator.getDrift()).isCloseTo(drift, within(5e-6));
+		// mean absolute deviation of a normal distribution
+		assertThat(estimator.getJitter()).isCloseTo(noise * Math.sqrt(2 / Math.PI), within(0.1e-3));
+		assertThat(estimator.getNumSamples()).isEqualTo(3000);
+	}
+
+
+	@Test
+	void resetsAfterClockJump()
+	{
+		var estimator = new CameraClockEstimator();
+		for (int i = 0; i < 500; i++)
+		{
+			double tCaptureCamera = CAMERA_START + i * FRAME_DT;
+			estimator.update(tCaptureCamera, tCaptureCamera + 10);
+		}
+		assertThat(estimator.getOffset()).isCloseTo(10, within(1e-6));
+
+		for (int i = 500; i < 600; i++)
+		{
+			double tCaptureCamera = CAMERA_START + i * FRAME_DT;
+			estimator.update(tCaptureCamera, tCaptureCamera + 12);
+		}
+		assertThat(estimator.getOffset()).isCloseTo(12, within(1e-6));
+		assertThat(estimator.getNumSamples()).isLessThan(100);
+	}
+}
@@ -0,0 +1,123 @@
+package edu.tigers.sumatra.cam;
+
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class SSLVisionCamTest
+{
+	private static final long TIMEOUT_MS = 5000;
+
+	private int port;
+	private SSLVisionCam cam;
+	private final List<CamDetectionFrame> frames = new CopyOnWriteArrayList<>();
+
+
+	@BeforeEach
+	void setUp() throws IOException
+	{
+		try (DatagramSocket socket = new DatagramSocket())
+		{
+			port = socket.getLocalPort();
+		}
+		SSLVisionCam.setCustomPort(port);
+		SSLVisionCam.setCustomAddress("127.0.0.1");
+		cam = new SSLVisionCam();
+		cam.addObserver(new ICamFrameObserver()
+		{
+			@Override
+			public void onNewCamDetectionFrame(final CamDetectionFrame camDetectionFrame)
+			{
+				frames.add(camDetectionFrame);
+			}
+		});
+		cam.initModule();
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		cam.stopModule();
+		SSLVisionCam.setCustomPort(0);
+		SSLVisionCam.setCustomAddress(null);
+	}
+
+
+	@Test
+	void testRestart() throws Exception
+	{
+		cam.startModule();
+		sendFrames(0, 10);
+		awaitCondition(() -> frames.size() == 10);
+
+		// restart, like on a config change
+		cam.stopModule();
+		cam.startModule();
+
+		assertThat(countThreads("SSLVisionCam Dispatcher")).isEqualTo(1);
+		assertThat(countThreads("SSLVisionCam")).isEqualTo(1);
+
+		sendFrames(10, 10);
+		awaitCondition(() -> frames.size() == 20);
+		assertThat(frames).extracting(CamDetectionFrame::getCamFrameNumber)
+				.containsExactlyElementsOf(LongStream.range(0, 20).boxed().toList());
+		assertThat(cam.getStats().getPacketsDropped()).isZero();
+	}
+
+
+	private void sendFrames(int first, int count) throws IOException, InterruptedException
+	{
+		try (DatagramSocket socket = new DatagramSocket())
+		{
+			for (int i = first; i < first + count; i++)
+			{
+				byte[] data = SslVisionWrapper.SSL_WrapperPacket.newBuilder()
+						.setDetection(SslVisionDetection.SSL_DetectionFrame.newBuilder()
+								.setFrameNumber(i)
+								.setTCapture(1 + i / 60.0)
+								.setTSent(1 + i / 60.0)
+								.setCameraId(0))
+						.build()
+						.toByteArray();
+				socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), port));
+				// do not overrun the socket buffer
+				Thread.sleep(2);
+			}
+		}
+	}
+
+
+	private static long countThreads(String name)
+	{
+		return Thread.getAllStackTraces().keySet().stream()
+				.filter(t -> t.getName().equals(name) && t.isAlive())
+				.count();
+	}
+
+
+	private static void awaitCondition(BooleanSupplier condition) throws InterruptedException
+	{
+		long start = System.currentTimeMillis();
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis() - start).isLessThan(TIMEOUT_MS);
+			Thread.sleep(10);
+		}
+	}
+}
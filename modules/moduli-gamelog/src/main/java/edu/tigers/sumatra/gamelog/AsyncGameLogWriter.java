@@ -0,0 +1,249 @@
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Writes game log messages asynchronously.
+ * <p>
+ * Producers copy the encoded messages into a byte ring buffer, which is the only work done on their thread.
+ * A dedicated I/O thread wakes up periodically and writes everything that was added in the meantime
+ * with large sequential writes. If the file name ends with ".gz", the log is compressed while writing.
+ * If the I/O thread can not keep up and the ring buffer is full, new messages are dropped.
+ * The I/O thread is a daemon, so a writer that is not closed does not prevent the JVM from exiting.
+ * Pending messages are only written by {@link #close()}.
+ */
+@Log4j2
+public final class AsyncGameLogWriter implements Closeable
+{
+	private static final int MESSAGE_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+	private static final long FLUSH_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(20);
+
+	private final Path file;
+	private final OutputStream outputStream;
+	private final byte[] ring;
+	private final int mask;
+	private final ByteBuffer header = ByteBuffer.allocate(MESSAGE_HEADER_SIZE);
+	private final Thread ioThread;
+
+	/** next position to be written by producers, guarded by this */
+	private long writePos = 0;
+	/** end of the data that is visible to the I/O thread */
+	private volatile long publishedPos = 0;
+	/** end of the data that was written to the file */
+	private volatile long readPos = 0;
+	private volatile boolean closed = false;
+	private long numDropped = 0;
+
+
+	private AsyncGameLogWriter(final Path file, final OutputStream outputStream, final int minCapacity)
+	{
+		this.file = file;
+		this.outputStream = outputStream;
+		int capacity = Integer.highestOneBit(Math.max(minCapacity, 1024) - 1) << 1;
+		ring = new byte[capacity];
+		mask = capacity - 1;
+		ioThread = new NamedThreadFactory("GameLogWriter").newThread(this::run);
+		ioThread.setDaemon(true);
+		ioThread.start();
+	}
+
+
+	/**
+	 * Open a new game log for writing and start the I/O thread.
+	 *
+	 * @param file     the game log file, compressed if it ends with ".gz"
+	 * @param capacity the minimum capacity of the ring buffer in bytes, rounded up to the next power of two
+	 * @return the new writer
+	 * @throws IOException if the file could not be created
+	 */
+	public static AsyncGameLogWriter open(final Path file, final int capacity) throws IOException
+	{
+		if (file.getParent() != null)
+		{
+			Files.createDirectories(file.getParent());
+		}
+		OutputStream out = Files.newOutputStream(file);
+		try
+		{
+			if (file.getFileName().toString().endsWith(".gz"))
+			{
+				out = new GZIPOutputStream(out, 1 << 16);
+			}
+			out.write(GameLogWriter.FILE_TYPE.getBytes(StandardCharsets.US_ASCII));
+			out.write(ByteBuffer.allocate(Integer.BYTES).putInt(GameLogWriter.VERSION).array());
+		} catch (IOException e)
+		{
+			out.close();
+			throw e;
+		}
+		return new AsyncGameLogWriter(file, out, capacity);
+	}
+
+
+	/**
+	 * Add a message. The data is copied, so the caller can reuse its buffer afterward.
+	 *
+	 * @param timestampNs the receive timestamp [ns]
+	 * @param type        the message type
+	 * @param data        the buffer containing the message
+	 * @param offset      the offset of the message in the buffer
+	 * @param length      the length of the message
+	 * @return false, if the message was dropped
+	 */
+	public synchronized boolean write(final long timestampNs, final EMessageType type, final byte[] data,
+			final int offset, final int length)
+	{
+		if (!putHeader(timestampNs, type, length))
+		{
+			return false;
+		}
+		put(data, offset, length);
+		publishedPos = writePos;
+		return true;
+	}
+
+
+	/**
+	 * Add a message. The remaining bytes of the buffer are copied, its position is not changed.
+	 *
+	 * @param timestampNs the receive timestamp [ns]
+	 * @param type        the message type
+	 * @param data        the message
+	 * @return false, if the message was dropped
+	 */
+	public synchronized boolean write(final long timestampNs, final EMessageType type, final ByteBuffer data)
+	{
+		int length = data.remaining();
+		if (!putHeader(timestampNs, type, length))
+		{
+			return false;
+		}
+		int start = (int) (writePos & mask);
+		int first = Math.min(length, ring.length - start);
+		data.get(data.position(), ring, start, first);
+		data.get(data.position() + first, ring, 0, length - first);
+		writePos += length;
+		publishedPos = writePos;
+		return true;
+	}
+
+
+	private boolean putHeader(final long timestampNs, final EMessageType type, final int length)
+	{
+		int size = MESSAGE_HEADER_SIZE + length;
+		if (closed || writePos + size - readPos > ring.length)
+		{
+			if (!closed && numDropped++ % 1000 == 0)
+			{
+				log.warn("Game log buffer is full, dropped {} messages so far", numDropped);
+			}
+			return false;
+		}
+		header.clear();
+		header.putLong(timestampNs);
+		header.putInt(type.getId());
+		header.putInt(length);
+		put(header.array(), 0, MESSAGE_HEADER_SIZE);
+		return true;
+	}
+
+
+	private void put(final byte[] src, final int offset, final int length)
+	{
+		int start = (int) (writePos & mask);
+		int first = Math.min(length, ring.length - start);
+		System.arraycopy(src, offset, ring, start, first);
+		System.arraycopy(src, offset + first, ring, 0, length - first);
+		writePos += length;
+	}
+
+
+	private void run()
+	{
+		try
+		{
+			while (!closed)
+			{
+				LockSupport.parkNanos(FLUSH_INTERVAL_NS);
+				writeAvailable();
+			}
+			// the writer is closed, so no more messages will be published
+			writeAvailable();
+			outputStream.close();
+		} catch (IOException e)
+		{
+			log.error("Exception writing to gamelog {}", file, e);
+			closed = true;
+			closeQuietly();
+		}
+	}
+
+
+	private void writeAvailable() throws IOException
+	{
+		long end = publishedPos;
+		long pos = readPos;
+		while (pos < end)
+		{
+			int start = (int) (pos & mask);
+			int length = (int) Math.min(end - pos, ring.length - start);
+			outputStream.write(ring, start, length);
+			pos += length;
+		}
+		// free the space for the producers
+		readPos = pos;
+	}
+
+
+	private void closeQuietly()
+	{
+		try
+		{
+			outputStream.close();
+		} catch (IOException e)
+		{
+			log.warn("Exception on closing gamelog file {}", file, e);
+		}
+	}
+
+
+	/**
+	 * Stop accepting messages, write all pending messages and close the file.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (this)
+		{
+			closed = true;
+		}
+		LockSupport.unpark(ioThread);
+		try
+		{
+			ioThread.join();
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		synchronized (this)
+		{
+			if (numDropped > 0)
+			{
+				log.warn("Dropped {} messages while writing {}", numDropped, file);
+			}
+		}
+	}
+}
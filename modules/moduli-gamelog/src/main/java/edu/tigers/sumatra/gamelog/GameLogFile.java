@@ -0,0 +1,221 @@
+package edu.tigers.sumatra.gamelog;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Random access to the messages of a game log, based on a {@link GameLogIndex}.
+ * <p>
+ * Uncompressed logs are memory-mapped, so reading a message is a copy from the page cache.
+ * Compressed logs can not be accessed randomly. They are decompressed as a stream in blocks and the most recently
+ * used blocks are cached: reading forward continues the stream, reading backwards within the cached blocks is
+ * served from the cache. Only reading further back restarts the stream from the beginning of the log.
+ * <p>
+ * So seeking back beyond the cache takes time linear in the target position. Resuming the decompression in the
+ * middle of the log would need checkpoints with the inflater state at deflate block boundaries (like zlib's zran),
+ * which {@link java.util.zip.Inflater} does not expose. Uncompressed logs should be used for heavy random access.
+ */
+public class GameLogFile implements Closeable
+{
+	private static final long SEGMENT_SIZE = 1L << 30;
+	private static final int BLOCK_SIZE = 1 << 20;
+	private static final int MAX_CACHED_BLOCKS = 64;
+
+	private final Path path;
+	@Getter
+	private final GameLogIndex index;
+
+	private FileChannel channel;
+	private MappedByteBuffer[] segments;
+
+	private final int blockSize;
+	private final Map<Long, byte[]> blockCache;
+	private DataInputStream stream;
+	private long streamPosition;
+	private int numStreamRestarts = 0;
+
+
+	/**
+	 * @param path  the game log
+	 * @param index the index of the game log
+	 * @throws IOException if the log can not be opened
+	 */
+	public GameLogFile(final Path path, final GameLogIndex index) throws IOException
+	{
+		this(path, index, BLOCK_SIZE, MAX_CACHED_BLOCKS);
+	}
+
+
+	GameLogFile(final Path path, final GameLogIndex index, final int blockSize, final int maxCachedBlocks)
+			throws IOException
+	{
+		this.path = path;
+		this.index = index;
+		this.blockSize = blockSize;
+		this.blockCache = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, byte[]> eldest)
+			{
+				return size() > maxCachedBlocks;
+			}
+		};
+		if (!GameLogReader.isCompressed(path))
+		{
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+			long size = channel.size();
+			segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++)
+			{
+				long start = i * SEGMENT_SIZE;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+			}
+		}
+	}
+
+
+	/**
+	 * @return the number of messages
+	 */
+	public int size()
+	{
+		return index.size();
+	}
+
+
+	/**
+	 * Read a message from the log
+	 *
+	 * @param message the message number
+	 * @return the message
+	 * @throws IOException if the message can not be read
+	 */
+	public synchronized GameLogMessage read(final int message) throws IOException
+	{
+		byte[] data = new byte[index.getSize(message)];
+		long offset = index.getOffset(message);
+		if (segments != null)
+		{
+			readMapped(offset, data);
+		} else
+		{
+			readCompressed(offset, data);
+		}
+		return new GameLogMessage(index.getTimestamp(message), index.getType(message), data);
+	}
+
+
+	private void readMapped(final long offset, final byte[] data) throws IOException
+	{
+		int segment = (int) (offset / SEGMENT_SIZE);
+		int position = (int) (offset % SEGMENT_SIZE);
+		if (position + data.length <= segments[segment].limit())
+		{
+			segments[segment].get(position, data);
+			return;
+		}
+		// message crosses a segment boundary
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		long pos = offset;
+		while (buffer.hasRemaining())
+		{
+			int read = channel.read(buffer, pos);
+			if (read < 0)
+			{
+				throw new EOFException("Unexpected end of " + path);
+			}
+			pos += read;
+		}
+	}
+
+
+	private void readCompressed(final long offset, final byte[] data) throws IOException
+	{
+		int pos = 0;
+		while (pos < data.length)
+		{
+			long blockOffset = offset + pos;
+			byte[] block = getBlock(blockOffset / blockSize);
+			int start = (int) (blockOffset % blockSize);
+			int length = Math.min(data.length - pos, block.length - start);
+			if (length <= 0)
+			{
+				throw new EOFException("Unexpected end of " + path);
+			}
+			System.arraycopy(block, start, data, pos, length);
+			pos += length;
+		}
+	}
+
+
+	private byte[] getBlock(final long block) throws IOException
+	{
+		byte[] cached = blockCache.get(block);
+		if (cached != null)
+		{
+			return cached;
+		}
+		long blockStart = block * blockSize;
+		if (stream == null || blockStart < streamPosition)
+		{
+			if (stream != null)
+			{
+				stream.close();
+				numStreamRestarts++;
+			}
+			stream = GameLogReader.openStream(path);
+			streamPosition = 0;
+		}
+		// cache all blocks on the way, they are likely to be read when stepping backwards
+		while (streamPosition <= blockStart)
+		{
+			byte[] next = stream.readNBytes(blockSize);
+			if (next.length == 0)
+			{
+				throw new EOFException("Unexpected end of " + path);
+			}
+			blockCache.put(streamPosition / blockSize, next);
+			streamPosition += next.length;
+		}
+		return blockCache.get(block);
+	}
+
+
+	/**
+	 * @return how often the decompression of a compressed log was restarted from the beginning
+	 */
+	synchronized int getNumStreamRestarts()
+	{
+		return numStreamRestarts;
+	}
+
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		segments = null;
+		if (channel != null)
+		{
+			channel.close();
+			channel = null;
+		}
+		if (stream != null)
+		{
+			stream.close();
+			stream = null;
+		}
+		blockCache.clear();
+	}
+}
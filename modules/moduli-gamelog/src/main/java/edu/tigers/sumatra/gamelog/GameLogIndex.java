@@ -0,0 +1,388 @@
+package edu.tigers.sumatra.gamelog;
+
+import edu.tigers.sumatra.gamelog.filters.MessageFilter;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Offset index of a game log. For each message, the timestamp, type, size and the offset of the message data
+ * in the (uncompressed) log are stored in primitive arrays, so that messages can be read on demand.
+ * <p>
+ * Building the index requires a full scan of the log. The index is therefore stored next to the log
+ * in a sidecar file ({@value #SUFFIX}) and reused, as long as the log file did not change.
+ */
+@Log4j2
+public final class GameLogIndex
+{
+	private static final String SUFFIX = ".idx";
+	private static final int MAGIC = 0x474c4958; // GLIX
+	private static final int FORMAT_VERSION = 1;
+
+	/** Version number from the log file header */
+	@Getter
+	private final int versionNumber;
+	private final long[] timestamps;
+	private final long[] offsets;
+	private final int[] sizes;
+	private final EMessageType[] types;
+	private final Map<EMessageType, int[]> messagesByType;
+
+
+	private GameLogIndex(final int versionNumber, final long[] timestamps, final long[] offsets, final int[] sizes,
+			final EMessageType[] types)
+	{
+		this.versionNumber = versionNumber;
+		this.timestamps = timestamps;
+		this.offsets = offsets;
+		this.sizes = sizes;
+		this.types = types;
+		this.messagesByType = new EnumMap<>(EMessageType.class);
+		for (EMessageType type : EMessageType.values())
+		{
+			int[] messages = new int[types.length];
+			int n = 0;
+			for (int i = 0; i < types.length; i++)
+			{
+				if (types[i] == type)
+				{
+					messages[n++] = i;
+				}
+			}
+			if (n > 0)
+			{
+				messagesByType.put(type, Arrays.copyOf(messages, n));
+			}
+		}
+	}
+
+
+	/**
+	 * Load the sidecar index of the given log, or build (and store) it, if there is no up-to-date index.
+	 *
+	 * @param logFile the game log
+	 * @return the index of all messages in the log
+	 * @throws IOException if the log can not be read
+	 */
+	public static GameLogIndex loadOrBuild(final Path logFile) throws IOException
+	{
+		Path indexFile = logFile.resolveSibling(logFile.getFileName() + SUFFIX);
+		long logSize = Files.size(logFile);
+		long logModified = Files.getLastModifiedTime(logFile).toMillis();
+		if (Files.exists(indexFile))
+		{
+			try
+			{
+				GameLogIndex index = read(indexFile, logSize, logModified);
+				if (index != null)
+				{
+					return index;
+				}
+			} catch (IOException e)
+			{
+				log.warn("Could not read game log index {}", indexFile, e);
+			}
+		}
+
+		long tStart = System.nanoTime();
+		GameLogIndex index = build(logFile);
+		log.info("Indexed {} messages of {} in {}s", index.size(), logFile,
+				String.format("%.1f", (System.nanoTime() - tStart) / 1e9));
+		try
+		{
+			index.write(indexFile, logSize, logModified);
+		} catch (IOException e)
+		{
+			log.debug("Could not write game log index {}", indexFile, e);
+		}
+		return index;
+	}
+
+
+	/**
+	 * Build the index by scanning all message headers of the given log
+	 *
+	 * @param logFile the game log
+	 * @return the index of all messages in the log
+	 * @throws IOException if the log can not be read
+	 */
+	public static GameLogIndex build(final Path logFile) throws IOException
+	{
+		try (DataInputStream stream = GameLogReader.openStream(logFile))
+		{
+			GameLogReader.Header header = GameLogReader.readHeader(stream);
+			long offset = header.length();
+
+			int capacity = 1024;
+			long[] timestamps = new long[capacity];
+			long[] offsets = new long[capacity];
+			int[] sizes = new int[capacity];
+			EMessageType[] types = new EMessageType[capacity];
+			int n = 0;
+			while (true)
+			{
+				long timestamp;
+				int typeId;
+				int size;
+				try
+				{
+					timestamp = stream.readLong();
+					typeId = stream.readInt();
+					size = stream.readInt();
+				} catch (EOFException e)
+				{
+					break;
+				}
+				offset += GameLogReader.MESSAGE_HEADER_SIZE;
+				if (size < 0)
+				{
+					throw new IOException("Invalid message size " + size + " at offset " + offset);
+				}
+				try
+				{
+					stream.skipNBytes(size);
+				} catch (EOFException e)
+				{
+					log.warn("Ignoring truncated last message of {}", logFile);
+					break;
+				}
+
+				if (n == capacity)
+				{
+					capacity *= 2;
+					timestamps = Arrays.copyOf(timestamps, capacity);
+					offsets = Arrays.copyOf(offsets, capacity);
+					sizes = Arrays.copyOf(sizes, capacity);
+					types = Arrays.copyOf(types, capacity);
+				}
+				timestamps[n] = timestamp;
+				offsets[n] = offset;
+				sizes[n] = size;
+				types[n] = EMessageType.getMessageTypeConstant(typeId);
+				n++;
+				offset += size;
+			}
+			return new GameLogIndex(header.versionNumber(), Arrays.copyOf(timestamps, n), Arrays.copyOf(offsets, n),
+					Arrays.copyOf(sizes, n), Arrays.copyOf(types, n));
+		}
+	}
+
+
+	private static GameLogIndex read(final Path indexFile, final long logSize, final long logModified)
+			throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile))))
+		{
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+					|| in.readLong() != logSize || in.readLong() != logModified)
+			{
+				return null;
+			}
+			int versionNumber = in.readInt();
+			int n = in.readInt();
+			long[] timestamps = new long[n];
+			long[] offsets = new long[n];
+			int[] sizes = new int[n];
+			EMessageType[] types = new EMessageType[n];
+			for (int i = 0; i < n; i++)
+			{
+				timestamps[i] = in.readLong();
+				offsets[i] = in.readLong();
+				sizes[i] = in.readInt();
+				types[i] = EMessageType.getMessageTypeConstant(in.readInt());
+			}
+			return new GameLogIndex(versionNumber, timestamps, offsets, sizes, types);
+		}
+	}
+
+
+	private void write(final Path indexFile, final long logSize, final long logModified) throws IOException
+	{
+		Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(logSize);
+			out.writeLong(logModified);
+			out.writeInt(versionNumber);
+			out.writeInt(size());
+			for (int i = 0; i < size(); i++)
+			{
+				out.writeLong(timestamps[i]);
+				out.writeLong(offsets[i]);
+				out.writeInt(sizes[i]);
+				out.writeInt(types[i].getId());
+			}
+		}
+		Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+
+	/**
+	 * Create a new index that only contains the messages accepted by all given filters
+	 *
+	 * @param filters the filters
+	 * @return a filtered index (or this index, if there are no filters)
+	 */
+	public GameLogIndex filter(final List<MessageFilter> filters)
+	{
+		if (filters.isEmpty())
+		{
+			return this;
+		}
+		int[] accepted = new int[size()];
+		int n = 0;
+		for (int i = 0; i < size(); i++)
+		{
+			final int message = i;
+			if (filters.stream().allMatch(f -> f.filter(timestamps[message], types[message])))
+			{
+				accepted[n++] = i;
+			}
+		}
+		long[] newTimestamps = new long[n];
+		long[] newOffsets = new long[n];
+		int[] newSizes = new int[n];
+		EMessageType[] newTypes = new EMessageType[n];
+		for (int i = 0; i < n; i++)
+		{
+			newTimestamps[i] = timestamps[accepted[i]];
+			newOffsets[i] = offsets[accepted[i]];
+			newSizes[i] = sizes[accepted[i]];
+			newTypes[i] = types[accepted[i]];
+		}
+		return new GameLogIndex(versionNumber, newTimestamps, newOffsets, newSizes, newTypes);
+	}
+
+
+	/**
+	 * @return the number of messages
+	 */
+	public int size()
+	{
+		return timestamps.length;
+	}
+
+
+	/**
+	 * @param message the message number
+	 * @return the receiver timestamp of the message [ns]
+	 */
+	public long getTimestamp(final int message)
+	{
+		return timestamps[message];
+	}
+
+
+	/**
+	 * @param message the message number
+	 * @return the offset of the message data in the uncompressed log
+	 */
+	public long getOffset(final int message)
+	{
+		return offsets[message];
+	}
+
+
+	/**
+	 * @param message the message number
+	 * @return the size of the message data
+	 */
+	public int getSize(final int message)
+	{
+		return sizes[message];
+	}
+
+
+	/**
+	 * @param message the message number
+	 * @return the type of the message
+	 */
+	public EMessageType getType(final int message)
+	{
+		return types[message];
+	}
+
+
+	/**
+	 * Find the first message with a timestamp at or after the given one.
+	 * The messages are expected to be ordered by their receiver timestamp, as it is the case for recorded logs.
+	 *
+	 * @param timestampNs the timestamp [ns]
+	 * @return the message number, or {@link #size()}, if all messages are older
+	 */
+	public int findFirstAtOrAfter(final long timestampNs)
+	{
+		int low = 0;
+		int high = size();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (timestamps[mid] < timestampNs)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * Find the first message of the given type with a timestamp at or after the given one.
+	 *
+	 * @param type        the message type
+	 * @param timestampNs the timestamp [ns]
+	 * @return the message number, or -1, if there is no such message
+	 */
+	public int findFirstAtOrAfter(final EMessageType type, final long timestampNs)
+	{
+		int[] messages = messagesByType.get(type);
+		if (messages == null)
+		{
+			return -1;
+		}
+		int low = 0;
+		int high = messages.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (timestamps[messages[mid]] < timestampNs)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low < messages.length ? messages[low] : -1;
+	}
+
+
+	/**
+	 * @param type the message type
+	 * @return the number of messages of the given type
+	 */
+	public int count(final EMessageType type)
+	{
+		int[] messages = messagesByType.get(type);
+		return messages == null ? 0 : messages.length;
+	}
+}
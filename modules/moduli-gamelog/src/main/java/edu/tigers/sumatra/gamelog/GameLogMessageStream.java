@@ -0,0 +1,97 @@
+package edu.tigers.sumatra.gamelog;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Path;
+
+
+/**
+ * Reads the messages of a game log sequentially, one at a time.
+ * Only the current message is kept in memory.
+ */
+@Log4j2
+final class GameLogMessageStream implements Closeable
+{
+	private final Path path;
+	private final DataInputStream stream;
+	private GameLogMessage current;
+
+
+	/**
+	 * Open the log and read the first message
+	 *
+	 * @param path the game log (optionally gzipped)
+	 * @throws IOException if the log can not be read
+	 */
+	GameLogMessageStream(final Path path) throws IOException
+	{
+		this.path = path;
+		stream = GameLogReader.openStream(path);
+		try
+		{
+			GameLogReader.readHeader(stream);
+			advance();
+		} catch (IOException e)
+		{
+			stream.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * @return the current message or null, if the end of the log is reached
+	 */
+	GameLogMessage peek()
+	{
+		return current;
+	}
+
+
+	/**
+	 * Read the next message
+	 *
+	 * @throws IOException if the log can not be read
+	 */
+	void advance() throws IOException
+	{
+		current = null;
+		long timestamp;
+		int typeId;
+		int size;
+		try
+		{
+			timestamp = stream.readLong();
+			typeId = stream.readInt();
+			size = stream.readInt();
+		} catch (EOFException e)
+		{
+			return;
+		}
+		if (size < 0)
+		{
+			throw new IOException("Invalid message size " + size + " in " + path);
+		}
+		byte[] data = new byte[size];
+		try
+		{
+			stream.readFully(data);
+		} catch (EOFException e)
+		{
+			log.warn("Ignoring truncated last message of {}", path);
+			return;
+		}
+		current = new GameLogMessage(timestamp, EMessageType.getMessageTypeConstant(typeId), data);
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		stream.close();
+	}
+}
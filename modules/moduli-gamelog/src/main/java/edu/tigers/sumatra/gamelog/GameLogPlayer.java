@@ -4,8 +4,10 @@ import edu.tigers.sumatra.moduli.AModule;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 
@@ -13,6 +15,8 @@ import java.util.function.Function;
  * This module can open (SSL) Game Logs and replay them. Messages are binary blobs and must
  * be processed by attached observers.
  * This player will only handle playback speed and seek actions (i.e. _how_ it is played, not _what_ is played).
+ * The player owns the logs that are passed to {@link #setLogfile(GameLogReader)} and closes them when they are
+ * replaced or the module stops.
  */
 @Log4j2
 public class GameLogPlayer extends AModule
@@ -21,7 +25,7 @@ public class GameLogPlayer extends AModule
 
 	private Thread player;
 
-	private GameLogReader newLogfile;
+	private final AtomicReference<GameLogReader> newLogfile = new AtomicReference<>();
 
 	@Setter
 	private boolean pause = false;
@@ -35,6 +39,7 @@ public class GameLogPlayer extends AModule
 
 	private int doSteps = 0;
 	private Function<GameLogMessage, GameLogCompareResult> seekCondition;
+	private Long seekTimestamp;
 
 	private int currentFrame = 0;
 
@@ -58,14 +63,48 @@ public class GameLogPlayer extends AModule
 		if (player != null)
 		{
 			player.interrupt();
+			try
+			{
+				// the player closes the current log when it exits
+				if (player != Thread.currentThread())
+				{
+					player.join();
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
 			player = null;
 		}
+		closeLog(newLogfile.getAndSet(null));
 	}
 
 
+	/**
+	 * Play the given log next. The player takes ownership of the log and closes it when done.
+	 *
+	 * @param logfile the log to play
+	 */
 	public void setLogfile(final GameLogReader logfile)
 	{
-		newLogfile = logfile;
+		// a log that was not picked up yet is replaced
+		closeLog(newLogfile.getAndSet(logfile));
+	}
+
+
+	private static void closeLog(final GameLogReader logfile)
+	{
+		if (logfile == null)
+		{
+			return;
+		}
+		try
+		{
+			logfile.close();
+		} catch (IOException e)
+		{
+			log.warn("Could not close log file", e);
+		}
 	}
 
 
@@ -92,6 +131,18 @@ public class GameLogPlayer extends AModule
 	}
 
 
+	/**
+	 * Seeks to the first frame at or after the given timestamp.
+	 * This is a binary search on the message index of the current log.
+	 *
+	 * @param timestampNs the receiver timestamp [ns]
+	 */
+	public void seekToTimestamp(final long timestampNs)
+	{
+		seekTimestamp = timestampNs;
+	}
+
+
 	public void addObserver(final GameLogPlayerObserver observer)
 	{
 		observers.add(observer);
@@ -109,8 +160,7 @@ public class GameLogPlayer extends AModule
 		while (!Thread.interrupted())
 		{
 			// take new logfile if we have one
-			GameLogReader currentLog = newLogfile;
-			newLogfile = null;
+			GameLogReader currentLog = newLogfile.getAndSet(null);
 
 			// no log to play? nothing to do!
 			if (currentLog == null)
@@ -125,7 +175,13 @@ public class GameLogPlayer extends AModule
 				}
 			} else
 			{
-				playLog(currentLog);
+				try
+				{
+					playLog(currentLog);
+				} finally
+				{
+					closeLog(currentLog);
+				}
 				log.info("Replay finished");
 				observers.forEach(GameLogPlayerObserver::onGameLogTimeJump);
 			}
@@ -137,9 +193,9 @@ public class GameLogPlayer extends AModule
 	{
 		long lastTimestamp = 0;
 
-		for (int frameId = 0; frameId < log.getMessages().size(); frameId++)
+		for (int frameId = 0; frameId < log.getNumMessages(); frameId++)
 		{
-			var msg = log.getMessages().get(frameId);
+			var msg = log.getMessage(frameId);
 
 			int finalCurrentFrame = frameId;
 			observers.forEach(o -> o.onNewGameLogMessage(msg, finalCurrentFrame));
@@ -168,9 +224,9 @@ public class GameLogPlayer extends AModule
 
 	private void playLog(final GameLogReader currentLog)
 	{
-		for (currentFrame = 0; currentFrame < currentLog.getMessages().size(); currentFrame++)
+		for (currentFrame = 0; currentFrame < currentLog.getNumMessages(); currentFrame++)
 		{
-			if (newLogfile != null)
+			if (newLogfile.get() != null)
 			{
 				return;
 			}
@@ -182,18 +238,18 @@ public class GameLogPlayer extends AModule
 				return;
 			}
 
-			publishFrameAndSleep(currentLog.getMessages().get(currentFrame));
+			publishFrameAndSleep(currentLog.getMessage(currentFrame));
 		}
 	}
 
 
 	private void adjustCurrentFrame(final GameLogReader currentLog)
 	{
-		final int numPackets = currentLog.getMessages().size();
+		final int numPackets = currentLog.getNumMessages();
 
 		while (pause)
 		{
-			if ((doSteps != 0) || (newLogfile != null))
+			if ((doSteps != 0) || (newLogfile.get() != null))
 			{
 				break;
 			}
@@ -214,6 +270,13 @@ public class GameLogPlayer extends AModule
 			seekCondition = null;
 		}
 
+		Long timestamp = seekTimestamp;
+		if (timestamp != null)
+		{
+			setPosition(Math.min(currentLog.findMessageAt(timestamp), numPackets - 1));
+			seekTimestamp = null;
+		}
+
 		if (doSteps != 0)
 		{
 			currentFrame += doSteps - 1;
@@ -269,9 +332,9 @@ public class GameLogPlayer extends AModule
 			final Function<GameLogMessage, GameLogCompareResult> condition, GameLogCompareResult requiredVerdict
 	)
 	{
-		for (int frame = startFrame; frame < currentLog.getMessages().size(); frame++)
+		for (int frame = startFrame; frame < currentLog.getNumMessages(); frame++)
 		{
-			GameLogMessage msg = currentLog.getMessages().get(frame);
+			GameLogMessage msg = currentLog.getMessage(frame);
 			if (condition.apply(msg) == requiredVerdict)
 			{
 				return frame;
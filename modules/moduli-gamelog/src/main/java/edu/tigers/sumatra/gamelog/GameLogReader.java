@@ -5,10 +5,15 @@ import edu.tigers.sumatra.gamelog.filters.MessageFilter;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.EOFException;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -16,16 +21,29 @@ import java.util.zip.GZIPInputStream;
 
 /**
  * Reads file in SSL game log format.
+ * <p>
+ * A log can either be loaded completely into memory ({@link #loadFileBlocking(String)}) or
+ * opened for streaming ({@link #openFileBlocking(String)}). When streaming, only an index of the messages is kept
+ * in memory and the messages are read on demand with {@link #getMessage(int)}.
  */
 @Log4j2
-public class GameLogReader
+public class GameLogReader implements Closeable
 {
+	/** timestamp, type and size */
+	static final int MESSAGE_HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
 	@Getter
 	private int versionNumber;
 
+	/**
+	 * All messages, if the log was loaded with {@link #loadFileBlocking(String)}.
+	 * Use {@link #getNumMessages()} and {@link #getMessage(int)} to support streamed logs as well.
+	 */
 	@Getter
 	private List<GameLogMessage> messages = new ArrayList<>();
 
+	private GameLogFile file;
+
 	private GameLogReaderObserver loadCompleteObserver = null;
 
 	/**
@@ -35,18 +53,18 @@ public class GameLogReader
 
 
 	/**
-	 * Load a logfile asynchronously.
+	 * Open a logfile for streaming asynchronously.
 	 *
 	 * @param path
 	 */
 	private void loadFile(final String path)
 	{
-		new Thread(() -> loadFileBlocking(path), "Loader").start();
+		new Thread(() -> openFileBlocking(path), "Loader").start();
 	}
 
 
 	/**
-	 * Load a logfile asynchronously and get notified when it is done.
+	 * Open a logfile for streaming asynchronously and get notified when it is done.
 	 *
 	 * @param path
 	 * @param obs
@@ -59,22 +77,52 @@ public class GameLogReader
 	}
 
 
-	public void loadFileBlocking(final String path)
+	/**
+	 * Open a logfile for streaming. The message index is loaded from the sidecar index file or built
+	 * by scanning the log once. The message data is read on demand.
+	 * Failures are logged and reported to the observer only, use {@link #openFile(String)} to handle them.
+	 *
+	 * @param path
+	 */
+	public void openFileBlocking(final String path)
 	{
-		try (FileInputStream fileInStream = new FileInputStream(path))
+		try
 		{
-			DataInputStream fileStream;
-			if (path.endsWith(".gz"))
-			{
-				final GZIPInputStream gzipInputStream = new GZIPInputStream(fileInStream);
-				fileStream = new DataInputStream(gzipInputStream);
-			} else
-			{
-				fileStream = new DataInputStream(fileInStream);
-			}
+			openFile(path);
+			notifyLoadComplete(true);
+		} catch (IOException e)
+		{
+			notifyLoadComplete(false);
+			log.error("Opening logfile {} failed", path, e);
+		}
+	}
 
-			if (!parseHeader(fileStream))
-				throw new IOException("Unhandled log file type.");
+
+	/**
+	 * Open a logfile for streaming, like {@link #openFileBlocking(String)}, but pass failures to the caller.
+	 *
+	 * @param path
+	 * @throws IOException if the log does not exist or is not a valid game log
+	 */
+	public void openFile(final String path) throws IOException
+	{
+		GameLogIndex index = GameLogIndex.loadOrBuild(Path.of(path));
+		versionNumber = index.getVersionNumber();
+		file = new GameLogFile(Path.of(path), index.filter(filters));
+		log.info("Opened logfile {} with {} messages", path, file.size());
+	}
+
+
+	/**
+	 * Load all messages of a logfile into memory.
+	 *
+	 * @param path
+	 */
+	public void loadFileBlocking(final String path)
+	{
+		try (DataInputStream fileStream = openStream(Path.of(path)))
+		{
+			versionNumber = readHeader(fileStream).versionNumber();
 
 			parseMessages(fileStream);
 
@@ -99,7 +147,96 @@ public class GameLogReader
 	}
 
 
-	private boolean parseHeader(DataInputStream fileStream) throws IOException
+	/**
+	 * @return the number of messages, either loaded or streamed
+	 */
+	public int getNumMessages()
+	{
+		return file != null ? file.size() : messages.size();
+	}
+
+
+	/**
+	 * Get a message, either loaded or streamed
+	 *
+	 * @param message the message number
+	 * @return the message
+	 */
+	public GameLogMessage getMessage(final int message)
+	{
+		if (file == null)
+		{
+			return messages.get(message);
+		}
+		try
+		{
+			return file.read(message);
+		} catch (IOException e)
+		{
+			throw new UncheckedIOException("Could not read message " + message, e);
+		}
+	}
+
+
+	/**
+	 * Find the first message with a timestamp at or after the given one.
+	 *
+	 * @param timestampNs the timestamp [ns]
+	 * @return the message number, or {@link #getNumMessages()}, if all messages are older
+	 */
+	public int findMessageAt(final long timestampNs)
+	{
+		if (file != null)
+		{
+			return file.getIndex().findFirstAtOrAfter(timestampNs);
+		}
+		int low = 0;
+		int high = messages.size();
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (messages.get(mid).getTimestampNs() < timestampNs)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		if (file != null)
+		{
+			file.close();
+			file = null;
+		}
+	}
+
+
+	static boolean isCompressed(final Path path)
+	{
+		return path.getFileName().toString().endsWith(".gz");
+	}
+
+
+	@SuppressWarnings("squid:S2095") // closed by the caller
+	static DataInputStream openStream(final Path path) throws IOException
+	{
+		InputStream inputStream = Files.newInputStream(path);
+		if (isCompressed(path))
+		{
+			inputStream = new GZIPInputStream(inputStream, 1 << 16);
+		}
+		return new DataInputStream(new BufferedInputStream(inputStream, 1 << 16));
+	}
+
+
+	static Header readHeader(DataInputStream fileStream) throws IOException
 	{
 		byte[] nextBytes = new byte[4];
 		fileStream.readFully(nextBytes);
@@ -110,7 +247,7 @@ public class GameLogReader
 		if (!"SSL_".equals(startHeader))
 		{
 			log.warn("Unknown header: {}", startHeader);
-			return false;
+			throw new IOException("Unhandled log file type.");
 		}
 
 		List<Byte> middleHeaderBuilder = new ArrayList<>();
@@ -128,10 +265,21 @@ public class GameLogReader
 		String headerString =
 				startHeader + new String(Bytes.toArray(middleHeaderBuilder)).toUpperCase() + "_" + endHeader;
 
-		versionNumber = fileStream.readInt();
+		int versionNumber = fileStream.readInt();
 		log.info("Logfile header: {}, Version: {}", headerString, versionNumber);
 
-		return true;
+		int length = headerString.length() + Integer.BYTES;
+		return new Header(headerString, versionNumber, length);
+	}
+
+
+	/**
+	 * @param name          the file type
+	 * @param versionNumber the format version
+	 * @param length        the length of the header in bytes
+	 */
+	record Header(String name, int versionNumber, int length)
+	{
 	}
 
 
@@ -2,16 +2,31 @@ package edu.tigers.sumatra.gamelog;
 
 
 import edu.tigers.sumatra.moduli.AModule;
+import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
+
+/**
+ * Records game log messages to a file in data/gamelog.
+ * The messages are written asynchronously by an {@link AsyncGameLogWriter}.
+ */
+@Log4j2
 public class GameLogRecorder extends AModule
 {
-	private final GameLogWriter writer = new GameLogWriter();
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 23;
+
 	private String matchType = "";
 	private String matchStage = "";
 	private String teamYellow = "";
 	private String teamBlue = "";
 
+	private boolean compress = false;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private volatile AsyncGameLogWriter writer;
+
 
 	/**
 	 * @param match  type of match
@@ -28,30 +43,84 @@ public class GameLogRecorder extends AModule
 	}
 
 
+	@Override
+	public void initModule()
+	{
+		compress = getSubnodeConfiguration().getBoolean("compress", false);
+		bufferSize = getSubnodeConfiguration().getInt("bufferSize", DEFAULT_BUFFER_SIZE);
+	}
+
+
 	@Override
 	public void stopModule()
 	{
-		if (writer.isOpen())
-		{
-			writer.close();
-		}
+		setRecording(false);
 	}
 
 
-	public void setRecording(boolean enable)
+	public synchronized void setRecording(boolean enable)
 	{
-		if (enable && !writer.isOpen())
+		if (enable && writer == null)
 		{
-			writer.open(matchType, matchStage, teamYellow, teamBlue);
-		} else if (!enable && writer.isOpen())
+			String filename = GameLogWriter.createFilename(matchType, matchStage, teamYellow, teamBlue)
+					+ (compress ? ".log.gz" : ".log");
+			Path file = Path.of(GameLogWriter.GAMELOG_PATH, filename);
+			try
+			{
+				writer = AsyncGameLogWriter.open(file, bufferSize);
+			} catch (IOException e)
+			{
+				log.error("Exception on opening gamelog file {}", file, e);
+			}
+		} else if (!enable && writer != null)
 		{
-			writer.close();
+			AsyncGameLogWriter w = writer;
+			writer = null;
+			w.close();
 		}
 	}
 
 
 	public void writeMessage(final GameLogMessage msg)
 	{
-		writer.write(msg);
+		writeMessage(msg.getTimestampNs(), msg.getType(), msg.getData(), 0, msg.getData().length);
+	}
+
+
+	/**
+	 * Write a message without creating a {@link GameLogMessage}.
+	 * The data is copied, so the buffer can be reused directly afterward.
+	 *
+	 * @param timestampNs the receive timestamp [ns]
+	 * @param type        the message type
+	 * @param data        the buffer containing the message
+	 * @param offset      the offset of the message in the buffer
+	 * @param length      the length of the message
+	 */
+	public void writeMessage(final long timestampNs, final EMessageType type, final byte[] data, final int offset,
+			final int length)
+	{
+		AsyncGameLogWriter w = writer;
+		if (w != null)
+		{
+			w.write(timestampNs, type, data, offset, length);
+		}
+	}
+
+
+	/**
+	 * Write the remaining bytes of the buffer as a message. The buffer position is not changed.
+	 *
+	 * @param timestampNs the receive timestamp [ns]
+	 * @param type        the message type
+	 * @param data        the message
+	 */
+	public void writeMessage(final long timestampNs, final EMessageType type, final ByteBuffer data)
+	{
+		AsyncGameLogWriter w = writer;
+		if (w != null)
+		{
+			w.write(timestampNs, type, data);
+		}
 	}
 }
@@ -3,13 +3,17 @@ package edu.tigers.sumatra.gamelog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.zip.GZIPOutputStream;
 
 
 /**
@@ -19,9 +23,9 @@ import java.util.TimeZone;
 @RequiredArgsConstructor
 public class GameLogWriter
 {
-	private static final String GAMELOG_PATH = "data/gamelog";
-	private static final int VERSION = 1;
-	private static final String FILE_TYPE = "SSL_LOG_FILE";
+	static final String GAMELOG_PATH = "data/gamelog";
+	static final int VERSION = 1;
+	static final String FILE_TYPE = "SSL_LOG_FILE";
 
 	private DataOutputStream outputStream;
 
@@ -30,12 +34,19 @@ public class GameLogWriter
 	 * Open a gamelog for writing using current date/time as filename.
 	 */
 	public void open(String matchType, String stage, String teamYellow, String teamBlue)
+	{
+		open(createFilename(matchType, stage, teamYellow, teamBlue));
+	}
+
+
+	/**
+	 * @return a file name (without extension) from the current date/time and the match info
+	 */
+	static String createFilename(String matchType, String stage, String teamYellow, String teamBlue)
 	{
 		SimpleDateFormat dt = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
 		dt.setTimeZone(TimeZone.getDefault());
-		String filename =
-				dt.format(new Date()) + String.format("-%s-%s-%s-vs-%s", matchType, stage, teamYellow, teamBlue);
-		open(filename);
+		return dt.format(new Date()) + String.format("-%s-%s-%s-vs-%s", matchType, stage, teamYellow, teamBlue);
 	}
 
 
@@ -57,7 +68,7 @@ public class GameLogWriter
 			folder.mkdirs();
 
 			// open file
-			outputStream = new DataOutputStream(new FileOutputStream(fullName, false));
+			outputStream = openStream(fullName);
 
 			writeHeader();
 		} catch (IOException e)
@@ -79,7 +90,7 @@ public class GameLogWriter
 		try
 		{
 			// open file
-			outputStream = new DataOutputStream(new FileOutputStream(fullName, false));
+			outputStream = openStream(fullName);
 
 			writeHeader();
 		} catch (IOException e)
@@ -89,6 +100,18 @@ public class GameLogWriter
 	}
 
 
+	@SuppressWarnings("squid:S2095") // closed in close()
+	private static DataOutputStream openStream(final String fullName) throws IOException
+	{
+		OutputStream stream = new FileOutputStream(fullName, false);
+		if (GameLogReader.isCompressed(Path.of(fullName)))
+		{
+			stream = new GZIPOutputStream(stream, 1 << 16);
+		}
+		return new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+	}
+
+
 	private void writeHeader() throws IOException
 	{
 		outputStream.writeBytes(FILE_TYPE);
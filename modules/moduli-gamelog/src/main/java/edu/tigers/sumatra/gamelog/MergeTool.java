@@ -2,11 +2,13 @@ package edu.tigers.sumatra.gamelog;
 
 import lombok.extern.log4j.Log4j2;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 
 /**
@@ -62,6 +64,8 @@ public class MergeTool
 
 	/**
 	 * Merge files.
+	 * The inputs are read sequentially and merged by message timestamp, so that only one message per
+	 * input is kept in memory.
 	 */
 	private void mergeBlocking()
 	{
@@ -70,64 +74,100 @@ public class MergeTool
 			return;
 		}
 
-		log.info("Loading logfiles files");
+		log.info("Merging {} logfiles into {}", inputs.size(), output);
 
-		// load all logfiles, sort by timestamp, combine into single list
-		List<GameLogMessage> fullLog = inputs.stream()
-				.map(i -> {
-					GameLogReader reader = new GameLogReader();
-					reader.loadFileBlocking(i);
-					return reader.getMessages();
-				})
-				.sorted(Comparator.comparingLong(l -> l.getFirst().getTimestampNs()))
-				.flatMap(List::stream)
-				.collect(Collectors.toCollection(LinkedList::new));
-
-		log.info("Loading done, processing filter verdicts...");
-
-		if (filter != null)
+		List<GameLogMessageStream> streams = new ArrayList<>(inputs.size());
+		GameLogWriter writer = new GameLogWriter();
+		try
+		{
+			for (String input : inputs)
+			{
+				streams.add(new GameLogMessageStream(Path.of(input)));
+			}
+			writer.openPath(output);
+			long numMessages = merge(streams, writer);
+			log.info("Write complete, {} messages", numMessages);
+		} catch (IOException e)
 		{
-			removeFilteredMessages(fullLog);
+			log.error("Merging logfiles failed", e);
+		} finally
+		{
+			writer.close();
+			for (GameLogMessageStream stream : streams)
+			{
+				closeQuietly(stream);
+			}
 		}
-
-		log.info("Processing complete. Writing output file.");
-
-		GameLogWriter writer = new GameLogWriter();
-		writer.openPath(output);
-		fullLog.forEach(writer::write);
-		writer.close();
-
-		log.info("Write complete");
 	}
 
 
-	@SuppressWarnings("squid:ForLoopCounterChangedCheck")
-	private void removeFilteredMessages(final List<GameLogMessage> fullLog)
+	private long merge(final List<GameLogMessageStream> streams, final GameLogWriter writer) throws IOException
 	{
+		// order by timestamp of the current message, then by input order
+		PriorityQueue<Input> queue = new PriorityQueue<>(Math.max(1, streams.size()),
+				Comparator.<Input>comparingLong(i -> i.stream().peek().getTimestampNs())
+						.thenComparingInt(Input::index));
+		for (int i = 0; i < streams.size(); i++)
+		{
+			if (streams.get(i).peek() != null)
+			{
+				queue.add(new Input(streams.get(i), i));
+			}
+		}
+
+		long numMessages = 0;
 		long timeOffset = 0;
-		int removeStartIndex = -1;
-		for (int index = 0; index < fullLog.size(); index++)
+		boolean removing = false;
+		long removeStartTimestamp = 0;
+		while (!queue.isEmpty())
 		{
-			GameLogMessage msg = fullLog.get(index);
-			var verdict = filter.apply(msg);
+			Input input = queue.poll();
+			GameLogMessage msg = input.stream().peek();
+			input.stream().advance();
+			if (input.stream().peek() != null)
+			{
+				queue.add(input);
+			}
 
-			if(verdict == GameLogCompareResult.MATCH && removeStartIndex < 0)
+			// remove all messages from the first match up to the next mismatch and close the time gap
+			var verdict = filter == null ? GameLogCompareResult.IGNORE : filter.apply(msg);
+			if (verdict == GameLogCompareResult.MATCH && !removing)
 			{
-				removeStartIndex = index;
+				removing = true;
+				removeStartTimestamp = msg.getTimestampNs();
+			} else if (verdict == GameLogCompareResult.MISMATCH && removing)
+			{
+				removing = false;
+				timeOffset -= msg.getTimestampNs() - removeStartTimestamp;
 			}
 
-			if(verdict == GameLogCompareResult.MISMATCH && removeStartIndex > 0)
+			if (!removing)
 			{
-				long timeAdjust = msg.getTimestampNs() - fullLog.get(removeStartIndex).getTimestampNs();
-				timeOffset -= timeAdjust;
-				fullLog.subList(removeStartIndex, index).clear();
-				index = removeStartIndex;
-				removeStartIndex = -1;
+				msg.adjustTimestamp(timeOffset);
+				writer.write(msg);
+				numMessages++;
 			}
+		}
+		return numMessages;
+	}
+
 
-			msg.adjustTimestamp(timeOffset);
+	private void closeQuietly(final GameLogMessageStream stream)
+	{
+		try
+		{
+			stream.close();
+		} catch (IOException e)
+		{
+			log.warn("Could not close logfile", e);
 		}
 	}
 
 
+	/**
+	 * An input stream with its position in the list of inputs
+	 */
+	private record Input(GameLogMessageStream stream, int index)
+	{
+	}
 }
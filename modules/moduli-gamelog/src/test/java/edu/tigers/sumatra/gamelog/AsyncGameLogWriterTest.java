@@ -0,0 +1,124 @@
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class AsyncGameLogWriterTest
+{
+	private static final int CAPACITY = 1 << 14;
+
+	@TempDir
+	private Path tmp;
+
+
+	@ParameterizedTest
+	@ValueSource(strings = { "test.log", "test.log.gz" })
+	void testOrderAcrossRingBufferWrapAround(String fileName) throws IOException, InterruptedException
+	{
+		Path logFile = tmp.resolve(fileName);
+		Random random = new Random(0);
+		List<GameLogMessage> written = new ArrayList<>();
+		try (AsyncGameLogWriter writer = AsyncGameLogWriter.open(logFile, CAPACITY))
+		{
+			// many times the capacity, with messages crossing the end of the ring buffer
+			for (int i = 0; i < 1000; i++)
+			{
+				GameLogMessage message = createMessage(random, i);
+				while (!write(writer, message, i % 2 == 0))
+				{
+					// the ring buffer is full, give the I/O thread time to free some space
+					Thread.sleep(1);
+				}
+				written.add(message);
+			}
+		}
+
+		assertLog(logFile, written);
+	}
+
+
+	@ParameterizedTest
+	@ValueSource(strings = { "test.log", "test.log.gz" })
+	void testCloseWritesPendingMessages(String fileName) throws IOException
+	{
+		Path logFile = tmp.resolve(fileName);
+		Random random = new Random(1);
+		List<GameLogMessage> written = new ArrayList<>();
+		AsyncGameLogWriter writer = AsyncGameLogWriter.open(logFile, 1 << 20);
+		for (int i = 0; i < 100; i++)
+		{
+			GameLogMessage message = createMessage(random, i);
+			assertThat(write(writer, message, true)).isTrue();
+			written.add(message);
+		}
+		// close right away, before the I/O thread wakes up
+		writer.close();
+
+		assertLog(logFile, written);
+	}
+
+
+	@Test
+	void testDropWhenFull() throws IOException
+	{
+		Path logFile = tmp.resolve("test.log");
+		try (AsyncGameLogWriter writer = AsyncGameLogWriter.open(logFile, 1024))
+		{
+			assertThat(writer.write(1, EMessageType.SSL_VISION_2014, new byte[2000], 0, 2000)).isFalse();
+			assertThat(writer.write(2, EMessageType.SSL_VISION_2014, new byte[10], 0, 10)).isTrue();
+		}
+		assertThat(writerThreadAlive()).isFalse();
+	}
+
+
+	private static boolean writerThreadAlive()
+	{
+		return Thread.getAllStackTraces().keySet().stream()
+				.anyMatch(t -> t.getName().startsWith("GameLogWriter") && t.isAlive());
+	}
+
+
+	private static boolean write(AsyncGameLogWriter writer, GameLogMessage message, boolean fromArray)
+	{
+		return fromArray
+				? writer.write(message.getTimestampNs(), message.getType(), message.getData(), 0, message.getData().length)
+				: writer.write(message.getTimestampNs(), message.getType(), ByteBuffer.wrap(message.getData()));
+	}
+
+
+	private static GameLogMessage createMessage(Random random, int i)
+	{
+		byte[] data = new byte[1 + random.nextInt(1500)];
+		random.nextBytes(data);
+		return new GameLogMessage(1_000_000L * (i + 1), EMessageType.SSL_VISION_2014, data);
+	}
+
+
+	private static void assertLog(Path logFile, List<GameLogMessage> expected) throws IOException
+	{
+		try (GameLogReader reader = new GameLogReader())
+		{
+			reader.openFile(logFile.toString());
+			assertThat(reader.getNumMessages()).isEqualTo(expected.size());
+			for (int i = 0; i < expected.size(); i++)
+			{
+				GameLogMessage actual = reader.getMessage(i);
+				assertThat(actual.getTimestampNs()).isEqualTo(expected.get(i).getTimestampNs());
+				assertThat(actual.getType()).isEqualTo(expected.get(i).getType());
+				assertThat(actual.getData()).isEqualTo(expected.get(i).getData());
+			}
+		}
+	}
+}
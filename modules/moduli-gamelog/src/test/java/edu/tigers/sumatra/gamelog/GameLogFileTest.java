@@ -0,0 +1,123 @@
+package edu.tigers.sumatra.gamelog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class GameLogFileTest
+{
+	private static final int NUM_MESSAGES = 300;
+
+	@TempDir
+	private Path tmp;
+
+
+	@ParameterizedTest
+	@ValueSource(strings = { "test.log", "test.log.gz" })
+	void testReadForwardAndBackward(String fileName) throws IOException
+	{
+		Path logFile = tmp.resolve(fileName);
+		List<GameLogMessage> messages = writeLog(logFile);
+
+		// small blocks and cache, such that messages span blocks and seeking back may restart the stream
+		try (GameLogFile file = new GameLogFile(logFile, GameLogIndex.build(logFile), 1000, 4))
+		{
+			assertThat(file.size()).isEqualTo(NUM_MESSAGES);
+			for (int i = 0; i < NUM_MESSAGES; i++)
+			{
+				assertMessage(messages.get(i), file.read(i));
+			}
+			for (int i = NUM_MESSAGES - 1; i >= 0; i--)
+			{
+				assertMessage(messages.get(i), file.read(i));
+			}
+			Random random = new Random(42);
+			for (int i = 0; i < NUM_MESSAGES; i++)
+			{
+				int message = random.nextInt(NUM_MESSAGES);
+				assertMessage(messages.get(message), file.read(message));
+			}
+		}
+	}
+
+
+	@Test
+	void testCompressedSeekBackRestartsBeyondCache() throws IOException
+	{
+		Path logFile = tmp.resolve("test.log.gz");
+		List<GameLogMessage> messages = writeLog(logFile);
+
+		try (GameLogFile file = new GameLogFile(logFile, GameLogIndex.build(logFile), 1000, 4))
+		{
+			assertMessage(messages.get(NUM_MESSAGES - 2), file.read(NUM_MESSAGES - 2));
+			assertThat(file.getNumStreamRestarts()).isZero();
+
+			// within the cached blocks and forward: the stream continues
+			assertMessage(messages.get(NUM_MESSAGES - 2), file.read(NUM_MESSAGES - 2));
+			assertMessage(messages.get(NUM_MESSAGES - 1), file.read(NUM_MESSAGES - 1));
+			assertThat(file.getNumStreamRestarts()).isZero();
+
+			// beyond the cached blocks: the log is decompressed from the beginning again
+			assertMessage(messages.get(0), file.read(0));
+			assertThat(file.getNumStreamRestarts()).isEqualTo(1);
+		}
+	}
+
+
+	@ParameterizedTest
+	@ValueSource(strings = { "test.log", "test.log.gz" })
+	void testReaderSeek(String fileName) throws IOException
+	{
+		Path logFile = tmp.resolve(fileName);
+		List<GameLogMessage> messages = writeLog(logFile);
+
+		try (GameLogReader reader = new GameLogReader())
+		{
+			reader.openFile(logFile.toString());
+			assertThat(reader.getNumMessages()).isEqualTo(NUM_MESSAGES);
+			assertMessage(messages.get(NUM_MESSAGES - 1), reader.getMessage(NUM_MESSAGES - 1));
+
+			int message = reader.findMessageAt(messages.get(10).getTimestampNs());
+			assertThat(message).isEqualTo(10);
+			assertMessage(messages.get(10), reader.getMessage(message));
+			assertMessage(messages.get(11), reader.getMessage(message + 1));
+		}
+	}
+
+
+	private static List<GameLogMessage> writeLog(Path logFile)
+	{
+		Random random = new Random(0);
+		List<GameLogMessage> messages = new ArrayList<>();
+		GameLogWriter writer = new GameLogWriter();
+		writer.openPath(logFile.toString());
+		for (int i = 0; i < NUM_MESSAGES; i++)
+		{
+			byte[] data = new byte[random.nextInt(3000)];
+			random.nextBytes(data);
+			GameLogMessage message = new GameLogMessage(1_000_000L * (i + 1), EMessageType.SSL_VISION_2014, data);
+			writer.write(message);
+			messages.add(message);
+		}
+		writer.close();
+		return messages;
+	}
+
+
+	private static void assertMessage(GameLogMessage expected, GameLogMessage actual)
+	{
+		assertThat(actual.getTimestampNs()).isEqualTo(expected.getTimestampNs());
+		assertThat(actual.getType()).isEqualTo(expected.getType());
+		assertThat(actual.getData()).isEqualTo(expected.getData());
+	}
+}
@@ -1,16 +1,37 @@
 package edu.tigers.sumatra.persistence;
 
+import com.github.g3force.configurable.ConfigRegistration;
+import com.github.g3force.configurable.Configurable;
+import edu.tigers.sumatra.time.LatencyHistogram;
 import lombok.extern.log4j.Log4j2;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
 
 
+/**
+ * Base for recorders that receive objects from arbitrary threads and write them in {@link #flush()}.
+ * <p>
+ * Objects are handed over through a lock-free ring buffer, so producers never block.
+ * If the buffer is full, objects are dropped and counted.
+ */
 @Log4j2
 public abstract class ABufferedPersistenceRecorder<T extends PersistenceTable.IEntry<T>> implements IPersistenceRecorder
 {
-	private static final int MAX_BUFFER_SIZE = 10000;
-	private final Queue<T> buffer = new ArrayDeque<>();
+	@Configurable(defValue = "16384", comment = "Max number of objects per recorder waiting to be written. Further objects are dropped.")
+	private static int bufferCapacity = 16384;
+
+	static
+	{
+		ConfigRegistration.registerClass("user", ABufferedPersistenceRecorder.class);
+	}
+
+	private final MpscRingBuffer<T> buffer = new MpscRingBuffer<>(bufferCapacity);
+	private final ObjLongConsumer<T> writer = this::write;
+	private final LongAdder droppedObjects = new LongAdder();
+	private final LatencyHistogram queueLatency = new LatencyHistogram();
+	private final LatencyHistogram writeLatency = new LatencyHistogram();
+	private long reportedDrops = 0;
 
 	private final PersistenceTable<T> table;
 	private final Class<T> clazz;
@@ -25,31 +46,68 @@ public abstract class ABufferedPersistenceRecorder<T extends PersistenceTable.IE
 
 	public void queue(T object)
 	{
-		synchronized (buffer)
+		if (!buffer.offer(object))
 		{
-			if(buffer.size() >= MAX_BUFFER_SIZE)
-			{
-				log.warn("Dropped object of type {} due to full buffer.", clazz.getName());
-				return;
-			}
-
-			buffer.add(object);
+			droppedObjects.increment();
 		}
 	}
 
+
 	@Override
 	public void flush()
 	{
-		T object;
-		synchronized (buffer) {
-			object = buffer.poll();
-		}
-		while(object != null)
+		buffer.drain(writer);
+
+		long drops = droppedObjects.sum();
+		if (drops > reportedDrops)
 		{
-			table.write(object);
-			synchronized (buffer) {
-				object = buffer.poll();
-			}
+			log.warn("Dropped {} objects of type {} due to full buffer.", drops - reportedDrops, clazz.getName());
+			reportedDrops = drops;
 		}
 	}
+
+
+	private void write(T object, long tEnqueued)
+	{
+		queueLatency.recordSince(tEnqueued);
+		long tStart = System.nanoTime();
+		table.write(object);
+		writeLatency.recordSince(tStart);
+	}
+
+
+	/**
+	 * @return the total number of objects that were dropped, because the buffer was full
+	 */
+	public long getDroppedObjects()
+	{
+		return droppedObjects.sum();
+	}
+
+
+	/**
+	 * @return the approximate number of objects waiting to be written
+	 */
+	public int getBacklog()
+	{
+		return buffer.size();
+	}
+
+
+	/**
+	 * @return the time between queuing and writing an object
+	 */
+	public LatencyHistogram getQueueLatency()
+	{
+		return queueLatency;
+	}
+
+
+	/**
+	 * @return the time for writing (serializing) a single object
+	 */
+	public LatencyHistogram getWriteLatency()
+	{
+		return writeLatency;
+	}
 }
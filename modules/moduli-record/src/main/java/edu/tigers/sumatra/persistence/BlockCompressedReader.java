@@ -0,0 +1,231 @@
+package edu.tigers.sumatra.persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * Random access to the uncompressed content of a file written by {@link BlockCompressedWriter}.
+ * <p>
+ * Only the blocks that contain the requested range are inflated. The most recently used blocks are cached.
+ * This class is thread-safe.
+ */
+public class BlockCompressedReader implements AutoCloseable
+{
+	private static final int CACHED_BLOCKS = 16;
+
+	private final FileChannel file;
+	private final int blockSize;
+	private final long[] offsets;
+	private final long uncompressedSize;
+	private final Map<Integer, byte[]> cache = new LinkedHashMap<>(2 * CACHED_BLOCKS, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Integer, byte[]> eldest)
+		{
+			return size() > CACHED_BLOCKS;
+		}
+	};
+
+
+	private BlockCompressedReader(final FileChannel file, final int blockSize, final long[] offsets,
+			final long uncompressedSize)
+	{
+		this.file = file;
+		this.blockSize = blockSize;
+		this.offsets = offsets;
+		this.uncompressedSize = uncompressedSize;
+	}
+
+
+	/**
+	 * @param path the block-compressed file
+	 * @return a new reader
+	 * @throws IOException if the file can not be read or is incomplete
+	 */
+	public static BlockCompressedReader open(final Path path) throws IOException
+	{
+		FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+		try
+		{
+			ByteBuffer header = readFully(file, 0, BlockCompressedWriter.HEADER_SIZE);
+			checkMagic(header, path);
+			int blockSize = header.getInt();
+
+			long size = file.size();
+			ByteBuffer tail = readFully(file, size - BlockCompressedWriter.FOOTER_TAIL_SIZE,
+					BlockCompressedWriter.FOOTER_TAIL_SIZE);
+			long uncompressedSize = tail.getLong();
+			int numBlocks = tail.getInt();
+			checkMagic(tail, path);
+
+			int footerSize = (numBlocks + 1) * Long.BYTES;
+			ByteBuffer footer = readFully(file, size - BlockCompressedWriter.FOOTER_TAIL_SIZE - footerSize, footerSize);
+			long[] offsets = new long[numBlocks + 1];
+			footer.asLongBuffer().get(offsets);
+			return new BlockCompressedReader(file, blockSize, offsets, uncompressedSize);
+		} catch (IOException | RuntimeException e)
+		{
+			file.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * @param path the block-compressed file
+	 * @return the uncompressed size, if the file is complete, else -1
+	 */
+	public static long getCompleteSize(final Path path)
+	{
+		try (BlockCompressedReader reader = open(path))
+		{
+			return reader.size();
+		} catch (IOException | RuntimeException e)
+		{
+			return -1;
+		}
+	}
+
+
+	private static void checkMagic(final ByteBuffer buffer, final Path path) throws IOException
+	{
+		byte[] magic = new byte[BlockCompressedWriter.MAGIC.length];
+		buffer.get(magic);
+		if (!Arrays.equals(magic, BlockCompressedWriter.MAGIC))
+		{
+			throw new IOException("Not a complete block-compressed file: " + path);
+		}
+	}
+
+
+	private static ByteBuffer readFully(final FileChannel file, final long position, final int size) throws IOException
+	{
+		if (position < 0)
+		{
+			throw new EOFException();
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while (buffer.hasRemaining())
+		{
+			if (file.read(buffer, position + buffer.position()) < 0)
+			{
+				throw new EOFException();
+			}
+		}
+		return buffer.flip();
+	}
+
+
+	/**
+	 * @return the uncompressed size
+	 */
+	public long size()
+	{
+		return uncompressedSize;
+	}
+
+
+	/**
+	 * Read a range of the uncompressed content. The range is truncated at the end of the content.
+	 *
+	 * @param address the uncompressed position
+	 * @param size    the number of bytes
+	 * @return a buffer with the requested content
+	 * @throws IOException if a block can not be read
+	 */
+	public ByteBuffer read(final long address, final int size) throws IOException
+	{
+		int length = (int) Math.max(0, Math.min(size, uncompressedSize - address));
+		if (length == 0)
+		{
+			return ByteBuffer.allocate(0);
+		}
+		int block = (int) (address / blockSize);
+		int offset = (int) (address % blockSize);
+		if (offset + length <= blockSize)
+		{
+			return ByteBuffer.wrap(getBlock(block), offset, length).slice();
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+		{
+			byte[] data = getBlock(block++);
+			int n = Math.min(buffer.remaining(), data.length - offset);
+			buffer.put(data, offset, n);
+			offset = 0;
+		}
+		return buffer.flip();
+	}
+
+
+	private byte[] getBlock(final int block) throws IOException
+	{
+		synchronized (cache)
+		{
+			byte[] data = cache.get(block);
+			if (data != null)
+			{
+				return data;
+			}
+		}
+		byte[] data = inflate(block);
+		synchronized (cache)
+		{
+			cache.put(block, data);
+		}
+		return data;
+	}
+
+
+	private byte[] inflate(final int block) throws IOException
+	{
+		if (block < 0 || block >= offsets.length - 1)
+		{
+			throw new EOFException("Block " + block + " does not exist");
+		}
+		long start = offsets[block];
+		ByteBuffer compressed = readFully(file, start, (int) (offsets[block + 1] - start));
+		int length = (int) Math.min(blockSize, uncompressedSize - (long) block * blockSize);
+		byte[] data = new byte[length];
+		Inflater inflater = new Inflater(true);
+		try
+		{
+			inflater.setInput(compressed);
+			int pos = 0;
+			while (pos < length)
+			{
+				int n = inflater.inflate(data, pos, length - pos);
+				if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+				{
+					throw new IOException("Block " + block + " is truncated");
+				}
+				pos += n;
+			}
+		} catch (DataFormatException e)
+		{
+			throw new IOException("Block " + block + " is corrupt", e);
+		} finally
+		{
+			inflater.end();
+		}
+		return data;
+	}
+
+
+	@Override
+	public void close() throws IOException
+	{
+		file.close();
+	}
+}
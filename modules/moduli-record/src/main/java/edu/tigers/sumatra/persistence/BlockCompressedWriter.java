@@ -0,0 +1,258 @@
+package edu.tigers.sumatra.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
+
+
+/**
+ * Writes a block-compressed file: the data is split into blocks of a fixed size that are deflated independently.
+ * <p>
+ * The blocks are compressed in parallel on the given executor and appended in order.
+ * The file starts with a header (magic, block size) and ends with a footer, containing the file offsets of
+ * all blocks, the uncompressed size, the number of blocks and the magic again. See {@link BlockCompressedReader}.
+ * <p>
+ * The blocks must be written by a single thread. All blocks except the last one must have the full block size.
+ */
+public class BlockCompressedWriter implements AutoCloseable
+{
+	static final byte[] MAGIC = { 'S', 'U', 'M', 'B', 'L', 'K', '0', '1' };
+	static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+	static final int FOOTER_TAIL_SIZE = Long.BYTES + Integer.BYTES + MAGIC.length;
+	/** default size of uncompressed blocks */
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	static final int MAX_PENDING_BLOCKS = 16;
+
+	private final FileChannel out;
+	private final int blockSize;
+	private final Executor executor;
+	private final Semaphore pendingBlocks = new Semaphore(MAX_PENDING_BLOCKS);
+
+	private long[] offsets = new long[64];
+	private int numBlocks = 0;
+	private long position;
+	private long uncompressedSize = 0;
+	private boolean lastBlockWritten = false;
+	private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+
+	/**
+	 * @param target    the file to write, an existing file is replaced
+	 * @param blockSize the size of the uncompressed blocks
+	 * @param executor  the executor for compressing the blocks
+	 * @throws IOException if the file can not be opened
+	 */
+	public BlockCompressedWriter(final Path target, final int blockSize, final Executor executor) throws IOException
+	{
+		this.blockSize = blockSize;
+		this.executor = executor;
+		out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.put(MAGIC).putInt(blockSize).flip();
+		writeFully(header);
+	}
+
+
+	/**
+	 * Compress a complete file.
+	 *
+	 * @param source    the uncompressed file
+	 * @param target    the block-compressed file
+	 * @param blockSize the size of the uncompressed blocks
+	 * @param executor  the executor for compressing the blocks
+	 * @throws IOException if a file can not be read or written
+	 */
+	public static void compress(final Path source, final Path target, final int blockSize, final Executor executor)
+			throws IOException
+	{
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				BlockCompressedWriter writer = new BlockCompressedWriter(target, blockSize, executor))
+		{
+			long size = in.size();
+			for (long pos = 0; pos < size; pos += blockSize)
+			{
+				ByteBuffer block = ByteBuffer.allocate((int) Math.min(blockSize, size - pos));
+				while (block.hasRemaining() && in.read(block, pos + block.position()) >= 0)
+				{
+					// read until the block is full
+				}
+				writer.write(block.array(), block.position());
+			}
+		} catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+
+	/**
+	 * Write the next block. The data must not be modified afterward.
+	 * This blocks, if too many blocks are waiting for compression.
+	 *
+	 * @param data   the uncompressed data
+	 * @param length the length of the block, only the last block may be shorter than the block size
+	 * @throws UncheckedIOException if a previous block could not be compressed or written
+	 */
+	public void write(final byte[] data, final int length)
+	{
+		checkNotFailed();
+		if (lastBlockWritten)
+		{
+			throw new IllegalStateException("Only the last block may be shorter than the block size");
+		}
+		if (length > blockSize || length <= 0)
+		{
+			throw new IllegalArgumentException("Invalid block length: " + length);
+		}
+		lastBlockWritten = length < blockSize;
+		uncompressedSize += length;
+
+		pendingBlocks.acquireUninterruptibly();
+		CompletableFuture<byte[]> compressed;
+		try
+		{
+			compressed = CompletableFuture.supplyAsync(() -> deflate(data, length), executor);
+		} catch (RuntimeException e)
+		{
+			pendingBlocks.release();
+			throw e;
+		}
+		// free the slot when the block is compressed, even if it failed, so that writers never wait forever
+		compressed.whenComplete((block, err) -> pendingBlocks.release());
+		// append the blocks in order, on whichever thread completes last
+		tail = tail.thenCombine(compressed, (v, block) -> {
+			appendBlock(block);
+			return null;
+		});
+	}
+
+
+	private void checkNotFailed()
+	{
+		if (tail.isCompletedExceptionally())
+		{
+			try
+			{
+				tail.join();
+			} catch (CompletionException e)
+			{
+				throw e.getCause() instanceof UncheckedIOException io
+						? io
+						: new UncheckedIOException(new IOException("Could not compress a previous block", e.getCause()));
+			}
+		}
+	}
+
+
+	/**
+	 * The blocks are written by a single thread, so a free slot can not be taken by someone else in between.
+	 * After a failure, the next {@link #write(byte[], int)} throws right away.
+	 *
+	 * @return true, if the next {@link #write(byte[], int)} does not block
+	 */
+	public boolean canWriteWithoutBlocking()
+	{
+		return pendingBlocks.availablePermits() > 0 || tail.isCompletedExceptionally();
+	}
+
+
+	private static byte[] deflate(final byte[] data, final int length)
+	{
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try
+		{
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			byte[] buffer = new byte[length + (length >> 3) + 64];
+			int size = 0;
+			while (!deflater.finished())
+			{
+				if (size == buffer.length)
+				{
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				size += deflater.deflate(buffer, size, buffer.length - size);
+			}
+			return Arrays.copyOf(buffer, size);
+		} finally
+		{
+			deflater.end();
+		}
+	}
+
+
+	private void appendBlock(final byte[] block)
+	{
+		try
+		{
+			if (numBlocks == offsets.length)
+			{
+				offsets = Arrays.copyOf(offsets, numBlocks * 2);
+			}
+			offsets[numBlocks++] = position;
+			writeFully(ByteBuffer.wrap(block));
+		} catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	private void writeFully(final ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			position += out.write(buffer, position);
+		}
+	}
+
+
+	/**
+	 * @return the number of uncompressed bytes written so far
+	 */
+	public long getUncompressedSize()
+	{
+		return uncompressedSize;
+	}
+
+
+	/**
+	 * Wait for all blocks and write the footer.
+	 *
+	 * @throws IOException if a block could not be written
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			tail.join();
+			ByteBuffer footer = ByteBuffer.allocate((numBlocks + 1) * Long.BYTES + FOOTER_TAIL_SIZE);
+			for (int i = 0; i < numBlocks; i++)
+			{
+				footer.putLong(offsets[i]);
+			}
+			footer.putLong(position);
+			footer.putLong(uncompressedSize).putInt(numBlocks).put(MAGIC).flip();
+			writeFully(footer);
+			out.truncate(position);
+		} catch (CompletionException e)
+		{
+			throw e.getCause() instanceof UncheckedIOException io ? io.getCause() : new IOException(e.getCause());
+		} finally
+		{
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package edu.tigers.sumatra.persistence;
+
+/**
+ * How the entries of a {@link PersistenceTable} are stored in the database file.
+ */
+public enum EPersistenceTableCodec
+{
+	/** Each entry is stored independently by the generic serializer */
+	GENERIC,
+	/** Entries are delta-encoded against the previous entry, with periodic keyframes, see {@link FrameDeltaCodec} */
+	FRAME_DELTA,
+}
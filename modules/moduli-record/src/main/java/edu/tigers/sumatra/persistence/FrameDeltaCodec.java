@@ -0,0 +1,222 @@
+package edu.tigers.sumatra.persistence;
+
+import edu.tigers.sumatra.persistence.serializer.MappedDataOutputStream;
+import edu.tigers.sumatra.persistence.serializer.PrimitiveDeserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+
+/**
+ * Delta encoding of consecutive serialized entries, for frame-like entries that change only slightly
+ * from one entry to the next.
+ * <p>
+ * Every {@value #KEYFRAME_INTERVAL}th entry is stored as a keyframe with the plain serialized bytes.
+ * All other entries are stored as the XOR against the serialized bytes of the previous entry.
+ * Unchanged bytes (most ids, states and the integer/exponent parts of slowly changing values) become zero,
+ * so the XOR is stored as alternating runs of zeros and literal bytes:
+ * <pre>
+ * keyframe: KEYFRAME varint(length) bytes
+ * delta:    DELTA varint(size of previous record) varint(length) {varint(zeros) varint(literals) bytes}*
+ * </pre>
+ * A delta record references the record directly before it in the file, so decoding an entry requires
+ * decoding all entries since the last keyframe. The chain is followed back to the keyframe and the deltas are
+ * then applied iteratively. The last decoded entry is cached per thread and ends the chain early,
+ * so that sequential reads decode each entry only once.
+ * <p>
+ * The codec trades read time for size: a random read decodes up to {@value #KEYFRAME_INTERVAL} - 1 deltas before
+ * the entry is deserialized. It is therefore not the default, see {@code FrameDeltaCodecPerformance} for a benchmark.
+ */
+class FrameDeltaCodec
+{
+	private static final int KEYFRAME_INTERVAL = 64;
+	private static final byte KEYFRAME = 0;
+	private static final byte DELTA = 1;
+	/** Zero runs shorter than this are kept in a literal run, as a new run costs at least two bytes */
+	private static final int MIN_ZERO_RUN = 3;
+
+	// writer state, only used by the IO thread
+	private final MappedDataOutputStream encoded = MappedDataOutputStream.inMemory(4096);
+	private byte[] previous;
+	private long previousAddress;
+	private int sinceKeyframe;
+
+	private final ThreadLocal<Decoded> lastDecoded = new ThreadLocal<>();
+
+
+	/**
+	 * Reads a record of the database file
+	 */
+	@FunctionalInterface
+	interface RecordReader
+	{
+		ByteBuffer read(long address, int size) throws IOException;
+	}
+
+
+	/**
+	 * Encode and write the next entry
+	 *
+	 * @param entry the serialized entry
+	 * @param out   the database stream
+	 */
+	void write(byte[] entry, MappedDataOutputStream out) throws IOException
+	{
+		long address = out.getPos();
+		boolean keyframe = previous == null || sinceKeyframe >= KEYFRAME_INTERVAL - 1
+				|| address - previousAddress > Integer.MAX_VALUE;
+		if (!keyframe)
+		{
+			encoded.reset();
+			encodeDelta(previous, entry, encoded);
+			keyframe = encoded.getPos() >= entry.length;
+		}
+
+		if (keyframe)
+		{
+			out.write(KEYFRAME);
+			out.write(entry.length);
+			out.write(entry);
+			sinceKeyframe = 0;
+		} else
+		{
+			out.write(DELTA);
+			out.write((int) (address - previousAddress));
+			out.write(entry.length);
+			out.write(encoded.toByteArray());
+			sinceKeyframe++;
+		}
+		previous = entry;
+		previousAddress = address;
+	}
+
+
+	/**
+	 * Decode a record
+	 *
+	 * @param address the address of the record
+	 * @param record  the record
+	 * @param reader  reader for previous records
+	 * @return the serialized entry
+	 */
+	ByteBuffer read(long address, ByteBuffer record, RecordReader reader) throws IOException
+	{
+		return ByteBuffer.wrap(decode(address, record, reader));
+	}
+
+
+	private byte[] decode(long address, ByteBuffer record, RecordReader reader) throws IOException
+	{
+		Decoded cached = lastDecoded.get();
+		if (cached != null && cached.address() == address)
+		{
+			return cached.data();
+		}
+
+		// follow the chain back to a keyframe or to the cached entry
+		Deque<ByteBuffer> deltas = new ArrayDeque<>();
+		long recordAddress = address;
+		ByteBuffer current = record;
+		byte[] data = null;
+		while (data == null)
+		{
+			byte type = current.get();
+			if (type == KEYFRAME)
+			{
+				data = new byte[PrimitiveDeserializer.readInt(current)];
+				current.get(data);
+			} else if (type == DELTA)
+			{
+				int previousSize = PrimitiveDeserializer.readInt(current);
+				deltas.push(current);
+				recordAddress -= previousSize;
+				if (cached != null && cached.address() == recordAddress)
+				{
+					data = cached.data();
+				} else
+				{
+					current = reader.read(recordAddress, previousSize);
+				}
+			} else
+			{
+				throw new IOException("Corrupted data: unknown record type " + type + " at " + recordAddress);
+			}
+		}
+
+		// and apply the deltas from there
+		while (!deltas.isEmpty())
+		{
+			data = decodeDelta(data, deltas.pop());
+		}
+		lastDecoded.set(new Decoded(address, data));
+		return data;
+	}
+
+
+	static void encodeDelta(byte[] previous, byte[] current, MappedDataOutputStream out) throws IOException
+	{
+		int n = current.length;
+		int pos = 0;
+		while (pos < n)
+		{
+			int zeroStart = pos;
+			while (pos < n && xor(previous, current, pos) == 0)
+			{
+				pos++;
+			}
+			int literalStart = pos;
+			int zeros = 0;
+			while (pos < n && zeros < MIN_ZERO_RUN)
+			{
+				zeros = xor(previous, current, pos) == 0 ? zeros + 1 : 0;
+				pos++;
+			}
+			if (zeros == MIN_ZERO_RUN)
+			{
+				pos -= zeros;
+			}
+
+			out.write(literalStart - zeroStart);
+			out.write(pos - literalStart);
+			for (int i = literalStart; i < pos; i++)
+			{
+				out.write(xor(previous, current, i));
+			}
+		}
+	}
+
+
+	static byte[] decodeDelta(byte[] previous, ByteBuffer delta) throws IOException
+	{
+		byte[] data = new byte[PrimitiveDeserializer.readInt(delta)];
+		System.arraycopy(previous, 0, data, 0, Math.min(previous.length, data.length));
+		int pos = 0;
+		while (pos < data.length)
+		{
+			pos += PrimitiveDeserializer.readInt(delta);
+			int literals = PrimitiveDeserializer.readInt(delta);
+			if (pos + literals > data.length)
+			{
+				throw new IOException("Corrupted data: delta exceeds entry length");
+			}
+			for (int i = 0; i < literals; i++, pos++)
+			{
+				data[pos] ^= delta.get();
+			}
+		}
+		return data;
+	}
+
+
+	private static byte xor(byte[] previous, byte[] current, int pos)
+	{
+		return pos < previous.length ? (byte) (previous[pos] ^ current[pos]) : current[pos];
+	}
+
+
+	private record Decoded(long address, byte[] data)
+	{
+	}
+}
@@ -0,0 +1,75 @@
+package edu.tigers.sumatra.persistence;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+
+/**
+ * Splits a snapshot of keys into ranges and reads the entries on demand.
+ * Keys without a readable entry are skipped.
+ *
+ * @param <T> the entry type
+ */
+class KeySpliterator<T> implements Spliterator<T>
+{
+	static final int MIN_SPLIT_SIZE = 256;
+
+	private final long[] keys;
+	private int from;
+	private final int to;
+	private final LongFunction<T> reader;
+
+
+	KeySpliterator(long[] keys, int from, int to, LongFunction<T> reader)
+	{
+		this.keys = keys;
+		this.from = from;
+		this.to = to;
+		this.reader = reader;
+	}
+
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action)
+	{
+		while (from < to)
+		{
+			T element = reader.apply(keys[from++]);
+			if (element != null)
+			{
+				action.accept(element);
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	@Override
+	public Spliterator<T> trySplit()
+	{
+		if (to - from < 2 * MIN_SPLIT_SIZE)
+		{
+			return null;
+		}
+		int mid = (from + to) >>> 1;
+		KeySpliterator<T> prefix = new KeySpliterator<>(keys, from, mid, reader);
+		from = mid;
+		return prefix;
+	}
+
+
+	@Override
+	public long estimateSize()
+	{
+		return (long) to - from;
+	}
+
+
+	@Override
+	public int characteristics()
+	{
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+}
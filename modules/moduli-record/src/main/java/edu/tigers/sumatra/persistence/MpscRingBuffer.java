@@ -0,0 +1,131 @@
+package edu.tigers.sumatra.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjLongConsumer;
+
+
+/**
+ * A bounded, lock-free multi-producer single-consumer ring buffer.
+ * <p>
+ * Each slot has a sequence number that tells whether it is free for the producer of a certain position
+ * or filled for the consumer. Producers claim a position with a single CAS, the consumer drains
+ * all filled slots without any CAS. Besides the element, the enqueue time is stored in each slot,
+ * so that the consumer can measure the time an element waited in the buffer.
+ *
+ * @param <T> the element type
+ */
+public final class MpscRingBuffer<T>
+{
+	private final int capacity;
+	private final int mask;
+	private final Object[] elements;
+	private final long[] enqueueTimes;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head = 0;
+
+
+	/**
+	 * @param minCapacity the minimum capacity, rounded up to the next power of two
+	 */
+	public MpscRingBuffer(int minCapacity)
+	{
+		capacity = minCapacity <= 2 ? 2 : Integer.highestOneBit(minCapacity - 1) << 1;
+		mask = capacity - 1;
+		elements = new Object[capacity];
+		enqueueTimes = new long[capacity];
+		sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++)
+		{
+			sequences.set(i, i);
+		}
+	}
+
+
+	/**
+	 * Add an element. Can be called from any thread.
+	 *
+	 * @param element the element
+	 * @return false, if the buffer is full
+	 */
+	public boolean offer(T element)
+	{
+		long pos = tail.get();
+		int slot;
+		while (true)
+		{
+			slot = (int) (pos & mask);
+			long diff = sequences.get(slot) - pos;
+			if (diff == 0)
+			{
+				if (tail.compareAndSet(pos, pos + 1))
+				{
+					break;
+				}
+				pos = tail.get();
+			} else if (diff < 0)
+			{
+				// the slot was not yet consumed since the last round
+				return false;
+			} else
+			{
+				// another producer claimed this position
+				pos = tail.get();
+			}
+		}
+		elements[slot] = element;
+		enqueueTimes[slot] = System.nanoTime();
+		// publish the slot to the consumer
+		sequences.set(slot, pos + 1);
+		return true;
+	}
+
+
+	/**
+	 * Remove all available elements. Must only be called by a single consumer thread.
+	 *
+	 * @param consumer receives each element and its enqueue time [ns]
+	 * @return the number of drained elements
+	 */
+	@SuppressWarnings("unchecked")
+	public int drain(ObjLongConsumer<T> consumer)
+	{
+		long pos = head;
+		int drained = 0;
+		while (true)
+		{
+			int slot = (int) (pos & mask);
+			if (sequences.get(slot) != pos + 1)
+			{
+				// empty or the producer did not yet publish the slot
+				break;
+			}
+			T element = (T) elements[slot];
+			long tEnqueued = enqueueTimes[slot];
+			elements[slot] = null;
+			// release the slot for the producer of the next round
+			sequences.set(slot, pos + capacity);
+			pos++;
+			head = pos;
+			drained++;
+			consumer.accept(element, tEnqueued);
+		}
+		return drained;
+	}
+
+
+	/**
+	 * @return the approximate number of elements in the buffer
+	 */
+	public int size()
+	{
+		return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+	}
+
+
+	public int capacity()
+	{
+		return capacity;
+	}
+}
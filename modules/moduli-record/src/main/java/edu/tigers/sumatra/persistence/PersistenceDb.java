@@ -2,7 +2,6 @@ package edu.tigers.sumatra.persistence;
 
 import edu.tigers.sumatra.model.SumatraModel;
 import edu.tigers.sumatra.thread.NamedThreadFactory;
-import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import net.lingala.zip4j.ZipFile;
 import net.lingala.zip4j.exception.ZipException;
@@ -17,13 +16,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +39,9 @@ import java.util.stream.Stream;
 @Log4j2
 public class PersistenceDb
 {
+	private static final int TABLE_CACHE_CAPACITY = 1024;
+	private static final int TABLE_CACHE_PREFETCH = 128;
+
 	private final Path dbPath;
 
 	private final Map<Class<?>, PersistenceTable<?>> tables = new HashMap<>();
@@ -51,8 +56,15 @@ public class PersistenceDb
 	private final ScheduledExecutorService ioExecutor = Executors.newSingleThreadScheduledExecutor(
 			new NamedThreadFactory("PersistenceDb-IO"));
 
-	@Setter
 	private boolean compressOnClose = false;
+	private ExecutorService compressionExecutor;
+
+	private final Map<Class<?>, PersistenceTableCache<?>> tableCaches = new ConcurrentHashMap<>();
+	private ExecutorService prefetchExecutor;
+
+	private PersistenceKeyTimeline keyTimeline = PersistenceKeyTimeline.empty();
+	/** the number of keys of each table that are in the key timeline */
+	private final Map<PersistenceTable<?>, Integer> keyTimelineTableSizes = new HashMap<>();
 
 
 	/**
@@ -174,13 +186,30 @@ public class PersistenceDb
 
 
 	public <T extends PersistenceTable.IEntry<T>> void add(Class<T> clazz, EPersistenceKeyType keyType)
+	{
+		add(clazz, keyType, EPersistenceTableCodec.GENERIC);
+	}
+
+
+	/**
+	 * @param clazz   the entry type
+	 * @param keyType the key type
+	 * @param codec   the codec, if the table is created. Existing tables keep their codec.
+	 */
+	public <T extends PersistenceTable.IEntry<T>> void add(Class<T> clazz, EPersistenceKeyType keyType,
+			EPersistenceTableCodec codec)
 	{
 		try
 		{
 			ioExecutor.submit(() -> {
 				try
 				{
-					tables.put(clazz, new PersistenceTable<>(clazz, dbPath, keyType));
+					PersistenceTable<T> table = new PersistenceTable<>(clazz, dbPath, keyType, codec);
+					tables.put(clazz, table);
+					if (compressOnClose)
+					{
+						startBlockCompression(table);
+					}
 				} catch (IOException e)
 				{
 					log.error("Could not add datatype to db", e);
@@ -196,6 +225,56 @@ public class PersistenceDb
 	}
 
 
+	/**
+	 * Compress the database when it is closed. The tables are compressed incrementally while recording,
+	 * so that only the last block of each table is left when closing.
+	 *
+	 * @param compressOnClose true, if the database should be compressed
+	 */
+	public void setCompressOnClose(final boolean compressOnClose)
+	{
+		this.compressOnClose = compressOnClose;
+		if (compressOnClose && !ioExecutor.isShutdown())
+		{
+			ioExecutor.execute(() -> tables.values().forEach(this::startBlockCompression));
+		}
+	}
+
+
+	private void startBlockCompression(final PersistenceTable<?> table)
+	{
+		try
+		{
+			table.startBlockCompression(getCompressionExecutor());
+		} catch (IOException e)
+		{
+			log.error("Could not start compressing table {}", table.getType().getSimpleName(), e);
+		}
+	}
+
+
+	private synchronized ExecutorService getCompressionExecutor()
+	{
+		if (compressionExecutor == null)
+		{
+			int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			compressionExecutor = Executors.newFixedThreadPool(numThreads,
+					new NamedThreadFactory("PersistenceDb-Compress"));
+		}
+		return compressionExecutor;
+	}
+
+
+	private synchronized void shutdownCompressionExecutor()
+	{
+		if (compressionExecutor != null)
+		{
+			compressionExecutor.shutdown();
+			compressionExecutor = null;
+		}
+	}
+
+
 	/**
 	 * @return the single-threaded executor that owns table I/O — recorders must schedule flushes here
 	 * so writes share the thread that opened the streams.
@@ -213,6 +292,65 @@ public class PersistenceDb
 	}
 
 
+	/**
+	 * Get a shared read cache for a table, for example for replaying. The cache loads entries ahead of the
+	 * requested keys in the background and is closed with the database.
+	 *
+	 * @param clazz the entry type
+	 * @return the cache of the table or null, if there is no such table
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends PersistenceTable.IEntry<T>> PersistenceTableCache<T> getTableCache(Class<T> clazz)
+	{
+		PersistenceTable<T> table = getTable(clazz);
+		if (table == null)
+		{
+			return null;
+		}
+		return (PersistenceTableCache<T>) tableCaches.computeIfAbsent(clazz,
+				c -> new PersistenceTableCache<>(table, getPrefetchExecutor(), TABLE_CACHE_CAPACITY,
+						TABLE_CACHE_PREFETCH));
+	}
+
+
+	private synchronized ExecutorService getPrefetchExecutor()
+	{
+		if (prefetchExecutor == null)
+		{
+			prefetchExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("PersistenceDb-Prefetch"));
+		}
+		return prefetchExecutor;
+	}
+
+
+	private void closeTableCaches()
+	{
+		tableCaches.values().forEach(PersistenceTableCache::close);
+		tableCaches.clear();
+		ExecutorService executor;
+		synchronized (this)
+		{
+			executor = prefetchExecutor;
+			prefetchExecutor = null;
+		}
+		if (executor != null)
+		{
+			// let a running prefetch finish reading before the tables are closed
+			executor.shutdown();
+			try
+			{
+				if (!executor.awaitTermination(1, TimeUnit.SECONDS))
+				{
+					log.warn("Prefetching did not finish in time");
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
 	public Collection<Class<?>> getTableTypes()
 	{
 		return tables.keySet();
@@ -299,6 +437,7 @@ public class PersistenceDb
 	private void scheduleTableClose()
 	{
 		ioExecutor.execute(() -> {
+			closeTableCaches();
 			tables.values().forEach(PersistenceTable::close);
 			tables.clear();
 		});
@@ -344,95 +483,149 @@ public class PersistenceDb
 
 
 	/**
-	 * Compress the database
+	 * Compress the database in place: the data file of each table is replaced by a block-compressed file
+	 * that can be read directly, see {@link BlockCompressedReader}. The index and metadata files are kept.
+	 * Tables that were already compressed while recording are only checked for completeness.
+	 * The database must be closed.
 	 *
-	 * @throws IOException
+	 * @throws IOException if a table could not be compressed
 	 */
 	public void compress() throws IOException
 	{
+		if (!tables.isEmpty())
+		{
+			throw new IllegalStateException("Database must be closed before compression.");
+		}
 		log.info("Compressing database {}", this.dbPath);
-		File zipFilename = dbPath.resolveSibling(dbPath.getFileName().toString() + ".zip").toFile();
-		try (ZipFile zipFile = new ZipFile(zipFilename))
+		List<Path> dbFiles;
+		try (Stream<Path> files = Files.list(dbPath))
 		{
-			zipFile.setRunInThread(true);
+			dbFiles = files.filter(path -> path.getFileName().toString().endsWith(".db")).toList();
+		}
 
-			try (Stream<Path> files = Files.walk(dbPath))
+		long uncompressedSize = 0;
+		long compressedSize = 0;
+		try
+		{
+			for (Path dbFile : dbFiles)
 			{
-				zipFile.addFiles(files.filter(path -> !Files.isDirectory(path)).map(Path::toFile).toList());
+				Path compressedFile = PersistenceTable.getCompressedFile(dbFile);
+				long size = Files.size(dbFile);
+				if (BlockCompressedReader.getCompleteSize(compressedFile) != size)
+				{
+					BlockCompressedWriter.compress(dbFile, compressedFile, BlockCompressedWriter.DEFAULT_BLOCK_SIZE,
+							getCompressionExecutor());
+				}
+				Files.delete(dbFile);
+				uncompressedSize += size;
+				compressedSize += Files.size(compressedFile);
 			}
+		} finally
+		{
+			shutdownCompressionExecutor();
+		}
 
-			awaitProgress(zipFile);
+		log.info("Compressed database {} from {} MB to {} MB", dbPath, uncompressedSize >> 20, compressedSize >> 20);
+	}
+
+
+	/**
+	 * Get the merged keys of all tables that are based on the Sumatra timestamp.
+	 * The timeline is cached. If entries were added to the tables after its last key, like while recording,
+	 * only the new keys are appended. Otherwise, it is rebuilt.
+	 *
+	 * @return the merged key timeline
+	 */
+	public synchronized PersistenceKeyTimeline getKeyTimeline()
+	{
+		List<PersistenceTable<?>> timestampTables = tables.values().stream()
+				.filter(PersistenceTable::isSumatraTimestampBased)
+				.toList();
+		if (timestampTables.size() == keyTimelineTableSizes.size() && timestampTables.stream()
+				.allMatch(table -> table.size() == keyTimelineTableSizes.getOrDefault(table, -1)))
+		{
+			return keyTimeline;
 		}
 
-		log.info("Compressed database {}", zipFilename);
+		if (!appendNewKeys(timestampTables))
+		{
+			List<long[]> keys = new ArrayList<>(timestampTables.size());
+			keyTimelineTableSizes.clear();
+			for (PersistenceTable<?> table : timestampTables)
+			{
+				long[] tableKeys = table.getKeys(Long.MIN_VALUE, Long.MAX_VALUE);
+				keys.add(tableKeys);
+				keyTimelineTableSizes.put(table, tableKeys.length);
+			}
+			keyTimeline = PersistenceKeyTimeline.merge(keys);
+		}
+		return keyTimeline;
+	}
+
+
+	/**
+	 * Append the keys after the last key of the timeline, if the tables did not get any other new keys.
+	 *
+	 * @param timestampTables the tables of the timeline
+	 * @return false, if the timeline has to be rebuilt
+	 */
+	private boolean appendNewKeys(final List<PersistenceTable<?>> timestampTables)
+	{
+		long lastKey = keyTimeline.lastKey();
+		if (lastKey == PersistenceIndex.NO_KEY || lastKey == Long.MAX_VALUE)
+		{
+			return false;
+		}
+		Map<PersistenceTable<?>, long[]> newKeys = new HashMap<>();
+		for (PersistenceTable<?> table : timestampTables)
+		{
+			long[] tableKeys = table.getKeys(lastKey + 1, Long.MAX_VALUE);
+			// a key before the last key or a key added after getKeys() changes the size
+			if (table.size() != keyTimelineTableSizes.getOrDefault(table, 0) + tableKeys.length)
+			{
+				return false;
+			}
+			newKeys.put(table, tableKeys);
+		}
+		keyTimeline = keyTimeline.append(PersistenceKeyTimeline.mergeKeys(newKeys.values()));
+		newKeys.forEach((table, tableKeys) -> keyTimelineTableSizes.merge(table, tableKeys.length, Integer::sum));
+		return true;
 	}
 
 
 	public Long getFirstKey()
 	{
-		return tables.values().stream()
-				.filter(PersistenceTable::isSumatraTimestampBased)
-				.map(PersistenceTable::getFirstKey)
-				.filter(Objects::nonNull)
-				.reduce(Math::min)
-				.orElse(null);
+		return toKey(getKeyTimeline().firstKey());
 	}
 
 
 	public Long getLastKey()
 	{
-		return tables.values().stream()
-				.filter(PersistenceTable::isSumatraTimestampBased)
-				.map(PersistenceTable::getLastKey)
-				.filter(Objects::nonNull)
-				.reduce(Math::max)
-				.orElse(null);
+		return toKey(getKeyTimeline().lastKey());
 	}
 
 
 	public Long getNextKey(long tCur)
 	{
-		return tables.values().stream()
-				.filter(PersistenceTable::isSumatraTimestampBased)
-				.map(s -> s.getNextKey(tCur))
-				.filter(Objects::nonNull)
-				.reduce((k1, k2) -> getNearestKey(tCur, k1, k2))
-				.orElse(null);
+		return toKey(getKeyTimeline().higherKey(tCur));
 	}
 
 
 	public Long getPreviousKey(long tCur)
 	{
-		return tables.values().stream()
-				.filter(PersistenceTable::isSumatraTimestampBased)
-				.map(s -> s.getPreviousKey(tCur))
-				.filter(Objects::nonNull)
-				.reduce((k1, k2) -> getNearestKey(tCur, k1, k2))
-				.orElse(null);
+		return toKey(getKeyTimeline().lowerKey(tCur));
 	}
 
 
 	public Long getKey(long tCur)
 	{
-		return tables.values().stream()
-				.filter(PersistenceTable::isSumatraTimestampBased)
-				.map(s -> s.getNearestKey(tCur))
-				.filter(Objects::nonNull)
-				.reduce((k1, k2) -> getNearestKey(tCur, k1, k2))
-				.orElse(null);
+		return toKey(getKeyTimeline().nearestKey(tCur));
 	}
 
 
-	private Long getNearestKey(final long key, final long k1, final long k2)
+	private Long toKey(final long key)
 	{
-		long diff1 = Math.abs(key - k1);
-		long diff2 = Math.abs(key - k2);
-
-		if (diff1 < diff2)
-		{
-			return k1;
-		}
-		return k2;
+		return key == PersistenceIndex.NO_KEY ? null : key;
 	}
 
 
@@ -2,18 +2,17 @@ package edu.tigers.sumatra.persistence;
 
 import lombok.extern.log4j.Log4j2;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.NavigableMap;
-import java.util.TreeMap;
+import java.util.Arrays;
 
 
 /**
@@ -21,22 +20,54 @@ import java.util.TreeMap;
  * The file consists of a series of long value pairs (long key, long address),
  * with each pair corresponding to one entry, sorted by ascending address order.
  * Multiple entries are permitted per key (resolution has to be done by the PersistenceTable.IEntry.merge method).
+ * <p>
+ * In memory, the entries are kept in primitive arrays. The index file is loaded lazily via a memory map.
+ * Afterward, appended entries are added incrementally. Entries with ascending keys (the common case) are added
+ * in O(1), any other entry marks the key order as dirty, so it is sorted again on the next query.
  */
 @Log4j2
 public class PersistenceIndex
 {
+	/** Returned by the key lookups, if there is no matching key */
+	public static final long NO_KEY = Long.MIN_VALUE;
+
+	private static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final int ENTRY_BYTES = 2 * Long.BYTES;
 
 	private final Path path;
 	private final DataOutputStream appendStream;
 
-	// Lazy loaded as it can get large over time (~11 MiB one simulation halftime measured)
-	private NavigableMap<Long, List<Range>> map = null;
+	private final DbSize db;
+
+	// Lazy loaded as it can get large over time
+	private boolean loaded = false;
+
+	// all entries in file (= address) order
+	private long[] entryKeys = new long[0];
+	private long[] entryAddresses = new long[0];
+	private int numEntries = 0;
 
-	private final FileChannel db;
+	// entry numbers sorted by key (stable), the unique keys and the start of each key in the sorted entry numbers
+	private boolean sorted = true;
+	private int[] sortedEntries = new int[0];
+	private long[] keys = new long[0];
+	private int[] keyStart = new int[0];
+	private int numKeys = 0;
 
 
 	PersistenceIndex(Path path, FileChannel db)
 			throws IOException
+	{
+		this(path, db::size);
+	}
+
+
+	/**
+	 * @param path the index file
+	 * @param db   the size of the database file, needed for the size of the last entry
+	 */
+	PersistenceIndex(Path path, DbSize db)
+			throws IOException
 	{
 		this.path = path;
 		this.db = db;
@@ -46,77 +77,366 @@ public class PersistenceIndex
 	}
 
 
-	public NavigableMap<Long, List<Range>> get()
+	public synchronized void append(long key, long address) throws IOException
+	{
+		appendStream.writeLong(key);
+		appendStream.writeLong(address);
+
+		if (loaded)
+		{
+			addEntry(key, address);
+		}
+	}
+
+
+	/**
+	 * @return the number of unique keys
+	 */
+	public synchronized int size()
+	{
+		ensureSorted();
+		return numKeys;
+	}
+
+
+	public synchronized long firstKey()
+	{
+		ensureSorted();
+		return numKeys == 0 ? NO_KEY : keys[0];
+	}
+
+
+	public synchronized long lastKey()
+	{
+		ensureSorted();
+		return numKeys == 0 ? NO_KEY : keys[numKeys - 1];
+	}
+
+
+	/**
+	 * @return the greatest key less than or equal to the given key or {@link #NO_KEY}
+	 */
+	public synchronized long floorKey(long key)
+	{
+		ensureSorted();
+		return keyAt(floorIndex(key));
+	}
+
+
+	/**
+	 * @return the least key greater than or equal to the given key or {@link #NO_KEY}
+	 */
+	public synchronized long ceilingKey(long key)
+	{
+		ensureSorted();
+		return keyAt(ceilingIndex(key));
+	}
+
+
+	/**
+	 * @return the greatest key strictly less than the given key or {@link #NO_KEY}
+	 */
+	public synchronized long lowerKey(long key)
 	{
-		if (map != null)
+		ensureSorted();
+		return keyAt(ceilingIndex(key) - 1);
+	}
+
+
+	/**
+	 * @return the least key strictly greater than the given key or {@link #NO_KEY}
+	 */
+	public synchronized long higherKey(long key)
+	{
+		ensureSorted();
+		return keyAt(floorIndex(key) + 1);
+	}
+
+
+	/**
+	 * @return the key closest to the given key (the lower one on a tie) or {@link #NO_KEY}
+	 */
+	public synchronized long nearestKey(long key)
+	{
+		ensureSorted();
+		long floor = keyAt(floorIndex(key));
+		long ceil = keyAt(ceilingIndex(key));
+		if (ceil != NO_KEY && (floor == NO_KEY || Math.abs(ceil - key) < Math.abs(floor - key)))
 		{
-			return map;
+			return ceil;
 		}
+		return floor;
+	}
 
-		NavigableMap<Long, List<Range>> index = new TreeMap<>();
 
-		try (DataInputStream stream = new DataInputStream(new BufferedInputStream(
-				Files.newInputStream(path, StandardOpenOption.READ)
-		)))
+	/**
+	 * @param fromKey the first key (inclusive)
+	 * @param toKey   the last key (inclusive)
+	 * @return a copy of all keys in the given range in ascending order
+	 */
+	public synchronized long[] getKeys(long fromKey, long toKey)
+	{
+		ensureSorted();
+		int from = ceilingIndex(fromKey);
+		int to = floorIndex(toKey) + 1;
+		return from < to ? Arrays.copyOfRange(keys, from, to) : new long[0];
+	}
+
+
+	/**
+	 * Get the ranges in the database file of all entries of the given key.
+	 *
+	 * @param key the key
+	 * @return pairs of (address, size) in file order or null, if the key does not exist
+	 * @throws IOException if the size of the database file can not be determined
+	 */
+	public synchronized long[] getRanges(long key) throws IOException
+	{
+		ensureSorted();
+		int keyIndex = floorIndex(key);
+		if (keyIndex < 0 || keys[keyIndex] != key)
 		{
-			long key = 0;
-			long address = -1;
+			return null;
+		}
+		int start = keyStart[keyIndex];
+		int end = keyIndex + 1 < numKeys ? keyStart[keyIndex + 1] : numEntries;
+		long[] ranges = new long[2 * (end - start)];
+		for (int i = start; i < end; i++)
+		{
+			int entry = sortedEntries[i];
+			long address = entryAddresses[entry];
+			long nextAddress = entry + 1 < numEntries ? entryAddresses[entry + 1] : db.size();
+			ranges[2 * (i - start)] = address;
+			ranges[2 * (i - start) + 1] = nextAddress - address;
+		}
+		return ranges;
+	}
+
 
-			// repeated FileInputStream.available() is too slow
-			for (long available = stream.available(); available > 0; available -= 2 * Long.BYTES)
+	public void close()
+	{
+		try
+		{
+			appendStream.close();
+		} catch (IOException e)
+		{
+			log.error("Could not close db", e);
+		}
+	}
+
+
+	private long keyAt(int keyIndex)
+	{
+		return keyIndex >= 0 && keyIndex < numKeys ? keys[keyIndex] : NO_KEY;
+	}
+
+
+	/**
+	 * @return the index of the greatest key less than or equal to the given key or -1
+	 */
+	private int floorIndex(long key)
+	{
+		int low = 0;
+		int high = numKeys - 1;
+		while (low <= high)
+		{
+			int mid = (low + high) >>> 1;
+			if (keys[mid] <= key)
 			{
-				long nextKey = stream.readLong();
-				long nextAddress = stream.readLong();
+				low = mid + 1;
+			} else
+			{
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
 
-				if (key != 0 && address != -1)
-				{
-					index.computeIfAbsent(
-							key, k -> new ArrayList<>(1)
-					).add(new Range(address, (int) (nextAddress - address)));
-				}
 
-				key = nextKey;
-				address = nextAddress;
+	/**
+	 * @return the index of the least key greater than or equal to the given key or numKeys
+	 */
+	private int ceilingIndex(long key)
+	{
+		int low = 0;
+		int high = numKeys - 1;
+		while (low <= high)
+		{
+			int mid = (low + high) >>> 1;
+			if (keys[mid] < key)
+			{
+				low = mid + 1;
+			} else
+			{
+				high = mid - 1;
 			}
+		}
+		return low;
+	}
+
 
-			if (address != -1)
+	private void ensureSorted()
+	{
+		if (!loaded)
+		{
+			load();
+		}
+		if (!sorted)
+		{
+			sort();
+		}
+	}
+
+
+	private void load()
+	{
+		loaded = true;
+		try
+		{
+			appendStream.flush();
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ); Arena arena = Arena.ofConfined())
 			{
-				index.computeIfAbsent(
-						key, k -> new ArrayList<>(1)
-				).add(new Range(address, (int) (db.size() - address)));
+				int n = (int) (channel.size() / ENTRY_BYTES);
+				if (n == 0)
+				{
+					return;
+				}
+				MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) n * ENTRY_BYTES, arena);
+				ensureEntryCapacity(n);
+				for (int i = 0; i < n; i++)
+				{
+					entryKeys[i] = segment.get(LONG_BE, (long) i * ENTRY_BYTES);
+					entryAddresses[i] = segment.get(LONG_BE, (long) i * ENTRY_BYTES + Long.BYTES);
+				}
+				numEntries = n;
+				sorted = false;
 			}
 		} catch (IOException e)
 		{
 			log.error("Could not read index", e);
 		}
+	}
+
+
+	private void addEntry(long key, long address)
+	{
+		ensureEntryCapacity(numEntries + 1);
+		int entry = numEntries++;
+		entryKeys[entry] = key;
+		entryAddresses[entry] = address;
+
+		if (!sorted)
+		{
+			return;
+		}
+		if (numKeys > 0 && key < keys[numKeys - 1])
+		{
+			sorted = false;
+			return;
+		}
 
-		this.map = index;
-		return map;
+		sortedEntries[entry] = entry;
+		if (numKeys == 0 || key != keys[numKeys - 1])
+		{
+			keys[numKeys] = key;
+			keyStart[numKeys] = entry;
+			numKeys++;
+		}
 	}
 
 
-	public void append(long key, long address) throws IOException
+	private void ensureEntryCapacity(int capacity)
 	{
-		this.map = null; // Invalidate index
+		if (capacity <= entryKeys.length)
+		{
+			return;
+		}
+		int newCapacity = Math.max(capacity, Math.max(1024, entryKeys.length + (entryKeys.length >> 1)));
+		entryKeys = Arrays.copyOf(entryKeys, newCapacity);
+		entryAddresses = Arrays.copyOf(entryAddresses, newCapacity);
+		sortedEntries = Arrays.copyOf(sortedEntries, newCapacity);
+		keys = Arrays.copyOf(keys, newCapacity);
+		keyStart = Arrays.copyOf(keyStart, newCapacity);
+	}
 
-		appendStream.writeLong(key);
-		appendStream.writeLong(address);
+
+	private void sort()
+	{
+		for (int i = 0; i < numEntries; i++)
+		{
+			sortedEntries[i] = i;
+		}
+		if (!isAscending())
+		{
+			mergeSort(sortedEntries, new int[numEntries], 0, numEntries);
+		}
+
+		numKeys = 0;
+		for (int i = 0; i < numEntries; i++)
+		{
+			long key = entryKeys[sortedEntries[i]];
+			if (numKeys == 0 || key != keys[numKeys - 1])
+			{
+				keys[numKeys] = key;
+				keyStart[numKeys] = i;
+				numKeys++;
+			}
+		}
+		sorted = true;
 	}
 
 
-	public void close()
+	private boolean isAscending()
 	{
-		try
+		for (int i = 1; i < numEntries; i++)
 		{
-			appendStream.close();
-		} catch (IOException e)
+			if (entryKeys[i] < entryKeys[i - 1])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Stable sort of entry numbers by their key, so that multiple entries of a key stay in file order
+	 */
+	private void mergeSort(int[] entries, int[] tmp, int from, int to)
+	{
+		if (to - from < 2)
 		{
-			log.error("Could not close db", e);
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(entries, tmp, from, mid);
+		mergeSort(entries, tmp, mid, to);
+		if (entryKeys[entries[mid - 1]] <= entryKeys[entries[mid]])
+		{
+			return;
+		}
+		System.arraycopy(entries, from, tmp, from, to - from);
+		int left = from;
+		int right = mid;
+		for (int i = from; i < to; i++)
+		{
+			if (right >= to || (left < mid && entryKeys[tmp[left]] <= entryKeys[tmp[right]]))
+			{
+				entries[i] = tmp[left++];
+			} else
+			{
+				entries[i] = tmp[right++];
+			}
 		}
 	}
 
 
-	public record Range(long address, int size)
+	/**
+	 * The size of the (uncompressed) database file
+	 */
+	@FunctionalInterface
+	interface DbSize
 	{
+		long size() throws IOException;
 	}
 }
@@ -0,0 +1,249 @@
+package edu.tigers.sumatra.persistence;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+
+/**
+ * An immutable, sorted set of keys in a primitive array, for example the merged keys of multiple tables.
+ * <p>
+ * All lookups are binary searches without boxing. They return {@link PersistenceIndex#NO_KEY},
+ * if there is no matching key.
+ * <p>
+ * New keys can be appended with {@link #append(long[])} in amortized constant time per key.
+ * The timelines share a growing array, of which each timeline only uses the first keys.
+ */
+public final class PersistenceKeyTimeline
+{
+	private static final PersistenceKeyTimeline EMPTY = new PersistenceKeyTimeline(new long[0], 0, new int[1]);
+
+	private final long[] keys;
+	private final int size;
+	/** the number of used keys in the shared array, guarded by itself */
+	private final int[] used;
+
+
+	private PersistenceKeyTimeline(final long[] keys, final int size, final int[] used)
+	{
+		this.keys = keys;
+		this.size = size;
+		this.used = used;
+	}
+
+
+	private PersistenceKeyTimeline(final long[] keys)
+	{
+		this(keys, keys.length, new int[] { keys.length });
+	}
+
+
+	/**
+	 * @return a timeline without keys
+	 */
+	public static PersistenceKeyTimeline empty()
+	{
+		return EMPTY;
+	}
+
+
+	/**
+	 * @param sortedKeys keys in ascending order without duplicates. The array must not be modified afterward.
+	 * @return a new timeline with the given keys
+	 */
+	public static PersistenceKeyTimeline of(final long[] sortedKeys)
+	{
+		return new PersistenceKeyTimeline(sortedKeys);
+	}
+
+
+	/**
+	 * Merge multiple sorted key arrays into a single timeline. Keys that are in multiple arrays are only added once.
+	 *
+	 * @param sortedKeys arrays of keys in ascending order
+	 * @return the merged timeline
+	 */
+	public static PersistenceKeyTimeline merge(final Collection<long[]> sortedKeys)
+	{
+		return new PersistenceKeyTimeline(mergeKeys(sortedKeys));
+	}
+
+
+	/**
+	 * @param sortedKeys arrays of keys in ascending order
+	 * @return the keys of all arrays in ascending order without duplicates
+	 */
+	static long[] mergeKeys(final Collection<long[]> sortedKeys)
+	{
+		long[] merged = new long[0];
+		for (long[] keys : sortedKeys)
+		{
+			merged = merge(merged, keys);
+		}
+		return merged;
+	}
+
+
+	/**
+	 * Append keys after the last key. Only the new keys are copied, unless the shared array is full
+	 * or another timeline was already appended to it.
+	 *
+	 * @param sortedKeys keys in ascending order, all greater than the last key of this timeline
+	 * @return a new timeline with the keys of this timeline and the given keys
+	 */
+	public PersistenceKeyTimeline append(final long[] sortedKeys)
+	{
+		if (sortedKeys.length == 0)
+		{
+			return this;
+		}
+		if (size > 0 && sortedKeys[0] <= keys[size - 1])
+		{
+			throw new IllegalArgumentException("Appended keys must be greater than the last key " + keys[size - 1]);
+		}
+		int newSize = size + sortedKeys.length;
+		synchronized (used)
+		{
+			if (used[0] == size && newSize <= keys.length)
+			{
+				System.arraycopy(sortedKeys, 0, keys, size, sortedKeys.length);
+				used[0] = newSize;
+				return new PersistenceKeyTimeline(keys, newSize, used);
+			}
+		}
+		long[] grown = Arrays.copyOf(keys, Math.max(newSize, 2 * size));
+		System.arraycopy(sortedKeys, 0, grown, size, sortedKeys.length);
+		return new PersistenceKeyTimeline(grown, newSize, new int[] { newSize });
+	}
+
+
+	private static long[] merge(final long[] a, final long[] b)
+	{
+		long[] result = new long[a.length + b.length];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < a.length || j < b.length)
+		{
+			long key;
+			if (j == b.length || (i < a.length && a[i] <= b[j]))
+			{
+				key = a[i++];
+			} else
+			{
+				key = b[j++];
+			}
+			if (n == 0 || result[n - 1] != key)
+			{
+				result[n++] = key;
+			}
+		}
+		return n == result.length ? result : Arrays.copyOf(result, n);
+	}
+
+
+	/**
+	 * @return the number of keys
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * @param index the index of the key
+	 * @return the key at the given index
+	 */
+	public long keyAt(final int index)
+	{
+		if (index >= size)
+		{
+			throw new IndexOutOfBoundsException(index);
+		}
+		return keys[index];
+	}
+
+
+	/**
+	 * @param key the key
+	 * @return the index of the given key or a negative value, if the key is not in the timeline
+	 */
+	public int indexOf(final long key)
+	{
+		int index = Arrays.binarySearch(keys, 0, size, key);
+		return index >= 0 ? index : -1;
+	}
+
+
+	public long firstKey()
+	{
+		return size == 0 ? PersistenceIndex.NO_KEY : keys[0];
+	}
+
+
+	public long lastKey()
+	{
+		return size == 0 ? PersistenceIndex.NO_KEY : keys[size - 1];
+	}
+
+
+	/**
+	 * @return the greatest key strictly less than the given key
+	 */
+	public long lowerKey(final long key)
+	{
+		return keyAtOrNone(ceilingIndex(key) - 1);
+	}
+
+
+	/**
+	 * @return the least key strictly greater than the given key
+	 */
+	public long higherKey(final long key)
+	{
+		return keyAtOrNone(floorIndex(key) + 1);
+	}
+
+
+	/**
+	 * @return the key closest to the given key (the lower one on a tie)
+	 */
+	public long nearestKey(final long key)
+	{
+		int floor = floorIndex(key);
+		long floorKey = keyAtOrNone(floor);
+		long ceilKey = floorKey == key ? key : keyAtOrNone(floor + 1);
+		if (ceilKey != PersistenceIndex.NO_KEY
+				&& (floorKey == PersistenceIndex.NO_KEY || Math.abs(ceilKey - key) < Math.abs(floorKey - key)))
+		{
+			return ceilKey;
+		}
+		return floorKey;
+	}
+
+
+	private long keyAtOrNone(final int index)
+	{
+		return index >= 0 && index < size ? keys[index] : PersistenceIndex.NO_KEY;
+	}
+
+
+	/**
+	 * @return the index of the greatest key less than or equal to the given key, or -1
+	 */
+	private int floorIndex(final long key)
+	{
+		int index = Arrays.binarySearch(keys, 0, size, key);
+		return index >= 0 ? index : -index - 2;
+	}
+
+
+	/**
+	 * @return the index of the least key greater than or equal to the given key, or the number of keys
+	 */
+	private int ceilingIndex(final long key)
+	{
+		int index = Arrays.binarySearch(keys, 0, size, key);
+		return index >= 0 ? index : -index - 1;
+	}
+}
@@ -6,21 +6,44 @@ import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
-import java.util.function.LongSupplier;
-
-
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * A table of entries with a key, stored in a database file and an index file.
+ * <p>
+ * Completed chunks of the database file are memory-mapped once and entries are deserialized directly from the
+ * mapped memory. Entries in the still growing tail of the file (or crossing a chunk boundary) are read with a
+ * positional read. Readers only share a read lock, which {@link #close()} takes exclusively before unmapping,
+ * so that it waits for reads in progress.
+ * <p>
+ * The database file can be block-compressed ({@link BlockCompressedWriter}), either incrementally while
+ * recording ({@link #startBlockCompression(Executor)}) or afterward. If there is only the compressed file,
+ * the table is read-only and the entries are read from the compressed file directly.
+ */
 @Log4j2
 public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements AutoCloseable
 {
+	private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
 	@Getter
 	private final EPersistenceKeyType keyType;
 
@@ -28,8 +51,23 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 
 	private final PersistenceIndex index;
 
+	@Getter
+	private final EPersistenceTableCodec codec;
+	private final FrameDeltaCodec frameDeltaCodec;
+	private final MappedDataOutputStream scratch = MappedDataOutputStream.inMemory(4096);
+
 	private final MappedDataOutputStream stream;
 	private final FileChannel file;
+	private final Arena readArena = Arena.ofShared();
+	private volatile MemorySegment[] chunks = new MemorySegment[0];
+	/** guards the mapped chunks: held by readers while they deserialize, taken exclusively to close */
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+	private boolean closed = false;
+
+	private final Path compressedFile;
+	private final BlockCompressedReader compressedReader;
+	private BlockCompressedWriter blockWriter;
+	private long compressedUntil = 0;
 
 	@Getter
 	private final Class<T> type;
@@ -37,6 +75,19 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 
 	public PersistenceTable(Class<T> type, Path dbPath, EPersistenceKeyType keyType)
 			throws IOException
+	{
+		this(type, dbPath, keyType, EPersistenceTableCodec.GENERIC);
+	}
+
+
+	/**
+	 * @param type    the entry type
+	 * @param dbPath  the database folder
+	 * @param keyType the key type
+	 * @param codec   the codec for new tables. Existing tables keep the codec they were created with.
+	 */
+	public PersistenceTable(Class<T> type, Path dbPath, EPersistenceKeyType keyType, EPersistenceTableCodec codec)
+			throws IOException
 	{
 		this.type = type;
 		this.keyType = keyType;
@@ -44,10 +95,53 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 		serializer = new GenericSerializer(dbPath.resolve(type.getSimpleName() + ".metadata"));
 
 		Path dbFile = dbPath.resolve(type.getSimpleName() + ".db");
-		this.stream = new MappedDataOutputStream(dbFile);
-		this.file = FileChannel.open(dbFile, StandardOpenOption.READ);
+		compressedFile = getCompressedFile(dbFile);
+		boolean compressedOnly = !Files.exists(dbFile) && Files.exists(compressedFile);
+		this.codec = initCodec(dbPath.resolve(type.getSimpleName() + ".codec"),
+				compressedOnly || Files.exists(dbFile), codec);
+		this.frameDeltaCodec = this.codec == EPersistenceTableCodec.FRAME_DELTA ? new FrameDeltaCodec() : null;
+
+		Path indexFile = dbPath.resolve(type.getSimpleName() + ".index");
+		if (compressedOnly)
+		{
+			this.stream = null;
+			this.file = null;
+			this.compressedReader = BlockCompressedReader.open(compressedFile);
+			this.index = new PersistenceIndex(indexFile, compressedReader::size);
+		} else
+		{
+			this.stream = new MappedDataOutputStream(dbFile);
+			this.file = FileChannel.open(dbFile, StandardOpenOption.READ);
+			this.compressedReader = null;
+			this.index = new PersistenceIndex(indexFile, file);
+		}
+	}
 
-		this.index = new PersistenceIndex(dbPath.resolve(type.getSimpleName() + ".index"), file);
+
+	/**
+	 * @param dbFile the uncompressed database file of a table
+	 * @return the block-compressed database file of the table
+	 */
+	static Path getCompressedFile(final Path dbFile)
+	{
+		return dbFile.resolveSibling(dbFile.getFileName() + "z");
+	}
+
+
+	private static EPersistenceTableCodec initCodec(Path codecFile, boolean existingTable,
+			EPersistenceTableCodec requestedCodec) throws IOException
+	{
+		if (Files.exists(codecFile))
+		{
+			return EPersistenceTableCodec.valueOf(Files.readString(codecFile).trim());
+		}
+		if (existingTable || requestedCodec == EPersistenceTableCodec.GENERIC)
+		{
+			// tables without a codec file were written with the generic codec
+			return EPersistenceTableCodec.GENERIC;
+		}
+		Files.writeString(codecFile, requestedCodec.name());
+		return requestedCodec;
 	}
 
 
@@ -59,6 +153,11 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 
 	public void write(T element)
 	{
+		if (stream == null)
+		{
+			log.error("PersistenceTable<{}>: write to a compressed table attempted.", type.getName());
+			return;
+		}
 		try
 		{
 			long id = element.getKey();
@@ -70,56 +169,227 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 
 			long startIndex = stream.getPos();
 
-			serializer.serialize(stream, element);
+			if (frameDeltaCodec != null)
+			{
+				scratch.reset();
+				serializer.serialize(scratch, element);
+				frameDeltaCodec.write(scratch.toByteArray(), stream);
+			} else
+			{
+				serializer.serialize(stream, element);
+			}
 			index.append(id, startIndex);
 		} catch (RuntimeException | IOException e)
 		{
 			log.error("Could not write to db", e);
 		}
+		if (blockWriter != null)
+		{
+			continueBlockCompression();
+		}
+	}
+
+
+	private void continueBlockCompression()
+	{
+		try
+		{
+			compressCompletedBlocks(false);
+		} catch (RuntimeException | IOException e)
+		{
+			// the data file is complete, so the table can still be compressed as a whole when closing
+			log.error("Stopped compressing table {} while recording", type.getSimpleName(), e);
+			try
+			{
+				blockWriter.close();
+			} catch (IOException closeException)
+			{
+				log.debug("Could not close the incomplete compressed db", closeException);
+			}
+			blockWriter = null;
+		}
+	}
+
+
+	/**
+	 * Start compressing the database file in the background while writing.
+	 * Blocks are compressed as soon as they are complete, so that only the last block is left when closing.
+	 * This must be called on the thread that writes to the table.
+	 *
+	 * @param executor the executor for compressing the blocks
+	 * @throws IOException if the compressed file can not be created
+	 */
+	public void startBlockCompression(Executor executor) throws IOException
+	{
+		if (stream == null || blockWriter != null)
+		{
+			return;
+		}
+		blockWriter = new BlockCompressedWriter(compressedFile, BlockCompressedWriter.DEFAULT_BLOCK_SIZE, executor);
+		compressCompletedBlocks(false);
+	}
+
+
+	/**
+	 * Hand the completed blocks to the compression.
+	 * While recording, this never blocks the writing thread: if too many blocks are still waiting for
+	 * compression, the remaining blocks are handed over with one of the next writes.
+	 *
+	 * @param finish compress all remaining data, including the last incomplete block, and wait for free slots
+	 */
+	private void compressCompletedBlocks(boolean finish) throws IOException
+	{
+		long end = stream.getPos();
+		int blockSize = BlockCompressedWriter.DEFAULT_BLOCK_SIZE;
+		while (end - compressedUntil >= blockSize || (finish && end > compressedUntil))
+		{
+			if (!finish && !blockWriter.canWriteWithoutBlocking())
+			{
+				return;
+			}
+			int length = (int) Math.min(blockSize, end - compressedUntil);
+			byte[] block = new byte[length];
+			read(compressedUntil, length).get(block);
+			blockWriter.write(block, length);
+			compressedUntil += length;
+		}
 	}
 
 
 	public int size()
 	{
-		return index.get().size();
+		return index.size();
 	}
 
 
 	public void forEach(Consumer<T> consumer)
 	{
-		for (long key : index.get().navigableKeySet())
+		for (long key = index.firstKey(); key != PersistenceIndex.NO_KEY; key = index.higherKey(key))
 		{
 			consumer.accept(get(key));
 		}
 	}
 
 
+	/**
+	 * Load all entries
+	 *
+	 * @return all entries in key order
+	 */
 	public List<T> load()
 	{
-		List<T> events = new ArrayList<>(size());
-		forEach(events::add);
-		return events;
+		return load(Long.MIN_VALUE, Long.MAX_VALUE);
 	}
 
 
-	@SuppressWarnings("unchecked")
-	public synchronized T get(long key)
+	/**
+	 * Load all entries within a key range
+	 *
+	 * @param fromKey the first key (inclusive)
+	 * @param toKey   the last key (inclusive)
+	 * @return the entries in key order
+	 */
+	public List<T> load(long fromKey, long toKey)
+	{
+		return stream(fromKey, toKey).collect(Collectors.toCollection(ArrayList::new));
+	}
+
+
+	/**
+	 * Load all entries within a key range in parallel on the given pool.
+	 * The common pool is not used, so that loading a large table does not starve other users of it.
+	 *
+	 * @param fromKey the first key (inclusive)
+	 * @param toKey   the last key (inclusive)
+	 * @param pool    the pool that deserializes the entries
+	 * @return the entries in key order
+	 */
+	public List<T> loadParallel(long fromKey, long toKey, ForkJoinPool pool)
 	{
-		if (!index.get().containsKey(key))
+		return pool.submit(() -> stream(fromKey, toKey).parallel().collect(Collectors.toCollection(ArrayList::new)))
+				.join();
+	}
+
+
+	/**
+	 * Stream all entries in key order. The entries are read lazily.
+	 * A parallel stream splits the keys into ranges that are deserialized concurrently, while keeping the key order.
+	 *
+	 * @return a sequential stream of all entries
+	 */
+	public Stream<T> stream()
+	{
+		return stream(Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+
+	/**
+	 * Stream all entries within a key range in key order.
+	 *
+	 * @param fromKey the first key (inclusive)
+	 * @param toKey   the last key (inclusive)
+	 * @return a sequential stream of the entries
+	 * @see #stream()
+	 */
+	public Stream<T> stream(long fromKey, long toKey)
+	{
+		long[] keys = index.getKeys(fromKey, toKey);
+		return StreamSupport.stream(new KeySpliterator<>(keys, 0, keys.length, this::get), false);
+	}
+
+
+	/**
+	 * @param fromKey the first key (inclusive)
+	 * @param toKey   the last key (inclusive)
+	 * @return a copy of all keys in the given range in ascending order
+	 */
+	public long[] getKeys(long fromKey, long toKey)
+	{
+		return index.getKeys(fromKey, toKey);
+	}
+
+
+	/**
+	 * @param key the key of the entry
+	 * @return the entry or null, if there is no entry or it could not be read
+	 * @throws IllegalStateException if the table is closed
+	 */
+	public T get(long key)
+	{
+		closeLock.readLock().lock();
+		try
 		{
-			return null;
+			if (closed)
+			{
+				throw new IllegalStateException("Table " + type.getSimpleName() + " is closed");
+			}
+			return readEntry(key);
+		} finally
+		{
+			closeLock.readLock().unlock();
 		}
+	}
+
 
+	@SuppressWarnings("unchecked")
+	private T readEntry(long key)
+	{
 		try
 		{
-			T element = null;
-			for (PersistenceIndex.Range range : index.get().get(key))
+			long[] ranges = index.getRanges(key);
+			if (ranges == null)
 			{
-				file.position(range.address());
-				ByteBuffer buf = ByteBuffer.allocate(range.size());
-				file.read(buf);
-				buf.position(0);
+				return null;
+			}
 
+			T element = null;
+			for (int i = 0; i < ranges.length; i += 2)
+			{
+				ByteBuffer buf = read(ranges[i], (int) ranges[i + 1]);
+				if (frameDeltaCodec != null)
+				{
+					buf = frameDeltaCodec.read(ranges[i], buf, this::read);
+				}
 				T entry = (T) serializer.deserialize(buf);
 				if (element != null)
 				{
@@ -138,40 +408,84 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 	}
 
 
+	private ByteBuffer read(long address, int size) throws IOException
+	{
+		if (compressedReader != null)
+		{
+			return compressedReader.read(address, size);
+		}
+		int chunk = (int) (address / CHUNK_SIZE);
+		long offset = address % CHUNK_SIZE;
+		if (offset + size <= CHUNK_SIZE)
+		{
+			MemorySegment[] mapped = chunks;
+			if (chunk >= mapped.length)
+			{
+				mapped = mapCompletedChunks();
+			}
+			if (chunk < mapped.length)
+			{
+				return mapped[chunk].asSlice(offset, size).asByteBuffer();
+			}
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(size);
+		while (buf.hasRemaining())
+		{
+			if (file.read(buf, address + buf.position()) < 0)
+			{
+				break;
+			}
+		}
+		buf.flip();
+		return buf;
+	}
+
+
+	private synchronized MemorySegment[] mapCompletedChunks() throws IOException
+	{
+		int numCompleted = (int) (file.size() / CHUNK_SIZE);
+		if (numCompleted <= chunks.length)
+		{
+			return chunks;
+		}
+		MemorySegment[] mapped = Arrays.copyOf(chunks, numCompleted);
+		for (int i = chunks.length; i < numCompleted; i++)
+		{
+			mapped[i] = file.map(FileChannel.MapMode.READ_ONLY, i * CHUNK_SIZE, CHUNK_SIZE, readArena);
+		}
+		chunks = mapped;
+		return mapped;
+	}
+
+
 	public Long getFirstKey()
 	{
-		return noSuchElement(index.get()::firstKey);
+		return toKey(index.firstKey());
 	}
 
 
 	public Long getLastKey()
 	{
-		return noSuchElement(index.get()::lastKey);
+		return toKey(index.lastKey());
 	}
 
 
 	public Long getPreviousKey(long key)
 	{
-		return index.get().lowerKey(key);
+		return toKey(index.lowerKey(key));
 	}
 
 
 	public Long getNextKey(long key)
 	{
-		return index.get().higherKey(key);
+		return toKey(index.higherKey(key));
 	}
 
 
 	public Long getNearestKey(long key)
 	{
-		Long neighbour = index.get().floorKey(key);
-		Long ceil = index.get().ceilingKey(key);
-		if (ceil != null && (neighbour == null || Math.abs(ceil - key) < Math.abs(neighbour - key)))
-		{
-			return ceil;
-		}
-
-		return neighbour;
+		return toKey(index.nearestKey(key));
 	}
 
 
@@ -180,26 +494,54 @@ public class PersistenceTable<T extends PersistenceTable.IEntry<T>> implements A
 	{
 		try
 		{
+			if (blockWriter != null)
+			{
+				try (BlockCompressedWriter writer = blockWriter)
+				{
+					compressCompletedBlocks(true);
+				} finally
+				{
+					blockWriter = null;
+				}
+			}
+		} catch (RuntimeException | IOException e)
+		{
+			log.error("Could not finish the compressed db", e);
+		}
+		// wait for reads in progress, they deserialize from the mapped chunks
+		closeLock.writeLock().lock();
+		try
+		{
+			if (closed)
+			{
+				return;
+			}
+			closed = true;
 			serializer.close();
-			stream.close();
-			file.close();
+			// unmap before the stream truncates the file, accessing truncated mappings crashes the JVM
+			readArena.close();
+			if (stream != null)
+			{
+				stream.close();
+				file.close();
+			} else
+			{
+				compressedReader.close();
+			}
 			index.close();
 		} catch (IOException e)
 		{
 			log.error("Could not close db", e);
+		} finally
+		{
+			closeLock.writeLock().unlock();
 		}
 	}
 
 
-	private Long noSuchElement(LongSupplier supplier)
+	private Long toKey(long key)
 	{
-		try
-		{
-			return supplier.getAsLong();
-		} catch (NoSuchElementException e)
-		{
-			return null;
-		}
+		return key == PersistenceIndex.NO_KEY ? null : key;
 	}
 
 
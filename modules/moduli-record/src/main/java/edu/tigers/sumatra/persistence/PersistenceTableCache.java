@@ -0,0 +1,251 @@
+package edu.tigers.sumatra.persistence;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A read cache for a {@link PersistenceTable} that keeps the decoded entries around the playhead of a replay.
+ * <p>
+ * The entries are kept in a bounded LRU map. The step between the last two requested keys is used to predict
+ * the next requests, so that the entries ahead of the playhead (in playback direction and at the playback speed)
+ * are loaded in the background. Large jumps do not trigger a prefetch.
+ * <p>
+ * Like {@link PersistenceTable#get(long)}, only exact keys are resolved.
+ *
+ * @param <T> the entry type
+ */
+@Log4j2
+public class PersistenceTableCache<T extends PersistenceTable.IEntry<T>> implements AutoCloseable
+{
+	/** steps larger than this are considered a jump [ns] */
+	private static final long MAX_PREFETCH_STEP = 1_000_000_000L;
+
+	private final PersistenceTable<T> table;
+	private final Executor prefetchExecutor;
+	private final int prefetchCount;
+	private final Map<Long, T> entries;
+
+	private final AtomicBoolean prefetching = new AtomicBoolean();
+	private final AtomicLong numHits = new AtomicLong();
+	private final AtomicLong numMisses = new AtomicLong();
+
+	private PersistenceKeyTimeline keys = PersistenceKeyTimeline.empty();
+	private long lastRequestedKey = PersistenceIndex.NO_KEY;
+	private volatile long playhead;
+	private volatile long step;
+	private volatile long generation;
+	private volatile boolean closed;
+
+
+	/**
+	 * @param table            the table to read from
+	 * @param prefetchExecutor the executor for loading entries in the background
+	 * @param capacity         the maximum number of cached entries
+	 * @param prefetchCount    the number of entries to load ahead of the playhead, should be well below the capacity
+	 */
+	public PersistenceTableCache(final PersistenceTable<T> table, final Executor prefetchExecutor, final int capacity,
+			final int prefetchCount)
+	{
+		this.table = table;
+		this.prefetchExecutor = prefetchExecutor;
+		this.prefetchCount = prefetchCount;
+		this.entries = new LinkedHashMap<>(2 * capacity, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Long, T> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+
+	/**
+	 * Get an entry from the cache or load it from the table.
+	 * The key is also used as the new playhead for prefetching.
+	 *
+	 * @param key the key
+	 * @return the entry or null, if there is no entry for the exact key
+	 */
+	public T get(final long key)
+	{
+		updatePlayhead(key);
+		if (getKeys().indexOf(key) < 0)
+		{
+			return null;
+		}
+		T entry = getCached(key);
+		if (entry != null)
+		{
+			numHits.incrementAndGet();
+			return entry;
+		}
+		numMisses.incrementAndGet();
+		return load(key);
+	}
+
+
+	private synchronized void updatePlayhead(final long key)
+	{
+		long newStep = lastRequestedKey == PersistenceIndex.NO_KEY ? 0 : key - lastRequestedKey;
+		lastRequestedKey = key;
+		if (newStep == 0)
+		{
+			// paused or the same frame was requested again
+			return;
+		}
+		playhead = key;
+		step = Math.abs(newStep) <= MAX_PREFETCH_STEP ? newStep : 0;
+		generation++;
+		if (step != 0)
+		{
+			schedulePrefetch();
+		}
+	}
+
+
+	private synchronized PersistenceKeyTimeline getKeys()
+	{
+		if (table.size() == keys.size())
+		{
+			return keys;
+		}
+		// while recording, new keys are appended at the end, so only those are read
+		long[] newKeys = keys.size() == 0 || keys.lastKey() == Long.MAX_VALUE
+				? new long[0]
+				: table.getKeys(keys.lastKey() + 1, Long.MAX_VALUE);
+		// the size is read afterward, so keys that were added before the last key or concurrently are not missed
+		if (keys.size() > 0 && table.size() == keys.size() + newKeys.length)
+		{
+			keys = keys.append(newKeys);
+		} else
+		{
+			keys = PersistenceKeyTimeline.of(table.getKeys(Long.MIN_VALUE, Long.MAX_VALUE));
+		}
+		return keys;
+	}
+
+
+	private T getCached(final long key)
+	{
+		synchronized (entries)
+		{
+			return entries.get(key);
+		}
+	}
+
+
+	private boolean isCached(final long key)
+	{
+		synchronized (entries)
+		{
+			return entries.containsKey(key);
+		}
+	}
+
+
+	private T load(final long key)
+	{
+		T entry = table.get(key);
+		if (entry != null && !closed)
+		{
+			synchronized (entries)
+			{
+				entries.put(key, entry);
+			}
+		}
+		return entry;
+	}
+
+
+	private void schedulePrefetch()
+	{
+		if (!closed && prefetching.compareAndSet(false, true))
+		{
+			try
+			{
+				prefetchExecutor.execute(this::prefetch);
+			} catch (RejectedExecutionException e)
+			{
+				prefetching.set(false);
+			}
+		}
+	}
+
+
+	private void prefetch()
+	{
+		long prefetchedGeneration;
+		do
+		{
+			prefetchedGeneration = generation;
+			prefetch(playhead, step, prefetchedGeneration);
+			prefetching.set(false);
+			// start again, if the playhead moved in the meantime and no new prefetch was scheduled
+		} while (!closed && generation != prefetchedGeneration && prefetching.compareAndSet(false, true));
+	}
+
+
+	private void prefetch(final long start, final long prefetchStep, final long prefetchGeneration)
+	{
+		PersistenceKeyTimeline timeline = getKeys();
+		for (int i = 1; i <= prefetchCount && prefetchStep != 0; i++)
+		{
+			if (closed || generation != prefetchGeneration)
+			{
+				return;
+			}
+			long key = timeline.nearestKey(start + i * prefetchStep);
+			if (key != PersistenceIndex.NO_KEY && !isCached(key))
+			{
+				load(key);
+			}
+		}
+	}
+
+
+	/**
+	 * @return the number of requests that were served from the cache
+	 */
+	public long getNumHits()
+	{
+		return numHits.get();
+	}
+
+
+	/**
+	 * @return the number of requests that had to be loaded from the table
+	 */
+	public long getNumMisses()
+	{
+		return numMisses.get();
+	}
+
+
+	/**
+	 * Remove all cached entries
+	 */
+	public void clear()
+	{
+		synchronized (entries)
+		{
+			entries.clear();
+		}
+	}
+
+
+	@Override
+	public void close()
+	{
+		closed = true;
+		clear();
+		log.debug("Closed table cache: {} hits, {} misses", numHits.get(), numMisses.get());
+	}
+}
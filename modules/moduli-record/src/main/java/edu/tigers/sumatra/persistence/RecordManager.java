@@ -44,6 +44,10 @@ public class RecordManager extends AModule implements IRefereeObserver
 			unit = EConfigUnit.BOOLEAN)
 	private static boolean autoRecord = true;
 
+	@Configurable(defValue = "false", comment = "Delta-encode frame tables of new recordings (smaller recordings, slower random access, not readable by older versions)",
+			unit = EConfigUnit.BOOLEAN)
+	private static boolean deltaEncodeFrames = false;
+
 	static
 	{
 		ConfigRegistration.registerClass("user", RecordManager.class);
@@ -296,6 +300,15 @@ public class RecordManager extends AModule implements IRefereeObserver
 	}
 
 
+	/**
+	 * @return the codec for tables with frame-like entries
+	 */
+	protected EPersistenceTableCodec getFrameCodec()
+	{
+		return deltaEncodeFrames ? EPersistenceTableCodec.FRAME_DELTA : EPersistenceTableCodec.GENERIC;
+	}
+
+
 	/**
 	 * This is called when a new recorder will be created
 	 *
@@ -16,8 +16,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -38,8 +38,9 @@ public class GenericSerializer implements PrimitiveSerializer, FieldSerializer<O
 	private static final int METADATA_VERSION = 1;
 	private static final GenericSerializer metadataSerializer = new GenericSerializer();
 
-	private final Map<Class<?>, Serializer<?>> serializers = new HashMap<>();
-	private final Map<Integer, Serializer<?>> deserializers = new HashMap<>();
+	// concurrent maps, as tables are read from other threads while new types are serialized
+	private final Map<Class<?>, Serializer<?>> serializers = new ConcurrentHashMap<>();
+	private final Map<Integer, Serializer<?>> deserializers = new ConcurrentHashMap<>();
 	private final MappedDataOutputStream metadataStream;
 
 	private int idCounter = 0;
@@ -62,8 +62,54 @@ public class MappedDataOutputStream implements AutoCloseable
 	}
 
 
+	/**
+	 * Heap-backed stream without a file, e.g. for serializing into a byte array.
+	 */
+	private MappedDataOutputStream(MemorySegment initialBuffer)
+	{
+		channel = null;
+		segment = initialBuffer;
+	}
+
+
+	/**
+	 * @param initialCapacity the initial capacity in bytes, the buffer grows as needed
+	 * @return a stream that writes to a growing heap buffer, see {@link #toByteArray()}
+	 */
+	public static MappedDataOutputStream inMemory(int initialCapacity)
+	{
+		return new MappedDataOutputStream(MemorySegment.ofArray(new byte[Math.max(16, initialCapacity)]));
+	}
+
+
+	/**
+	 * @return a copy of all bytes written to an in-memory stream
+	 */
+	public byte[] toByteArray()
+	{
+		return segment.asSlice(0, position).toArray(ValueLayout.JAVA_BYTE);
+	}
+
+
+	/**
+	 * Discard all bytes written to an in-memory stream, keeping the allocated buffer.
+	 */
+	public void reset()
+	{
+		if (channel != null)
+		{
+			throw new IllegalStateException("Only in-memory streams can be reset");
+		}
+		position = 0;
+	}
+
+
 	public long getPos() throws IOException
 	{
+		if (channel == null)
+		{
+			return position;
+		}
 		return channel.size() - segment.byteSize() + position;
 	}
 
@@ -81,20 +127,24 @@ public class MappedDataOutputStream implements AutoCloseable
 
 	public void write(byte[] b) throws IOException
 	{
-		long remaining = segment.byteSize() - position;
-		if (b.length <= remaining)
+		if (channel == null && position + b.length > segment.byteSize())
 		{
-			MemorySegment.copy(b, 0, segment, ValueLayout.JAVA_BYTE, position, b.length);
-			position += b.length;
-		} else
+			grow(position + b.length);
+		}
+		// arrays larger than the remaining buffer are split over as many buffers as required
+		int offset = 0;
+		while (offset < b.length)
 		{
-			int split = (int) remaining;
-			MemorySegment.copy(b, 0, segment, ValueLayout.JAVA_BYTE, position, split);
-			position += split;
-			allocateBuffer();
-			//Does not handle the special case of b being larger than the buffer sizes
-			MemorySegment.copy(b, split, segment, ValueLayout.JAVA_BYTE, position, b.length - split);
-			position += b.length - split;
+			long remaining = segment.byteSize() - position;
+			if (remaining == 0)
+			{
+				allocateBuffer();
+				continue;
+			}
+			int length = (int) Math.min(remaining, b.length - offset);
+			MemorySegment.copy(b, offset, segment, ValueLayout.JAVA_BYTE, position, length);
+			position += length;
+			offset += length;
 		}
 	}
 
@@ -186,6 +236,10 @@ public class MappedDataOutputStream implements AutoCloseable
 	@Override
 	public void close() throws IOException
 	{
+		if (channel == null)
+		{
+			return;
+		}
 		// getPos() reads segment.byteSize() / position, so capture before closeBuffer() wipes them.
 		long endPos = getPos();
 		closeBuffer();
@@ -196,6 +250,11 @@ public class MappedDataOutputStream implements AutoCloseable
 
 	private void allocateBuffer() throws IOException
 	{
+		if (channel == null)
+		{
+			grow(segment.byteSize() + 1);
+			return;
+		}
 		closeBuffer();
 		// Confined to the calling thread: PersistenceDb funnels all stream work — open, write,
 		// and close — through a single-threaded executor (PersistenceDb-IO). Allocation, every
@@ -216,6 +275,15 @@ public class MappedDataOutputStream implements AutoCloseable
 	}
 
 
+	private void grow(long minCapacity)
+	{
+		long capacity = Math.max(minCapacity, 2 * segment.byteSize());
+		MemorySegment grown = MemorySegment.ofArray(new byte[Math.toIntExact(capacity)]);
+		MemorySegment.copy(segment, 0, grown, 0, position);
+		segment = grown;
+	}
+
+
 	private void closeBuffer()
 	{
 		if (bufferArena != null)
@@ -0,0 +1,170 @@
+package edu.tigers.sumatra.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class BlockCompressedFileTest
+{
+	private static final int BLOCK_SIZE = 1000;
+
+	@TempDir
+	private Path tmp;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+
+	@AfterEach
+	void tearDown()
+	{
+		executor.shutdown();
+	}
+
+
+	@Test
+	void testRoundTrip() throws IOException
+	{
+		byte[] data = createData(10 * BLOCK_SIZE + 123);
+		Path source = tmp.resolve("test.db");
+		Path target = tmp.resolve("test.dbz");
+		Files.write(source, data);
+
+		BlockCompressedWriter.compress(source, target, BLOCK_SIZE, executor);
+
+		assertEquals(data.length, BlockCompressedReader.getCompleteSize(target));
+		try (BlockCompressedReader reader = BlockCompressedReader.open(target))
+		{
+			assertEquals(data.length, reader.size());
+			assertArrayEquals(data, toArray(reader.read(0, data.length)));
+			// within a block
+			assertArrayEquals(Arrays.copyOfRange(data, 1010, 1100), toArray(reader.read(1010, 90)));
+			// across multiple blocks
+			assertArrayEquals(Arrays.copyOfRange(data, 950, 3050), toArray(reader.read(950, 2100)));
+			// truncated at the end
+			assertArrayEquals(Arrays.copyOfRange(data, data.length - 10, data.length),
+					toArray(reader.read(data.length - 10, 100)));
+			assertEquals(0, reader.read(data.length, 10).remaining());
+		}
+	}
+
+
+	@Test
+	void testEmpty() throws IOException
+	{
+		Path target = tmp.resolve("test.dbz");
+		new BlockCompressedWriter(target, BLOCK_SIZE, executor).close();
+
+		assertEquals(0, BlockCompressedReader.getCompleteSize(target));
+	}
+
+
+	@Test
+	void testIncomplete() throws IOException
+	{
+		Path target = tmp.resolve("test.dbz");
+		BlockCompressedWriter.compress(Files.write(tmp.resolve("test.db"), createData(5 * BLOCK_SIZE)), target,
+				BLOCK_SIZE, executor);
+		try (FileChannel file = FileChannel.open(target, StandardOpenOption.WRITE))
+		{
+			file.truncate(file.size() - 1);
+		}
+
+		assertEquals(-1, BlockCompressedReader.getCompleteSize(target));
+		assertThrows(IOException.class, () -> BlockCompressedReader.open(target));
+	}
+
+
+	@Test
+	void testShortBlockMustBeLast() throws IOException
+	{
+		try (BlockCompressedWriter writer = new BlockCompressedWriter(tmp.resolve("test.dbz"), BLOCK_SIZE, executor))
+		{
+			writer.write(new byte[BLOCK_SIZE], 10);
+			assertThrows(IllegalStateException.class, () -> writer.write(new byte[BLOCK_SIZE], BLOCK_SIZE));
+		}
+	}
+
+
+	@Test
+	void testCanWriteWithoutBlocking() throws IOException
+	{
+		// hold back the compression until all slots are taken
+		List<Runnable> tasks = new ArrayList<>();
+		Path target = tmp.resolve("test.dbz");
+		byte[] data = createData(BlockCompressedWriter.MAX_PENDING_BLOCKS * BLOCK_SIZE);
+		try (BlockCompressedWriter writer = new BlockCompressedWriter(target, BLOCK_SIZE, tasks::add))
+		{
+			for (int i = 0; i < BlockCompressedWriter.MAX_PENDING_BLOCKS; i++)
+			{
+				assertTrue(writer.canWriteWithoutBlocking());
+				writer.write(Arrays.copyOfRange(data, i * BLOCK_SIZE, (i + 1) * BLOCK_SIZE), BLOCK_SIZE);
+			}
+			assertFalse(writer.canWriteWithoutBlocking());
+
+			tasks.forEach(Runnable::run);
+			assertTrue(writer.canWriteWithoutBlocking());
+		}
+
+		try (BlockCompressedReader reader = BlockCompressedReader.open(target))
+		{
+			assertArrayEquals(data, toArray(reader.read(0, data.length)));
+		}
+	}
+
+
+	@Test
+	void testFailedBlock() throws IOException
+	{
+		Path target = tmp.resolve("test.dbz");
+		BlockCompressedWriter writer = new BlockCompressedWriter(target, BLOCK_SIZE, Runnable::run);
+		// a block without data can not be compressed
+		writer.write(null, BLOCK_SIZE);
+
+		assertTrue(writer.canWriteWithoutBlocking());
+		assertThrows(UncheckedIOException.class, () -> writer.write(new byte[BLOCK_SIZE], BLOCK_SIZE));
+		assertThrows(IOException.class, writer::close);
+		assertEquals(-1, BlockCompressedReader.getCompleteSize(target));
+	}
+
+
+	private static byte[] createData(int size)
+	{
+		// compressible, but not trivial
+		Random random = new Random(42);
+		byte[] data = new byte[size];
+		for (int i = 0; i < size; i++)
+		{
+			data[i] = (byte) (i % 17 + random.nextInt(4));
+		}
+		return data;
+	}
+
+
+	private static byte[] toArray(ByteBuffer buffer)
+	{
+		byte[] array = new byte[buffer.remaining()];
+		buffer.get(array);
+		return array;
+	}
+}
@@ -0,0 +1,119 @@
+package edu.tigers.sumatra.persistence;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark for comparing sequential and random reads of a {@link PersistenceTable}
+ * with the {@link EPersistenceTableCodec#GENERIC} and the {@link EPersistenceTableCodec#FRAME_DELTA} codec.
+ * Each read includes the deserialization of the entry.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameDeltaCodecPerformance
+{
+	private static final int NUM_FRAMES = 20_000;
+	private static final int NUM_VALUES = 200;
+
+	@Param({ "GENERIC", "FRAME_DELTA" })
+	private EPersistenceTableCodec codec;
+
+	private Path dbPath;
+	private PersistenceTable<Frame> table;
+	private long[] keys;
+	private int[] randomOrder;
+
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		dbPath = Files.createTempDirectory("sumatra-codec-perf");
+		table = new PersistenceTable<>(Frame.class, dbPath, EPersistenceKeyType.ARBITRARY, codec);
+		Random random = new Random(42);
+		double[] values = new double[NUM_VALUES];
+		keys = new long[NUM_FRAMES];
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			// slowly changing values, like the positions of the objects on the field
+			for (int j = 0; j < NUM_VALUES; j++)
+			{
+				values[j] += random.nextGaussian();
+			}
+			keys[i] = i + 1L;
+			table.write(new Frame(keys[i], values.clone()));
+		}
+		randomOrder = random.ints(NUM_FRAMES, 0, NUM_FRAMES).toArray();
+	}
+
+
+	@TearDown(Level.Trial)
+	public void teardown() throws IOException
+	{
+		table.close();
+		FileUtils.deleteDirectory(dbPath.toFile());
+	}
+
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_FRAMES)
+	public void sequentialRead(Blackhole blackhole)
+	{
+		for (long key : keys)
+		{
+			blackhole.consume(table.get(key));
+		}
+	}
+
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_FRAMES)
+	public void randomRead(Blackhole blackhole)
+	{
+		for (int i : randomOrder)
+		{
+			blackhole.consume(table.get(keys[i]));
+		}
+	}
+
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder().include(FrameDeltaCodecPerformance.class.getSimpleName()).build()).run();
+	}
+
+
+	record Frame(long key, double[] values) implements PersistenceTable.IEntry<Frame>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package edu.tigers.sumatra.persistence;
+
+import edu.tigers.sumatra.persistence.serializer.MappedDataOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class FrameDeltaCodecTest
+{
+	@TempDir
+	private Path tmp;
+
+
+	@Test
+	void testDeltaRoundTrip() throws IOException
+	{
+		byte[] previous = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+		byte[][] currents = {
+				previous.clone(),
+				{ 1, 2, 3, 4, 5, 6, 7, 8, 9, 11 },
+				{ 0, 2, 3, 4, 5, 0, 7, 8, 9, 10, 11, 12 },
+				{ 1, 2, 3 },
+				{},
+		};
+		for (byte[] current : currents)
+		{
+			MappedDataOutputStream out = MappedDataOutputStream.inMemory(16);
+			FrameDeltaCodec.encodeDelta(previous, current, out);
+			ByteBuffer delta = ByteBuffer.allocate(out.toByteArray().length + 5);
+			delta.put((byte) current.length).put(out.toByteArray()).flip();
+			assertArrayEquals(current, FrameDeltaCodec.decodeDelta(previous, delta));
+		}
+	}
+
+
+	@Test
+	void testRandomAccess() throws IOException
+	{
+		Random rnd = new Random(42);
+		byte[] frame = new byte[200];
+		rnd.nextBytes(frame);
+
+		MappedDataOutputStream out = MappedDataOutputStream.inMemory(16);
+		FrameDeltaCodec writer = new FrameDeltaCodec();
+		List<byte[]> frames = new ArrayList<>();
+		List<Long> addresses = new ArrayList<>();
+		int rawSize = 0;
+		for (int i = 0; i < 150; i++)
+		{
+			frame = i % 37 == 0 ? Arrays.copyOf(frame, frame.length + 5) : frame.clone();
+			for (int j = 0; j < 5; j++)
+			{
+				frame[rnd.nextInt(frame.length)] = (byte) rnd.nextInt();
+			}
+			addresses.add(out.getPos());
+			writer.write(frame, out);
+			frames.add(frame);
+			rawSize += frame.length;
+		}
+
+		byte[] file = out.toByteArray();
+		assertTrue(file.length < rawSize / 2);
+
+		FrameDeltaCodec.RecordReader reader = (address, size) -> ByteBuffer.wrap(file, (int) address, size).slice();
+		FrameDeltaCodec codec = new FrameDeltaCodec();
+		for (int i = frames.size() - 1; i >= 0; i -= 7)
+		{
+			long address = addresses.get(i);
+			ByteBuffer buf = codec.read(address, reader.read(address, file.length - (int) address), reader);
+			byte[] data = new byte[buf.remaining()];
+			buf.get(data);
+			assertArrayEquals(frames.get(i), data);
+		}
+		// sequential reads continue from the last decoded entry, also across keyframes
+		for (int i = 0; i < frames.size(); i++)
+		{
+			long address = addresses.get(i);
+			ByteBuffer buf = codec.read(address, reader.read(address, file.length - (int) address), reader);
+			byte[] data = new byte[buf.remaining()];
+			buf.get(data);
+			assertArrayEquals(frames.get(i), data);
+		}
+	}
+
+
+	@Test
+	void testEntriesLargerThanBuffer() throws IOException
+	{
+		Random rnd = new Random(42);
+		byte[] frame = new byte[(int) (2.5 * MappedDataOutputStream.BUFFER_SIZE)];
+
+		Path db = tmp.resolve("test.db");
+		FrameDeltaCodec writer = new FrameDeltaCodec();
+		List<byte[]> frames = new ArrayList<>();
+		List<Long> addresses = new ArrayList<>();
+		try (MappedDataOutputStream out = new MappedDataOutputStream(db))
+		{
+			for (int i = 0; i < 4; i++)
+			{
+				if (i == 1)
+				{
+					// small delta
+					frame = frame.clone();
+					frame[0]++;
+				} else
+				{
+					// too different for a delta, stored as keyframe
+					frame = new byte[frame.length];
+					rnd.nextBytes(frame);
+				}
+				addresses.add(out.getPos());
+				writer.write(frame, out);
+				frames.add(frame);
+			}
+		}
+
+		byte[] file = Files.readAllBytes(db);
+		FrameDeltaCodec.RecordReader reader = (address, size) -> ByteBuffer.wrap(file, (int) address, size).slice();
+		FrameDeltaCodec codec = new FrameDeltaCodec();
+		for (int i = frames.size() - 1; i >= 0; i--)
+		{
+			long address = addresses.get(i);
+			ByteBuffer buf = codec.read(address, reader.read(address, file.length - (int) address), reader);
+			byte[] data = new byte[buf.remaining()];
+			buf.get(data);
+			assertArrayEquals(frames.get(i), data);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package edu.tigers.sumatra.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeySpliteratorTest
+{
+	private static final int NUM_KEYS = 10_000;
+
+	private final long[] keys = LongStream.range(0, NUM_KEYS).map(k -> k * 10).toArray();
+
+
+	@Test
+	void testSplit()
+	{
+		KeySpliterator<Long> suffix = new KeySpliterator<>(keys, 0, keys.length, key -> key);
+		assertEquals(NUM_KEYS, suffix.estimateSize());
+
+		Spliterator<Long> prefix = suffix.trySplit();
+		assertNotNull(prefix);
+		assertEquals(NUM_KEYS / 2, prefix.estimateSize());
+		assertEquals(NUM_KEYS / 2, suffix.estimateSize());
+		assertTrue(prefix.tryAdvance(key -> assertEquals(0L, key)));
+		assertTrue(suffix.tryAdvance(key -> assertEquals(NUM_KEYS / 2 * 10L, key)));
+		assertEquals(NUM_KEYS / 2 - 1, prefix.estimateSize());
+	}
+
+
+	@Test
+	void testNoSplitBelowMinSize()
+	{
+		int size = 2 * KeySpliterator.MIN_SPLIT_SIZE - 1;
+		KeySpliterator<Long> spliterator = new KeySpliterator<>(keys, 0, size, key -> key);
+		assertNull(spliterator.trySplit());
+		assertEquals(size, spliterator.estimateSize());
+	}
+
+
+	@Test
+	void testSkipMissingEntries()
+	{
+		KeySpliterator<Long> spliterator = new KeySpliterator<>(keys, 0, 4, key -> key == 10 ? null : key);
+		List<Long> entries = StreamSupport.stream(spliterator, false).toList();
+		assertEquals(List.of(0L, 20L, 30L), entries);
+		assertFalse(spliterator.tryAdvance(key -> {
+		}));
+	}
+
+
+	@Test
+	void testParallelKeepsOrder()
+	{
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			List<Long> entries = pool.submit(() -> StreamSupport.stream(
+					new KeySpliterator<>(keys, 0, keys.length, key -> key), true).toList()).join();
+			assertEquals(LongStream.of(keys).boxed().toList(), entries);
+		} finally
+		{
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package edu.tigers.sumatra.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class MpscRingBufferTest
+{
+	@Test
+	void testCapacity()
+	{
+		assertEquals(2, new MpscRingBuffer<>(1).capacity());
+		assertEquals(4, new MpscRingBuffer<>(3).capacity());
+		assertEquals(4, new MpscRingBuffer<>(4).capacity());
+		assertEquals(16384, new MpscRingBuffer<>(10000).capacity());
+	}
+
+
+	@Test
+	void testOfferAndDrainInOrder()
+	{
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+		List<Integer> drained = new ArrayList<>();
+		for (int round = 0; round < 3; round++)
+		{
+			for (int i = 0; i < 4; i++)
+			{
+				assertTrue(buffer.offer(round * 4 + i));
+			}
+			assertFalse(buffer.offer(-1));
+			assertEquals(4, buffer.size());
+			assertEquals(4, buffer.drain((e, t) -> drained.add(e)));
+			assertEquals(0, buffer.size());
+		}
+		assertEquals(12, drained.size());
+		for (int i = 0; i < drained.size(); i++)
+		{
+			assertEquals(i, drained.get(i));
+		}
+	}
+
+
+	@Test
+	void testConcurrentProducers() throws InterruptedException
+	{
+		int numProducers = 4;
+		int numElements = 100_000;
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+		int[] lastPerProducer = new int[numProducers];
+		int[] received = new int[1];
+		CountDownLatch done = new CountDownLatch(numProducers);
+
+		ExecutorService executor = Executors.newFixedThreadPool(numProducers);
+		for (int p = 0; p < numProducers; p++)
+		{
+			int producer = p;
+			executor.execute(() -> {
+				for (int i = 1; i <= numElements; i++)
+				{
+					while (!buffer.offer(producer * numElements + i))
+					{
+						Thread.onSpinWait();
+					}
+				}
+				done.countDown();
+			});
+		}
+
+		while (received[0] < numProducers * numElements)
+		{
+			buffer.drain((e, t) -> {
+				int producer = (e - 1) / numElements;
+				int value = e - producer * numElements;
+				// elements of a single producer keep their order
+				assertEquals(lastPerProducer[producer] + 1, value);
+				lastPerProducer[producer] = value;
+				received[0]++;
+			});
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertEquals(0, buffer.size());
+	}
+}
@@ -0,0 +1,116 @@
+package edu.tigers.sumatra.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+class PersistenceIndexTest
+{
+	@TempDir
+	private Path tmp;
+
+
+	@Test
+	void testEmpty() throws IOException
+	{
+		try (FileChannel db = createDb(0))
+		{
+			PersistenceIndex index = new PersistenceIndex(tmp.resolve("test.index"), db);
+			assertEquals(0, index.size());
+			assertEquals(PersistenceIndex.NO_KEY, index.firstKey());
+			assertEquals(PersistenceIndex.NO_KEY, index.nearestKey(42));
+			assertNull(index.getRanges(42));
+			index.close();
+		}
+	}
+
+
+	@Test
+	void testKeyLookup() throws IOException
+	{
+		try (FileChannel db = createDb(100))
+		{
+			PersistenceIndex index = new PersistenceIndex(tmp.resolve("test.index"), db);
+			index.append(10, 0);
+			index.append(20, 10);
+			index.append(30, 20);
+
+			assertEquals(3, index.size());
+			assertEquals(10, index.firstKey());
+			assertEquals(30, index.lastKey());
+			assertEquals(20, index.floorKey(25));
+			assertEquals(30, index.ceilingKey(25));
+			assertEquals(10, index.lowerKey(20));
+			assertEquals(30, index.higherKey(20));
+			assertEquals(PersistenceIndex.NO_KEY, index.lowerKey(10));
+			assertEquals(PersistenceIndex.NO_KEY, index.higherKey(30));
+			assertEquals(20, index.nearestKey(24));
+			assertEquals(30, index.nearestKey(26));
+			assertEquals(20, index.nearestKey(25));
+			index.close();
+		}
+	}
+
+
+	@Test
+	void testIncrementalAppend() throws IOException
+	{
+		try (FileChannel db = createDb(100))
+		{
+			PersistenceIndex index = new PersistenceIndex(tmp.resolve("test.index"), db);
+			index.append(10, 0);
+			assertEquals(1, index.size());
+
+			// same key, ascending key and out-of-order key after the index was loaded
+			index.append(10, 10);
+			index.append(30, 20);
+			index.append(20, 40);
+
+			assertEquals(3, index.size());
+			assertEquals(20, index.higherKey(10));
+			assertArrayEquals(new long[] { 0, 10, 10, 10 }, index.getRanges(10));
+			assertArrayEquals(new long[] { 40, 60 }, index.getRanges(20));
+			assertArrayEquals(new long[] { 20, 20 }, index.getRanges(30));
+			index.close();
+		}
+	}
+
+
+	@Test
+	void testReload() throws IOException
+	{
+		Path indexFile = tmp.resolve("test.index");
+		try (FileChannel db = createDb(100))
+		{
+			PersistenceIndex index = new PersistenceIndex(indexFile, db);
+			index.append(30, 0);
+			index.append(10, 30);
+			index.append(30, 50);
+			index.close();
+
+			PersistenceIndex reloaded = new PersistenceIndex(indexFile, db);
+			assertEquals(2, reloaded.size());
+			assertEquals(10, reloaded.firstKey());
+			assertArrayEquals(new long[] { 0, 30, 50, 50 }, reloaded.getRanges(30));
+			reloaded.close();
+		}
+	}
+
+
+	private FileChannel createDb(int size) throws IOException
+	{
+		Path dbFile = tmp.resolve("test.db");
+		Files.write(dbFile, new byte[size]);
+		return FileChannel.open(dbFile, StandardOpenOption.READ);
+	}
+}
@@ -0,0 +1,92 @@
+package edu.tigers.sumatra.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class PersistenceKeyTimelineTest
+{
+	@Test
+	void testEmpty()
+	{
+		PersistenceKeyTimeline timeline = PersistenceKeyTimeline.merge(List.of(new long[0], new long[0]));
+		assertEquals(0, timeline.size());
+		assertEquals(PersistenceIndex.NO_KEY, timeline.firstKey());
+		assertEquals(PersistenceIndex.NO_KEY, timeline.lastKey());
+		assertEquals(PersistenceIndex.NO_KEY, timeline.nearestKey(42));
+		assertEquals(PersistenceIndex.NO_KEY, timeline.higherKey(42));
+	}
+
+
+	@Test
+	void testMerge()
+	{
+		PersistenceKeyTimeline timeline = PersistenceKeyTimeline.merge(List.of(
+				new long[] { 10, 30, 50 },
+				new long[] { 20, 30, 60 },
+				new long[] { 5 }
+		));
+
+		assertEquals(6, timeline.size());
+		assertEquals(5, timeline.firstKey());
+		assertEquals(60, timeline.lastKey());
+		assertEquals(3, timeline.indexOf(30));
+		assertEquals(-1, timeline.indexOf(31));
+		assertEquals(20, timeline.keyAt(2));
+	}
+
+
+	@Test
+	void testKeyLookup()
+	{
+		PersistenceKeyTimeline timeline = PersistenceKeyTimeline.of(new long[] { 10, 20, 30 });
+
+		assertEquals(10, timeline.lowerKey(20));
+		assertEquals(20, timeline.lowerKey(25));
+		assertEquals(30, timeline.higherKey(20));
+		assertEquals(30, timeline.higherKey(25));
+		assertEquals(PersistenceIndex.NO_KEY, timeline.lowerKey(10));
+		assertEquals(PersistenceIndex.NO_KEY, timeline.higherKey(30));
+		assertEquals(20, timeline.nearestKey(24));
+		assertEquals(30, timeline.nearestKey(26));
+		assertEquals(20, timeline.nearestKey(25));
+		assertEquals(20, timeline.nearestKey(20));
+		assertEquals(10, timeline.nearestKey(-100));
+		assertEquals(30, timeline.nearestKey(100));
+	}
+
+
+	@Test
+	void testAppend()
+	{
+		PersistenceKeyTimeline first = PersistenceKeyTimeline.empty().append(new long[] { 10, 20 });
+		PersistenceKeyTimeline second = first.append(new long[] { 30 });
+		PersistenceKeyTimeline third = second.append(new long[0]);
+
+		assertEquals(third, second);
+		assertEquals(3, second.size());
+		assertEquals(30, second.lastKey());
+		assertEquals(30, second.higherKey(20));
+
+		// the older timelines do not see the appended keys
+		assertEquals(2, first.size());
+		assertEquals(20, first.lastKey());
+		assertEquals(PersistenceIndex.NO_KEY, first.higherKey(20));
+		assertEquals(20, first.nearestKey(30));
+		assertThrows(IndexOutOfBoundsException.class, () -> first.keyAt(2));
+
+		// appending to an older timeline again must not change the newer ones
+		PersistenceKeyTimeline fourth = second.append(new long[] { 40 });
+		PersistenceKeyTimeline other = second.append(new long[] { 35, 36 });
+		assertEquals(40, fourth.keyAt(3));
+		assertEquals(35, other.keyAt(3));
+		assertEquals(5, other.size());
+		assertEquals(30, second.keyAt(2));
+
+		assertThrows(IllegalArgumentException.class, () -> second.append(new long[] { 30 }));
+	}
+}
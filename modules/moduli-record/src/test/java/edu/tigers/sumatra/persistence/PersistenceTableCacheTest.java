@@ -0,0 +1,144 @@
+package edu.tigers.sumatra.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+class PersistenceTableCacheTest
+{
+	private static final int NUM_ENTRIES = 100;
+	private static final Executor NO_PREFETCH = r -> {
+		throw new RejectedExecutionException();
+	};
+	private static final Executor DIRECT_PREFETCH = Runnable::run;
+
+	@TempDir
+	private Path tmp;
+
+	private PersistenceTable<Entry> table;
+
+
+	@BeforeEach
+	void setUp() throws IOException
+	{
+		table = new PersistenceTable<>(Entry.class, tmp, EPersistenceKeyType.ARBITRARY);
+		for (int i = 1; i <= NUM_ENTRIES; i++)
+		{
+			table.write(new Entry(i, 10 * i));
+		}
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		table.close();
+	}
+
+
+	@Test
+	void testHitAndMiss()
+	{
+		try (PersistenceTableCache<Entry> cache = new PersistenceTableCache<>(table, NO_PREFETCH, 10, 5))
+		{
+			assertEquals(new Entry(10, 100), cache.get(10));
+			assertEquals(0, cache.getNumHits());
+			assertEquals(1, cache.getNumMisses());
+
+			assertEquals(new Entry(10, 100), cache.get(10));
+			assertEquals(1, cache.getNumHits());
+			assertEquals(1, cache.getNumMisses());
+
+			// only exact keys are resolved
+			assertNull(cache.get(NUM_ENTRIES + 1));
+			assertEquals(1, cache.getNumHits());
+			assertEquals(1, cache.getNumMisses());
+
+			cache.clear();
+			assertEquals(new Entry(10, 100), cache.get(10));
+			assertEquals(2, cache.getNumMisses());
+		}
+	}
+
+
+	@Test
+	void testEviction()
+	{
+		try (PersistenceTableCache<Entry> cache = new PersistenceTableCache<>(table, NO_PREFETCH, 3, 1))
+		{
+			for (int key = 1; key <= 4; key++)
+			{
+				cache.get(key);
+			}
+			assertEquals(4, cache.getNumMisses());
+
+			// the most recently used entries are kept
+			cache.get(4);
+			cache.get(2);
+			assertEquals(2, cache.getNumHits());
+
+			// the least recently used entry was evicted
+			assertEquals(new Entry(1, 10), cache.get(1));
+			assertEquals(5, cache.getNumMisses());
+		}
+	}
+
+
+	@Test
+	void testPrefetchInPlaybackDirection()
+	{
+		try (PersistenceTableCache<Entry> cache = new PersistenceTableCache<>(table, DIRECT_PREFETCH, 50, 10))
+		{
+			cache.get(50);
+			cache.get(48);
+			assertEquals(2, cache.getNumMisses());
+
+			// backwards with a step of two
+			for (int key = 46; key >= 30; key -= 2)
+			{
+				assertEquals(new Entry(key, 10 * key), cache.get(key));
+			}
+			assertEquals(9, cache.getNumHits());
+			assertEquals(2, cache.getNumMisses());
+		}
+	}
+
+
+	@Test
+	void testNewKeys()
+	{
+		try (PersistenceTableCache<Entry> cache = new PersistenceTableCache<>(table, NO_PREFETCH, 10, 5))
+		{
+			assertNull(cache.get(NUM_ENTRIES + 10));
+
+			// appended while recording
+			table.write(new Entry(NUM_ENTRIES + 10, 1));
+			assertEquals(new Entry(NUM_ENTRIES + 10, 1), cache.get(NUM_ENTRIES + 10));
+
+			// added before the last key
+			table.write(new Entry(NUM_ENTRIES + 5, 2));
+			assertEquals(new Entry(NUM_ENTRIES + 5, 2), cache.get(NUM_ENTRIES + 5));
+			assertEquals(new Entry(NUM_ENTRIES + 10, 1), cache.get(NUM_ENTRIES + 10));
+		}
+	}
+
+
+	record Entry(long key, int value) implements PersistenceTable.IEntry<Entry>
+	{
+		@Override
+		public long getKey()
+		{
+			return key;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package edu.tigers.sumatra.persistence;
+
+import edu.tigers.sumatra.persistence.PersistenceTableCacheTest.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class PersistenceTableTest
+{
+	private static final int NUM_ENTRIES = 1000;
+
+	@TempDir
+	private Path tmp;
+
+
+	@Test
+	void testGetAfterClose() throws IOException
+	{
+		PersistenceTable<Entry> table = createTable();
+		assertEquals(new Entry(1, 10), table.get(1));
+		table.close();
+
+		assertThrows(IllegalStateException.class, () -> table.get(1));
+		// closing twice is fine
+		table.close();
+	}
+
+
+	@Test
+	void testCloseWhileReading() throws IOException, InterruptedException, ExecutionException
+	{
+		PersistenceTable<Entry> table = createTable();
+		ExecutorService readers = Executors.newFixedThreadPool(4);
+		CountDownLatch reading = new CountDownLatch(4);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+		{
+			results.add(readers.submit(() -> readUntilClosed(table, reading)));
+		}
+		reading.await();
+		table.close();
+
+		for (Future<Integer> result : results)
+		{
+			// every read either returned the complete entry or was rejected
+			assertEquals(0, result.get());
+		}
+		readers.shutdown();
+	}
+
+
+	private PersistenceTable<Entry> createTable() throws IOException
+	{
+		PersistenceTable<Entry> table = new PersistenceTable<>(Entry.class, tmp, EPersistenceKeyType.ARBITRARY);
+		for (int i = 1; i <= NUM_ENTRIES; i++)
+		{
+			table.write(new Entry(i, 10 * i));
+		}
+		return table;
+	}
+
+
+	/**
+	 * @return the number of wrong entries
+	 */
+	private static int readUntilClosed(PersistenceTable<Entry> table, CountDownLatch reading)
+	{
+		int wrongEntries = 0;
+		reading.countDown();
+		for (int i = 0; ; i++)
+		{
+			int key = 1 + i % NUM_ENTRIES;
+			try
+			{
+				if (!new Entry(key, 10 * key).equals(table.get(key)))
+				{
+					wrongEntries++;
+				}
+			} catch (IllegalStateException e)
+			{
+				return wrongEntries;
+			}
+		}
+	}
+}
@@ -30,6 +30,8 @@ public class MessageSigner
 
 	private PrivateKey privateKey;
 	private PublicKey publicKey;
+	/** initialized for signing with the private key and reused for all signatures, guarded by this */
+	private Signature signature;
 
 
 	/**
@@ -51,6 +53,26 @@ public class MessageSigner
 	{
 		this.privateKey = getPrivateKey(privateKey);
 		this.publicKey = getPublicKey(publicKey);
+		// prepare the signature now, so that the first message does not have to wait for it
+		prepareSignature();
+	}
+
+
+	private synchronized Signature prepareSignature()
+	{
+		if (signature == null && privateKey != null)
+		{
+			try
+			{
+				Signature sig = Signature.getInstance(SIGNING_ALGORITHM);
+				sig.initSign(privateKey);
+				signature = sig;
+			} catch (NoSuchAlgorithmException | InvalidKeyException e)
+			{
+				log.warn("Preparing message signature failed", e);
+			}
+		}
+		return signature;
 	}
 
 
@@ -122,7 +144,7 @@ public class MessageSigner
 	 * @param data Data that should be signed
 	 * @return The generated signature
 	 */
-	public byte[] sign(byte[] data)
+	public synchronized byte[] sign(byte[] data)
 	{
 		if (privateKey == null)
 		{
@@ -130,15 +152,20 @@ public class MessageSigner
 			return new byte[0];
 		}
 
+		Signature sig = prepareSignature();
+		if (sig == null)
+		{
+			return new byte[0];
+		}
 		try
 		{
-			Signature sig = Signature.getInstance(SIGNING_ALGORITHM);
-			sig.initSign(privateKey);
+			// the signature is reset to the initialized state by sign(), so it can be reused
 			sig.update(data);
 			return sig.sign();
-		} catch (NoSuchAlgorithmException | SignatureException | InvalidKeyException e)
+		} catch (SignatureException e)
 		{
 			log.warn("Message signing failed", e);
+			signature = null;
 		}
 
 		return new byte[0];
@@ -29,6 +29,10 @@ public class SimilarityChecker
 
 	private boolean similarLocation(IVector2 p1, IVector2 p2)
 	{
+		if (p1 == null || p2 == null)
+		{
+			return p1 == p2;
+		}
 		return p1.distanceTo(p2) < 500;
 	}
 
@@ -26,4 +26,19 @@ public class SimilarityCheckerTest
 		assertThat(checker.isSimilar(aimlessKick1, aimlessKick2)).isTrue();
 		assertThat(checker.isSimilar(aimlessKick1, aimlessKick3)).isFalse();
 	}
+
+
+	@Test
+	public void unknownLocation()
+	{
+		SimilarityChecker checker = new SimilarityChecker().initAllGameEvents();
+
+		var aimlessKick1 = new AimlessKick(BotID.createBotId(1, ETeamColor.YELLOW), null, Vector2.fromXY(3, 4));
+		var aimlessKick2 = new AimlessKick(BotID.createBotId(1, ETeamColor.YELLOW), null, Vector2.fromXY(3, 4));
+		var aimlessKick3 = new AimlessKick(BotID.createBotId(1, ETeamColor.YELLOW), Vector2.fromXY(1, 2),
+				Vector2.fromXY(3, 4));
+		assertThat(checker.isSimilar(aimlessKick1, aimlessKick2)).isTrue();
+		assertThat(checker.isSimilar(aimlessKick1, aimlessKick3)).isFalse();
+		assertThat(checker.isSimilar(aimlessKick3, aimlessKick1)).isFalse();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package edu.tigers.sumatra.vision.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Run the vision benchmarks with the gc profiler, so that the allocation rate is reported.
+ * Accepts the usual JMH command line options, e.g. "-p logFile=path/to/log.gz" to select the game log.
+ */
+public final class VisionBenchmarkRunner
+{
+	private VisionBenchmarkRunner()
+	{
+	}
+
+
+	public static void main(final String[] args) throws Exception
+	{
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		if (cmdOptions.shouldHelp())
+		{
+			cmdOptions.showHelp();
+			return;
+		}
+
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(cmdOptions);
+		if (cmdOptions.getIncludes().isEmpty())
+		{
+			options.include(VisionFilterBenchmark.class.getName());
+		}
+		boolean gcProfilerEnabled = cmdOptions.getProfilers().stream()
+				.anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+		if (!gcProfilerEnabled)
+		{
+			options.addProfiler(GCProfiler.class);
+		}
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,230 @@
+package edu.tigers.sumatra.vision.benchmark;
+
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.vision.VisionFilterImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmarks of the vision filter, driven by the detection frames of a recorded game log.
+ * Each invocation processes a single detection frame. When the end of the log is reached, it is replayed
+ * with fresh filter state. The robot infos are fed back from the filtered frames, see
+ * {@link VisionPipeline#createRobotInfos}.
+ * <p>
+ * The sample time mode reports the latency percentiles per frame, the gc profiler (enabled by
+ * {@link VisionBenchmarkRunner}) reports the allocation rate.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VisionFilterBenchmark
+{
+	/**
+	 * The shared, decoded game log
+	 */
+	@State(Scope.Benchmark)
+	public static class LogState
+	{
+		@Param("data/benchmark/vision.log")
+		public String logFile;
+
+		@Param("20000")
+		public int maxFrames;
+
+		private VisionLog visionLog;
+
+
+		@Setup(Level.Trial)
+		public void load()
+		{
+			visionLog = VisionLog.load(Path.of(logFile), maxFrames);
+		}
+	}
+
+	/**
+	 * Replays the log through the complete, unthreaded vision filter
+	 */
+	@State(Scope.Thread)
+	public static class FilterState
+	{
+		private VisionLog visionLog;
+		private VisionFilterImpl visionFilter;
+		private int next;
+
+
+		@Setup(Level.Trial)
+		public void setup(final LogState logState)
+		{
+			visionLog = logState.visionLog;
+			visionFilter = createVisionFilter();
+			next = 0;
+		}
+
+
+		private static VisionFilterImpl createVisionFilter()
+		{
+			VisionFilterImpl filter = new VisionFilterImpl();
+			filter.getFilteredVisionFrame().subscribe("benchmark", frame -> filter.setRobotInfoMap(
+					VisionPipeline.createRobotInfos(frame.getBots(), frame.getTimestamp())));
+			return filter;
+		}
+
+
+		private CamDetectionFrame nextFrame()
+		{
+			while (true)
+			{
+				if (next >= visionLog.size())
+				{
+					visionFilter = createVisionFilter();
+					next = 0;
+				}
+				VisionLog.Entry entry = visionLog.get(next++);
+				if (entry.frame() != null)
+				{
+					return entry.frame();
+				}
+				Geometry.update(entry.geometry());
+				visionFilter.onNewCameraGeometry(entry.geometry());
+			}
+		}
+	}
+
+	/**
+	 * Replays the log through the {@link VisionPipeline}
+	 */
+	@State(Scope.Thread)
+	public static class PipelineState
+	{
+		private VisionLog visionLog;
+		private VisionPipeline pipeline;
+		private int next;
+
+
+		@Setup(Level.Trial)
+		public void setup(final LogState logState)
+		{
+			visionLog = logState.visionLog;
+			pipeline = new VisionPipeline();
+			next = 0;
+		}
+
+
+		private VisionPipeline startNextFrame()
+		{
+			while (true)
+			{
+				if (next >= visionLog.size())
+				{
+					pipeline = new VisionPipeline();
+					next = 0;
+				}
+				VisionLog.Entry entry = visionLog.get(next++);
+				if (entry.frame() != null)
+				{
+					pipeline.startFrame(entry.frame());
+					return pipeline;
+				}
+				pipeline.updateGeometry(entry.geometry());
+			}
+		}
+	}
+
+	/**
+	 * The average time per frame of each stage of the {@link VisionPipeline} within an iteration.
+	 * The stages are timed inside the benchmark, so that no per-invocation setup is needed.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class StageTimes
+	{
+		private final long[] totalTimes = new long[VisionPipeline.EStage.values().length];
+		private long numFrames;
+
+
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			Arrays.fill(totalTimes, 0);
+			numFrames = 0;
+		}
+
+
+		private double getAverageTimeUs(final VisionPipeline.EStage stage)
+		{
+			return numFrames == 0 ? 0 : totalTimes[stage.ordinal()] / 1e3 / numFrames;
+		}
+
+
+		public double camFilterUs()
+		{
+			return getAverageTimeUs(VisionPipeline.EStage.CAM_FILTER);
+		}
+
+
+		public double mergeRobotsUs()
+		{
+			return getAverageTimeUs(VisionPipeline.EStage.MERGE_ROBOTS);
+		}
+
+
+		public double qualityInspectorUs()
+		{
+			return getAverageTimeUs(VisionPipeline.EStage.QUALITY_INSPECTOR);
+		}
+
+
+		public double ballPreprocessorUs()
+		{
+			return getAverageTimeUs(VisionPipeline.EStage.BALL_PREPROCESSOR);
+		}
+
+
+		public double ballFilterUs()
+		{
+			return getAverageTimeUs(VisionPipeline.EStage.BALL_FILTER);
+		}
+	}
+
+
+	@Benchmark
+	public void visionFilter(final FilterState state)
+	{
+		state.visionFilter.onNewCamDetectionFrame(state.nextFrame());
+	}
+
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public void stages(final PipelineState state, final StageTimes times)
+	{
+		VisionPipeline pipeline = state.startNextFrame();
+		for (VisionPipeline.EStage stage : VisionPipeline.EStage.values())
+		{
+			long tStart = System.nanoTime();
+			pipeline.run(stage);
+			times.totalTimes[stage.ordinal()] += System.nanoTime() - tStart;
+		}
+		pipeline.finishFrame();
+		times.numFrames++;
+	}
+}
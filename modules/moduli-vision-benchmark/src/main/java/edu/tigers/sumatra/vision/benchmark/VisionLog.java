@@ -0,0 +1,132 @@
+package edu.tigers.sumatra.vision.benchmark;
+
+import edu.tigers.sumatra.cam.CamDetectionConverter;
+import edu.tigers.sumatra.cam.CamObjectFilter;
+import edu.tigers.sumatra.cam.SSLVisionCamGeometryTranslator;
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+
+/**
+ * The vision messages of a recorded game log, converted like in {@link edu.tigers.sumatra.cam.ACam}
+ * and kept in memory, so that they can be replayed without any IO or protobuf parsing.
+ */
+@Log4j2
+public final class VisionLog
+{
+	private final List<Entry> entries;
+	private final int numFrames;
+
+
+	private VisionLog(final List<Entry> entries)
+	{
+		this.entries = entries;
+		this.numFrames = (int) entries.stream().filter(e -> e.frame() != null).count();
+	}
+
+
+	/**
+	 * Load the vision messages of a game log
+	 *
+	 * @param logFile   the game log (optionally gzipped)
+	 * @param maxFrames the maximum number of detection frames to load
+	 * @return the loaded messages
+	 */
+	public static VisionLog load(final Path logFile, final int maxFrames)
+	{
+		if (!Files.exists(logFile))
+		{
+			throw new IllegalArgumentException("Vision log " + logFile.toAbsolutePath() + " does not exist");
+		}
+		var geometryTranslator = new SSLVisionCamGeometryTranslator();
+		var camDetectionConverter = new CamDetectionConverter();
+		var camObjectFilter = new CamObjectFilter();
+
+		List<Entry> entries = new ArrayList<>();
+		int numFrames = 0;
+		try (GameLogReader reader = new GameLogReader())
+		{
+			reader.addFilter(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_VISION_2014)));
+			reader.openFile(logFile.toAbsolutePath().toString());
+			for (int i = 0; i < reader.getNumMessages() && numFrames < maxFrames; i++)
+			{
+				SslVisionWrapper.SSL_WrapperPacket packet;
+				try
+				{
+					packet = SslVisionWrapper.SSL_WrapperPacket.parseFrom(reader.getMessage(i).getData());
+				} catch (IOException e)
+				{
+					log.warn("Skipping invalid vision message {}", i, e);
+					continue;
+				}
+				if (packet.hasGeometry())
+				{
+					entries.add(new Entry(geometryTranslator.fromProtobuf(packet.getGeometry()), null));
+				}
+				if (packet.hasDetection())
+				{
+					var frame = camDetectionConverter.convertDetectionFrame(packet.getDetection());
+					entries.add(new Entry(null, camObjectFilter.filter(frame)));
+					numFrames++;
+				}
+			}
+		} catch (IOException e)
+		{
+			throw new UncheckedIOException("Could not read " + logFile, e);
+		}
+		if (numFrames == 0)
+		{
+			throw new IllegalArgumentException("Vision log " + logFile + " does not contain any detection frames");
+		}
+		log.info("Loaded {} detection frames from {}", numFrames, logFile);
+		return new VisionLog(List.copyOf(entries));
+	}
+
+
+	/**
+	 * @return the number of entries (geometry and detection frames)
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+
+	/**
+	 * @return the number of detection frames
+	 */
+	public int getNumFrames()
+	{
+		return numFrames;
+	}
+
+
+	public Entry get(final int index)
+	{
+		return entries.get(index);
+	}
+
+
+	/**
+	 * A single vision message: either a geometry or a detection frame
+	 *
+	 * @param geometry the geometry or null
+	 * @param frame    the detection frame or null
+	 */
+	public record Entry(CamGeometry geometry, CamDetectionFrame frame)
+	{
+	}
+}
@@ -0,0 +1,174 @@
+package edu.tigers.sumatra.vision.benchmark;
+
+import edu.tigers.sumatra.bot.RobotInfo;
+import edu.tigers.sumatra.cam.data.CamCalibration;
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.drawable.ShapeMap;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.vision.BallFilter;
+import edu.tigers.sumatra.vision.BallFilter.BallFilterOutput;
+import edu.tigers.sumatra.vision.BallFilterPreprocessor;
+import edu.tigers.sumatra.vision.BallFilterPreprocessor.BallFilterPreprocessorOutput;
+import edu.tigers.sumatra.vision.CamFilter;
+import edu.tigers.sumatra.vision.CamFilterMerger;
+import edu.tigers.sumatra.vision.QualityInspector;
+import edu.tigers.sumatra.vision.ViewportArchitect;
+import edu.tigers.sumatra.vision.data.FilteredVisionBot;
+import edu.tigers.sumatra.vision.data.FilteredVisionFrame;
+import edu.tigers.sumatra.vision.tracker.BallTracker;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * The processing steps of the VisionFilterImpl for a single detection frame, split into stages,
+ * so that each stage can be measured on its own.
+ * Virtual balls and the robot quality inspection are not part of this pipeline.
+ * The robot infos are created from the merged robots of the last frame, like in an offline world info processor
+ * without connected robots.
+ */
+public class VisionPipeline
+{
+	/**
+	 * The stages in processing order
+	 */
+	public enum EStage
+	{
+		CAM_FILTER,
+		MERGE_ROBOTS,
+		QUALITY_INSPECTOR,
+		BALL_PREPROCESSOR,
+		BALL_FILTER,
+	}
+
+	private final ViewportArchitect viewportArchitect = new ViewportArchitect();
+	private final Map<Integer, CamFilter> cams = new TreeMap<>();
+	private final QualityInspector qualityInspector = new QualityInspector();
+	private final BallFilterPreprocessor ballFilterPreprocessor = new BallFilterPreprocessor();
+	private final BallFilter ballFilter = new BallFilter();
+
+	private FilteredVisionFrame lastFrame = FilteredVisionFrame.createEmptyFrame();
+	private Map<BotID, RobotInfo> robotInfos = Map.of();
+
+	// intermediate results of the current frame
+	private CamDetectionFrame frame;
+	private CamFilter camFilter;
+	private long timestamp;
+	private List<FilteredVisionBot> mergedRobots = List.of();
+	private BallFilterPreprocessorOutput preprocessorOutput;
+	private BallFilterOutput ballFilterOutput;
+
+
+	/**
+	 * Apply a new geometry
+	 *
+	 * @param geometry the geometry
+	 */
+	public void updateGeometry(final CamGeometry geometry)
+	{
+		Geometry.update(geometry);
+		for (CamCalibration c : geometry.getCameraCalibrations().values())
+		{
+			CamFilter filter = cams.get(c.getCameraId());
+			if (filter != null)
+			{
+				filter.update(c);
+			}
+		}
+		qualityInspector.inspectCameraGeometry(geometry);
+		viewportArchitect.newCameraGeometry(geometry);
+		cams.values().forEach(c -> c.update(geometry.getFieldSize()));
+	}
+
+
+	/**
+	 * Start processing a new detection frame
+	 *
+	 * @param camDetectionFrame the detection frame
+	 */
+	public void startFrame(final CamDetectionFrame camDetectionFrame)
+	{
+		frame = camDetectionFrame;
+		viewportArchitect.newDetectionFrame(frame);
+		camFilter = cams.computeIfAbsent(frame.getCameraId(), CamFilter::new);
+		camFilter.updateViewport(viewportArchitect.getViewport(frame.getCameraId()));
+		camFilter.setRobotInfoMap(robotInfos);
+	}
+
+
+	/**
+	 * Create the robot infos for the robots of a filtered frame, as they are known without connected robots
+	 *
+	 * @param bots      the robots of the filtered frame
+	 * @param timestamp the timestamp of the filtered frame
+	 * @return a stub robot info per robot
+	 */
+	public static Map<BotID, RobotInfo> createRobotInfos(final List<FilteredVisionBot> bots, final long timestamp)
+	{
+		return bots.stream()
+				.map(bot -> RobotInfo.stub(bot.getBotID(), timestamp))
+				.collect(Collectors.toUnmodifiableMap(RobotInfo::getBotId, Function.identity()));
+	}
+
+
+	/**
+	 * Run a single stage
+	 *
+	 * @param stage the stage
+	 */
+	public void run(final EStage stage)
+	{
+		switch (stage)
+		{
+			case CAM_FILTER -> camFilter.update(frame, lastFrame, List.of());
+			case MERGE_ROBOTS -> mergeRobots();
+			case QUALITY_INSPECTOR ->
+			{
+				qualityInspector.inspectRobots(cams.values(), timestamp);
+				qualityInspector.inspectCameras(cams.values());
+			}
+			case BALL_PREPROCESSOR ->
+			{
+				List<BallTracker> ballTrackers = cams.values().stream()
+						.flatMap(f -> f.getBalls().stream())
+						.toList();
+				preprocessorOutput = ballFilterPreprocessor.update(lastFrame.getBall(), ballTrackers, mergedRobots,
+						robotInfos, timestamp);
+			}
+			case BALL_FILTER -> ballFilterOutput = ballFilter.update(preprocessorOutput, lastFrame.getBall(), timestamp);
+		}
+	}
+
+
+	private void mergeRobots()
+	{
+		CamFilterMerger.removeOutdatedCamFilters(cams.values());
+		timestamp = CamFilterMerger.getTimestamp(cams.values(), lastFrame.getTimestamp());
+		mergedRobots = CamFilterMerger.mergeRobots(cams.values(), timestamp);
+	}
+
+
+	/**
+	 * Finish the frame, after all stages were run
+	 */
+	public void finishFrame()
+	{
+		lastFrame = FilteredVisionFrame.builder()
+				.withId(lastFrame.getId() + 1)
+				.withTimestamp(timestamp)
+				.withBall(ballFilterOutput.getFilteredBall())
+				.withBots(mergedRobots)
+				.withKick(ballFilterOutput.getFilteredKick())
+				.withShapeMap(new ShapeMap())
+				.build();
+		qualityInspector.inspectFilteredVisionFrame(lastFrame);
+		viewportArchitect.updateCameras(cams.keySet());
+		robotInfos = createRobotInfos(mergedRobots, timestamp);
+	}
+}
@@ -114,6 +114,16 @@ public abstract class AVisionFilter extends AModule implements ICamFrameObserver
 	}
 
 
+	@Override
+	public void initModule()
+	{
+		// isolate slow subscribers (e.g. the GUI) from the publisher and from each other
+		boolean asyncDispatch = getSubnodeConfiguration().getBoolean("asyncDispatch", false);
+		filteredVisionFrame.setAsyncDispatch(asyncDispatch);
+		viewportFrame.setAsyncDispatch(asyncDispatch);
+	}
+
+
 	@Override
 	public void stopModule()
 	{
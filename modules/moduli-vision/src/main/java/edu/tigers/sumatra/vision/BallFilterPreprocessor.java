@@ -15,12 +15,15 @@ import edu.tigers.sumatra.math.line.ILineSegment;
 import edu.tigers.sumatra.math.line.Lines;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
+import edu.tigers.sumatra.thread.NamedThreadFactory;
+import edu.tigers.sumatra.time.LatencyHistogram;
 import edu.tigers.sumatra.vision.data.FilteredVisionBall;
 import edu.tigers.sumatra.vision.data.FilteredVisionBot;
 import edu.tigers.sumatra.vision.data.IBallModelIdentificationObserver;
 import edu.tigers.sumatra.vision.data.KickEvent;
 import edu.tigers.sumatra.vision.kick.detectors.EarlyKickDetector;
 import edu.tigers.sumatra.vision.kick.detectors.KickDetector;
+import edu.tigers.sumatra.vision.kick.estimators.AsyncKickEstimator;
 import edu.tigers.sumatra.vision.kick.estimators.ChipKickEstimator;
 import edu.tigers.sumatra.vision.kick.estimators.EKickEstimatorType;
 import edu.tigers.sumatra.vision.kick.estimators.IBallModelIdentResult;
@@ -42,6 +45,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 
@@ -58,6 +63,12 @@ public class BallFilterPreprocessor
 	private static double minSearchRadius = 300.0;
 	@Configurable(defValue = "0.2", comment = "Factor by which a estimator must be better than the last one to use it", unit = EConfigUnit.FACTOR)
 	private static double estimatorSwitchHysteresis = 0.2;
+	@Configurable(defValue = "false", comment = "Run the kick estimator fits asynchronously on a solver pool")
+	private static boolean asyncKickEstimators = false;
+	@Configurable(defValue = "0.002", comment = "Time per frame to wait for running kick estimator fits before the latest finished fit is used", unit = EConfigUnit.TIME_S)
+	private static double kickEstimatorTimeBudget = 0.002;
+	@Configurable(defValue = "2", comment = "Number of threads of the kick estimator solver pool (requires restart)", unit = EConfigUnit.COUNT)
+	private static int kickEstimatorThreads = 2;
 
 	static
 	{
@@ -68,6 +79,10 @@ public class BallFilterPreprocessor
 	private final KickDetectors kickDetectors = new KickDetectors();
 	private final KickEstimators kickEstimators = new KickEstimators();
 	private final List<IBallModelIdentificationObserver> observers = new CopyOnWriteArrayList<>();
+	private final LatencyHistogram kickFitTime = new LatencyHistogram();
+	private final LatencyHistogram kickFitStaleness = new LatencyHistogram();
+	@SuppressWarnings("java:S3077") // only the reference is shared with the thread calling shutdown()
+	private volatile ExecutorService kickEstimatorPool;
 
 
 	/**
@@ -124,6 +139,39 @@ public class BallFilterPreprocessor
 	}
 
 
+	/**
+	 * Stop the solver pool of the asynchronous kick estimators.
+	 * Estimators that are still alive fit synchronously afterwards, new estimators get a new pool.
+	 */
+	public void shutdown()
+	{
+		ExecutorService pool = kickEstimatorPool;
+		kickEstimatorPool = null;
+		if (pool != null)
+		{
+			pool.shutdown();
+		}
+	}
+
+
+	/**
+	 * @return the durations of the asynchronous kick estimator fits
+	 */
+	public LatencyHistogram getKickFitTime()
+	{
+		return kickFitTime;
+	}
+
+
+	/**
+	 * @return per frame and asynchronous kick estimator: the age of the used fit in cam ball time
+	 */
+	public LatencyHistogram getKickFitStaleness()
+	{
+		return kickFitStaleness;
+	}
+
+
 	public List<IDrawableShape> getShapes()
 	{
 		List<IDrawableShape> shapes = new ArrayList<>();
@@ -351,6 +399,7 @@ public class BallFilterPreprocessor
 				// add cam ball to all estimators
 				estimators.forEach(k -> k.addCamBall(ball.getLatestCamBall().get()));
 			}
+			awaitAsyncFits();
 
 			estimators.stream()
 					.filter(e -> e.isDone(mergedRobots, timestamp))
@@ -381,6 +430,39 @@ public class BallFilterPreprocessor
 		}
 
 
+		/**
+		 * Wait for the running fits within the time budget of this frame and record how stale the used fits are.
+		 */
+		private void awaitAsyncFits()
+		{
+			long deadline = System.nanoTime() + (long) (kickEstimatorTimeBudget * 1e9);
+			for (IKickEstimator estimator : estimators)
+			{
+				if (estimator instanceof AsyncKickEstimator asyncEstimator)
+				{
+					asyncEstimator.awaitFit(deadline);
+					kickFitStaleness.record(asyncEstimator.getStaleness());
+				}
+			}
+		}
+
+
+		private IKickEstimator createEstimator(final IKickEstimator estimator)
+		{
+			if (!asyncKickEstimators)
+			{
+				return estimator;
+			}
+			ExecutorService pool = kickEstimatorPool;
+			if (pool == null || pool.isShutdown())
+			{
+				pool = Executors.newFixedThreadPool(kickEstimatorThreads, new NamedThreadFactory("KickEstimator Solver"));
+				kickEstimatorPool = pool;
+			}
+			return new AsyncKickEstimator(estimator, pool, kickFitTime);
+		}
+
+
 		@SuppressWarnings("squid:MethodCyclomaticComplexity")
 		private void updateEstimators(final KickEvent kickEvent,
 				final Map<BotID, RobotInfo> robotInfos, final long timestamp)
@@ -421,9 +503,10 @@ public class BallFilterPreprocessor
 				log.debug("Speed: {}", kickRobotInfo.getKickSpeed() * 1000.0);
 
 				// always spawn a new chip estimator if there is a kicking robot nearby
-				chipEstimator = new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(),
+				chipEstimator = createEstimator(new ChipKickEstimator(
+						Geometry.getLastCamGeometry().getCameraCalibrations(),
 						kickEvent, kickRobotInfo.getKickSpeed() * 1000.0,
-						kickRobotInfo.getBotParams().getKickerSpecs().getChipAngle());
+						kickRobotInfo.getBotParams().getKickerSpecs().getChipAngle()));
 
 				log.debug("Spawned chip estimator with prior knowledge from RobotInfo");
 			}
@@ -431,15 +514,16 @@ public class BallFilterPreprocessor
 			if ((chipEstimator == null) && !kickEvent.isEarlyDetection())
 			{
 				// spawn a new chip estimator if this is a slow kick detection event and no estimator exists yet
-				chipEstimator = new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(), kickEvent);
+				chipEstimator = createEstimator(
+						new ChipKickEstimator(Geometry.getLastCamGeometry().getCameraCalibrations(), kickEvent));
 
 				log.debug("Spawned chip estimator");
 			}
 
 			if (flatEstimator == null)
 			{
-				flatEstimator = new StraightKickEstimator(kickEvent,
-						filteredBallHistory.stream().toList());
+				flatEstimator = createEstimator(new StraightKickEstimator(kickEvent,
+						filteredBallHistory.stream().toList()));
 
 				log.debug("Spawned flat estimator");
 			}
@@ -455,8 +539,8 @@ public class BallFilterPreprocessor
 								> 500.0))
 				{
 					// large angle deviation or some distance away from last kick, spawn new estimator
-					flatEstimator = new StraightKickEstimator(kickEvent,
-							filteredBallHistory.stream().toList());
+					flatEstimator = createEstimator(new StraightKickEstimator(kickEvent,
+							filteredBallHistory.stream().toList()));
 					log.debug("Spawned flat estimator due to angle/pos deviation");
 				} else
 				{
@@ -19,6 +19,7 @@ import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.math.line.Lines;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.rectangle.Rectangle;
+import edu.tigers.sumatra.math.spatial.UniformGridIndex;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.IVector3;
 import edu.tigers.sumatra.math.vector.Vector2;
@@ -43,6 +44,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -59,6 +62,7 @@ public class CamFilter
 	private static final int FRAME_FILTER_NUM_SAMPLES = 100;
 	private static final int FRAME_FILTER_DIVIDER = 6;
 	private static final double MISSING_FRAME_TIMESPAN = 30.0;
+	private static final double SPATIAL_CELL_SIZE = 500.0;
 
 	private final FirstOrderMultiSampleEstimator frameIntervalFilter = new FirstOrderMultiSampleEstimator(
 			FRAME_FILTER_NUM_SAMPLES);
@@ -81,6 +85,11 @@ public class CamFilter
 
 	private final List<Long> missingFrameTimestamps = new CopyOnWriteArrayList<>();
 
+	// spatial indices, rebuilt for each frame
+	private final UniformGridIndex<FilteredVisionBot> mergedRobotIndex = new UniformGridIndex<>(SPATIAL_CELL_SIZE);
+	private final UniformGridIndex<RobotCollisionShape> collisionShapeIndex = new UniformGridIndex<>(SPATIAL_CELL_SIZE);
+	private final UniformGridIndex<BallTracker> ballTrackerIndex = new UniformGridIndex<>(SPATIAL_CELL_SIZE);
+
 	@Getter
 	private long lastBallOnCamTimestamp = 0;
 
@@ -339,6 +348,13 @@ public class CamFilter
 			r.predict(frame.getTimestamp(), getAverageFrameDt());
 		}
 
+		mergedRobotIndex.clear();
+		for (FilteredVisionBot m : mergedRobots)
+		{
+			mergedRobotIndex.add(m, m.getPos());
+		}
+		double closeTrackerDistance = Geometry.getBotRadius() * 1.5;
+
 		for (CamRobot r : frame.getRobots())
 		{
 			// ignore robots outside our viewport
@@ -349,9 +365,9 @@ public class CamFilter
 
 			// check if there are other robots very close by, could be a false vision detection then
 			// we filter out the robot with the cam bots id before to allow trackers at the same location
-			long numCloseTrackers = mergedRobots.stream()
+			long numCloseTrackers = mergedRobotIndex.getWithin(r.getPos(), closeTrackerDistance).stream()
 					.filter(m -> !m.getBotID().equals(r.getBotId()))
-					.filter(m -> m.getPos().distanceTo(r.getPos()) < (Geometry.getBotRadius() * 1.5)).count();
+					.filter(m -> m.getPos().distanceTo(r.getPos()) < closeTrackerDistance).count();
 
 			if (numCloseTrackers > 0)
 			{
@@ -406,13 +422,33 @@ public class CamFilter
 		balls.removeIf(e -> ((frame.getTimestamp() - e.getLastInFieldTimestamp()) * 1e-9) > invisibleLifetimeBall);
 
 		List<RobotCollisionShape> colShapes = getRobotCollisionShapes(mergedRobots);
+		collisionShapeIndex.clear();
+		double maxShapeRadius = 0;
+		for (RobotCollisionShape shape : colShapes)
+		{
+			collisionShapeIndex.add(shape, shape.getPos());
+			maxShapeRadius = Math.max(maxShapeRadius, shape.getRadius());
+		}
 
-		// do a prediction on all trackers
+		// do a prediction on all trackers, only shapes close to the ball can collide with it
 		for (BallTracker b : balls)
 		{
-			b.predict(frame.getTimestamp(), colShapes, ball.getPos().z() > maxHeightForCollision);
+			List<RobotCollisionShape> closeShapes = collisionShapeIndex.getWithin(
+					b.getFilter().getPositionEstimate(), maxShapeRadius);
+			b.predict(frame.getTimestamp(), closeShapes, ball.getPos().z() > maxHeightForCollision);
 		}
 
+		// index the predicted trackers by position. The trackers only accept balls within their max distance.
+		ballTrackerIndex.clear();
+		double searchRadius = 0;
+		for (BallTracker b : balls)
+		{
+			ballTrackerIndex.add(b, b.getFilter().getPositionEstimate());
+			searchRadius = b.getMaxDistance() > 0 ? Math.max(searchRadius, b.getMaxDistance()) : Double.POSITIVE_INFINITY;
+		}
+		// trackers that accepted a ball have moved and are offered all following balls
+		SortedSet<Integer> updatedTrackers = new TreeSet<>();
+
 		if (!frame.getBalls().isEmpty())
 		{
 			lastBallOnCamTimestamp = timestamp;
@@ -436,13 +472,19 @@ public class CamFilter
 
 			boolean consumed = false;
 
-			for (BallTracker t : balls)
+			SortedSet<Integer> candidates = new TreeSet<>(updatedTrackers);
+			for (int i : ballTrackerIndex.getIndicesWithin(b.getPos().getXYVector(), searchRadius))
+			{
+				candidates.add(i);
+			}
+			for (int i : candidates)
 			{
-				// offer ball to all trackers
-				if (t.update(b, fieldRect))
+				// offer ball to all trackers in reach
+				if (ballTrackerIndex.get(i).update(b, fieldRect))
 				{
 					// tracker accepted this ball
 					ballHistory.add(b);
+					updatedTrackers.add(i);
 					consumed = true;
 					break;
 				}
@@ -450,17 +492,17 @@ public class CamFilter
 
 			if (!consumed)
 			{
-				createNewBallTracker(b, ball);
+				createNewBallTracker(b, ball).ifPresent(t -> ballTrackerIndex.add(t, t.getFilter().getPositionEstimate()));
 			}
 		}
 	}
 
 
-	private void createNewBallTracker(final CamBall cam, final FilteredVisionBall filtBall)
+	private Optional<BallTracker> createNewBallTracker(final CamBall cam, final FilteredVisionBall filtBall)
 	{
 		if (balls.size() > maxBallTrackers)
 		{
-			return;
+			return Optional.empty();
 		}
 
 		// if this ball is not used by any other tracker we may do:
@@ -479,7 +521,9 @@ public class CamFilter
 			}
 			tracker.setMaxDistance(500);
 			balls.add(tracker);
+			return Optional.of(tracker);
 		}
+		return Optional.empty();
 	}
 
 
@@ -0,0 +1,76 @@
+package edu.tigers.sumatra.vision;
+
+import edu.tigers.sumatra.ids.BotID;
+import edu.tigers.sumatra.vision.data.FilteredVisionBot;
+import edu.tigers.sumatra.vision.tracker.RobotTracker;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+
+/**
+ * Merge the states of all camera filters into a single frame.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CamFilterMerger
+{
+	/**
+	 * Remove camera filters that are more than 0.5s away from the average timestamp of all camera filters.
+	 *
+	 * @param camFilters the camera filters, modified in place
+	 */
+	public static void removeOutdatedCamFilters(final Collection<CamFilter> camFilters)
+	{
+		// taking care of overflow in average()
+		long avgTimestamp = (long) (camFilters.stream()
+				.mapToDouble(c -> c.getTimestamp() / 1e9)
+				.average()
+				.orElse(0) * 1e9);
+		camFilters.removeIf(f -> Math.abs(avgTimestamp - f.getTimestamp()) / 1e9 > 0.5);
+	}
+
+
+	/**
+	 * @param camFilters    the camera filters
+	 * @param lastTimestamp the timestamp of the last merged frame
+	 * @return the newest timestamp of all camera filters, but not older than the last merged frame
+	 */
+	public static long getTimestamp(final Collection<CamFilter> camFilters, final long lastTimestamp)
+	{
+		long timestamp = camFilters.stream().mapToLong(CamFilter::getTimestamp).max().orElse(lastTimestamp);
+
+		// use newest timestamp to prevent negative delta time in filtered frames
+		return Math.max(lastTimestamp, timestamp);
+	}
+
+
+	/**
+	 * Merge the robots of all camera filters (robots on multiple cams).
+	 *
+	 * @param camFilters the camera filters
+	 * @param timestamp  the timestamp to predict the robots to
+	 * @return one merged robot per robot id
+	 */
+	public static List<FilteredVisionBot> mergeRobots(final Collection<CamFilter> camFilters, final long timestamp)
+	{
+		Map<BotID, List<RobotTracker>> trackersById = camFilters.stream()
+				.flatMap(f -> f.getValidRobots().values().stream())
+				// group trackers by BotID
+				.collect(Collectors.groupingBy(RobotTracker::getBotId));
+
+		List<FilteredVisionBot> mergedBots = new ArrayList<>(trackersById.size());
+
+		// merge all trackers in each group and get filtered vision bot from it
+		for (Map.Entry<BotID, List<RobotTracker>> entry : trackersById.entrySet())
+		{
+			mergedBots.add(RobotTracker.mergeRobotTrackers(entry.getKey(), entry.getValue(), timestamp));
+		}
+
+		return mergedBots;
+	}
+}
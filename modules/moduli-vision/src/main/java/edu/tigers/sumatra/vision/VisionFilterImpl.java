@@ -31,22 +31,23 @@ import edu.tigers.sumatra.vision.data.IBallModelIdentificationObserver;
 import edu.tigers.sumatra.vision.data.Viewport;
 import edu.tigers.sumatra.vision.kick.estimators.IBallModelIdentResult;
 import edu.tigers.sumatra.vision.tracker.BallTracker;
-import edu.tigers.sumatra.vision.tracker.RobotTracker;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 
 /**
@@ -61,6 +62,9 @@ public class VisionFilterImpl extends AVisionFilter
 	@Configurable(defValue = "0.0125", comment = "Publish frequency (requires restart)", unit = EConfigUnit.TIME_S)
 	private static double publishDt = 0.0125;
 
+	@Configurable(defValue = "false", comment = "Update the camera filters on one worker thread per camera and merge them at the publish rate (requires restart)")
+	private static boolean parallelCamFilters = false;
+
 	static
 	{
 		ConfigRegistration.registerClass("vision", VisionFilterImpl.class);
@@ -88,6 +92,12 @@ public class VisionFilterImpl extends AVisionFilter
 			CAM_FRAME_BUFFER_SIZE);
 	private final BlockingDeque<CamGeometry> camGeometryQueue = new LinkedBlockingDeque<>(1);
 
+	// only accessed by the processor thread in parallel mode
+	private final Map<Integer, ExecutorService> camWorkers = new HashMap<>();
+	private final List<Future<?>> pendingCamUpdates = new ArrayList<>();
+	private long nextMergeTimestamp = 0;
+	private boolean newCamFrames = false;
+
 
 	private void publish()
 	{
@@ -111,7 +121,7 @@ public class VisionFilterImpl extends AVisionFilter
 		}
 		if (scheduledExecutorService == null)
 		{
-			processCamDetectionFrame(camDetectionFrame);
+			processCamDetectionFrameSynchronously(camDetectionFrame);
 			publish();
 		} else
 		{
@@ -124,6 +134,23 @@ public class VisionFilterImpl extends AVisionFilter
 	}
 
 
+	private void processCamDetectionFrameSynchronously(CamDetectionFrame camDetectionFrame)
+	{
+		if (!parallelCamFilters)
+		{
+			processCamDetectionFrame(camDetectionFrame);
+			return;
+		}
+		try
+		{
+			processCamDetectionFrameParallel(camDetectionFrame);
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
 	private void processQueues()
 	{
 		while (scheduledExecutorService != null && !scheduledExecutorService.isShutdown())
@@ -178,31 +205,163 @@ public class VisionFilterImpl extends AVisionFilter
 		// update camera filter with new detection frame
 		camFilter.update(camDetectionFrame, lastFrame, virtualBallProducer.getVirtualBalls());
 
-		FilteredVisionFrame newFrame = constructFilteredVisionFrame(lastFrame);
-		virtualBallProducer.update(newFrame, getRobotInfoMap(), cams.values());
-		lastFrame = newFrame;
+		mergeCamFilters();
 
 		// update robot quality inspector
 		camDetectionFrame.getRobots().forEach(robotQualityInspector::addDetection);
 	}
 
 
-	private FilteredVisionFrame constructFilteredVisionFrame(FilteredVisionFrame lastFrame)
+	/**
+	 * Process the queues in parallel mode, see {@link #processCamDetectionFrameParallel(CamDetectionFrame)}
+	 */
+	private void processQueuesParallel()
+	{
+		nextMergeTimestamp = 0;
+		newCamFrames = false;
+		while (scheduledExecutorService != null && !scheduledExecutorService.isShutdown())
+		{
+			try
+			{
+				var camFrame = camDetectionFrameQueue.pollLast(15, TimeUnit.MILLISECONDS);
+				if (camFrame != null)
+				{
+					processCamDetectionFrameParallel(camFrame);
+				}
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			} catch (Throwable e)
+			{
+				log.error("Uncaught exception while processing queues", e);
+			}
+		}
+		shutdownCamWorkers();
+	}
+
+
+	/**
+	 * Each camera filter is updated by its own worker, in arrival order of the camera's frames.
+	 * The camera filters are merged at fixed points in frame time, every {@link #publishDt}: Before the first frame
+	 * at or after such a point is dispatched, all pending updates are awaited and merged.
+	 * Between two merges, the workers only see the state of the last merge. The merge points only depend on the
+	 * frame timestamps, so the tracker results only depend on the frames and their order, not on the wall clock
+	 * or the scheduling of the workers. The frames of a period are merged when the first frame of a later
+	 * period arrives.
+	 */
+	private void processCamDetectionFrameParallel(CamDetectionFrame camDetectionFrame) throws InterruptedException
+	{
+		double frameDt = (lastFrame.getTimestamp() - camDetectionFrame.getTimestamp()) * 1e-9;
+		if (lastFrame.getTimestamp() != 0 && Math.abs(frameDt) > 1)
+		{
+			log.warn("Frame dt is {}s, resetting vision filter", String.format("%.2f", frameDt));
+			awaitCamUpdates();
+			onClearCamFrame();
+			nextMergeTimestamp = 0;
+			newCamFrames = false;
+		}
+
+		if (camDetectionFrame.getTimestamp() >= nextMergeTimestamp)
+		{
+			awaitCamUpdates();
+
+			CamGeometry geometry;
+			while ((geometry = camGeometryQueue.pollLast()) != null)
+			{
+				processGeometryFrame(geometry);
+			}
+
+			if (newCamFrames)
+			{
+				mergeCamFilters();
+				newCamFrames = false;
+			}
+			long publishDtNs = Math.max(1, (long) (publishDt * 1e9));
+			nextMergeTimestamp = (camDetectionFrame.getTimestamp() / publishDtNs + 1) * publishDtNs;
+		}
+
+		dispatchCamDetectionFrame(camDetectionFrame);
+		newCamFrames = true;
+	}
+
+
+	private void dispatchCamDetectionFrame(CamDetectionFrame camDetectionFrame)
 	{
-		// remove old camera filters (taking care of overflow in average())
-		long avgTimestamp = (long) (cams.values().stream()
-				.mapToDouble(c -> c.getTimestamp() / 1e9)
-				.average()
-				.orElse(0) * 1e9);
-		cams.values().removeIf(f -> Math.abs(avgTimestamp - f.getTimestamp()) / 1e9 > 0.5);
+		int camId = camDetectionFrame.getCameraId();
 
-		long timestamp = cams.values().stream().mapToLong(CamFilter::getTimestamp).max().orElse(lastFrame.getTimestamp());
+		// the viewport architect is shared by all cameras, so it is updated here
+		viewportArchitect.newDetectionFrame(camDetectionFrame);
 
-		// use newest timestamp to prevent negative delta time in filtered frames
-		timestamp = Math.max(lastFrame.getTimestamp(), timestamp);
+		var camFilter = cams.computeIfAbsent(camId, CamFilter::new);
+		var viewport = viewportArchitect.getViewport(camId);
+		var robotInfoMap = getRobotInfoMap();
+		var referenceFrame = lastFrame;
+		var virtualBalls = List.copyOf(virtualBallProducer.getVirtualBalls());
+
+		var worker = camWorkers.computeIfAbsent(camId, this::createCamWorker);
+		pendingCamUpdates.add(worker.submit(() -> {
+			camFilter.updateViewport(viewport);
+			camFilter.setRobotInfoMap(robotInfoMap);
+			camFilter.update(camDetectionFrame, referenceFrame, virtualBalls);
+		}));
+
+		// update robot quality inspector
+		camDetectionFrame.getRobots().forEach(robotQualityInspector::addDetection);
+	}
+
+
+	private ExecutorService createCamWorker(int camId)
+	{
+		return Executors.newSingleThreadExecutor(new NamedThreadFactory("VisionFilter Cam " + camId));
+	}
+
+
+	/**
+	 * Shut down the camera workers of the parallel camera filters.
+	 * This is done when the module stops. A filter that is used without being started must call this when done.
+	 * New workers are created with the next frame.
+	 */
+	public void shutdownCamWorkers()
+	{
+		camWorkers.values().forEach(ExecutorService::shutdown);
+		camWorkers.clear();
+		pendingCamUpdates.clear();
+	}
+
+
+	private void awaitCamUpdates() throws InterruptedException
+	{
+		for (Future<?> update : pendingCamUpdates)
+		{
+			try
+			{
+				update.get();
+			} catch (ExecutionException e)
+			{
+				log.error("Uncaught exception while updating camera filter", e.getCause());
+			}
+		}
+		pendingCamUpdates.clear();
+	}
+
+
+	private void mergeCamFilters()
+	{
+		FilteredVisionFrame newFrame = constructFilteredVisionFrame(lastFrame);
+		virtualBallProducer.update(newFrame, getRobotInfoMap(), cams.values());
+		lastFrame = newFrame;
+	}
+
+
+	private FilteredVisionFrame constructFilteredVisionFrame(FilteredVisionFrame lastFrame)
+	{
+		// remove old camera filters
+		CamFilterMerger.removeOutdatedCamFilters(cams.values());
+
+		long timestamp = CamFilterMerger.getTimestamp(cams.values(), lastFrame.getTimestamp());
 
 		// merge all camera filters (robots on multiple cams)
-		List<FilteredVisionBot> mergedRobots = mergeRobots(cams.values(), timestamp);
+		List<FilteredVisionBot> mergedRobots = CamFilterMerger.mergeRobots(cams.values(), timestamp);
 
 		// update robot quality inspector
 		robotQualityInspector.prune(timestamp);
@@ -258,25 +417,6 @@ public class VisionFilterImpl extends AVisionFilter
 	}
 
 
-	private List<FilteredVisionBot> mergeRobots(final Collection<CamFilter> camFilters, final long timestamp)
-	{
-		Map<BotID, List<RobotTracker>> trackersById = camFilters.stream()
-				.flatMap(f -> f.getValidRobots().values().stream())
-				// group trackers by BotID
-				.collect(Collectors.groupingBy(RobotTracker::getBotId));
-
-		List<FilteredVisionBot> mergedBots = new ArrayList<>();
-
-		// merge all trackers in each group and get filtered vision bot from it
-		for (Entry<BotID, List<RobotTracker>> entry : trackersById.entrySet())
-		{
-			mergedBots.add(RobotTracker.mergeRobotTrackers(entry.getKey(), entry.getValue(), timestamp));
-		}
-
-		return mergedBots;
-	}
-
-
 	private FilteredVisionBall selectAndMergeBall(
 			Collection<CamFilter> camFilters,
 			long timestamp,
@@ -302,7 +442,8 @@ public class VisionFilterImpl extends AVisionFilter
 	@Override
 	public void onNewCameraGeometry(final CamGeometry geometry)
 	{
-		if (scheduledExecutorService == null)
+		// in parallel mode, the geometry is processed at the next merge, when no camera filter is updated
+		if (scheduledExecutorService == null && !parallelCamFilters)
 		{
 			processGeometryFrame(geometry);
 		} else
@@ -353,10 +494,11 @@ public class VisionFilterImpl extends AVisionFilter
 		{
 			scheduledExecutorService = Executors
 					.newSingleThreadScheduledExecutor(new NamedThreadFactory("VisionFilter Publisher"));
-			new Thread(this::processQueues, "VisionFilter Processor").start();
+			new Thread(parallelCamFilters ? this::processQueuesParallel : this::processQueues, "VisionFilter Processor")
+					.start();
 			scheduledExecutorService
 					.scheduleAtFixedRate(() -> Safe.run(this::publish), 0, (long) (publishDt * 1e9), TimeUnit.NANOSECONDS);
-			log.debug("Using threaded VisionFilter");
+			log.debug("Using threaded VisionFilter (parallel camera filters: {})", parallelCamFilters);
 		}
 	}
 
@@ -372,9 +514,21 @@ public class VisionFilterImpl extends AVisionFilter
 			scheduledExecutorService = null;
 			camDetectionFrameQueue.clear();
 			camGeometryQueue.clear();
+		} else
+		{
+			// the camera workers of the processor thread are shut down by that thread
+			try
+			{
+				awaitCamUpdates();
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			shutdownCamWorkers();
 		}
 		viewportArchitect.removeObserver(this);
 		ballFilterPreprocessor.removeObserver(this);
+		ballFilterPreprocessor.shutdown();
 		onClearCamFrame();
 	}
 
@@ -0,0 +1,183 @@
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import edu.tigers.sumatra.cam.data.CamBall;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import edu.tigers.sumatra.vision.data.FilteredVisionBot;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Runs the fits of a kick estimator asynchronously on a solver pool.
+ * <p>
+ * At most one fit per estimator is running at a time. Cam balls that arrive during a fit are collected
+ * and added in one batch with the next fit. The estimator instance is kept, so its solvers continue from their
+ * previous solution. The fit result and the shapes are taken from the latest finished fit, so they may be stale.
+ * The wrapped estimator is only accessed while no fit is running.
+ * If the solver pool rejects a fit, e.g. because it was shut down, the fit runs on the calling thread.
+ */
+public class AsyncKickEstimator implements IKickEstimator
+{
+	private static final Logger log = LogManager.getLogger(AsyncKickEstimator.class.getName());
+
+	private final IKickEstimator estimator;
+	private final Executor executor;
+	private final LatencyHistogram fitTime;
+
+	private final List<CamBall> pendingCamBalls = new ArrayList<>();
+	private CompletableFuture<Void> fit = CompletableFuture.completedFuture(null);
+	private long lastCamBallTimestamp;
+
+	@SuppressWarnings("java:S3077") // FinishedFit is immutable
+	private volatile FinishedFit finishedFit;
+
+
+	/**
+	 * @param estimator the estimator to run asynchronously
+	 * @param executor  the solver pool
+	 * @param fitTime   receives the duration of each fit
+	 */
+	public AsyncKickEstimator(final IKickEstimator estimator, final Executor executor, final LatencyHistogram fitTime)
+	{
+		this.estimator = estimator;
+		this.executor = executor;
+		this.fitTime = fitTime;
+		finishedFit = new FinishedFit(estimator.getFitResult().orElse(null), estimator.getShapes(), 0);
+	}
+
+
+	@Override
+	public void addCamBall(final CamBall record)
+	{
+		pendingCamBalls.add(record);
+		lastCamBallTimestamp = record.getTimestamp();
+		startFit();
+	}
+
+
+	/**
+	 * Wait for the running fit until the given deadline. Cam balls that arrived in the meantime are fitted
+	 * as well, as long as the deadline is not reached.
+	 *
+	 * @param deadline the deadline from {@link System#nanoTime()}
+	 * @return true, if all cam balls are fitted
+	 */
+	public boolean awaitFit(final long deadline)
+	{
+		while (true)
+		{
+			try
+			{
+				fit.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e)
+			{
+				return false;
+			} catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e)
+			{
+				log.warn("Kick estimator fit failed", e.getCause());
+			}
+			if (pendingCamBalls.isEmpty())
+			{
+				return true;
+			}
+			startFit();
+		}
+	}
+
+
+	/**
+	 * @return the time between the latest added cam ball and the latest cam ball of the finished fit [ns]
+	 */
+	public long getStaleness()
+	{
+		long fitTimestamp = finishedFit.lastCamBallTimestamp();
+		return fitTimestamp == 0 ? 0 : lastCamBallTimestamp - fitTimestamp;
+	}
+
+
+	private void startFit()
+	{
+		if (!fit.isDone() || pendingCamBalls.isEmpty())
+		{
+			return;
+		}
+		List<CamBall> camBalls = List.copyOf(pendingCamBalls);
+		pendingCamBalls.clear();
+		Runnable task = () -> fit(camBalls);
+		try
+		{
+			fit = CompletableFuture.runAsync(task, executor);
+		} catch (RejectedExecutionException e)
+		{
+			log.debug("Solver pool rejected the kick estimator fit, fitting synchronously", e);
+			task.run();
+		}
+	}
+
+
+	private void fit(final List<CamBall> camBalls)
+	{
+		long tStart = System.nanoTime();
+		estimator.addCamBalls(camBalls);
+		fitTime.recordSince(tStart);
+		finishedFit = new FinishedFit(estimator.getFitResult().orElse(null), estimator.getShapes(),
+				camBalls.getLast().getTimestamp());
+	}
+
+
+	@Override
+	public Optional<KickFitResult> getFitResult()
+	{
+		return Optional.ofNullable(finishedFit.fitResult());
+	}
+
+
+	@Override
+	public boolean isDone(final List<FilteredVisionBot> mergedRobots, final long timestamp)
+	{
+		// the estimator is busy, decide with the next finished fit
+		return fit.isDone() && estimator.isDone(mergedRobots, timestamp);
+	}
+
+
+	@Override
+	public List<IDrawableShape> getShapes()
+	{
+		return finishedFit.shapes();
+	}
+
+
+	@Override
+	public EKickEstimatorType getType()
+	{
+		return estimator.getType();
+	}
+
+
+	@Override
+	public List<IBallModelIdentResult> getModelIdentResult()
+	{
+		// only called, once this estimator is done and thus idle
+		return estimator.getModelIdentResult();
+	}
+
+
+	private record FinishedFit(KickFitResult fitResult, List<IDrawableShape> shapes, long lastCamBallTimestamp)
+	{
+	}
+}
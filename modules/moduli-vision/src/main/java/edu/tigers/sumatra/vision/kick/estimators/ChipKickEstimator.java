@@ -162,8 +162,23 @@ public class ChipKickEstimator implements IKickEstimator
 	@Override
 	public void addCamBall(final CamBall newRecord)
 	{
-		records.add(newRecord);
-		allRecords.add(newRecord);
+		addCamBalls(List.of(newRecord));
+	}
+
+
+	@Override
+	public void addCamBalls(final List<CamBall> newRecords)
+	{
+		for (CamBall newRecord : newRecords)
+		{
+			records.add(newRecord);
+			allRecords.add(newRecord);
+
+			if (records.size() >= minRecords)
+			{
+				pruneRecords();
+			}
+		}
 
 		if (records.size() < minRecords)
 		{
@@ -175,8 +190,6 @@ public class ChipKickEstimator implements IKickEstimator
 			return;
 		}
 
-		pruneRecords();
-
 		Optional<KickSolverResult> optSolverResult = runSolvers();
 
 		if (optSolverResult.isEmpty())
@@ -21,6 +21,18 @@ public interface IKickEstimator
 	void addCamBall(final CamBall record);
 	
 	
+	/**
+	 * Add multiple internal cam balls to the estimator.
+	 * Estimators may override this to update their fit only once for all cam balls.
+	 *
+	 * @param records
+	 */
+	default void addCamBalls(final List<CamBall> records)
+	{
+		records.forEach(this::addCamBall);
+	}
+	
+	
 	/**
 	 * Get estimator's fit result.
 	 * 
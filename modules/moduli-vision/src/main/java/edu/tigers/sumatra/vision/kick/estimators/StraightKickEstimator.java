@@ -202,10 +202,20 @@ public class StraightKickEstimator implements IKickEstimator
 	@Override
 	public void addCamBall(final CamBall newRecord)
 	{
-		records.add(newRecord);
-		allRecords.add(newRecord);
+		addCamBalls(List.of(newRecord));
+	}
+
 
-		pruneRecords();
+	@Override
+	public void addCamBalls(final List<CamBall> newRecords)
+	{
+		for (CamBall newRecord : newRecords)
+		{
+			records.add(newRecord);
+			allRecords.add(newRecord);
+
+			pruneRecords();
+		}
 
 		runSolvers();
 	}
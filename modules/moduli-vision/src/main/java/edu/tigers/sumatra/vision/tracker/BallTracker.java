@@ -4,7 +4,7 @@ import com.github.g3force.configurable.ConfigRegistration;
 import com.github.g3force.configurable.Configurable;
 import com.github.g3force.configurable.EConfigUnit;
 import edu.tigers.sumatra.cam.data.CamBall;
-import edu.tigers.sumatra.filter.tracking.TrackingFilterPosVel2D;
+import edu.tigers.sumatra.filter.tracking.FastTrackingFilterPosVel2D;
 import edu.tigers.sumatra.math.rectangle.IRectangle;
 import edu.tigers.sumatra.math.vector.IVector2;
 import edu.tigers.sumatra.math.vector.Vector2f;
@@ -24,7 +24,7 @@ import java.util.Optional;
  */
 public class BallTracker
 {
-	private final TrackingFilterPosVel2D filter;
+	private final FastTrackingFilterPosVel2D filter;
 
 
 	private long lastInFieldTimestamp;
@@ -66,7 +66,7 @@ public class BallTracker
 	 */
 	public BallTracker(final CamBall ball)
 	{
-		filter = new TrackingFilterPosVel2D(ball.getPos().getXYVector(), initialCovarianceXY, modelError, measError,
+		filter = new FastTrackingFilterPosVel2D(ball.getPos().getXYVector(), initialCovarianceXY, modelError, measError,
 				ball.getTimestamp()
 		);
 
@@ -90,7 +90,7 @@ public class BallTracker
 		}
 		RealVector initState = camBall.getPos().getXYVector().toRealVector()
 				.append(filtVel.toRealVector());
-		filter = new TrackingFilterPosVel2D(initState, initialCovarianceXY, modelError, measError,
+		filter = new FastTrackingFilterPosVel2D(initState, initialCovarianceXY, modelError, measError,
 				camBall.getTimestamp()
 		);
 
@@ -263,7 +263,7 @@ public class BallTracker
 	/**
 	 * @return the filter
 	 */
-	public TrackingFilterPosVel2D getFilter()
+	public FastTrackingFilterPosVel2D getFilter()
 	{
 		return filter;
 	}
@@ -7,8 +7,8 @@ import edu.tigers.sumatra.cam.data.CamRobot;
 import edu.tigers.sumatra.drawable.DrawableAnnotation;
 import edu.tigers.sumatra.drawable.DrawableBotShape;
 import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.filter.tracking.FastTrackingFilterPosVel2D;
 import edu.tigers.sumatra.filter.tracking.TrackingFilterPosVel1D;
-import edu.tigers.sumatra.filter.tracking.TrackingFilterPosVel2D;
 import edu.tigers.sumatra.ids.BotID;
 import edu.tigers.sumatra.math.AngleMath;
 import edu.tigers.sumatra.math.vector.IVector2;
@@ -30,7 +30,7 @@ import java.util.List;
  */
 public class RobotTracker
 {
-	private final TrackingFilterPosVel2D filterXY;
+	private final FastTrackingFilterPosVel2D filterXY;
 	private final TrackingFilterPosVel1D filterW;
 	private final BotID botId;
 	private final int camId;
@@ -80,7 +80,7 @@ public class RobotTracker
 	 */
 	public RobotTracker(final CamRobot robot)
 	{
-		filterXY = new TrackingFilterPosVel2D(robot.getPos(), initialCovarianceXY, modelErrorXY, measErrorXY,
+		filterXY = new FastTrackingFilterPosVel2D(robot.getPos(), initialCovarianceXY, modelErrorXY, measErrorXY,
 				robot.getTimestamp()
 		);
 		filterW = new TrackingFilterPosVel1D(robot.getOrientation(), initialCovarianceW, modelErrorW, measErrorW,
@@ -107,7 +107,7 @@ public class RobotTracker
 		RealVector xy = new ArrayRealVector(filtered.getPos().toArray(), filtered.getVel().multiplyNew(1000.0).toArray());
 		RealVector w = new ArrayRealVector(new double[] { filtered.getOrientation(), filtered.getAngularVel() });
 
-		filterXY = new TrackingFilterPosVel2D(xy, initialCovarianceXY, modelErrorXY, measErrorXY,
+		filterXY = new FastTrackingFilterPosVel2D(xy, initialCovarianceXY, modelErrorXY, measErrorXY,
 				robot.getTimestamp()
 		);
 		filterW = new TrackingFilterPosVel1D(w, initialCovarianceW, modelErrorW, measErrorW,
@@ -0,0 +1,113 @@
+package edu.tigers.sumatra.vision;
+
+import com.github.g3force.configurable.ConfigRegistration;
+import edu.tigers.sumatra.cam.CamDetectionConverter;
+import edu.tigers.sumatra.cam.data.CamDetectionFrame;
+import edu.tigers.sumatra.cam.proto.SslVisionDetection;
+import edu.tigers.sumatra.vision.data.FilteredVisionFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class VisionFilterImplTest
+{
+	private static final int NUM_CAMS = 4;
+	private static final int NUM_FRAMES_PER_CAM = 300;
+	private static final int NUM_ROBOTS = 6;
+
+
+	@BeforeEach
+	void setUp()
+	{
+		ConfigRegistration.overrideConfig(VisionFilterImpl.class, "vision", "parallelCamFilters", "true");
+	}
+
+
+	@AfterEach
+	void tearDown()
+	{
+		ConfigRegistration.overrideConfig(VisionFilterImpl.class, "vision", "parallelCamFilters", "false");
+	}
+
+
+	@Test
+	void testParallelCamFiltersAreDeterministic()
+	{
+		List<CamDetectionFrame> camFrames = createCamFrames();
+
+		List<FilteredVisionFrame> first = run(camFrames);
+		List<FilteredVisionFrame> second = run(camFrames);
+
+		assertThat(first).hasSameSizeAs(camFrames);
+		assertThat(first.stream().map(FilteredVisionFrame::getTimestamp).distinct().count()).isGreaterThan(1);
+		for (int i = 0; i < first.size(); i++)
+		{
+			assertThat(second.get(i).getTimestamp()).isEqualTo(first.get(i).getTimestamp());
+			assertThat(second.get(i).getBall()).isEqualTo(first.get(i).getBall());
+			assertThat(second.get(i).getBots()).isEqualTo(first.get(i).getBots());
+		}
+	}
+
+
+	private List<FilteredVisionFrame> run(List<CamDetectionFrame> camFrames)
+	{
+		List<FilteredVisionFrame> frames = new ArrayList<>();
+		VisionFilterImpl visionFilter = new VisionFilterImpl();
+		visionFilter.getFilteredVisionFrame().subscribe("test", frames::add);
+		try
+		{
+			camFrames.forEach(visionFilter::onNewCamDetectionFrame);
+		} finally
+		{
+			visionFilter.shutdownCamWorkers();
+		}
+		return frames;
+	}
+
+
+	/**
+	 * Robots and a ball moving over the field, seen by cameras with slightly different frame times
+	 */
+	private static List<CamDetectionFrame> createCamFrames()
+	{
+		CamDetectionConverter converter = new CamDetectionConverter();
+		List<CamDetectionFrame> frames = new ArrayList<>();
+		for (int i = 0; i < NUM_FRAMES_PER_CAM; i++)
+		{
+			for (int cam = 0; cam < NUM_CAMS; cam++)
+			{
+				double t = 1 + i / 60.0 + cam * 0.003;
+				var detection = SslVisionDetection.SSL_DetectionFrame.newBuilder()
+						.setFrameNumber(i)
+						.setTCapture(t)
+						.setTSent(t)
+						.setCameraId(cam)
+						.addBalls(SslVisionDetection.SSL_DetectionBall.newBuilder()
+								.setConfidence(1)
+								.setX((float) (1000 * t - 2000))
+								.setY(200)
+								.setPixelX(0)
+								.setPixelY(0));
+				for (int id = 0; id < NUM_ROBOTS; id++)
+				{
+					detection.addRobotsYellow(SslVisionDetection.SSL_DetectionRobot.newBuilder()
+							.setConfidence(1)
+							.setRobotId(id)
+							.setX((float) (500 * id - 1500 + 300 * Math.sin(t + id)))
+							.setY((float) (-1000 + 100 * id * t))
+							.setOrientation((float) t)
+							.setPixelX(0)
+							.setPixelY(0));
+				}
+				frames.add(converter.convertDetectionFrame(detection.build()));
+			}
+		}
+		return frames;
+	}
+}
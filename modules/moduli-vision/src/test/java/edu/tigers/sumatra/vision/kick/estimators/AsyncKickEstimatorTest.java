@@ -0,0 +1,153 @@
+package edu.tigers.sumatra.vision.kick.estimators;
+
+import edu.tigers.sumatra.cam.data.CamBall;
+import edu.tigers.sumatra.drawable.IDrawableShape;
+import edu.tigers.sumatra.math.vector.IVector2;
+import edu.tigers.sumatra.math.vector.Vector2;
+import edu.tigers.sumatra.math.vector.Vector3;
+import edu.tigers.sumatra.time.LatencyHistogram;
+import edu.tigers.sumatra.vision.data.FilteredVisionBot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class AsyncKickEstimatorTest
+{
+	private static final int NUM_CAM_BALLS = 100;
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+
+	@AfterEach
+	void tearDown()
+	{
+		pool.shutdownNow();
+	}
+
+
+	@Test
+	void testAsyncFitMatchesSyncFit()
+	{
+		IKickEstimator syncEstimator = new FakeKickEstimator();
+		AsyncKickEstimator asyncEstimator = new AsyncKickEstimator(new FakeKickEstimator(), pool,
+				new LatencyHistogram());
+
+		for (int i = 0; i < NUM_CAM_BALLS; i++)
+		{
+			CamBall camBall = camBall(i);
+			syncEstimator.addCamBall(camBall);
+			asyncEstimator.addCamBall(camBall);
+		}
+
+		assertThat(asyncEstimator.awaitFit(System.nanoTime() + TimeUnit.SECONDS.toNanos(5))).isTrue();
+		assertThat(asyncEstimator.getFitResult()).isPresent().isEqualTo(syncEstimator.getFitResult());
+		assertThat(asyncEstimator.getStaleness()).isZero();
+	}
+
+
+	@Test
+	void testFitAfterPoolShutdown()
+	{
+		IKickEstimator syncEstimator = new FakeKickEstimator();
+		AsyncKickEstimator asyncEstimator = new AsyncKickEstimator(new FakeKickEstimator(), pool,
+				new LatencyHistogram());
+
+		for (int i = 0; i < NUM_CAM_BALLS; i++)
+		{
+			if (i == NUM_CAM_BALLS / 2)
+			{
+				assertThat(asyncEstimator.awaitFit(System.nanoTime() + TimeUnit.SECONDS.toNanos(5))).isTrue();
+				pool.shutdown();
+			}
+			CamBall camBall = camBall(i);
+			syncEstimator.addCamBall(camBall);
+			asyncEstimator.addCamBall(camBall);
+		}
+
+		assertThat(asyncEstimator.awaitFit(System.nanoTime())).isTrue();
+		assertThat(asyncEstimator.getFitResult()).isPresent().isEqualTo(syncEstimator.getFitResult());
+	}
+
+
+	private static CamBall camBall(int i)
+	{
+		long timestamp = 1_000_000_000L + i * 16_000_000L;
+		return new CamBall(1, 0, Vector3.fromXYZ(10.0 * i, 0.5 * i * i, 0), Vector2.zero(), timestamp, 0, i);
+	}
+
+
+	/**
+	 * Deterministic estimator whose fit depends on all cam balls and their order
+	 */
+	private static class FakeKickEstimator implements IKickEstimator
+	{
+		private final List<IVector2> positions = new ArrayList<>();
+		private long firstTimestamp;
+		private double sum;
+
+
+		@Override
+		public void addCamBall(final CamBall record)
+		{
+			if (positions.isEmpty())
+			{
+				firstTimestamp = record.getTimestamp();
+			}
+			positions.add(record.getPos().getXYVector());
+			sum = sum * 0.9 + record.getPos().x();
+		}
+
+
+		@Override
+		public Optional<KickFitResult> getFitResult()
+		{
+			if (positions.isEmpty())
+			{
+				return Optional.empty();
+			}
+			return Optional.of(KickFitResult.builder()
+					.withGroundProjection(List.copyOf(positions))
+					.withAvgDistance(sum)
+					.withKickTimestamp(firstTimestamp)
+					.withSolverName("fake")
+					.build());
+		}
+
+
+		@Override
+		public boolean isDone(final List<FilteredVisionBot> mergedRobots, final long timestamp)
+		{
+			return false;
+		}
+
+
+		@Override
+		public List<IDrawableShape> getShapes()
+		{
+			return List.of();
+		}
+
+
+		@Override
+		public EKickEstimatorType getType()
+		{
+			return EKickEstimatorType.FLAT;
+		}
+
+
+		@Override
+		public List<IBallModelIdentResult> getModelIdentResult()
+		{
+			return List.of();
+		}
+	}
+}
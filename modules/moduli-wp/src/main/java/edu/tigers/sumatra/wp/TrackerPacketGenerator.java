@@ -12,7 +12,6 @@ import edu.tigers.sumatra.wp.data.KickedBall;
 import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
 import edu.tigers.sumatra.wp.proto.SslVisionDetectionTracked;
 import edu.tigers.sumatra.wp.proto.SslVisionWrapperTracked;
-import lombok.RequiredArgsConstructor;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -21,13 +20,12 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 
-@RequiredArgsConstructor
 public class TrackerPacketGenerator
 {
 	private final String sourceName;
 	private static final Set<SslVisionDetectionTracked.Capability> CAPABILITIES = new HashSet<>();
 	private int frameNumber = 0;
-	private final String uuid = UUID.randomUUID().toString();
+	private final String uuid;
 
 	static
 	{
@@ -36,6 +34,23 @@ public class TrackerPacketGenerator
 	}
 
 
+	public TrackerPacketGenerator(final String sourceName)
+	{
+		this(sourceName, UUID.randomUUID().toString());
+	}
+
+
+	/**
+	 * @param sourceName the source name of the tracker
+	 * @param uuid       a fixed uuid, e.g. for reproducible output
+	 */
+	public TrackerPacketGenerator(final String sourceName, final String uuid)
+	{
+		this.sourceName = sourceName;
+		this.uuid = uuid;
+	}
+
+
 	public SslVisionWrapperTracked.TrackerWrapperPacket generate(final SimpleWorldFrame swf)
 	{
 		SslVisionDetectionTracked.TrackedFrame.Builder frame = SslVisionDetectionTracked.TrackedFrame.newBuilder();
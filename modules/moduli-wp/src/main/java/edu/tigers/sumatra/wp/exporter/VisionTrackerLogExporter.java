@@ -0,0 +1,186 @@
+package edu.tigers.sumatra.wp.exporter;
+
+import edu.tigers.sumatra.cam.CamDetectionConverter;
+import edu.tigers.sumatra.cam.CamObjectFilter;
+import edu.tigers.sumatra.cam.SSLVisionCamGeometryTranslator;
+import edu.tigers.sumatra.cam.data.CamGeometry;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.gamelog.GameLogWriter;
+import edu.tigers.sumatra.gamelog.filters.MessageTypeFilter;
+import edu.tigers.sumatra.geometry.Geometry;
+import edu.tigers.sumatra.vision.VisionFilterImpl;
+import edu.tigers.sumatra.vision.data.FilteredVisionFrame;
+import edu.tigers.sumatra.wp.TrackerPacketGenerator;
+import edu.tigers.sumatra.wp.WorldInfoProcessor;
+import edu.tigers.sumatra.wp.data.SimpleWorldFrame;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.UUID;
+
+
+/**
+ * Replays the vision packets of a game log through the vision filter as fast as possible and writes
+ * the filtered frames as tracker packets ({@link EMessageType#SSL_VISION_TRACKER_2020}) to a new game log.
+ * <p>
+ * Unlike the {@link edu.tigers.sumatra.cam.GameLogCam}, this does not use the module system and does not wait
+ * for the playback speed. The vision filter is not started, so it processes each camera frame synchronously.
+ * The log timestamps are used as the clock, so the output only depends on the input log and the configuration
+ * (with synchronous kick estimators). Referee messages are copied to the output.
+ * <p>
+ * Note that the {@link Geometry} and the configurables are global state, so only one log should be exported
+ * at a time per process.
+ */
+@Log4j2
+public class VisionTrackerLogExporter
+{
+	private static final String SUBSCRIBER_ID = VisionTrackerLogExporter.class.getCanonicalName();
+
+	private final SSLVisionCamGeometryTranslator geometryTranslator = new SSLVisionCamGeometryTranslator();
+	private final CamDetectionConverter camDetectionConverter = new CamDetectionConverter();
+	private final CamObjectFilter camObjectFilter = new CamObjectFilter();
+	private final VisionFilterImpl visionFilter = new VisionFilterImpl();
+	private final WorldInfoProcessor worldInfoProcessor = new WorldInfoProcessor();
+	private final GameLogWriter writer = new GameLogWriter();
+	private final String sourceName;
+
+	private TrackerPacketGenerator trackerPacketGenerator;
+	private long currentTimestampNs;
+	private long numTrackedFrames = 0;
+
+
+	/**
+	 * @param sourceName the source name of the generated tracker packets
+	 */
+	public VisionTrackerLogExporter(final String sourceName)
+	{
+		this.sourceName = sourceName;
+		visionFilter.getFilteredVisionFrame().subscribe(SUBSCRIBER_ID, this::onNewFilteredVisionFrame);
+	}
+
+
+	/**
+	 * Export the tracker packets of the given game log. An exporter instance can only export a single log.
+	 *
+	 * @param logFile    the game log file (optionally gzipped)
+	 * @param outputFile the new game log file (gzipped, if it ends with .gz)
+	 * @return the number of written tracker packets
+	 * @throws IOException if the log does not exist or can not be read
+	 */
+	public long export(final Path logFile, final Path outputFile) throws IOException
+	{
+		long tStart = System.nanoTime();
+		// derive the uuid from the input, so that exporting the same log twice gives the same output
+		String uuid = UUID.nameUUIDFromBytes(logFile.getFileName().toString().getBytes(StandardCharsets.UTF_8))
+				.toString();
+		trackerPacketGenerator = new TrackerPacketGenerator(sourceName, uuid);
+
+		writer.openPath(outputFile.toAbsolutePath().toString());
+		if (!writer.isOpen())
+		{
+			throw new IllegalStateException("Could not open " + outputFile);
+		}
+		try (GameLogReader reader = new GameLogReader())
+		{
+			reader.addFilter(new MessageTypeFilter(EnumSet.of(EMessageType.SSL_VISION_2014, EMessageType.SSL_REFBOX_2013)));
+			reader.openFile(logFile.toAbsolutePath().toString());
+			for (int i = 0; i < reader.getNumMessages(); i++)
+			{
+				process(reader.getMessage(i));
+			}
+		} catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		} finally
+		{
+			writer.close();
+			visionFilter.shutdownCamWorkers();
+		}
+
+		double processingTime = (System.nanoTime() - tStart) / 1e9;
+		log.info("Exported {} tracker packets from {} to {} in {}s", numTrackedFrames, logFile, outputFile,
+				String.format("%.1f", processingTime));
+		return numTrackedFrames;
+	}
+
+
+	private void process(final GameLogMessage message)
+	{
+		currentTimestampNs = message.getTimestampNs();
+		try
+		{
+			switch (message.getType())
+			{
+				case SSL_VISION_2014 -> processVision(SslVisionWrapper.SSL_WrapperPacket.parseFrom(message.getData()));
+				case SSL_REFBOX_2013 -> writer.write(message);
+				default ->
+				{
+					// not exported
+				}
+			}
+		} catch (Exception e)
+		{
+			log.error("Could not process {} message at {}", message.getType(), message.getTimestampNs(), e);
+		}
+	}
+
+
+	private void processVision(final SslVisionWrapper.SSL_WrapperPacket sslPacket)
+	{
+		if (sslPacket.hasGeometry())
+		{
+			CamGeometry geometry = geometryTranslator.fromProtobuf(sslPacket.getGeometry());
+			Geometry.update(geometry);
+			visionFilter.onNewCameraGeometry(geometry);
+		}
+
+		if (sslPacket.hasDetection())
+		{
+			var camDetectionFrame = camDetectionConverter.convertDetectionFrame(sslPacket.getDetection());
+			visionFilter.onNewCamDetectionFrame(camObjectFilter.filter(camDetectionFrame));
+		}
+	}
+
+
+	private void onNewFilteredVisionFrame(final FilteredVisionFrame filteredVisionFrame)
+	{
+		SimpleWorldFrame swf = worldInfoProcessor.createSimpleWorldFrame(filteredVisionFrame);
+		visionFilter.setRobotInfoMap(worldInfoProcessor.getLastRobotInfo());
+
+		byte[] data = trackerPacketGenerator.generate(swf).toByteArray();
+		writer.write(new GameLogMessage(currentTimestampNs, EMessageType.SSL_VISION_TRACKER_2020, data));
+		numTrackedFrames++;
+	}
+
+
+	/**
+	 * Export the tracker packets of a single game log.
+	 * The process exits with a non-zero exit code, if the log can not be read.
+	 *
+	 * @param args the game log file, the output file and optionally the source name
+	 */
+	public static void main(final String[] args)
+	{
+		if (args.length < 2 || args.length > 3)
+		{
+			log.error("Usage: {} <game log> <output log> [source name]", VisionTrackerLogExporter.class.getSimpleName());
+			System.exit(2);
+		}
+		String sourceName = args.length == 3 ? args[2] : "TIGERs";
+		try
+		{
+			new VisionTrackerLogExporter(sourceName).export(Path.of(args[0]), Path.of(args[1]));
+		} catch (IOException e)
+		{
+			log.error("Could not export {}", args[0], e);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package edu.tigers.sumatra.wp.exporter;
+
+import edu.tigers.sumatra.cam.proto.SslVisionDetection;
+import edu.tigers.sumatra.cam.proto.SslVisionWrapper;
+import edu.tigers.sumatra.gamelog.EMessageType;
+import edu.tigers.sumatra.gamelog.GameLogMessage;
+import edu.tigers.sumatra.gamelog.GameLogReader;
+import edu.tigers.sumatra.gamelog.GameLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class VisionTrackerLogExporterTest
+{
+	private static final int NUM_FRAMES = 20;
+
+	@TempDir
+	private Path tmp;
+
+
+	@Test
+	void testValidLog() throws IOException
+	{
+		Path logFile = tmp.resolve("valid.log");
+		Path outputFile = tmp.resolve("tracker.log");
+		writeVisionLog(logFile);
+
+		long numTrackedFrames = new VisionTrackerLogExporter("test").export(logFile, outputFile);
+
+		assertThat(numTrackedFrames).isEqualTo(NUM_FRAMES);
+		try (GameLogReader reader = new GameLogReader())
+		{
+			reader.openFile(outputFile.toString());
+			assertThat(reader.getNumMessages()).isEqualTo(NUM_FRAMES);
+			assertThat(reader.getMessage(0).getType()).isEqualTo(EMessageType.SSL_VISION_TRACKER_2020);
+		}
+	}
+
+
+	@Test
+	void testMissingLog()
+	{
+		Path logFile = tmp.resolve("missing.log");
+		VisionTrackerLogExporter exporter = new VisionTrackerLogExporter("test");
+
+		assertThatThrownBy(() -> exporter.export(logFile, tmp.resolve("tracker.log"))).isInstanceOf(IOException.class);
+	}
+
+
+	@Test
+	void testCorruptLog() throws IOException
+	{
+		Path logFile = Files.writeString(tmp.resolve("corrupt.log"), "not a game log");
+		VisionTrackerLogExporter exporter = new VisionTrackerLogExporter("test");
+
+		assertThatThrownBy(() -> exporter.export(logFile, tmp.resolve("tracker.log"))).isInstanceOf(IOException.class);
+	}
+
+
+	private static void writeVisionLog(Path logFile)
+	{
+		GameLogWriter writer = new GameLogWriter();
+		writer.openPath(logFile.toString());
+		for (int i = 0; i < NUM_FRAMES; i++)
+		{
+			double tCapture = 1 + i * 0.016;
+			var detection = SslVisionDetection.SSL_DetectionFrame.newBuilder()
+					.setFrameNumber(i)
+					.setTCapture(tCapture)
+					.setTSent(tCapture)
+					.setCameraId(0)
+					.addBalls(SslVisionDetection.SSL_DetectionBall.newBuilder()
+							.setConfidence(1)
+							.setX(i * 10f)
+							.setY(0)
+							.setPixelX(0)
+							.setPixelY(0));
+			byte[] data = SslVisionWrapper.SSL_WrapperPacket.newBuilder().setDetection(detection).build().toByteArray();
+			writer.write(new GameLogMessage((long) (tCapture * 1e9), EMessageType.SSL_VISION_2014, data));
+		}
+		writer.close();
+	}
+}
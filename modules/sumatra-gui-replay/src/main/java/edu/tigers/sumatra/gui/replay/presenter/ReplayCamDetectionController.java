@@ -17,7 +17,8 @@ public class ReplayCamDetectionController implements IReplayController
 	@Override
 	public void update(final PersistenceDb db, final long sumatraTimestampNs)
 	{
-		PersistenceCamDetectionFrame camFrame = db.getTable(PersistenceCamDetectionFrame.class).get(sumatraTimestampNs);
+		PersistenceCamDetectionFrame camFrame = db.getTableCache(PersistenceCamDetectionFrame.class)
+				.get(sumatraTimestampNs);
 		if (camFrame != null)
 		{
 			for (IWorldFrameObserver vp : wFrameObservers)
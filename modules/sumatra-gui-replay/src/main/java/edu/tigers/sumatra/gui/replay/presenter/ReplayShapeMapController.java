@@ -21,7 +21,8 @@ public class ReplayShapeMapController implements IReplayController
 	@Override
 	public void update(final PersistenceDb db, final long sumatraTimestampNs)
 	{
-		PersistenceShapeMapFrame shapeMapFrame = db.getTable(PersistenceShapeMapFrame.class).get(sumatraTimestampNs);
+		PersistenceShapeMapFrame shapeMapFrame = db.getTableCache(PersistenceShapeMapFrame.class)
+				.get(sumatraTimestampNs);
 		if (shapeMapFrame != null)
 		{
 			var currentSources = shapeMapFrame.getShapeMaps().keySet();
@@ -19,7 +19,7 @@ public class ReplayWfwController implements IReplayController
 	@Override
 	public void update(final PersistenceDb db, final long sumatraTimestampNs)
 	{
-		WorldFrameWrapper wfw = db.getTable(WorldFrameWrapper.class).get(sumatraTimestampNs);
+		WorldFrameWrapper wfw = db.getTableCache(WorldFrameWrapper.class).get(sumatraTimestampNs);
 		if (wfw != null)
 		{
 			callback.accept(wfw);
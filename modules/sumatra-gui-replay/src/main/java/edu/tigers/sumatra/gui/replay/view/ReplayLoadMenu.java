@@ -21,7 +21,6 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.io.Serial;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -150,23 +149,21 @@ public class ReplayLoadMenu extends JMenu
 		JMenuItem rename = new JMenuItem("rename");
 		JMenuItem run = new JMenuItem("run");
 		JMenuItem delete = new JMenuItem("delete");
-		JMenuItem zip = new JMenuItem("zip");
+		JMenuItem compress = new JMenuItem("compress");
 
 		subsubMenu.add(run);
 		subsubMenu.add(rename);
-		subsubMenu.add(zip);
+		subsubMenu.add(compress);
 		subsubMenu.add(delete);
 
-		if (file.getName().endsWith(".zip"))
-		{
-			zip.setEnabled(false);
-		}
+		// legacy zip archives are extracted on open, only recording folders can be compressed
+		compress.setEnabled(file.isDirectory());
 
 
 		run.addActionListener(new RunActionListener(file.getAbsolutePath()));
 		rename.addActionListener(new RenameActionListener(file.getAbsolutePath()));
 		delete.addActionListener(new DeleteActionListener(file.getAbsolutePath()));
-		zip.addActionListener(new ZipActionListener(file.getAbsolutePath()));
+		compress.addActionListener(new CompressActionListener(file.getAbsolutePath()));
 	}
 
 
@@ -176,9 +173,6 @@ public class ReplayLoadMenu extends JMenu
 	public interface IReplayLoadMenuObserver
 	{
 		void onOpenReplay(PersistenceDb db);
-
-
-		void onCompressReplay(Path path);
 	}
 
 	private static class RecordDbFilter implements FileFilter
@@ -194,6 +188,7 @@ public class ReplayLoadMenu extends JMenu
 			String path = pathname.getAbsolutePath();
 			if (path.endsWith(".zip"))
 			{
+				// legacy zip archives are still extracted on open
 				// only show, if there is not the extracted folder already
 				String folderPath = path.substring(0, path.length() - 4);
 				return !new File(folderPath).isDirectory();
@@ -330,13 +325,13 @@ public class ReplayLoadMenu extends JMenu
 		}
 	}
 
-	private class ZipActionListener implements ActionListener
+	private static class CompressActionListener implements ActionListener
 	{
 
 		private final String filename;
 
 
-		public ZipActionListener(String filename)
+		public CompressActionListener(String filename)
 		{
 			this.filename = filename;
 		}
@@ -345,9 +340,24 @@ public class ReplayLoadMenu extends JMenu
 		@Override
 		public void actionPerformed(final ActionEvent event)
 		{
-			for (IReplayLoadMenuObserver observer : observers)
+			Thread compressThread = new Thread(this::compress, "CompressDatabase");
+			compressThread.start();
+		}
+
+
+		private void compress()
+		{
+			// replace the table data files by block-compressed .dbz files that can be replayed directly
+			PersistenceDb db = PersistenceDb.withCustomLocation(Paths.get(filename));
+			try
+			{
+				db.compress();
+			} catch (IOException e)
+			{
+				log.error("Replay compression not successful!", e);
+			} finally
 			{
-				observer.onCompressReplay(Paths.get(filename));
+				db.close();
 			}
 		}
 	}
@@ -0,0 +1,56 @@
+package edu.tigers.autoref;
+
+import edu.tigers.autoreferee.batch.AutoRefBatchRunner;
+import edu.tigers.autoreferee.batch.AutoRefBatchRunner.BatchResult;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+
+/**
+ * Headless batch evaluation of game logs with the AutoRef.
+ */
+@Log4j2
+@CommandLine.Command(name = "autoref-batch", description = "Evaluate game logs with the AutoRef")
+public final class AutoRefBatch implements Callable<Integer>
+{
+	@Setter(onMethod_ = @CommandLine.Parameters(
+			arity = "1..*",
+			description = "game log files or folders with game logs"
+	))
+	private List<Path> logs;
+
+	@Setter(onMethod_ = @CommandLine.Option(
+			names = { "-o", "--output" },
+			defaultValue = "data/autoref-batch",
+			description = "folder for the reports")
+	)
+	private Path outputFolder;
+
+	@Setter(onMethod_ = @CommandLine.Option(
+			names = { "-j", "--parallelism" },
+			description = "number of logs that are evaluated concurrently (default: number of CPUs)")
+	)
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+
+	public static void main(final String[] args)
+	{
+		System.exit(new CommandLine(new AutoRefBatch()).execute(args));
+	}
+
+
+	@Override
+	public Integer call() throws Exception
+	{
+		List<Path> logFiles = AutoRefBatchRunner.findLogFiles(logs);
+		List<BatchResult> results = new AutoRefBatchRunner(outputFolder, parallelism).run(logFiles);
+		long failed = results.stream().filter(r -> !r.isSuccess()).count();
+		log.info("Evaluated {} game logs, {} failed. Reports are in {}", results.size(), failed, outputFolder);
+		return failed == 0 ? 0 : 1;
+	}
+}